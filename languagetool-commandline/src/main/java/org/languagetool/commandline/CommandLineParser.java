@@ -49,6 +49,8 @@ class CommandLineParser {
         options.setVerbose(true);
       } else if (args[i].equals("--line-by-line")) {
         options.setLineByLine(true);
+      } else if (args[i].equals("--stream")) {
+        options.setStream(true);
       } else if (args[i].equals("--enable-temp-off")) {
         options.setEnableTempOff(true);
       } else if (args[i].equals("--level")) {
@@ -189,6 +191,10 @@ class CommandLineParser {
         throw new UnknownParameterException("Unknown parameter: " + args[i]);
       }
     }
+    if (options.isStream() && (options.isXmlFormat() || options.isJsonFormat() || options.isApplySuggestions() || options.isProfile()
+        || options.isTaggerOnly() || options.isBitext() || options.isLineByLine() || options.isAutoDetect() || options.isXmlFiltering())) {
+      throw new IllegalArgumentException("--stream can only be used to check text with the plain text output format");
+    }
     return options;
   }
 
@@ -241,6 +247,8 @@ class CommandLineParser {
             + "  --fasttextbinary FILE    fasttext executable (optional), see https://fasttext.cc/docs/en/support.html\n"
             + "  --xmlfilter              remove XML/HTML elements from input before checking (deprecated)\n"
             + "  --line-by-line           work on file line by line (for development, e.g. inside an IDE)\n"
+            + "  --stream                 check the text in chunks and print matches as they are found, so input of\n"
+            + "                           any size can be checked; only for the plain text output format\n"
             + "  --enable-temp-off        enable all temp_off rules (for testing and development)\n"
             + "  --level level            enable the given level (currently only 'PICKY')"
     );
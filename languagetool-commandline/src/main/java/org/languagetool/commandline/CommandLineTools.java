@@ -34,12 +34,15 @@ import org.languagetool.tools.RuleMatchesAsJsonSerializer;
 import org.languagetool.tools.StringTools;
 import org.languagetool.tools.Tools;
 
+import java.io.FilterReader;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.emptyList;
@@ -175,41 +178,145 @@ public final class CommandLineTools {
     ContextTools contextTools = new ContextTools();
     contextTools.setContextSize(contextSize);
     for (RuleMatch match : ruleMatches) {
-      Rule rule = match.getRule();
-      String output = i + prevMatches + ".) Line " + (match.getLine() + 1) + ", column "
-              + match.getColumn() + ", Rule ID: " + rule.getId();
-      if (rule instanceof AbstractPatternRule) {
-        AbstractPatternRule pRule = (AbstractPatternRule) rule;
-        if (pRule.getSubId() != null) {
-          output += "[" + pRule.getSubId() + "]";
-        }
+      printMatch(match, i + prevMatches, contextTools.getPlainTextContext(match.getFromPos(), match.getToPos(), contents), lang);
+      if (i < ruleMatches.size()) {
+        System.out.println();
       }
-      int priorityForId = lang.getRulePriority(match.getRule());
-      if (priorityForId != 0) {
-        output += " prio=" + priorityForId;
+      i++;
+    }
+  }
+
+  private static void printMatch(RuleMatch match, long number, String context, Language lang) {
+    Rule rule = match.getRule();
+    String output = number + ".) Line " + (match.getLine() + 1) + ", column "
+            + match.getColumn() + ", Rule ID: " + rule.getId();
+    if (rule instanceof AbstractPatternRule) {
+      AbstractPatternRule pRule = (AbstractPatternRule) rule;
+      if (pRule.getSubId() != null) {
+        output += "[" + pRule.getSubId() + "]";
       }
-      System.out.println(output);
-      String msg = lang.toAdvancedTypography(match.getMessage().replaceAll("<suggestion>", lang.getOpeningDoubleQuote()).replaceAll("</suggestion>", lang.getClosingDoubleQuote()));
-      System.out.println("Message: " + msg);
-      List<String> replacements = match.getSuggestedReplacements();
-      if (!replacements.isEmpty()) {
-        replacements = replacements.subList(0, Math.min(5, replacements.size()));
-        System.out.println("Suggestion: " + String.join("; ", replacements));
+    }
+    int priorityForId = lang.getRulePriority(match.getRule());
+    if (priorityForId != 0) {
+      output += " prio=" + priorityForId;
+    }
+    System.out.println(output);
+    String msg = lang.toAdvancedTypography(match.getMessage().replaceAll("<suggestion>", lang.getOpeningDoubleQuote()).replaceAll("</suggestion>", lang.getClosingDoubleQuote()));
+    System.out.println("Message: " + msg);
+    List<String> replacements = match.getSuggestedReplacements();
+    if (!replacements.isEmpty()) {
+      replacements = replacements.subList(0, Math.min(5, replacements.size()));
+      System.out.println("Suggestion: " + String.join("; ", replacements));
+    }
+    System.out.println(context);
+    if (match.getUrl() != null) {
+      System.out.println("More info: " + match.getUrl());
+    } else if (rule.getUrl() != null) {
+      System.out.println("More info: " + rule.getUrl());
+    }
+    List<Tag> tags = rule.getTags();
+    if (!tags.isEmpty()) {
+      System.out.println("Tags: " + tags);
+    }
+  }
+
+  /**
+   * Check text of any size from a reader and print the matches in the simple text
+   * format to System.out as soon as they are found. The text is checked in chunks
+   * (see {@link JLanguageTool#checkStream(Reader, org.languagetool.rules.RuleMatchListener, JLanguageTool.Mode, JLanguageTool.Level)}),
+   * so it doesn't need to fit into memory.
+   *
+   * @return Number of rule matches to the input text.
+   * @since 5.3
+   */
+  public static long checkStream(Reader reader, JLanguageTool lt, JLanguageTool.Level level) throws IOException {
+    long startTime = System.currentTimeMillis();
+    RecentTextReader recentTextReader = new RecentTextReader(reader);
+    ContextTools contextTools = new ContextTools();
+    contextTools.setContextSize(DEFAULT_CONTEXT_SIZE);
+    AtomicLong matchCount = new AtomicLong();
+    lt.checkStream(recentTextReader, match -> {
+      if (matchCount.get() > 0) {
+        System.out.println();
+      }
+      printMatch(match, matchCount.incrementAndGet(), recentTextReader.getContext(match, contextTools), lt.getLanguage());
+      recentTextReader.discardBefore(match.getFromPos() - DEFAULT_CONTEXT_SIZE);
+    }, JLanguageTool.Mode.ALL, level);
+    long time = System.currentTimeMillis() - startTime;
+    System.out.printf(Locale.ENGLISH, "Time: %dms for %d characters%n", time, recentTextReader.getPosition());
+    return matchCount.get();
+  }
+
+  /**
+   * Remembers the most recently read text, so the context of matches can be printed
+   * without keeping the complete text in memory.
+   */
+  private static class RecentTextReader extends FilterReader {
+
+    private static final int MAX_SIZE = 4_000_000;
+    private static final int MIN_DISCARD_SIZE = 64 * 1024;
+
+    private final StringBuilder text = new StringBuilder();
+    private long start;  // position of the first remembered character in the complete text
+
+    RecentTextReader(Reader in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int c = super.read();
+      if (c >= 0) {
+        text.append((char) c);
+        limitSize();
+      }
+      return c;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+      int n = super.read(cbuf, off, len);
+      if (n > 0) {
+        text.append(cbuf, off, n);
+        limitSize();
       }
-      System.out.println(contextTools.getPlainTextContext(match.getFromPos(), match.getToPos(), contents));
-      if (match.getUrl() != null) {
-        System.out.println("More info: " + match.getUrl());
-      } else if (rule.getUrl() != null) {
-        System.out.println("More info: " + rule.getUrl());
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      throw new IOException("skip() not supported");
+    }
+
+    long getPosition() {
+      return start + text.length();
+    }
+
+    String getContext(RuleMatch match, ContextTools contextTools) {
+      // one more character than needed on each side, so ContextTools knows whether to add '...':
+      int from = (int) Math.max(0, match.getFromPos() - DEFAULT_CONTEXT_SIZE - 1 - start);
+      int to = (int) Math.min(text.length(), match.getToPos() + DEFAULT_CONTEXT_SIZE + 1 - start);
+      if (match.getFromPos() < start || from >= to) {
+        return "(context not available)";
       }
-      List<Tag> tags = rule.getTags();
-      if (!tags.isEmpty()) {
-        System.out.println("Tags: " + tags);
+      return contextTools.getPlainTextContext((int) (match.getFromPos() - start - from), (int) (match.getToPos() - start - from),
+        text.substring(from, to));
+    }
+
+    void discardBefore(long pos) {
+      int n = (int) Math.min(text.length(), pos - start);
+      if (n >= MIN_DISCARD_SIZE) {
+        text.delete(0, n);
+        start += n;
       }
-      if (i < ruleMatches.size()) {
-        System.out.println();
+    }
+
+    private void limitSize() {
+      if (text.length() > MAX_SIZE) {
+        int n = text.length() - MAX_SIZE / 2;
+        text.delete(0, n);
+        start += n;
       }
-      i++;
     }
   }
 
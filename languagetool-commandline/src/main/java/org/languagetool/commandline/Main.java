@@ -168,6 +168,17 @@ class Main {
       } else {
         CommandLineTools.checkBitext(reader, srcLt, lt, bRules, options.isXmlFormat());
       }
+    } else if (options.isStream()) {
+      System.err.println(isStdIn(filename) ? "Working on STDIN..." : "Working on " + filename + "...");
+      if (options.isVerbose()) {
+        lt.setOutput(System.err);
+      }
+      try (InputStreamReader reader = getInputStreamReader(filename, encoding)) {
+        CommandLineTools.checkStream(reader, lt, options.getLevel());
+      }
+      if (options.isListUnknown()) {
+        System.out.println("Unknown words: " + lt.getUnknownWords());
+      }
     } else {
       String text = getFilteredText(filename, encoding, xmlFiltering);
       if (isStdIn(filename)) {
@@ -43,6 +43,10 @@ public class CommandLineParserTest {
       parser.parseOptions(new String[]{"--apply", "--taggeronly"});
       fail();
     } catch (IllegalArgumentException ignored) {}
+    try {
+      parser.parseOptions(new String[]{"--stream", "--json", "filename.txt"});
+      fail();
+    } catch (IllegalArgumentException ignored) {}
   }
 
   @Test
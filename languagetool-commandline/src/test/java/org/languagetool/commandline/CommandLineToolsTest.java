@@ -30,6 +30,7 @@ import javax.xml.parsers.ParserConfigurationException;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.StringReader;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -73,4 +74,20 @@ public class CommandLineToolsTest {
     assertEquals(1, matches);
   }
 
+  @Test
+  public void testCheckStream() throws IOException {
+    JLanguageTool tool = new JLanguageTool(TestTools.getDemoLanguage());
+    tool.disableRule("test_unification_with_negation");
+    tool.addRule(new WordRepeatRule(TestTools.getEnglishMessages(), TestTools.getDemoLanguage()));
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      text.append("Paragraph ").append(i).append(" is a problem problem.\n\n");
+    }
+    long matches = CommandLineTools.checkStream(new StringReader(text.toString()), tool, JLanguageTool.Level.DEFAULT);
+    String output = new String(this.out.toByteArray());
+    assertEquals(5000, matches);
+    assertTrue(output.contains("5000.) Line 9999, column 21, Rule ID: WORD_REPEAT_RULE"));
+    assertTrue(output.contains("...8 is a problem problem.  Paragraph 4999 is a problem problem.  \n"));
+  }
+
 }
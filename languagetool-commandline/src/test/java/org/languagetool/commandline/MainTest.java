@@ -180,6 +180,16 @@ public class MainTest extends AbstractSecurityTestCase {
     assertTrue(stdout.contains("1.) Line 1, column 9, Rule ID: EN_A_VS_AN"));
   }
 
+  @Test
+  public void testEnglishFileStream() throws Exception {
+    String[] args = {"-l", "en", "--stream", getTestFilePath()};
+
+    Main.main(args);
+    String stdout = new String(this.out.toByteArray());
+    assertTrue(stdout.contains("1.) Line 1, column 9, Rule ID: EN_A_VS_AN"));
+    assertTrue(stdout.contains("This is an test."));
+  }
+
   @Test
   public void testEnglishFileAutoDetect() throws Exception {
     String[] args = {"-adl", getTestFilePath()};
@@ -37,8 +37,9 @@ public final class AnalyzedSentence {
   private final AnalyzedTokenReadings[] nonBlankTokens;
   private final AnalyzedTokenReadings[] nonBlankPreDisambigTokens;
   private final int[] whPositions;  // maps positions without whitespace to positions that include whitespaces
-  private final Map<String, List<Integer>> tokenOffsets;
-  private final Map<String, List<Integer>> lemmaOffsets;
+  // built lazily, as sentences created during disambiguation are often replaced before they are queried:
+  private volatile Map<String, List<Integer>> tokenOffsets;
+  private volatile Map<String, List<Integer>> lemmaOffsets;
 
   /**
    * Creates an AnalyzedSentence from the given {@link AnalyzedTokenReadings}. Whitespace is also a token.
@@ -56,15 +57,13 @@ public final class AnalyzedSentence {
     this.whPositions = mapping;
     this.nonBlankTokens = getNonBlankReadings(tokens, whCounter, nonWhCounter, mapping).toArray(new AnalyzedTokenReadings[0]);
     this.nonBlankPreDisambigTokens = getNonBlankReadings(preDisambigTokens, whCounter, nonWhCounter, mapping).toArray(new AnalyzedTokenReadings[0]);
-    tokenOffsets = indexTokens(nonBlankTokens);
-    lemmaOffsets = indexLemmas(nonBlankTokens);
   }
 
   @NotNull
   private List<AnalyzedTokenReadings> getNonBlankReadings(AnalyzedTokenReadings[] tokens, int whCounter, int nonWhCounter, int[] mapping) {
     List<AnalyzedTokenReadings> l = new ArrayList<>();
     for (AnalyzedTokenReadings token : tokens) {
-      if (!token.isWhitespace() || token.isSentenceStart() || token.isSentenceEnd() || token.isParagraphEnd()) {
+      if (isNonBlank(token)) {
         l.add(token);
         mapping[nonWhCounter] = whCounter;
         nonWhCounter++;
@@ -74,14 +73,73 @@ public final class AnalyzedSentence {
     return l;
   }
 
+  private static boolean isNonBlank(AnalyzedTokenReadings token) {
+    return !token.isWhitespace() || token.isSentenceStart() || token.isSentenceEnd() || token.isParagraphEnd();
+  }
+
   private AnalyzedSentence(AnalyzedTokenReadings[] tokens, int[] mapping, AnalyzedTokenReadings[] nonBlankTokens, AnalyzedTokenReadings[] nonBlankPreDisambigTokens) {
     this.tokens = tokens;
     this.preDisambigTokens = tokens;
     this.whPositions = mapping;
     this.nonBlankTokens = nonBlankTokens;
     this.nonBlankPreDisambigTokens = nonBlankPreDisambigTokens;
-    tokenOffsets = indexTokens(nonBlankTokens);
-    lemmaOffsets = indexLemmas(nonBlankTokens);
+  }
+
+  private AnalyzedSentence(AnalyzedSentence template, AnalyzedTokenReadings[] tokens, AnalyzedTokenReadings[] preDisambigTokens) {
+    this.tokens = tokens;
+    this.preDisambigTokens = preDisambigTokens;
+    this.whPositions = template.whPositions;
+    int nonBlankCount = template.nonBlankTokens.length;
+    this.nonBlankTokens = new AnalyzedTokenReadings[nonBlankCount];
+    this.nonBlankPreDisambigTokens = new AnalyzedTokenReadings[nonBlankCount];
+    boolean sameTokenTexts = true;
+    for (int i = 0; i < nonBlankCount; i++) {
+      nonBlankTokens[i] = tokens[whPositions[i]];
+      nonBlankPreDisambigTokens[i] = preDisambigTokens[whPositions[i]];
+      sameTokenTexts &= nonBlankTokens[i].getToken().equals(template.nonBlankTokens[i].getToken());
+    }
+    if (sameTokenTexts) {
+      this.tokenOffsets = template.tokenOffsets;
+    }
+  }
+
+  /**
+   * Creates a sentence that differs from this one only in the readings of its tokens, as
+   * happens during disambiguation. If the tokens that are ignored as whitespace are the same
+   * as in this sentence, the mapping of positions and (if the token texts are unchanged) the
+   * token index of this sentence are reused.
+   * @since 5.3
+   */
+  @ApiStatus.Internal
+  public AnalyzedSentence withTokens(AnalyzedTokenReadings[] tokens, AnalyzedTokenReadings[] preDisambigTokens) {
+    if (tokens.length == this.tokens.length && preDisambigTokens.length == this.tokens.length) {
+      boolean sameStructure = true;
+      for (int i = 0; i < tokens.length && sameStructure; i++) {
+        boolean nonBlank = isNonBlank(this.tokens[i]);
+        sameStructure = isNonBlank(tokens[i]) == nonBlank && isNonBlank(preDisambigTokens[i]) == nonBlank
+          && isNonBlank(this.preDisambigTokens[i]) == nonBlank;
+      }
+      if (sameStructure) {
+        return new AnalyzedSentence(this, tokens, preDisambigTokens);
+      }
+    }
+    return new AnalyzedSentence(tokens, preDisambigTokens);
+  }
+
+  private Map<String, List<Integer>> tokenOffsets() {
+    Map<String, List<Integer>> result = tokenOffsets;
+    if (result == null) {
+      tokenOffsets = result = indexTokens(nonBlankTokens);
+    }
+    return result;
+  }
+
+  private Map<String, List<Integer>> lemmaOffsets() {
+    Map<String, List<Integer>> result = lemmaOffsets;
+    if (result == null) {
+      lemmaOffsets = result = indexLemmas(nonBlankTokens);
+    }
+    return result;
   }
 
   private static Map<String, List<Integer>> indexTokens(AnalyzedTokenReadings[] tokens) {
@@ -313,7 +371,7 @@ public final class AnalyzedSentence {
    * @since 2.4
    */
   public Set<String> getTokenSet() {
-    return tokenOffsets.keySet();
+    return tokenOffsets().keySet();
   }
 
   /**
@@ -322,7 +380,7 @@ public final class AnalyzedSentence {
    * @since 2.5
    */
   public Set<String> getLemmaSet() {
-    return lemmaOffsets.keySet();
+    return lemmaOffsets().keySet();
   }
 
   /**
@@ -333,7 +391,7 @@ public final class AnalyzedSentence {
   @Nullable
   @ApiStatus.Internal
   public List<Integer> getTokenOffsets(String token) {
-    return tokenOffsets.get(token);
+    return tokenOffsets().get(token);
   }
 
   /**
@@ -344,7 +402,7 @@ public final class AnalyzedSentence {
   @Nullable
   @ApiStatus.Internal
   public List<Integer> getLemmaOffsets(String token) {
-    return lemmaOffsets.get(token);
+    return lemmaOffsets().get(token);
   }
 
   @SuppressWarnings("ControlFlowStatementWithoutBraces")
@@ -0,0 +1,442 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import com.google.common.hash.HashCode;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.SuggestedReplacement;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * A second-level cache for {@link ResultCache} that keeps sentence check results in a memory-mapped,
+ * append-only file, so that the results survive a restart and can be shared by all JVMs
+ * on a host that use the same file. Entries are content-addressed, i.e. the key is a hash of the sentence,
+ * the languages, the rule configuration and the LanguageTool version (see {@link InputSentence#contentHash()}).
+ * When the file is full, the oldest half of the entries is dropped (compaction).
+ *
+ * <p>Use only one instance per file per JVM. The file is locked while writing, so several processes
+ * can write to the same file.</p>
+ * @since 5.3
+ */
+public class DiskResultCache implements Closeable {
+
+  private static final int MAGIC = 0x4c545243;  // "LTRC"
+  private static final int FORMAT_VERSION = 3;  // 2: key covers the user's speller words, 3: all match fields
+  // header: magic (int), format version (int), generation (long), end of data (long):
+  private static final int GENERATION_POS = 8;
+  private static final int END_POS = 16;
+  private static final int HEADER_SIZE = 64;
+  // record: payload length (int), key (2 longs), CRC32 of payload (int), payload:
+  private static final int RECORD_HEADER_SIZE = 24;
+
+  private final File file;
+  private final int capacity;
+  private final RandomAccessFile raf;
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final Map<HashCode, Integer> index = new ConcurrentHashMap<>();
+  private final Object scanLock = new Object();
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong writeCount = new AtomicLong();
+  private final AtomicLong compactionCount = new AtomicLong();
+
+  private volatile long indexedGeneration = -1;
+  private volatile int indexedUpTo = HEADER_SIZE;
+
+  /**
+   * @param file the cache file, will be created if it doesn't exist
+   * @param maxBytes the maximum size of the file in bytes (max. 2GB), must be the same for all
+   *                 processes sharing the file
+   */
+  public DiskResultCache(File file, long maxBytes) throws IOException {
+    if (maxBytes < HEADER_SIZE * 16 || maxBytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Disk cache size must be between " + HEADER_SIZE * 16 + " and " + Integer.MAX_VALUE + " bytes: " + maxBytes);
+    }
+    this.file = file;
+    this.capacity = (int) maxBytes;
+    this.raf = new RandomAccessFile(file, "rw");
+    this.channel = raf.getChannel();
+    try (FileLock ignored = channel.lock()) {
+      if (raf.length() < capacity) {
+        raf.setLength(capacity);
+      }
+      this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+      if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION || getEnd() > capacity) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, FORMAT_VERSION);
+        buffer.putLong(GENERATION_POS, 0);
+        buffer.putLong(END_POS, HEADER_SIZE);
+      }
+    }
+  }
+
+  /**
+   * Look up the matches stored for the given sentence.
+   * @param sentence the analyzed sentence, used to create the {@link RuleMatch}es
+   * @param ruleLookup maps a rule's full id (see {@link Rule#getFullId()}) to the rule, may return {@code null}
+   * @return the matches or {@code null} if there's no entry (or the entry refers to unknown rules)
+   */
+  @Nullable
+  List<RuleMatch> getIfPresent(InputSentence key, AnalyzedSentence sentence, Function<String, Rule> ruleLookup) {
+    byte[] payload = get(key.contentHash());
+    if (payload != null) {
+      try {
+        List<RuleMatch> matches = decode(payload, sentence, ruleLookup);
+        if (matches != null) {
+          hitCount.incrementAndGet();
+          return matches;
+        }
+      } catch (IOException | RuntimeException e) {
+        // broken or outdated entry - treat like a cache miss
+      }
+    }
+    missCount.incrementAndGet();
+    return null;
+  }
+
+  /**
+   * Store the matches, unless a match has lazy suggestions that haven't been computed yet
+   * (see {@link RuleMatch#hasComputedSuggestedReplacements()}) - storing those would compute them.
+   * @return whether the matches have been stored
+   */
+  boolean put(InputSentence key, List<RuleMatch> matches) {
+    for (RuleMatch match : matches) {
+      if (!match.hasComputedSuggestedReplacements()) {
+        return false;
+      }
+    }
+    try {
+      put(key.contentHash(), encode(matches));
+    } catch (IOException e) {
+      throw new RuntimeException("Could not write to disk cache " + file, e);
+    }
+    return true;
+  }
+
+  @Nullable
+  byte[] get(HashCode key) {
+    long generation = getGeneration();
+    if (generation % 2 != 0) {
+      return null;  // compaction in progress
+    }
+    Integer pos = lookup(key, generation);
+    if (pos == null) {
+      return null;
+    }
+    ByteBuffer buf = buffer.duplicate();
+    buf.position(pos);
+    int length = buf.getInt();
+    if (length < 0 || pos + RECORD_HEADER_SIZE + length > capacity) {
+      return null;
+    }
+    long hi = buf.getLong();
+    long lo = buf.getLong();
+    int crc = buf.getInt();
+    byte[] payload = new byte[length];
+    buf.get(payload);
+    if (getGeneration() != generation || !key.equals(toHashCode(hi, lo)) || crc != crc(payload)) {
+      return null;
+    }
+    return payload;
+  }
+
+  synchronized void put(HashCode key, byte[] payload) throws IOException {
+    if (key.bits() != 128) {
+      throw new IllegalArgumentException("Key must have 128 bits: " + key);
+    }
+    int recordSize = RECORD_HEADER_SIZE + payload.length;
+    if (recordSize > (capacity - HEADER_SIZE) / 2) {
+      return;  // too large, we'd need to compact all the time
+    }
+    byte[] keyBytes = key.asBytes();
+    try (FileLock ignored = channel.lock()) {
+      int end = getEnd();
+      if (end + recordSize > capacity) {
+        end = compact(end);
+      }
+      ByteBuffer buf = buffer.duplicate();
+      buf.position(end);
+      buf.putInt(payload.length);
+      buf.put(keyBytes, 0, 16);
+      buf.putInt(crc(payload));
+      buf.put(payload);
+      buffer.putLong(END_POS, end + recordSize);
+      writeCount.incrementAndGet();
+    }
+  }
+
+  /**
+   * Keep only the newest records that use up to half of the available space.
+   * Must be called with the file lock held.
+   */
+  private int compact(int end) {
+    int keepFrom = HEADER_SIZE;
+    int maxKeep = (capacity - HEADER_SIZE) / 2;
+    while (keepFrom < end && end - keepFrom > maxKeep) {
+      int length = buffer.getInt(keepFrom);
+      if (length < 0) {
+        keepFrom = end;  // broken data, drop everything
+        break;
+      }
+      keepFrom += RECORD_HEADER_SIZE + length;
+    }
+    keepFrom = Math.min(keepFrom, end);
+    long generation = getGeneration();
+    buffer.putLong(GENERATION_POS, generation + 1);  // odd generation: readers won't use the data
+    int newEnd = HEADER_SIZE + (end - keepFrom);
+    if (keepFrom > HEADER_SIZE) {
+      byte[] chunk = new byte[64 * 1024];
+      ByteBuffer src = buffer.duplicate();
+      ByteBuffer dest = buffer.duplicate();
+      src.position(keepFrom);
+      src.limit(end);
+      dest.position(HEADER_SIZE);
+      while (src.hasRemaining()) {
+        int len = Math.min(chunk.length, src.remaining());
+        src.get(chunk, 0, len);
+        dest.put(chunk, 0, len);
+      }
+    }
+    buffer.putLong(END_POS, newEnd);
+    buffer.putLong(GENERATION_POS, generation + 2);
+    compactionCount.incrementAndGet();
+    return newEnd;
+  }
+
+  @Nullable
+  private Integer lookup(HashCode key, long generation) {
+    Integer pos = index.get(key);
+    if (pos == null || generation != indexedGeneration) {
+      // entry might have been added by another thread or process since we last looked:
+      updateIndex(generation);
+      pos = index.get(key);
+    }
+    return pos;
+  }
+
+  private void updateIndex(long generation) {
+    synchronized (scanLock) {
+      if (generation != indexedGeneration) {
+        index.clear();
+        indexedUpTo = HEADER_SIZE;
+        indexedGeneration = generation;
+      }
+      int end = getEnd();
+      int pos = indexedUpTo;
+      while (pos + RECORD_HEADER_SIZE <= end) {
+        int length = buffer.getInt(pos);
+        if (length < 0 || pos + RECORD_HEADER_SIZE + length > end) {
+          break;  // inconsistent, probably a concurrent compaction
+        }
+        index.put(toHashCode(buffer.getLong(pos + 4), buffer.getLong(pos + 12)), pos);
+        pos += RECORD_HEADER_SIZE + length;
+      }
+      indexedUpTo = pos;
+    }
+  }
+
+  private long getGeneration() {
+    return buffer.getLong(GENERATION_POS);
+  }
+
+  private int getEnd() {
+    return (int) buffer.getLong(END_POS);
+  }
+
+  private static HashCode toHashCode(long hi, long lo) {
+    return HashCode.fromBytes(ByteBuffer.allocate(16).putLong(hi).putLong(lo).array());
+  }
+
+  private static int crc(byte[] data) {
+    CRC32 crc = new CRC32();
+    crc.update(data);
+    return (int) crc.getValue();
+  }
+
+  static byte[] encode(List<RuleMatch> matches) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(matches.size());
+      for (RuleMatch match : matches) {
+        writeString(out, match.getRule().getFullId());
+        out.writeInt(match.getFromPos());
+        out.writeInt(match.getToPos());
+        out.writeInt(match.getPatternFromPos());
+        out.writeInt(match.getPatternToPos());
+        writeString(out, match.getMessage());
+        writeString(out, match.getShortMessage());
+        writeString(out, match.getType().name());
+        writeString(out, match.getUrl() != null ? match.getUrl().toString() : null);
+        out.writeBoolean(match.isAutoCorrect());
+        out.writeInt(match.getLine());
+        out.writeInt(match.getEndLine());
+        out.writeInt(match.getColumn());
+        out.writeInt(match.getEndColumn());
+        writeFeatures(out, match.getFeatures());
+        List<SuggestedReplacement> replacements = match.getSuggestedReplacementObjects();
+        out.writeInt(replacements.size());
+        for (SuggestedReplacement replacement : replacements) {
+          writeString(out, replacement.getReplacement());
+          writeString(out, replacement.getShortDescription());
+          writeString(out, replacement.getSuffix());
+          writeString(out, replacement.getType().name());
+          Float confidence = replacement.getConfidence();
+          out.writeBoolean(confidence != null);
+          if (confidence != null) {
+            out.writeFloat(confidence);
+          }
+          writeFeatures(out, replacement.getFeatures());
+        }
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  @Nullable
+  static List<RuleMatch> decode(byte[] payload, AnalyzedSentence sentence, Function<String, Rule> ruleLookup) throws IOException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+      int count = in.readInt();
+      List<RuleMatch> matches = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        Rule rule = ruleLookup.apply(readString(in));
+        if (rule == null) {
+          return null;
+        }
+        int fromPos = in.readInt();
+        int toPos = in.readInt();
+        int patternFromPos = in.readInt();
+        int patternToPos = in.readInt();
+        String message = readString(in);
+        String shortMessage = readString(in);
+        RuleMatch match = new RuleMatch(rule, sentence, fromPos, toPos, patternFromPos, patternToPos, message, shortMessage);
+        match.setType(RuleMatch.Type.valueOf(readString(in)));
+        String url = readString(in);
+        if (url != null) {
+          match.setUrl(new URL(url));
+        }
+        match.setAutoCorrect(in.readBoolean());
+        match.setLine(in.readInt());
+        match.setEndLine(in.readInt());
+        match.setColumn(in.readInt());
+        match.setEndColumn(in.readInt());
+        match.setFeatures(readFeatures(in));
+        int replacementCount = in.readInt();
+        List<SuggestedReplacement> replacements = new ArrayList<>(replacementCount);
+        for (int j = 0; j < replacementCount; j++) {
+          SuggestedReplacement replacement = new SuggestedReplacement(readString(in), readString(in), readString(in));
+          replacement.setType(SuggestedReplacement.SuggestionType.valueOf(readString(in)));
+          if (in.readBoolean()) {
+            replacement.setConfidence(in.readFloat());
+          }
+          replacement.setFeatures(readFeatures(in));
+          replacements.add(replacement);
+        }
+        match.setSuggestedReplacementObjects(replacements);
+        matches.add(match);
+      }
+      return matches;
+    }
+  }
+
+  private static void writeFeatures(DataOutputStream out, SortedMap<String, Float> features) throws IOException {
+    out.writeInt(features.size());
+    for (Map.Entry<String, Float> entry : features.entrySet()) {
+      writeString(out, entry.getKey());
+      out.writeFloat(entry.getValue());
+    }
+  }
+
+  private static SortedMap<String, Float> readFeatures(DataInputStream in) throws IOException {
+    int count = in.readInt();
+    if (count == 0) {
+      return Collections.emptySortedMap();
+    }
+    SortedMap<String, Float> features = new TreeMap<>();
+    for (int i = 0; i < count; i++) {
+      features.put(readString(in), in.readFloat());
+    }
+    return features;
+  }
+
+  private static void writeString(DataOutputStream out, @Nullable String s) throws IOException {
+    if (s == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  @Nullable
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  public long hitCount() {
+    return hitCount.get();
+  }
+
+  public long missCount() {
+    return missCount.get();
+  }
+
+  public long writeCount() {
+    return writeCount.get();
+  }
+
+  public long compactionCount() {
+    return compactionCount.get();
+  }
+
+  /**
+   * @return the number of bytes currently used by entries
+   */
+  public long usedBytes() {
+    return getEnd() - HEADER_SIZE;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+    raf.close();
+  }
+
+}
@@ -0,0 +1,121 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.languagetool.rules.RuleMatch;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the heap memory retained by cache entries, assuming a 64-bit JVM with compressed
+ * object pointers. The numbers are estimates, not exact measurements. Objects shared between
+ * entries (like the {@link org.languagetool.rules.Rule} of a match or the sentence referenced by a match)
+ * are not counted. For internal use only.
+ * @since 5.3
+ */
+final class EntrySizeEstimator {
+
+  private static final int OBJECT_HEADER = 16;
+  private static final int REFERENCE = 4;
+  private static final int ANALYZED_TOKEN = 40;
+  private static final int ANALYZED_TOKEN_READINGS = 80;
+  private static final int ANALYZED_SENTENCE = 48;
+  private static final int RULE_MATCH = 120;
+  // per token, for the token and lemma offset maps of AnalyzedSentence (map node, list, Integer):
+  private static final int OFFSET_MAP_ENTRY = 2 * (32 + 40 + 16);
+  // we don't know the suggestions without computing them, as they may be lazy:
+  private static final int SUGGESTIONS_GUESS = 200;
+
+  private EntrySizeEstimator() {
+  }
+
+  static int estimate(InputSentence key) {
+    return 80 + string(key.getText());
+  }
+
+  static int estimate(SimpleInputSentence key) {
+    return 32 + string(key.getText());
+  }
+
+  static int estimate(AnalyzedSentence sentence) {
+    Map<Object, Boolean> seen = new IdentityHashMap<>();
+    AnalyzedTokenReadings[] tokens = sentence.getTokens();
+    long size = ANALYZED_SENTENCE
+      + 4L * array(tokens.length)                        // tokens, pre-disambiguation tokens and their non-blank variants
+      + array(tokens.length) + OBJECT_HEADER             // whitespace position mapping
+      + (long) tokens.length * OFFSET_MAP_ENTRY;
+    for (AnalyzedTokenReadings token : tokens) {
+      size += readings(token, seen);
+    }
+    for (AnalyzedTokenReadings token : sentence.getPreDisambigTokens()) {
+      size += readings(token, seen);
+    }
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  static int estimate(List<RuleMatch> matches) {
+    long size = OBJECT_HEADER + array(matches.size());
+    for (RuleMatch match : matches) {
+      size += RULE_MATCH + string(match.getMessage()) + string(match.getShortMessage()) + SUGGESTIONS_GUESS;
+    }
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  static int estimate(Map<String, List<RuleMatch>> remoteMatches) {
+    long size = OBJECT_HEADER + array(remoteMatches.size() * 2);
+    for (Map.Entry<String, List<RuleMatch>> entry : remoteMatches.entrySet()) {
+      size += 32 + string(entry.getKey()) + (entry.getValue() != null ? estimate(entry.getValue()) : 0);
+    }
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  private static long readings(AnalyzedTokenReadings readings, Map<Object, Boolean> seen) {
+    if (seen.put(readings, Boolean.TRUE) != null) {
+      return 0;
+    }
+    long size = ANALYZED_TOKEN_READINGS + array(readings.getReadingsLength()) + string(readings.getToken());
+    for (AnalyzedToken token : readings) {
+      if (seen.put(token, Boolean.TRUE) == null) {
+        size += ANALYZED_TOKEN;
+        // the token string is usually shared with the readings object, POS tags are often interned
+        size += unseenString(token.getLemma(), seen) + unseenString(token.getPOSTag(), seen);
+      }
+    }
+    return size;
+  }
+
+  private static int unseenString(String s, Map<Object, Boolean> seen) {
+    if (s == null || seen.put(s, Boolean.TRUE) != null) {
+      return 0;
+    }
+    return string(s);
+  }
+
+  private static int array(int length) {
+    return OBJECT_HEADER + length * REFERENCE;
+  }
+
+  private static int string(String s) {
+    // String object plus its char array; Latin-1 strings are smaller with Java 9+, but we stay on the safe side
+    return s == null ? 0 : 24 + OBJECT_HEADER + 2 * s.length();
+  }
+
+}
@@ -0,0 +1,115 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A compact, approximate counter of how often keys have been seen recently, as used by
+ * TinyLFU cache admission: a count-min sketch with four 4-bit counters per key. All counters
+ * are halved after a number of increments, so that old popularity fades.
+ * The counters are updated with compare-and-set instead of a lock, as every cache lookup
+ * increments them. Increments that race with halving may get lost, which is fine for an estimate.
+ * For internal use only.
+ * @since 5.3
+ */
+class FrequencySketch {
+
+  private static final int MAX_COUNT = 15;
+  private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+  private static final long RESET_MASK = 0x7777777777777777L;
+
+  private final AtomicLongArray table;
+  private final int tableMask;
+  private final int sampleSize;
+  private final AtomicInteger additions = new AtomicInteger();
+
+  /**
+   * @param expectedEntries the number of distinct keys the cache is expected to hold
+   */
+  FrequencySketch(int expectedEntries) {
+    int size = Integer.highestOneBit(Math.max(expectedEntries, 16) - 1) << 1;
+    table = new AtomicLongArray(size);
+    tableMask = size - 1;
+    sampleSize = 10 * size;
+  }
+
+  void increment(Object key) {
+    int hash = spread(key.hashCode());
+    boolean added = false;
+    for (int i = 0; i < SEEDS.length; i++) {
+      added |= incrementAt(indexOf(hash, i), counterOffset(hash, i));
+    }
+    // only the thread that reaches the sample size resets:
+    if (added && additions.incrementAndGet() == sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(int index, int offset) {
+    for (;;) {
+      long value = table.get(index);
+      if (((value >>> offset) & 0xfL) >= MAX_COUNT) {
+        return false;
+      }
+      if (table.compareAndSet(index, value, value + (1L << offset))) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * @return the estimated number of recent occurrences of the key, 0 to 15
+   */
+  int frequency(Object key) {
+    int hash = spread(key.hashCode());
+    int frequency = MAX_COUNT;
+    for (int i = 0; i < SEEDS.length; i++) {
+      int count = (int) ((table.get(indexOf(hash, i)) >>> counterOffset(hash, i)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  private void reset() {
+    for (int i = 0; i < table.length(); i++) {
+      table.updateAndGet(i, value -> (value >>> 1) & RESET_MASK);
+    }
+    additions.addAndGet(-sampleSize / 2);
+  }
+
+  private int indexOf(int hash, int i) {
+    long h = (hash + SEEDS[i]) * SEEDS[i];
+    h += h >>> 32;
+    return (int) h & tableMask;
+  }
+
+  private static int counterOffset(int hash, int i) {
+    // each long holds 16 counters, every hash function uses a different one
+    return (((hash >>> (i * 8)) & 3) << 2 | i) << 2;
+  }
+
+  private static int spread(int x) {
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    return (x >>> 16) ^ x;
+  }
+
+}
@@ -18,11 +18,14 @@
  */
 package org.languagetool;
 
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import org.languagetool.rules.CategoryId;
 
-import java.util.List;
-import java.util.Objects;
-import java.util.Set;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * For internal use only. Used as a key for caching check results.
@@ -75,6 +78,76 @@ class InputSentence {
     return text;
   }
   
+  /**
+   * A hash of all properties that is stable across JVMs and restarts, for use as a key
+   * in {@link DiskResultCache}. Also covers the LanguageTool version, so results of older
+   * versions are never used.
+   * @since 5.3
+   */
+  HashCode contentHash() {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    putString(hasher, JLanguageTool.VERSION);
+    putString(hasher, JLanguageTool.BUILD_DATE);
+    putString(hasher, text);
+    putString(hasher, lang.getShortCodeWithCountryAndVariant());
+    putString(hasher, motherTongue != null ? motherTongue.getShortCodeWithCountryAndVariant() : null);
+    putSorted(hasher, disabledRules);
+    putSorted(hasher, disabledRuleCategories);
+    putSorted(hasher, enabledRules);
+    putSorted(hasher, enabledRuleCategories);
+    putUserConfig(hasher, userConfig);
+    hasher.putInt(altLanguages != null ? altLanguages.hashCode() : 0);
+    putString(hasher, mode.name());
+    putString(hasher, level.name());
+    hasher.putLong(textSessionID != null ? textSessionID : -1);
+    return hasher.hash();
+  }
+
+  // UserConfig.hashCode() leaves out the speller words, but two configs must only get the
+  // same hash here if they are equal, as the disk cache doesn't compare the keys themselves:
+  private static void putUserConfig(Hasher hasher, UserConfig userConfig) {
+    if (userConfig == null) {
+      hasher.putInt(-1);
+      return;
+    }
+    hasher.putInt(userConfig.getMaxSpellingSuggestions());
+    putString(hasher, userConfig.getUserDictName());
+    Map<String, Integer> ruleValues = new TreeMap<>(userConfig.getConfigValues());
+    hasher.putInt(ruleValues.size());
+    for (Map.Entry<String, Integer> entry : ruleValues.entrySet()) {
+      putString(hasher, entry.getKey());
+      hasher.putInt(entry.getValue());
+    }
+    List<String> words = new ArrayList<>(userConfig.getAcceptedWords());
+    Collections.sort(words);
+    hasher.putInt(words.size());
+    for (String word : words) {
+      putString(hasher, word);
+    }
+    hasher.putBoolean(userConfig.filterDictionaryMatches());
+    putString(hasher, userConfig.getAbTest());
+  }
+
+  private static void putString(Hasher hasher, String s) {
+    if (s == null) {
+      hasher.putInt(-1);
+    } else {
+      hasher.putInt(s.length());
+      hasher.putString(s, StandardCharsets.UTF_8);
+    }
+  }
+
+  private static void putSorted(Hasher hasher, Set<?> set) {
+    if (set == null) {
+      hasher.putInt(-1);
+    } else {
+      hasher.putInt(set.size());
+      for (String s : set.stream().map(Object::toString).collect(Collectors.toCollection(TreeSet::new))) {
+        putString(hasher, s);
+      }
+    }
+  }
+
   @Override
   public boolean equals(Object o) {
     if (o == null) return false;
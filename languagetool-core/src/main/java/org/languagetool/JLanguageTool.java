@@ -18,6 +18,7 @@
  */
 package org.languagetool;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -38,10 +39,12 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.io.Reader;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.jar.Manifest;
 import java.util.regex.Matcher;
@@ -232,6 +235,11 @@ public class JLanguageTool {
 
   private static final List<File> temporaryFiles = new ArrayList<>();
 
+  // chunk sizes in characters and number of chunks analyzed in advance for checkStream():
+  private static final int STREAM_MIN_CHUNK_SIZE = 20_000;
+  private static final int STREAM_MAX_CHUNK_SIZE = 100_000;
+  private static final int STREAM_CHUNKS_AHEAD = 2;
+
   /**
    * Create a JLanguageTool and setup the built-in rules for the
    * given language and false friend rules for the text language / mother tongue pair.
@@ -909,8 +917,22 @@ public class JLanguageTool {
     }
 
     unknownWords = new HashSet<>();
+    if (remoteRulesThreadPool == null) {
+      // remote rules are checked sentence by sentence, so nothing needs all analyzed sentences before checking starts:
+      List<RuleMatch> ruleMatches = analyzeAndPerformCheck(sentences, rules, paraMode, annotatedText, listener, mode, level);
+      return filterRuleMatches(ruleMatches, annotatedText);
+    }
     List<AnalyzedSentence> analyzedSentences = analyzeSentences(sentences);
+    return checkAnalyzedSentences(annotatedText, sentences, analyzedSentences, rules, paraMode, listener, mode, level,
+      remoteRulesThreadPool, textSessionID);
+  }
 
+  /**
+   * Checks text that has already been split and analyzed, including remote rules and all filters.
+   */
+  private List<RuleMatch> checkAnalyzedSentences(AnnotatedText annotatedText, List<String> sentences, List<AnalyzedSentence> analyzedSentences,
+                                                 RuleSet rules, ParagraphHandling paraMode, RuleMatchListener listener, Mode mode, Level level,
+                                                 @Nullable ExecutorService remoteRulesThreadPool, @Nullable Long textSessionID) throws IOException {
     List<RuleMatch> remoteMatches = new LinkedList<>();
     List<FutureTask<RemoteRuleResult>> remoteRuleTasks = null;
     List<RemoteRule> remoteRules = new LinkedList<>();
@@ -940,7 +962,10 @@ public class JLanguageTool {
     }
 
     ruleMatches.addAll(remoteMatches);
+    return filterRuleMatches(ruleMatches, annotatedText);
+  }
 
+  private List<RuleMatch> filterRuleMatches(List<RuleMatch> ruleMatches, AnnotatedText annotatedText) {
     // rules can create matches with rule IDs different from the original rule (see e.g. RemoteRules)
     // so while we can't avoid execution of these rules, we still want disabling them to work
     // so do another pass with ignoreRule here
@@ -958,6 +983,124 @@ public class JLanguageTool {
     return ruleMatches;
   }
 
+  /**
+   * Checks text of any length, e.g. a large file, with a memory use that doesn't depend on the length
+   * of the text. The text is read in chunks that end at paragraph boundaries (a chunk is at least
+   * 20,000 characters long, see below for exceptions). Each chunk is checked
+   * like a text of its own, so text-level rules only consider the context of the current chunk.
+   * While a chunk is being checked, the following chunks are read and analyzed in the background.
+   * <p>Matches are passed to the listener as soon as their chunk has been checked, in the order of the text.
+   * Their positions, lines and columns are relative to the start of the complete text. Only if a text
+   * contains no paragraph breaks, chunks end at a line break after 100,000 characters
+   * or, for texts without line breaks, even inside a line. Positions are {@code int}s, so texts longer
+   * than {@link Integer#MAX_VALUE} characters cannot be checked completely.
+   * <p>The reader is not closed by this method.
+   *
+   * @param listener gets all matches; unlike the listener of {@code check()}, it only gets the final matches after filtering
+   * @return the number of matches found
+   * @since 5.3
+   */
+  public long checkStream(Reader reader, RuleMatchListener listener, Mode mode, Level level) throws IOException {
+    return checkStream(reader, listener, mode, level, STREAM_MIN_CHUNK_SIZE, STREAM_MAX_CHUNK_SIZE);
+  }
+
+  /**
+   * Like {@link #checkStream(Reader, RuleMatchListener, Mode, Level)}, with {@link Mode#ALL} and {@link Level#DEFAULT}.
+   * @since 5.3
+   */
+  public long checkStream(Reader reader, RuleMatchListener listener) throws IOException {
+    return checkStream(reader, listener, Mode.ALL, Level.DEFAULT);
+  }
+
+  long checkStream(Reader reader, RuleMatchListener listener, Mode mode, Level level, int minChunkSize, int maxChunkSize) throws IOException {
+    Objects.requireNonNull(listener);
+    TextChunkReader chunkReader = new TextChunkReader(reader, language.getSentenceTokenizer().singleLineBreaksMarksPara(),
+      minChunkSize, maxChunkSize);
+    RuleSet rules = getActiveRulesForLevel(level);
+    if (printStream != null) {
+      printIfVerbose(rules.allRules().size() + " rules activated for language " + language);
+    }
+    unknownWords = new HashSet<>();
+    Long textSessionID = userConfig != null ? userConfig.getTextSessionId() : null;
+    ExecutorService analyzer = Executors.newSingleThreadExecutor(
+      new ThreadFactoryBuilder().setNameFormat("lt-stream-analyzer-%d").setDaemon(true).build());
+    Deque<Future<AnalyzedChunk>> pending = new ArrayDeque<>();
+    long matchCount = 0;
+    try {
+      while (true) {
+        // reading happens here, so that the reader is only used by the calling thread:
+        while (pending.size() <= STREAM_CHUNKS_AHEAD) {
+          TextChunkReader.Chunk chunk = chunkReader.next();
+          if (chunk == null) {
+            break;
+          }
+          pending.add(analyzer.submit(() -> analyzeChunk(chunk)));
+        }
+        Future<AnalyzedChunk> future = pending.poll();
+        if (future == null || checkCancelledCallback != null && checkCancelledCallback.checkCancelled()) {
+          break;
+        }
+        AnalyzedChunk analyzed = getAnalyzedChunk(future);
+        AnnotatedText annotatedText = new AnnotatedTextBuilder().addText(analyzed.chunk.getText()).build();
+        List<RuleMatch> matches = checkAnalyzedSentences(annotatedText, analyzed.sentences, analyzed.analyzedSentences, rules,
+          ParagraphHandling.NORMAL, null, mode, level, null, textSessionID);
+        for (RuleMatch match : matches) {
+          listener.matchFound(shiftToChunk(match, analyzed.chunk));
+          matchCount++;
+        }
+      }
+    } finally {
+      analyzer.shutdownNow();
+    }
+    return matchCount;
+  }
+
+  private AnalyzedChunk analyzeChunk(TextChunkReader.Chunk chunk) throws IOException {
+    List<String> sentences = sentenceTokenize(chunk.getText());
+    return new AnalyzedChunk(chunk, sentences, analyzeSentences(sentences));
+  }
+
+  private static AnalyzedChunk getAnalyzedChunk(Future<AnalyzedChunk> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  private static RuleMatch shiftToChunk(RuleMatch match, TextChunkReader.Chunk chunk) {
+    int offset = Math.toIntExact(chunk.getOffset());
+    RuleMatch shifted = new RuleMatch(match);
+    shifted.setOffsetPosition(match.getFromPos() + offset, match.getToPos() + offset);
+    shifted.setPatternPosition(match.getPatternFromPos() + offset, match.getPatternToPos() + offset);
+    if (match.getLine() == 0) {
+      shifted.setColumn(match.getColumn() + chunk.getColumn());
+    }
+    if (match.getEndLine() == 0) {
+      shifted.setEndColumn(match.getEndColumn() + chunk.getColumn());
+    }
+    shifted.setLine(match.getLine() + chunk.getLine());
+    shifted.setEndLine(match.getEndLine() + chunk.getLine());
+    return shifted;
+  }
+
+  private static class AnalyzedChunk {
+    private final TextChunkReader.Chunk chunk;
+    private final List<String> sentences;
+    private final List<AnalyzedSentence> analyzedSentences;
+    AnalyzedChunk(TextChunkReader.Chunk chunk, List<String> sentences, List<AnalyzedSentence> analyzedSentences) {
+      this.chunk = chunk;
+      this.sentences = sentences;
+      this.analyzedSentences = analyzedSentences;
+    }
+  }
+
   private final Map<Level, RuleSet> ruleSetCache = new ConcurrentHashMap<>();
 
   private RuleSet getActiveRulesForLevel(Level level) {
@@ -1133,6 +1276,17 @@ public class JLanguageTool {
     return analyzedSentences;
   }
 
+  /**
+   * Analyzes the sentences and checks them like {@link #performCheck(List, List, RuleSet, ParagraphHandling, AnnotatedText, RuleMatchListener, Mode, Level, boolean)}
+   * with remote rules. Sub classes can override this to check sentences while later sentences are still being analyzed.
+   * @since 5.3
+   */
+  protected List<RuleMatch> analyzeAndPerformCheck(List<String> sentences, RuleSet ruleSet, ParagraphHandling paraMode,
+                                                   AnnotatedText annotatedText, RuleMatchListener listener, Mode mode, Level level) throws IOException {
+    List<AnalyzedSentence> analyzedSentences = analyzeSentences(sentences);
+    return performCheck(analyzedSentences, sentences, ruleSet, paraMode, annotatedText, listener, mode, level, true);
+  }
+
   @NotNull
   static AnalyzedSentence markAsParagraphEnd(AnalyzedSentence analyzedSentence) {
     AnalyzedTokenReadings[] anTokens = analyzedSentence.getTokens();
@@ -1185,19 +1339,29 @@ public class JLanguageTool {
   }
 
   protected final List<SentenceData> computeSentenceData(List<AnalyzedSentence> analyzedSentences, List<String> texts) {
-    int charCount = 0;
-    int lineCount = 0;
-    int columnCount = 1;
+    SentenceDataBuilder builder = new SentenceDataBuilder();
     List<SentenceData> result = new ArrayList<>(texts.size());
     for (int i = 0; i < texts.size(); i++) {
-      String sentence = texts.get(i);
-      result.add(new SentenceData(analyzedSentences.get(i), sentence, charCount, lineCount, columnCount));
+      result.add(builder.next(analyzedSentences.get(i), texts.get(i)));
+    }
+    return result;
+  }
+
+  /**
+   * Computes the {@link SentenceData} of consecutive sentences one after the other.
+   */
+  final class SentenceDataBuilder {
+    private int charCount = 0;
+    private int lineCount = 0;
+    private int columnCount = 1;
 
+    SentenceData next(AnalyzedSentence analyzedSentence, String sentence) {
+      SentenceData data = new SentenceData(analyzedSentence, sentence, charCount, lineCount, columnCount);
       charCount += sentence.length();
       lineCount += countLineBreaks(sentence);
       columnCount = processColumnChange(columnCount, sentence);
+      return data;
     }
-    return result;
   }
 
   private int processColumnChange(int columnCount, String sentence) {
@@ -1398,6 +1562,7 @@ public class JLanguageTool {
     if (cachedSentence != null) {
       return cachedSentence;
     } else {
+      long startTime = System.nanoTime();
       AnalyzedSentence raw = getRawAnalyzedSentence(sentence);
       AnalyzedSentence disambig = language.getDisambiguator().disambiguate(raw);
       AnalyzedSentence analyzedSentence = new AnalyzedSentence(disambig.getTokens(), raw.getTokens());
@@ -1405,7 +1570,7 @@ public class JLanguageTool {
         language.getPostDisambiguationChunker().addChunkTags(Arrays.asList(analyzedSentence.getTokens()));
       }
       if (cache != null) {
-        cache.put(cacheKey, analyzedSentence);
+        cache.put(cacheKey, analyzedSentence, System.nanoTime() - startTime);
       }
       return analyzedSentence;
     }
@@ -1690,6 +1855,16 @@ public class JLanguageTool {
     }
   }
 
+  /**
+   * The words checked and the matches found so far by the {@link TextCheckCallable}s that check
+   * one text in several parts, so that {@link #setMaxErrorsPerWordRate(float)} applies to the text
+   * checked so far, not just to the part.
+   */
+  static final class ErrorRateCounter {
+    private final AtomicInteger words = new AtomicInteger();
+    private final AtomicInteger matches = new AtomicInteger();
+  }
+
   class TextCheckCallable implements Callable<List<RuleMatch>> {
     private final RuleSet rules;
     private final boolean checkRemoteRules;
@@ -1699,10 +1874,20 @@ public class JLanguageTool {
     private final RuleMatchListener listener;
     private final Mode mode;
     private final Level level;
+    private final ErrorRateCounter errorRateCounter;
+    private Map<String, Rule> rulesByFullId;
 
     TextCheckCallable(RuleSet rules, List<SentenceData> sentences,
                       ParagraphHandling paraMode, AnnotatedText annotatedText,
                       RuleMatchListener listener, Mode mode, Level level, boolean checkRemoteRules) {
+      this(rules, sentences, paraMode, annotatedText, listener, mode, level, checkRemoteRules, new ErrorRateCounter());
+    }
+
+    TextCheckCallable(RuleSet rules, List<SentenceData> sentences,
+                      ParagraphHandling paraMode, AnnotatedText annotatedText,
+                      RuleMatchListener listener, Mode mode, Level level, boolean checkRemoteRules,
+                      ErrorRateCounter errorRateCounter) {
+      this.errorRateCounter = Objects.requireNonNull(errorRateCounter);
       this.rules = rules;
       this.checkRemoteRules = checkRemoteRules;
       this.sentences = Objects.requireNonNull(sentences);
@@ -1777,12 +1962,11 @@ public class JLanguageTool {
 
     private List<RuleMatch> getOtherRuleMatches() {
       List<RuleMatch> ruleMatches = new ArrayList<>();
-      int wordCounter = 0;
       for (SentenceData sentence : sentences) {
         if (checkCancelledCallback != null && checkCancelledCallback.checkCancelled()) {
           break;
         }
-        wordCounter += sentence.wordCount;
+        int wordCounter = errorRateCounter.words.addAndGet(sentence.wordCount);
         try {
           //comment in to trigger an exception via input text:
           //if (analyzedSentence.getText().contains("fakecrash")) {
@@ -1794,13 +1978,14 @@ public class JLanguageTool {
             cacheKey = new InputSentence(sentence.text, language, motherTongue,
                     disabledRules, disabledRuleCategories,
                     enabledRules, enabledRuleCategories, userConfig, altLanguages, mode, level);
-            sentenceMatches = cache.getIfPresent(cacheKey);
+            sentenceMatches = cache.getIfPresent(cacheKey, sentence.analyzed, this::getRuleByFullId);
           }
           if (sentenceMatches == null) {
+            long startTime = System.nanoTime();
             sentenceMatches = checkAnalyzedSentence(paraMode, rules.rulesForSentence(sentence.analyzed), sentence.analyzed, checkRemoteRules);
-          }
-          if (cache != null) {
-            cache.put(cacheKey, sentenceMatches);
+            if (cache != null) {
+              cache.put(cacheKey, sentenceMatches, System.nanoTime() - startTime);
+            }
           }
           if (!sentenceMatches.isEmpty()) {
             for (RuleMatch elem : sentenceMatches) {
@@ -1811,8 +1996,9 @@ public class JLanguageTool {
               }
             }
           }
-          float errorsPerWord = ruleMatches.size() / (float) wordCounter;
-          //System.out.println("errorPerWord " + errorsPerWord + " (matches: " + ruleMatches.size() + " / " + wordCounter + ")");
+          int matchCounter = errorRateCounter.matches.addAndGet(sentenceMatches.size());
+          float errorsPerWord = matchCounter / (float) wordCounter;
+          //System.out.println("errorPerWord " + errorsPerWord + " (matches: " + matchCounter + " / " + wordCounter + ")");
           if (maxErrorsPerWordRate > 0 && errorsPerWord > maxErrorsPerWordRate && wordCounter > 25) {
             //CommonWords commonWords = new CommonWords();
             throw new ErrorRateTooHighException("Text checking was stopped due to too many errors (more than " + String.format("%.0f", maxErrorsPerWordRate*100) +
@@ -1830,6 +2016,16 @@ public class JLanguageTool {
       return ruleMatches;
     }
 
+    private Rule getRuleByFullId(String fullId) {
+      if (rulesByFullId == null) {
+        rulesByFullId = new HashMap<>();
+        for (Rule rule : rules.allRules()) {
+          rulesByFullId.putIfAbsent(rule.getFullId(), rule);
+        }
+      }
+      return rulesByFullId.get(fullId);
+    }
+
     private LineColumnPosition findLineColumn(int offset) {
       if (sentences.isEmpty()) return new LineColumnPosition(0, 0);
 
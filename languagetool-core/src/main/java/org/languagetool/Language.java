@@ -69,13 +69,14 @@ public abstract class Language {
   private List<AbstractPatternRule> patternRules;
   private final AtomicBoolean noLmWarningPrinted = new AtomicBoolean();
 
-  private Disambiguator disambiguator;
-  private Tagger tagger;
-  private SentenceTokenizer sentenceTokenizer;
-  private Tokenizer wordTokenizer;
-  private Chunker chunker;
-  private Chunker postDisambiguationChunker;
-  private Synthesizer synthesizer;
+  // not synchronized, as these are needed for every sentence:
+  private final LazyComponent<Disambiguator> disambiguator = new LazyComponent<>(this::createDefaultDisambiguator);
+  private final LazyComponent<Tagger> tagger = new LazyComponent<>(this::createDefaultTagger);
+  private final LazyComponent<SentenceTokenizer> sentenceTokenizer = new LazyComponent<>(this::createDefaultSentenceTokenizer);
+  private final LazyComponent<Tokenizer> wordTokenizer = new LazyComponent<>(this::createDefaultWordTokenizer);
+  private final LazyComponent<Chunker> chunker = new LazyComponent<>(this::createDefaultChunker);
+  private final LazyComponent<Chunker> postDisambiguationChunker = new LazyComponent<>(this::createDefaultPostDisambiguationChunker);
+  private final LazyComponent<Synthesizer> synthesizer = new LazyComponent<>(this::createDefaultSynthesizer);
 
   /**
    * Get this language's character code, e.g. <code>en</code> for English.
@@ -313,7 +314,7 @@ public abstract class Language {
   }
 
   /**
-   * Creates language specific disambiguator. This function will be called each time in
+   * Creates language specific disambiguator. This function will be called once by
    * {@link #getDisambiguator()} if disambiguator is not set.
    */
   public Disambiguator createDefaultDisambiguator() {
@@ -323,25 +324,21 @@ public abstract class Language {
   /**
    * Get this language's part-of-speech disambiguator implementation.
    */
-  public synchronized Disambiguator getDisambiguator() {
-    if (disambiguator == null) {
-      disambiguator = createDefaultDisambiguator();
-    }
-
-    return disambiguator;
+  public Disambiguator getDisambiguator() {
+    return disambiguator.get();
   }
 
   /**
    * Set this language's part-of-speech disambiguator implementation.
    */
   public void setDisambiguator(Disambiguator disambiguator) {
-    this.disambiguator = disambiguator;
+    this.disambiguator.set(disambiguator);
   }
 
   /**
    * Creates language specific part-of-speech tagger. The tagger must not be {@code null},
    * but it can be a trivial pseudo-tagger that only assigns {@code null} tags.
-   * This function will be called each time in {@link #getTagger()} ()} if tagger is not set.
+   * This function will be called once by {@link #getTagger()} ()} if tagger is not set.
    */
   @NotNull
   public Tagger createDefaultTagger() {
@@ -352,22 +349,19 @@ public abstract class Language {
    * Get this language's part-of-speech tagger implementation.
    */
   @NotNull
-  public synchronized Tagger getTagger() {
-    if (tagger == null) {
-      tagger = createDefaultTagger();
-    }
-    return tagger;
+  public Tagger getTagger() {
+    return tagger.get();
   }
 
   /**
    * Set this language's part-of-speech tagger implementation.
    */
   public void setTagger(Tagger tagger) {
-    this.tagger = tagger;
+    this.tagger.set(tagger);
   }
 
   /**
-   * Creates language specific sentence tokenizer. This function will be called each time in
+   * Creates language specific sentence tokenizer. This function will be called once by
    * {@link #getSentenceTokenizer()} if sentence tokenizer is not set.
    */
   public SentenceTokenizer createDefaultSentenceTokenizer() {
@@ -377,23 +371,19 @@ public abstract class Language {
   /**
    * Get this language's sentence tokenizer implementation.
    */
-  public synchronized SentenceTokenizer getSentenceTokenizer() {
-    if (sentenceTokenizer == null) {
-      sentenceTokenizer = createDefaultSentenceTokenizer();
-    }
-
-    return sentenceTokenizer;
+  public SentenceTokenizer getSentenceTokenizer() {
+    return sentenceTokenizer.get();
   }
 
   /**
    * Set this language's sentence tokenizer implementation.
    */
   public void setSentenceTokenizer(SentenceTokenizer tokenizer) {
-    sentenceTokenizer = tokenizer;
+    this.sentenceTokenizer.set(tokenizer);
   }
 
   /**
-   * Creates language specific word tokenizer. This function will be called each time in
+   * Creates language specific word tokenizer. This function will be called once by
    * {@link #getWordTokenizer()} if word tokenizer is not set.
    */
   public Tokenizer createDefaultWordTokenizer() {
@@ -403,23 +393,19 @@ public abstract class Language {
   /**
    * Get this language's word tokenizer implementation.
    */
-  public synchronized Tokenizer getWordTokenizer() {
-    if (wordTokenizer == null) {
-      wordTokenizer = createDefaultWordTokenizer();
-    }
-
-    return wordTokenizer;
+  public Tokenizer getWordTokenizer() {
+    return wordTokenizer.get();
   }
 
   /**
    * Set this language's word tokenizer implementation.
    */
   public void setWordTokenizer(Tokenizer tokenizer) {
-    wordTokenizer = tokenizer;
+    this.wordTokenizer.set(tokenizer);
   }
 
   /**
-   * Creates language specific chunker. This function will be called each time in
+   * Creates language specific chunker. This function will be called once by
    * {@link #getChunker()} if chunker is not set.
    */
   @Nullable
@@ -432,24 +418,20 @@ public abstract class Language {
    * @since 2.3
    */
   @Nullable
-  public synchronized Chunker getChunker() {
-    if (chunker == null) {
-      chunker = createDefaultChunker();
-    }
-
-    return chunker;
+  public Chunker getChunker() {
+    return chunker.get();
   }
 
   /**
    * Set this language's chunker implementation or {@code null}.
    */
   public void setChunker(Chunker chunker) {
-    this.chunker = chunker;
+    this.chunker.set(chunker);
   }
 
   /**
-   * Creates language specific post disambiguation chunker. This function will be called
-   * each time in {@link #getPostDisambiguationChunker()} if chunker is not set.
+   * Creates language specific post disambiguation chunker. This function will be called once by
+   * {@link #getPostDisambiguationChunker()} if chunker is not set.
    */
   @Nullable
   public Chunker createDefaultPostDisambiguationChunker() {
@@ -461,24 +443,20 @@ public abstract class Language {
    * @since 2.9
    */
   @Nullable
-  public synchronized Chunker getPostDisambiguationChunker() {
-    if (postDisambiguationChunker == null) {
-      postDisambiguationChunker = createDefaultPostDisambiguationChunker();
-    }
-
-    return postDisambiguationChunker;
+  public Chunker getPostDisambiguationChunker() {
+    return postDisambiguationChunker.get();
   }
 
   /**
    * Set this language's post disambiguation chunker implementation or {@code null}.
    */
   public void setPostDisambiguationChunker(Chunker chunker) {
-    postDisambiguationChunker = chunker;
+    this.postDisambiguationChunker.set(chunker);
   }
 
   /**
-   * Creates language specific part-of-speech synthesizer. This function will be called
-   * each time in {@link #getSynthesizer()} if synthesizer is not set.
+   * Creates language specific part-of-speech synthesizer. This function will be called once by
+   * {@link #getSynthesizer()} if synthesizer is not set.
    */
   @Nullable
   public Synthesizer createDefaultSynthesizer() {
@@ -489,18 +467,15 @@ public abstract class Language {
    * Get this language's part-of-speech synthesizer implementation or {@code null}.
    */
   @Nullable
-  public synchronized Synthesizer getSynthesizer() {
-    if (synthesizer == null) {
-      synthesizer = createDefaultSynthesizer();
-    }
-    return synthesizer;
+  public Synthesizer getSynthesizer() {
+    return synthesizer.get();
   }
 
   /**
    * Set this language's part-of-speech synthesizer implementation or {@code null}.
    */
   public void setSynthesizer(Synthesizer synthesizer) {
-    this.synthesizer = synthesizer;
+    this.synthesizer.set(synthesizer);
   }
 
   /**
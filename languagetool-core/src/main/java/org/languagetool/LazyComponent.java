@@ -0,0 +1,73 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import java.util.function.Supplier;
+
+/**
+ * A component of a {@link Language} (tagger, tokenizer, ...) that gets created on first use.
+ * Once it's there, {@link #get()} doesn't lock, so threads checking texts in the same
+ * language don't block each other. The component is created only once, even if several
+ * threads ask for it at the same time. {@code null} is a valid value.
+ * @since 5.3
+ */
+final class LazyComponent<T> {
+
+  private final Supplier<T> factory;
+  private volatile Value<T> value;
+
+  LazyComponent(Supplier<T> factory) {
+    this.factory = factory;
+  }
+
+  T get() {
+    Value<T> v = value;
+    if (v == null) {
+      synchronized (this) {
+        v = value;
+        if (v == null) {
+          T component = factory.get();
+          v = value;  // the factory might have set a component itself
+          if (v == null) {
+            v = new Value<>(component);
+            value = v;
+          }
+        }
+      }
+    }
+    return v.component;
+  }
+
+  /**
+   * Use the given component instead of the one from the factory. With {@code null},
+   * the next call of {@link #get()} will ask the factory again.
+   */
+  void set(T component) {
+    value = component == null ? null : new Value<>(component);
+  }
+
+  // wraps the component, so that 'null' can be used for "not yet created":
+  private static final class Value<T> {
+    private final T component;
+    private Value(T component) {
+      this.component = component;
+    }
+  }
+
+}
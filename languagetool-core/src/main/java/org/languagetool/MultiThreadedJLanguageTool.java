@@ -18,17 +18,19 @@
  */
 package org.languagetool;
 
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.markup.AnnotatedText;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.TextLevelRule;
 import org.languagetool.rules.patterns.RuleSet;
 
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -44,6 +46,8 @@ import java.util.stream.IntStream;
  */
 public class MultiThreadedJLanguageTool extends JLanguageTool {
   
+  private static final int MAX_ANALYSIS_BATCH_SIZE = 16;
+
   private final int threadPoolSize;
   private final ExecutorService threadPool;
 
@@ -128,76 +132,159 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
     if (sentences.size() < 2) {
       return super.analyzeSentences(sentences);
     }
+    SentenceAnalysisPipeline pipeline = createAnalysisPipeline(sentences);
+    List<AnalyzedSentence> analyzedSentences = new ArrayList<>(sentences.size());
+    while (pipeline.hasNext()) {
+      analyzedSentences.add(nextAnalyzedSentence(pipeline));
+    }
+    return analyzedSentences;
+  }
 
-    List<AnalyzedSentence> analyzedSentences = new ArrayList<>();
-    
-    ExecutorService executorService = getExecutorService();
-
-    int j = 0;
-    
-    List<Callable<AnalyzedSentence>> callables = new ArrayList<>();
-    for (String sentence : sentences) {
-      AnalyzeSentenceCallable analyzeSentenceCallable = 
-          ++j < sentences.size() 
-            ? new AnalyzeSentenceCallable(sentence)
-            : new ParagraphEndAnalyzeSentenceCallable(sentence);
-      callables.add(analyzeSentenceCallable);
+  /**
+   * Checks the sentence-level rules on batches of sentences as soon as they have been analyzed,
+   * while the following sentences are still being analyzed. Text-level rules need all sentences,
+   * so they run when the analysis is complete.
+   */
+  @Override
+  protected List<RuleMatch> analyzeAndPerformCheck(List<String> sentenceTexts, RuleSet ruleSet, ParagraphHandling paraMode,
+                                                   AnnotatedText annotatedText, RuleMatchListener listener, Mode mode, Level level) throws IOException {
+    if (sentenceTexts.size() < 2) {
+      return super.analyzeAndPerformCheck(sentenceTexts, ruleSet, paraMode, annotatedText, listener, mode, level);
     }
-    
+    List<Rule> allRules = ruleSet.allRules();
+    SentenceAnalysisPipeline pipeline = createAnalysisPipeline(sentenceTexts);
+    SentenceDataBuilder sentenceDataBuilder = new SentenceDataBuilder();
+    Iterator<String> texts = sentenceTexts.iterator();
+    List<SentenceData> sentences = new ArrayList<>(sentenceTexts.size());
+    List<AtomicReferenceArray<List<RuleMatch>>> batchMatches = new ArrayList<>();
+    List<Future<?>> futures = new ArrayList<>();
+    int checkBatchSize = getAnalysisBatchSize(sentenceTexts.size()) * getThreadPoolSize();
+    // the error rate is checked per rule on all sentences checked so far, as in performCheck():
+    ErrorRateCounter[] errorRateCounters = newErrorRateCounters(allRules.size());
     try {
-      List<Future<AnalyzedSentence>> futures = executorService.invokeAll(callables);
-      for (Future<AnalyzedSentence> future : futures) {
-        AnalyzedSentence analyzedSentence = future.get();
-        rememberUnknownWords(analyzedSentence);
-        printSentenceInfo(analyzedSentence);
-        analyzedSentences.add(analyzedSentence);
+      while (pipeline.hasNext()) {
+        int batchStart = sentences.size();
+        while (pipeline.hasNext() && sentences.size() - batchStart < checkBatchSize) {
+          sentences.add(sentenceDataBuilder.next(nextAnalyzedSentence(pipeline), texts.next()));
+        }
+        if (mode != Mode.TEXTLEVEL_ONLY) {
+          List<SentenceData> batch = new ArrayList<>(sentences.subList(batchStart, sentences.size()));
+          AtomicReferenceArray<List<RuleMatch>> matches = new AtomicReferenceArray<>(allRules.size());
+          batchMatches.add(matches);
+          futures.addAll(submitRuleChecks(allRules, applicableSentences(ruleSet, batch), matches, errorRateCounters,
+            paraMode, annotatedText, listener, Mode.ALL_BUT_TEXTLEVEL_ONLY, level));
+        }
+      }
+      AtomicReferenceArray<List<RuleMatch>> textLevelMatches = new AtomicReferenceArray<>(allRules.size());
+      if (mode != Mode.ALL_BUT_TEXTLEVEL_ONLY) {
+        Function<Rule, List<SentenceData>> applicable = applicableSentences(ruleSet, sentences);
+        futures.addAll(submitRuleChecks(allRules, rule -> rule instanceof TextLevelRule ? applicable.apply(rule) : null, textLevelMatches,
+          errorRateCounters, paraMode, annotatedText, listener, Mode.TEXTLEVEL_ONLY, level));
+      }
+      waitFor(futures);
+      // same order as in performCheck(): by rule, then by sentence
+      List<RuleMatch> ruleMatches = new ArrayList<>();
+      for (int i = 0; i < allRules.size(); i++) {
+        addMatches(ruleMatches, textLevelMatches.get(i));
+        for (AtomicReferenceArray<List<RuleMatch>> matches : batchMatches) {
+          addMatches(ruleMatches, matches.get(i));
+        }
+      }
+      return applyCustomFilters(ruleMatches, annotatedText);
+    } finally {
+      pipeline.cancel();
+      for (Future<?> future : futures) {
+        future.cancel(true);
       }
-      
-    } catch (InterruptedException | ExecutionException e) {
-      throw new RuntimeException(e);
     }
-    
-    return analyzedSentences;
   }
-  
-  
+
+  private SentenceAnalysisPipeline createAnalysisPipeline(List<String> sentences) {
+    return new SentenceAnalysisPipeline(this, sentences.iterator(), getExecutorService(),
+      getAnalysisBatchSize(sentences.size()), getThreadPoolSize() * 2, true);
+  }
+
+  // batches of consecutive sentences keep the overhead per task low, but there should
+  // still be enough batches to keep all threads busy:
+  private int getAnalysisBatchSize(int sentenceCount) {
+    return Math.max(1, Math.min(MAX_ANALYSIS_BATCH_SIZE, sentenceCount / (getThreadPoolSize() * 4)));
+  }
+
+  private AnalyzedSentence nextAnalyzedSentence(SentenceAnalysisPipeline pipeline) {
+    AnalyzedSentence analyzedSentence = pipeline.next();
+    rememberUnknownWords(analyzedSentence);
+    printSentenceInfo(analyzedSentence);
+    return analyzedSentence;
+  }
+
   @Override
   protected List<RuleMatch> performCheck(List<AnalyzedSentence> analyzedSentences, List<String> sentenceTexts,
                                          RuleSet ruleSet, ParagraphHandling paraMode,
                                          AnnotatedText annotatedText, RuleMatchListener listener, Mode mode, Level level, boolean checkRemoteRules) {
     List<Rule> allRules = ruleSet.allRules();
     List<SentenceData> sentences = computeSentenceData(analyzedSentences, sentenceTexts);
+    AtomicReferenceArray<List<RuleMatch>> matches = new AtomicReferenceArray<>(allRules.size());
+    waitFor(submitRuleChecks(allRules, applicableSentences(ruleSet, sentences), matches, newErrorRateCounters(allRules.size()),
+      paraMode, annotatedText, listener, mode, level));
+    List<RuleMatch> ruleMatches = new ArrayList<>();
+    for (int i = 0; i < allRules.size(); i++) {
+      addMatches(ruleMatches, matches.get(i));
+    }
+    return applyCustomFilters(ruleMatches, annotatedText);
+  }
 
+  private static ErrorRateCounter[] newErrorRateCounters(int count) {
+    ErrorRateCounter[] counters = new ErrorRateCounter[count];
+    for (int i = 0; i < count; i++) {
+      counters[i] = new ErrorRateCounter();
+    }
+    return counters;
+  }
+
+  private static Function<Rule, List<SentenceData>> applicableSentences(RuleSet ruleSet, List<SentenceData> sentences) {
     Map<Rule, BitSet> map = new HashMap<>();
     for (int i = 0; i < sentences.size(); i++) {
       for (Rule rule : ruleSet.rulesForSentence(sentences.get(i).analyzed)) {
         map.computeIfAbsent(rule, __ -> new BitSet()).set(i);
       }
     }
+    return rule -> {
+      BitSet applicable = map.get(rule);
+      return applicable == null ? null : RuleSet.filterList(applicable, sentences);
+    };
+  }
 
+  /**
+   * Checks the rules with {@link #getThreadPoolSize()} tasks that take one rule after the other.
+   * The matches of the rule at index i are set at index i of {@code matches}, its words and matches
+   * are counted for the error rate in the counter at index i of {@code errorRateCounters}.
+   * @param sentencesForRule the sentences to check with a rule, {@code null} to skip the rule
+   */
+  private List<Future<?>> submitRuleChecks(List<Rule> allRules, Function<Rule, List<SentenceData>> sentencesForRule,
+                                           AtomicReferenceArray<List<RuleMatch>> matches, ErrorRateCounter[] errorRateCounters,
+                                           ParagraphHandling paraMode,
+                                           AnnotatedText annotatedText, RuleMatchListener listener, Mode mode, Level level) {
     AtomicInteger ruleIndex = new AtomicInteger();
-    Map<Integer, List<RuleMatch>> ruleMatches = new TreeMap<>();
-    List<Future<?>> futures = IntStream.range(0, getThreadPoolSize()).mapToObj(__ -> getExecutorService().submit(() -> {
+    return IntStream.range(0, getThreadPoolSize()).mapToObj(__ -> getExecutorService().submit(() -> {
       while (true) {
         int index = ruleIndex.getAndIncrement();
         if (index >= allRules.size()) return null;
 
         Rule rule = allRules.get(index);
-        BitSet applicable = map.get(rule);
-        if (applicable == null) continue;
+        List<SentenceData> sentences = sentencesForRule.apply(rule);
+        if (sentences == null) continue;
 
         // less need for special treatment of remote rules when execution is already parallel
-        List<RuleMatch> matches = new TextCheckCallable(RuleSet.plain(Collections.singletonList(rule)),
-          RuleSet.filterList(applicable, sentences),
-          paraMode, annotatedText, listener, mode, level, true).call();
-        if (!matches.isEmpty()) {
-          synchronized (ruleMatches) {
-            ruleMatches.put(index, matches);
-          }
+        List<RuleMatch> ruleMatches = new TextCheckCallable(RuleSet.plain(Collections.singletonList(rule)), sentences,
+          paraMode, annotatedText, listener, mode, level, true, errorRateCounters[index]).call();
+        if (!ruleMatches.isEmpty()) {
+          matches.set(index, ruleMatches);
         }
       }
     })).collect(Collectors.toList());
+  }
 
+  private static void waitFor(List<Future<?>> futures) {
     try {
       for (Future<?> future : futures) {
         future.get();
@@ -205,31 +292,12 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
     } catch (InterruptedException | ExecutionException e) {
       throw new RuntimeException(e);
     }
-
-    return applyCustomFilters(Lists.newArrayList(Iterables.concat(ruleMatches.values())), annotatedText);
   }
 
-  private class AnalyzeSentenceCallable implements Callable<AnalyzedSentence> {
-    private final String sentence;
-
-    private AnalyzeSentenceCallable(String sentence) {
-      this.sentence = sentence;
-    }
-
-    @Override
-    public AnalyzedSentence call() throws Exception {
-      return getAnalyzedSentence(sentence);
+  private static void addMatches(List<RuleMatch> ruleMatches, @Nullable List<RuleMatch> matches) {
+    if (matches != null) {
+      ruleMatches.addAll(matches);
     }
   }
-  
-  private final class ParagraphEndAnalyzeSentenceCallable extends AnalyzeSentenceCallable {
-    private ParagraphEndAnalyzeSentenceCallable(String sentence) {
-      super(sentence);
-    }
 
-    @Override
-    public AnalyzedSentence call() throws Exception {
-      return markAsParagraphEnd(super.call());
-    }
-  }
 }
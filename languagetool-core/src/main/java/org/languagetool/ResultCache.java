@@ -20,12 +20,21 @@ package org.languagetool;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /**
  * A cache to speed up text checking for use cases where sentences are checked more than once. This
@@ -40,6 +49,9 @@ import java.util.concurrent.TimeUnit;
  */
 public class ResultCache {
 
+  private static final Logger logger = LoggerFactory.getLogger(ResultCache.class);
+  private static final int MAX_PENDING_DISK_WRITES = 1000;
+
   /**
    * rules can fail individually, results can be partial ->
    * store list if success (can be empty), null -> failure/not checked
@@ -47,6 +59,15 @@ public class ResultCache {
   private final Cache<InputSentence, Map<String, List<RuleMatch>>> remoteMatchesCache;
   private final Cache<InputSentence, List<RuleMatch>> matchesCache;
   private final Cache<SimpleInputSentence, AnalyzedSentence> sentenceCache;
+  private final EvictionPolicy evictionPolicy;
+  @Nullable
+  private final CostAwareAdmission matchesAdmission;
+  @Nullable
+  private final CostAwareAdmission sentenceAdmission;
+  @Nullable
+  private final DiskResultCache diskCache;
+  @Nullable
+  private final ExecutorService diskWriter;
 
   /**
    * Create a cache that expires items 5 minutes after the latest read access.
@@ -61,26 +82,176 @@ public class ResultCache {
    * @param expireAfter time to expire sentences from the cache after last read access 
    */
   public ResultCache(long maxSize, long expireAfter, TimeUnit timeUnit) {
+    this(maxSize, expireAfter, timeUnit, null);
+  }
+
+  /**
+   * @param maxSize maximum cache size in number of sentences
+   * @param expireAfter time to expire sentences from the cache after last read access
+   * @param diskCache a second-level cache that matches are written to (asynchronously) and that is
+   *                  used when the in-memory cache has no entry for a sentence, or {@code null}
+   * @since 5.3
+   */
+  public ResultCache(long maxSize, long expireAfter, TimeUnit timeUnit, @Nullable DiskResultCache diskCache) {
+    this(maxSize, expireAfter, timeUnit, diskCache, EvictionPolicy.SENTENCE_COUNT);
+  }
+
+  /**
+   * @param maxSize maximum cache size, in number of sentences for {@link EvictionPolicy#SENTENCE_COUNT},
+   *                in bytes for {@link EvictionPolicy#COST_AWARE}
+   * @param expireAfter time to expire sentences from the cache after last read access
+   * @param diskCache a second-level cache that matches are written to (asynchronously) and that is
+   *                  used when the in-memory cache has no entry for a sentence, or {@code null}
+   * @since 5.3
+   */
+  public ResultCache(long maxSize, long expireAfter, TimeUnit timeUnit, @Nullable DiskResultCache diskCache, EvictionPolicy evictionPolicy) {
     if (maxSize < 0) {
       throw new IllegalArgumentException("Result cache size must be >= 0: " + maxSize);
     }
-    matchesCache = CacheBuilder.newBuilder().
-            maximumWeight(maxSize/2).weigher(new MatchesWeigher()).
-            recordStats().
-            expireAfterAccess(expireAfter, timeUnit).
-            build();
-    remoteMatchesCache = CacheBuilder.newBuilder().
-      maximumWeight(maxSize/2).weigher(new RemoteMatchesWeigher()).
-      recordStats().
-      expireAfterAccess(expireAfter, timeUnit).
-      build();
-    sentenceCache = CacheBuilder.newBuilder().
-            maximumWeight(maxSize/2).weigher(new SentenceWeigher()).
-            recordStats().
-            expireAfterAccess(expireAfter, timeUnit).
-            build();
+    this.evictionPolicy = Objects.requireNonNull(evictionPolicy);
+    if (evictionPolicy == EvictionPolicy.COST_AWARE) {
+      // the analyzed sentences with their readings are much larger than the matches:
+      matchesAdmission = new CostAwareAdmission(maxSize / 4);
+      sentenceAdmission = new CostAwareAdmission(maxSize / 2);
+      matchesCache = CacheBuilder.newBuilder().
+              maximumWeight(matchesAdmission.maxBytes).
+              weigher((InputSentence k, List<RuleMatch> v) -> matchesAdmission.added(EntrySizeEstimator.estimate(k) + EntrySizeEstimator.estimate(v))).
+              removalListener((RemovalNotification<InputSentence, List<RuleMatch>> n) ->
+                matchesAdmission.removed(n.getKey(), EntrySizeEstimator.estimate(n.getKey()) + EntrySizeEstimator.estimate(n.getValue()), n.getCause())).
+              recordStats().
+              expireAfterAccess(expireAfter, timeUnit).
+              build();
+      remoteMatchesCache = CacheBuilder.newBuilder().
+              maximumWeight(maxSize / 4).weigher((InputSentence k, Map<String, List<RuleMatch>> v) -> EntrySizeEstimator.estimate(k) + EntrySizeEstimator.estimate(v)).
+              recordStats().
+              expireAfterAccess(expireAfter, timeUnit).
+              build();
+      sentenceCache = CacheBuilder.newBuilder().
+              maximumWeight(sentenceAdmission.maxBytes).
+              weigher((SimpleInputSentence k, AnalyzedSentence v) -> sentenceAdmission.added(EntrySizeEstimator.estimate(k) + EntrySizeEstimator.estimate(v))).
+              removalListener((RemovalNotification<SimpleInputSentence, AnalyzedSentence> n) ->
+                sentenceAdmission.removed(n.getKey(), EntrySizeEstimator.estimate(n.getKey()) + EntrySizeEstimator.estimate(n.getValue()), n.getCause())).
+              recordStats().
+              expireAfterAccess(expireAfter, timeUnit).
+              build();
+    } else {
+      matchesAdmission = null;
+      sentenceAdmission = null;
+      matchesCache = CacheBuilder.newBuilder().
+              maximumWeight(maxSize/2).weigher(new MatchesWeigher()).
+              recordStats().
+              expireAfterAccess(expireAfter, timeUnit).
+              build();
+      remoteMatchesCache = CacheBuilder.newBuilder().
+        maximumWeight(maxSize/2).weigher(new RemoteMatchesWeigher()).
+        recordStats().
+        expireAfterAccess(expireAfter, timeUnit).
+        build();
+      sentenceCache = CacheBuilder.newBuilder().
+              maximumWeight(maxSize/2).weigher(new SentenceWeigher()).
+              recordStats().
+              expireAfterAccess(expireAfter, timeUnit).
+              build();
+    }
+    this.diskCache = diskCache;
+    if (diskCache != null) {
+      // writing to disk must not slow down checking, so we drop entries if the disk can't keep up:
+      diskWriter = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(MAX_PENDING_DISK_WRITES),
+        new ThreadFactoryBuilder().setNameFormat("lt-disk-cache-writer-%d").setDaemon(true).build(),
+        new ThreadPoolExecutor.DiscardPolicy());
+    } else {
+      diskWriter = null;
+    }
   }
   
+  /**
+   * How the cache decides which entries to keep.
+   * @since 5.3
+   */
+  public enum EvictionPolicy {
+    /**
+     * The cache size is roughly the number of sentences, entries are evicted by least recent use.
+     */
+    SENTENCE_COUNT,
+    /**
+     * The cache size is the estimated number of bytes used on the heap. When the cache is full,
+     * a new entry is only added if it's likely to be more valuable than the entries that get
+     * evicted, considering how often it's been requested recently (TinyLFU) and how long
+     * it took to compute it, relative to its size.
+     */
+    COST_AWARE
+  }
+
+  /**
+   * Admission and byte accounting for one cache in {@link EvictionPolicy#COST_AWARE} mode.
+   */
+  private static class CostAwareAdmission {
+
+    private static final int TYPICAL_ENTRY_BYTES = 2000;
+
+    private final long maxBytes;
+    private final FrequencySketch sketch;
+    private final Map<Object, Long> computeNanos = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong evictedBytes = new AtomicLong();
+    // moving average of the value of evicted entries, i.e. of the entries a new entry competes with:
+    private double victimValue = 0;
+
+    CostAwareAdmission(long maxBytes) {
+      this.maxBytes = maxBytes;
+      this.sketch = new FrequencySketch((int) Math.min(Integer.MAX_VALUE, Math.max(16, maxBytes / TYPICAL_ENTRY_BYTES)));
+    }
+
+    void recordAccess(Object key) {
+      sketch.increment(key);
+    }
+
+    boolean admit(Object key, int bytes, long nanos) {
+      // Guava evicts per segment, so a segment may be full before the whole cache is:
+      if (usedBytes.get() + bytes <= maxBytes / 2) {
+        return true;
+      }
+      double value = value(sketch.frequency(key), nanos, bytes);
+      synchronized (this) {
+        if (value >= victimValue) {
+          return true;
+        }
+      }
+      rejectedCount.incrementAndGet();
+      return false;
+    }
+
+    void put(Object key, long nanos) {
+      computeNanos.put(key, nanos);
+    }
+
+    int added(int bytes) {
+      usedBytes.addAndGet(bytes);
+      return bytes;
+    }
+
+    void removed(Object key, int bytes, RemovalCause cause) {
+      usedBytes.addAndGet(-bytes);
+      if (cause != RemovalCause.REPLACED) {
+        Long nanos = computeNanos.remove(key);
+        if (cause == RemovalCause.SIZE) {
+          evictedBytes.addAndGet(bytes);
+          double value = value(sketch.frequency(key), nanos != null ? nanos : 0, bytes);
+          synchronized (this) {
+            victimValue = 0.9 * victimValue + 0.1 * value;
+          }
+        }
+      }
+    }
+
+    private static double value(int frequency, long nanos, int bytes) {
+      // benefit of keeping the entry per byte it uses, +1 so that entries with unknown cost still compete by frequency:
+      return (double) frequency * (nanos / 1000.0 + 1) / Math.max(bytes, 1);
+    }
+  }
+
   class MatchesWeigher implements Weigher<InputSentence, List<RuleMatch>> {
     @Override
     public int weigh(InputSentence sentence, List<RuleMatch> matches) {
@@ -119,19 +290,148 @@ public class ResultCache {
   }
 
   public List<RuleMatch> getIfPresent(InputSentence key) {
+    if (matchesAdmission != null) {
+      matchesAdmission.recordAccess(key);
+    }
     return matchesCache.getIfPresent(key);
   }
 
+  /**
+   * Like {@link #getIfPresent(InputSentence)}, but falls back to the second-level
+   * cache (if any) and adds the result to the in-memory cache if found there.
+   * @param sentence the sentence, needed to re-create matches from the second-level cache
+   * @param ruleLookup maps a rule's full id to the rule, needed to re-create matches from the second-level cache
+   * @since 5.3
+   */
+  @Nullable
+  public List<RuleMatch> getIfPresent(InputSentence key, AnalyzedSentence sentence, Function<String, Rule> ruleLookup) {
+    List<RuleMatch> matches = getIfPresent(key);
+    if (matches == null && diskCache != null) {
+      matches = diskCache.getIfPresent(key, sentence, ruleLookup);
+      if (matches != null) {
+        putInMemory(key, matches, 0);
+      }
+    }
+    return matches;
+  }
+
   public AnalyzedSentence getIfPresent(SimpleInputSentence key) {
+    if (sentenceAdmission != null) {
+      sentenceAdmission.recordAccess(key);
+    }
     return sentenceCache.getIfPresent(key);
   }
 
   public void put(InputSentence key, List<RuleMatch> sentenceMatches) {
-    matchesCache.put(key, sentenceMatches);
+    put(key, sentenceMatches, 0);
+  }
+
+  /**
+   * @param computeNanos the time it took to compute the matches, used by {@link EvictionPolicy#COST_AWARE}
+   * @since 5.3
+   */
+  public void put(InputSentence key, List<RuleMatch> sentenceMatches, long computeNanos) {
+    putInMemory(key, sentenceMatches, computeNanos);
+    if (diskWriter != null) {
+      writeToDisk(key, sentenceMatches);
+    }
+  }
+
+  // Computing lazy suggestions just to store them would make them eager, so matches with lazy suggestions
+  // are only written once someone has asked for their suggestions (e.g. to render a response). Until then,
+  // nothing but the callbacks on the matches themselves refer to them, so entries whose suggestions are
+  // never needed are simply garbage-collected together with their matches.
+  private void writeToDisk(InputSentence key, List<RuleMatch> sentenceMatches) {
+    AtomicBoolean written = new AtomicBoolean();
+    Runnable writeIfResolved = () -> {
+      if (sentenceMatches.stream().allMatch(RuleMatch::hasComputedSuggestedReplacements) && written.compareAndSet(false, true)) {
+        diskWriter.execute(() -> {
+          try {
+            diskCache.put(key, sentenceMatches);
+          } catch (Exception e) {
+            logger.warn("Could not write to disk cache", e);
+          }
+        });
+      }
+    };
+    boolean resolved = true;
+    for (RuleMatch match : sentenceMatches) {
+      if (!match.hasComputedSuggestedReplacements()) {
+        resolved = false;
+        match.whenSuggestedReplacementsComputed(writeIfResolved);
+      }
+    }
+    if (resolved) {
+      writeIfResolved.run();
+    }
+  }
+
+  private void putInMemory(InputSentence key, List<RuleMatch> sentenceMatches, long computeNanos) {
+    if (matchesAdmission == null) {
+      matchesCache.put(key, sentenceMatches);
+    } else if (matchesAdmission.admit(key, EntrySizeEstimator.estimate(key) + EntrySizeEstimator.estimate(sentenceMatches), computeNanos)) {
+      matchesAdmission.put(key, computeNanos);
+      matchesCache.put(key, sentenceMatches);
+    }
   }
 
   public void put(SimpleInputSentence key, AnalyzedSentence aSentence) {
-    sentenceCache.put(key, aSentence);
+    put(key, aSentence, 0);
+  }
+
+  /**
+   * @param computeNanos the time it took to analyze the sentence, used by {@link EvictionPolicy#COST_AWARE}
+   * @since 5.3
+   */
+  public void put(SimpleInputSentence key, AnalyzedSentence aSentence, long computeNanos) {
+    if (sentenceAdmission == null) {
+      sentenceCache.put(key, aSentence);
+    } else if (sentenceAdmission.admit(key, EntrySizeEstimator.estimate(key) + EntrySizeEstimator.estimate(aSentence), computeNanos)) {
+      sentenceAdmission.put(key, computeNanos);
+      sentenceCache.put(key, aSentence);
+    }
+  }
+
+  /** @since 5.3 */
+  public EvictionPolicy getEvictionPolicy() {
+    return evictionPolicy;
+  }
+
+  /**
+   * Estimated heap memory used by the matches and the analyzed sentences cache, in bytes.
+   * Only available for {@link EvictionPolicy#COST_AWARE}, returns -1 otherwise.
+   * @since 5.3
+   */
+  public long getMatchesCacheBytes() {
+    return matchesAdmission != null ? matchesAdmission.usedBytes.get() : -1;
+  }
+
+  /** @since 5.3 */
+  public long getSentenceCacheBytes() {
+    return sentenceAdmission != null ? sentenceAdmission.usedBytes.get() : -1;
+  }
+
+  /**
+   * Estimated number of bytes evicted from the matches cache because it was full.
+   * Only available for {@link EvictionPolicy#COST_AWARE}, returns -1 otherwise.
+   * @since 5.3
+   */
+  public long getMatchesCacheEvictedBytes() {
+    return matchesAdmission != null ? matchesAdmission.evictedBytes.get() : -1;
+  }
+
+  /** @since 5.3 */
+  public long getSentenceCacheEvictedBytes() {
+    return sentenceAdmission != null ? sentenceAdmission.evictedBytes.get() : -1;
+  }
+
+  /**
+   * Number of entries not added to the cache because they were considered less valuable
+   * than the entries they would have replaced. Only available for {@link EvictionPolicy#COST_AWARE}, returns -1 otherwise.
+   * @since 5.3
+   */
+  public long getRejectedCount() {
+    return matchesAdmission != null ? matchesAdmission.rejectedCount.get() + sentenceAdmission.rejectedCount.get() : -1;
   }
 
   /** @since 4.1 */
@@ -150,4 +450,10 @@ public class ResultCache {
   public Cache<SimpleInputSentence, AnalyzedSentence> getSentenceCache() {
     return sentenceCache;
   }
+
+  /** @since 5.3 */
+  @Nullable
+  public DiskResultCache getDiskCache() {
+    return diskCache;
+  }
 }
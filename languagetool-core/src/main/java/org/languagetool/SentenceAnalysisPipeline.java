@@ -0,0 +1,127 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Analyzes sentences (tokenizing, tagging, chunking, disambiguation) on an executor while the
+ * caller consumes the results in their original order. Consecutive sentences are analyzed
+ * together in batches, and only a limited number of batches is in flight at any time, so
+ * sentences can be fed lazily (e.g. as they are read and split) and the caller can work on
+ * the first sentences while later ones are still being analyzed.
+ * For internal use only.
+ * @since 5.3
+ */
+class SentenceAnalysisPipeline implements Iterator<AnalyzedSentence> {
+
+  private final JLanguageTool lt;
+  private final Iterator<String> sentences;
+  private final ExecutorService executor;
+  private final int batchSize;
+  private final int maxBatchesInFlight;
+  private final boolean markLastAsParagraphEnd;
+  private final Deque<Future<List<AnalyzedSentence>>> inFlight = new ArrayDeque<>();
+
+  private Iterator<AnalyzedSentence> currentBatch = Collections.emptyIterator();
+
+  /**
+   * @param sentences the sentences to analyze, consumed lazily
+   * @param batchSize number of consecutive sentences analyzed by one task
+   * @param maxBatchesInFlight maximum number of batches submitted but not yet consumed
+   * @param markLastAsParagraphEnd whether the last sentence ends a paragraph
+   */
+  SentenceAnalysisPipeline(JLanguageTool lt, Iterator<String> sentences, ExecutorService executor,
+                           int batchSize, int maxBatchesInFlight, boolean markLastAsParagraphEnd) {
+    if (batchSize < 1 || maxBatchesInFlight < 1) {
+      throw new IllegalArgumentException("batchSize and maxBatchesInFlight must be >= 1: " + batchSize + ", " + maxBatchesInFlight);
+    }
+    this.lt = Objects.requireNonNull(lt);
+    this.sentences = Objects.requireNonNull(sentences);
+    this.executor = Objects.requireNonNull(executor);
+    this.batchSize = batchSize;
+    this.maxBatchesInFlight = maxBatchesInFlight;
+    this.markLastAsParagraphEnd = markLastAsParagraphEnd;
+    fill();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return currentBatch.hasNext() || !inFlight.isEmpty();
+  }
+
+  @Override
+  public AnalyzedSentence next() {
+    if (!currentBatch.hasNext()) {
+      Future<List<AnalyzedSentence>> future = inFlight.poll();
+      if (future == null) {
+        throw new NoSuchElementException();
+      }
+      try {
+        currentBatch = future.get().iterator();
+      } catch (InterruptedException e) {
+        cancel();
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      } catch (ExecutionException e) {
+        cancel();
+        throw new RuntimeException(e.getCause());
+      }
+      fill();
+    }
+    return currentBatch.next();
+  }
+
+  /**
+   * Cancel the analysis of all sentences that haven't been consumed yet.
+   */
+  void cancel() {
+    for (Future<List<AnalyzedSentence>> future : inFlight) {
+      future.cancel(true);
+    }
+    inFlight.clear();
+  }
+
+  private void fill() {
+    while (inFlight.size() < maxBatchesInFlight && sentences.hasNext()) {
+      List<String> batch = new ArrayList<>(batchSize);
+      while (batch.size() < batchSize && sentences.hasNext()) {
+        batch.add(sentences.next());
+      }
+      boolean lastBatch = !sentences.hasNext();
+      inFlight.add(executor.submit(() -> analyze(batch, lastBatch && markLastAsParagraphEnd)));
+    }
+  }
+
+  private List<AnalyzedSentence> analyze(List<String> batch, boolean paragraphEnd) throws Exception {
+    List<AnalyzedSentence> result = new ArrayList<>(batch.size());
+    for (String sentence : batch) {
+      result.add(lt.getAnalyzedSentence(sentence));
+    }
+    if (paragraphEnd) {
+      int last = result.size() - 1;
+      result.set(last, JLanguageTool.markAsParagraphEnd(result.get(last)));
+    }
+    return result;
+  }
+
+}
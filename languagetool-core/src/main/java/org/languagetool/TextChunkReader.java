@@ -0,0 +1,160 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Objects;
+
+/**
+ * Splits the text of a reader into chunks that can be checked independently. Chunks end at
+ * a paragraph boundary once they have reached a minimum size, so that sentences and (mostly)
+ * paragraphs are not cut. Only if no paragraph boundary is found, a chunk ends at a line break
+ * after the maximum size, at whitespace after twice the maximum size, and anywhere after four
+ * times the maximum size. The text of the chunks is exactly the text of the reader, including
+ * all line breaks. For internal use only.
+ * @since 5.3
+ */
+class TextChunkReader {
+
+  private final Reader reader;
+  private final boolean singleLineBreakMarksParagraph;
+  private final int minChunkSize;
+  private final int maxChunkSize;
+  private final char[] buffer = new char[8192];
+
+  private int bufferPos;
+  private int bufferLength;
+  private boolean eof;
+  private long offset;
+  private int line;
+  private int column;
+
+  /**
+   * @param singleLineBreakMarksParagraph whether every line break ends a paragraph, not only empty lines
+   * @param minChunkSize the minimum size of a chunk in characters (except for the last chunk)
+   * @param maxChunkSize the size in characters after which a chunk ends at the next line break
+   */
+  TextChunkReader(Reader reader, boolean singleLineBreakMarksParagraph, int minChunkSize, int maxChunkSize) {
+    if (minChunkSize < 1 || maxChunkSize < minChunkSize) {
+      throw new IllegalArgumentException("Invalid chunk sizes: min " + minChunkSize + ", max " + maxChunkSize);
+    }
+    this.reader = Objects.requireNonNull(reader);
+    this.singleLineBreakMarksParagraph = singleLineBreakMarksParagraph;
+    this.minChunkSize = minChunkSize;
+    this.maxChunkSize = maxChunkSize;
+  }
+
+  /**
+   * @return the next chunk or {@code null} if the end of the text has been reached
+   */
+  @Nullable
+  Chunk next() throws IOException {
+    StringBuilder sb = new StringBuilder(Math.min(minChunkSize, 16 * 1024));
+    Chunk chunk = new Chunk(offset, line, column);
+    boolean currentLineBlank = false;  // the first line may continue a paragraph of the previous chunk
+    while (true) {
+      if (bufferPos == bufferLength && !fillBuffer()) {
+        break;
+      }
+      char c = buffer[bufferPos++];
+      sb.append(c);
+      offset++;
+      if (c == '\n') {
+        line++;
+        column = 0;
+        boolean paragraphEnd = singleLineBreakMarksParagraph || currentLineBlank;
+        if (sb.length() >= maxChunkSize || paragraphEnd && sb.length() >= minChunkSize) {
+          break;
+        }
+        currentLineBlank = true;
+      } else if (Character.isWhitespace(c)) {
+        column++;
+        if (sb.length() >= 2 * maxChunkSize) {
+          break;
+        }
+      } else {
+        currentLineBlank = false;
+        column++;
+        if (sb.length() >= 4 * maxChunkSize && !Character.isHighSurrogate(c)) {
+          break;
+        }
+      }
+    }
+    if (sb.length() == 0) {
+      return null;
+    }
+    chunk.text = sb.toString();
+    return chunk;
+  }
+
+  private boolean fillBuffer() throws IOException {
+    if (eof) {
+      return false;
+    }
+    int read;
+    do {
+      read = reader.read(buffer, 0, buffer.length);
+    } while (read == 0);
+    if (read < 0) {
+      eof = true;
+      return false;
+    }
+    bufferPos = 0;
+    bufferLength = read;
+    return true;
+  }
+
+  static class Chunk {
+
+    private final long offset;
+    private final int line;
+    private final int column;
+    private String text;
+
+    private Chunk(long offset, int line, int column) {
+      this.offset = offset;
+      this.line = line;
+      this.column = column;
+    }
+
+    /** The text of the chunk. */
+    String getText() {
+      return text;
+    }
+
+    /** The position of the first character of this chunk in the complete text, zero-based. */
+    long getOffset() {
+      return offset;
+    }
+
+    /** The line of the first character of this chunk in the complete text, zero-based. */
+    int getLine() {
+      return line;
+    }
+
+    /** The column of the first character of this chunk in its line, zero-based. Usually 0, as chunks start at line starts if possible. */
+    int getColumn() {
+      return column;
+    }
+  }
+
+}
@@ -25,7 +25,6 @@ import org.languagetool.Language;
 import org.languagetool.tools.StringTools;
 
 import java.util.*;
-import java.util.concurrent.ArrayBlockingQueue;
 
 /**
  * A rule that checks case in phrases
@@ -45,42 +44,27 @@ public abstract class AbstractCheckCaseRule extends AbstractSimpleReplaceRule2 {
     List<RuleMatch> ruleMatches = new ArrayList<>();
     AnalyzedTokenReadings[] tokens = sentence.getTokensWithoutWhitespace();
 
-    List<Map<String, SuggestionWithMessage>> wrongWords = getWrongWords(true);
-    if (wrongWords.size() == 0) {
+    PhraseTrie phrases = getPhraseTrie(true);
+    if (phrases.isEmpty()) {
       return toRuleMatchArray(ruleMatches);
     }
-    Queue<AnalyzedTokenReadings> prevTokens = new ArrayBlockingQueue<>(wrongWords.size());
     int sentStart = 0;
     while (sentStart + 1 < tokens.length && isPunctuationStart(tokens[sentStart + 1].getToken())) {
       sentStart++;
     }
+    PhraseTrie.Matches matches = phrases.find(tokens, getWords(tokens, true));
     for (int i = 1; i < tokens.length; i++) {
-      addToQueue(tokens[i], prevTokens);
-      StringBuilder sb = new StringBuilder();
-      List<String> phrases = new ArrayList<>();
-      List<AnalyzedTokenReadings> prevTokensList = Arrays.asList(prevTokens.toArray(new AnalyzedTokenReadings[0]));
-      for (int j = prevTokensList.size() - 1; j >= 0; j--) {
-        if (j != prevTokensList.size() - 1 && prevTokensList.get(j + 1).isWhitespaceBefore()) {
-          sb.insert(0, " ");
-        }
-        sb.insert(0, prevTokensList.get(j).getToken());
-        phrases.add(0, sb.toString());
-      }
       if (isTokenException(tokens[i])) {
         continue;
       }
-      int len = phrases.size(); // prevTokensList and variants have now the same length
-      for (int j = 0; j < len; j++) { // longest words first
-        String originalPhrase = phrases.get(j);
-        int crtWordCount = len - j;
-        SuggestionWithMessage suggMess = wrongWords.get(crtWordCount - 1).get(originalPhrase.toLowerCase(getLocale()));
-        if (suggMess == null) {
-          continue;
-        }
+      for (int match = matches.first(i); match != -1; match = matches.next(match)) { // longest words first
+        String originalPhrase = getPhrase(tokens, matches.start(match), i);
+        int crtWordCount = i - matches.start(match) + 1;
+        SuggestionWithMessage suggMess = phrases.getSuggestion(matches.entry(match));
         String correctPhrase = suggMess.getSuggestion();
         String capitalizedCorrect = StringTools.uppercaseFirstChar(correctPhrase);
-        int startPos = prevTokensList.get(len - crtWordCount).getStartPos();
-        int endPos = prevTokensList.get(len - 1).getEndPos();
+        int startPos = tokens[matches.start(match)].getStartPos();
+        int endPos = tokens[i].getEndPos();
         if ((crtWordCount + sentStart == i && originalPhrase.equals(capitalizedCorrect))
             || correctPhrase.equals(originalPhrase)) {
           // remove last match if is contained in a correct phrase
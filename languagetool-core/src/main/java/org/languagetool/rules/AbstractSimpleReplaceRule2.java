@@ -34,7 +34,6 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -74,17 +73,17 @@ public abstract class AbstractSimpleReplaceRule2 extends Rule {
    */
   public abstract Locale getLocale();
 
-  private static final LoadingCache<PathsAndLanguage, List<Map<String, SuggestionWithMessage>>> cache = CacheBuilder.newBuilder()
+  private static final LoadingCache<PathsAndLanguage, WrongWords> cache = CacheBuilder.newBuilder()
           .expireAfterWrite(30, TimeUnit.MINUTES)
-          .build(new CacheLoader<PathsAndLanguage, List<Map<String, SuggestionWithMessage>>>() {
+          .build(new CacheLoader<PathsAndLanguage, WrongWords>() {
             @Override
-            public List<Map<String, SuggestionWithMessage>> load(@NotNull PathsAndLanguage lap) throws IOException {
+            public WrongWords load(@NotNull PathsAndLanguage lap) throws IOException {
               List<Map<String, SuggestionWithMessage>> maps = new ArrayList<>();
               for (String path : lap.paths) {
                 List<Map<String, SuggestionWithMessage>> l = loadWords(path, lap.lang, lap.caseSensitive, lap.checkingCase);
                 maps.addAll(l);
               }
-              return maps;
+              return new WrongWords(maps);
             }
           });
 
@@ -115,6 +114,18 @@ public abstract class AbstractSimpleReplaceRule2 extends Rule {
    * @return the list of wrong words for which this rule can suggest corrections. The list cannot be modified.
    */
   public List<Map<String, SuggestionWithMessage>> getWrongWords(boolean checkingCase) {
+    return getCachedWrongWords(checkingCase).maps;
+  }
+
+  /**
+   * @return the wrong words of {@link #getWrongWords(boolean)}, compiled for matching
+   * @since 5.3
+   */
+  PhraseTrie getPhraseTrie(boolean checkingCase) {
+    return getCachedWrongWords(checkingCase).trie;
+  }
+
+  private WrongWords getCachedWrongWords(boolean checkingCase) {
     try {
       return cache.get(new PathsAndLanguage(getFileNames(), language, isCaseSensitive(), checkingCase));
     } catch (ExecutionException e) {
@@ -122,6 +133,31 @@ public abstract class AbstractSimpleReplaceRule2 extends Rule {
     }
   }
 
+  /**
+   * @return the texts of the tokens, in the form used by {@link #getPhraseTrie(boolean)}
+   */
+  String[] getWords(AnalyzedTokenReadings[] tokens, boolean lowercase) {
+    String[] words = new String[tokens.length];
+    for (int i = 0; i < tokens.length; i++) {
+      words[i] = lowercase ? tokens[i].getToken().toLowerCase(getLocale()) : tokens[i].getToken();
+    }
+    return words;
+  }
+
+  /**
+   * @return the tokens from {@code start} to {@code end} (inclusive), joined with a space where a token has whitespace before it
+   */
+  static String getPhrase(AnalyzedTokenReadings[] tokens, int start, int end) {
+    StringBuilder sb = new StringBuilder(tokens[start].getToken());
+    for (int i = start + 1; i <= end; i++) {
+      if (tokens[i].isWhitespaceBefore()) {
+        sb.append(' ');
+      }
+      sb.append(tokens[i].getToken());
+    }
+    return sb.toString();
+  }
+
   /**
    * Load the list of words.
    * Same as {@link AbstractSimpleReplaceRule#loadFromPath} but allows multiple words and a custom message (optional).
@@ -214,77 +250,57 @@ public abstract class AbstractSimpleReplaceRule2 extends Rule {
     List<RuleMatch> ruleMatches = new ArrayList<>();
     AnalyzedTokenReadings[] tokens = sentence.getTokensWithoutWhitespace();
 
-    List<Map<String, SuggestionWithMessage>> wrongWords = getWrongWords(false);
-    if (wrongWords.size() == 0) {
+    PhraseTrie phrases = getPhraseTrie(false);
+    if (phrases.isEmpty()) {
       return toRuleMatchArray(ruleMatches);
     }
-    Queue<AnalyzedTokenReadings> prevTokens = new ArrayBlockingQueue<>(wrongWords.size());
+    PhraseTrie.Matches matches = phrases.find(tokens, getWords(tokens, !isCaseSensitive()));
 
     for (int i = 1; i < tokens.length; i++) {
-      addToQueue(tokens[i], prevTokens);
-      StringBuilder sb = new StringBuilder();
-      List<String> variants = new ArrayList<>();
-      List<AnalyzedTokenReadings> prevTokensList =
-              Arrays.asList(prevTokens.toArray(new AnalyzedTokenReadings[0]));
-      for (int j = prevTokensList.size() - 1; j >= 0; j--) {
-        if (j != prevTokensList.size() - 1 && prevTokensList.get(j + 1).isWhitespaceBefore()) {
-          sb.insert(0, " ");
+      int match = matches.first(i);  // only the longest phrase ending at this token
+      if (match == -1 || isTokenException(tokens[i])) {
+        continue;
+      }
+      String crt = getPhrase(tokens, matches.start(match), i);
+      SuggestionWithMessage crtMatch = phrases.getSuggestion(matches.entry(match));
+      List<String> replacements = Arrays.asList(crtMatch.getSuggestion().split("\\|"));
+      String msgSuggestions = "";
+      for (int k = 0; k < replacements.size(); k++) {
+        if (k > 0) {
+          msgSuggestions += (k == replacements.size() - 1 ? getSuggestionsSeparator(): ", ");
         }
-        sb.insert(0, prevTokensList.get(j).getToken());
-        variants.add(0, sb.toString());
+        msgSuggestions += "<suggestion>" + replacements.get(k) + "</suggestion>";
       }
-      if (isTokenException(tokens[i])) {
-        continue;
+      String msg = getMessage().replaceFirst("\\$match", crt).replaceFirst("\\$suggestions", msgSuggestions);
+      if (crtMatch.getMessage() != null) {
+        msg = crtMatch.getMessage();
       }
-      int len = variants.size(); // prevTokensList and variants have now the same length
-      for (int j = 0; j < len; j++) { // longest words first
-        String crt = variants.get(j);
-        int crtWordCount = len - j;
-        SuggestionWithMessage crtMatch = isCaseSensitive() ?
-          wrongWords.get(crtWordCount - 1).get(crt) :
-          wrongWords.get(crtWordCount - 1).get(crt.toLowerCase(getLocale()));
-        if (crtMatch != null) {
-          List<String> replacements = Arrays.asList(crtMatch.getSuggestion().split("\\|"));
-          String msgSuggestions = "";
-          for (int k = 0; k < replacements.size(); k++) {
-            if (k > 0) {
-              msgSuggestions += (k == replacements.size() - 1 ? getSuggestionsSeparator(): ", ");
-            }
-            msgSuggestions += "<suggestion>" + replacements.get(k) + "</suggestion>";
-          }
-          String msg = getMessage().replaceFirst("\\$match", crt).replaceFirst("\\$suggestions", msgSuggestions);
-          if (crtMatch.getMessage() != null) {
-            msg = crtMatch.getMessage();
-          }
-          int startPos = prevTokensList.get(len - crtWordCount).getStartPos();
-          int endPos = prevTokensList.get(len - 1).getEndPos();
-          RuleMatch ruleMatch;
-          if (subRuleSpecificIds) {
-            String desc = getDescription(crt + " / " + msgSuggestions.replace("<suggestion>", "").replace("</suggestion>", ""));
-            String id = StringTools.toId(getId() + "_" + crt);
-            ruleMatch = new RuleMatch(new SpecificIdRule(id, desc, messages), sentence, startPos, endPos, msg, getShort());
-          } else {
-            ruleMatch = new RuleMatch(this, sentence, startPos, endPos, msg, getShort());
-          }
-          if (!isCaseSensitive() && StringTools.startsWithUppercase(crt)) {
-            for (int k = 0; k < replacements.size(); k++) {
-              replacements.set(k, StringTools.uppercaseFirstChar(replacements.get(k)));
-            }
-          }
-          ruleMatch.setSuggestedReplacements(replacements);
-          if (!isException(sentence.getText().substring(startPos, endPos))) {
-            //keep only the longest match
-            if (ruleMatches.size() > 0) {
-              RuleMatch lastRuleMatch = ruleMatches.get(ruleMatches.size() - 1);
-              if (lastRuleMatch.getFromPos() == ruleMatch.getFromPos()
-                  && lastRuleMatch.getToPos() < ruleMatch.getToPos()) {
-                ruleMatches.remove(ruleMatches.size() - 1);
-              }
-            }
-            ruleMatches.add(ruleMatch);
+      int startPos = tokens[matches.start(match)].getStartPos();
+      int endPos = tokens[i].getEndPos();
+      RuleMatch ruleMatch;
+      if (subRuleSpecificIds) {
+        String desc = getDescription(crt + " / " + msgSuggestions.replace("<suggestion>", "").replace("</suggestion>", ""));
+        String id = StringTools.toId(getId() + "_" + crt);
+        ruleMatch = new RuleMatch(new SpecificIdRule(id, desc, messages), sentence, startPos, endPos, msg, getShort());
+      } else {
+        ruleMatch = new RuleMatch(this, sentence, startPos, endPos, msg, getShort());
+      }
+      if (!isCaseSensitive() && StringTools.startsWithUppercase(crt)) {
+        for (int k = 0; k < replacements.size(); k++) {
+          replacements.set(k, StringTools.uppercaseFirstChar(replacements.get(k)));
+        }
+      }
+      ruleMatch.setSuggestedReplacements(replacements);
+      if (!isException(sentence.getText().substring(startPos, endPos))) {
+        //keep only the longest match
+        if (ruleMatches.size() > 0) {
+          RuleMatch lastRuleMatch = ruleMatches.get(ruleMatches.size() - 1);
+          if (lastRuleMatch.getFromPos() == ruleMatch.getFromPos()
+              && lastRuleMatch.getToPos() < ruleMatch.getToPos()) {
+            ruleMatches.remove(ruleMatches.size() - 1);
           }
-          break;
         }
+        ruleMatches.add(ruleMatch);
       }
     }
     return toRuleMatchArray(ruleMatches);
@@ -298,6 +314,16 @@ public abstract class AbstractSimpleReplaceRule2 extends Rule {
     return false;
   }
 
+  private static class WrongWords {
+    private final List<Map<String, SuggestionWithMessage>> maps;
+    private final PhraseTrie trie;
+
+    WrongWords(List<Map<String, SuggestionWithMessage>> maps) {
+      this.maps = maps;
+      this.trie = new PhraseTrie(maps);
+    }
+  }
+
   static class PathsAndLanguage {
     final List<String> paths;
     final Language lang;
@@ -0,0 +1,240 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules;
+
+import org.languagetool.AnalyzedTokenReadings;
+
+import java.util.*;
+
+/**
+ * The phrases of {@link AbstractSimpleReplaceRule2} as a trie over their characters, so
+ * that the phrases in a sentence can be found by walking its tokens, without building strings.
+ * A phrase matches if it's the same as the tokens, joined with a space where a token
+ * has whitespace before it, and if it consists of the same number of tokens.
+ * @since 5.3
+ */
+final class PhraseTrie {
+
+  private static final int NONE = -1;
+
+  // all arrays are indexed by node, node 0 is the root, the children of a node are sorted by label:
+  private final char[] labels;
+  private final int[] firstChild;
+  private final int[] childCount;
+  private final int[] entries;
+
+  // indexed by entry:
+  private final int[] wordCounts;
+  private final SuggestionWithMessage[] suggestions;
+
+  /**
+   * @param wrongWords the n-th map contains the phrases of (n+1) tokens, as in {@link AbstractSimpleReplaceRule2#getWrongWords(boolean)}
+   */
+  PhraseTrie(List<Map<String, SuggestionWithMessage>> wrongWords) {
+    SortedMap<String, Integer> phrases = new TreeMap<>();
+    List<SuggestionWithMessage> suggestionList = new ArrayList<>();
+    List<Integer> wordCountList = new ArrayList<>();
+    for (int i = 0; i < wrongWords.size(); i++) {
+      for (Map.Entry<String, SuggestionWithMessage> entry : wrongWords.get(i).entrySet()) {
+        phrases.put(entry.getKey(), suggestionList.size());
+        suggestionList.add(entry.getValue());
+        wordCountList.add(i + 1);
+      }
+    }
+    suggestions = suggestionList.toArray(new SuggestionWithMessage[0]);
+    wordCounts = wordCountList.stream().mapToInt(Integer::intValue).toArray();
+    String[] keys = phrases.keySet().toArray(new String[0]);
+    int[] keyEntries = phrases.values().stream().mapToInt(Integer::intValue).toArray();
+
+    // breadth-first, so that the children of each node get consecutive numbers:
+    Builder b = new Builder();
+    b.add((char) 0, 0, keys.length, 0);
+    for (int node = 0; node < b.size; node++) {
+      int from = b.from[node];
+      int to = b.to[node];
+      int depth = b.depth[node];
+      if (from < to && keys[from].length() == depth) {
+        b.entries[node] = keyEntries[from];
+        from++;
+      }
+      b.firstChild[node] = b.size;
+      while (from < to) {
+        char c = keys[from].charAt(depth);
+        int end = from + 1;
+        while (end < to && keys[end].charAt(depth) == c) {
+          end++;
+        }
+        b.add(c, from, end, depth + 1);
+        from = end;
+      }
+      b.childCount[node] = b.size - b.firstChild[node];
+    }
+    labels = Arrays.copyOf(b.labels, b.size);
+    firstChild = Arrays.copyOf(b.firstChild, b.size);
+    childCount = Arrays.copyOf(b.childCount, b.size);
+    entries = Arrays.copyOf(b.entries, b.size);
+  }
+
+  boolean isEmpty() {
+    return suggestions.length == 0;
+  }
+
+  SuggestionWithMessage getSuggestion(int entry) {
+    return suggestions[entry];
+  }
+
+  /**
+   * Find all phrases in the tokens, ignoring the token at position 0 (the sentence start).
+   * @param words the tokens' texts, lowercased if the phrases are
+   */
+  Matches find(AnalyzedTokenReadings[] tokens, String[] words) {
+    Matches matches = new Matches(tokens.length);
+    for (int start = 1; start < tokens.length; start++) {
+      int node = walk(0, words[start]);
+      for (int end = start; node != NONE; ) {
+        int entry = entries[node];
+        if (entry != NONE && wordCounts[entry] == end - start + 1) {
+          matches.add(start, end, entry);
+        }
+        if (++end == tokens.length) {
+          break;
+        }
+        if (tokens[end].isWhitespaceBefore()) {
+          node = next(node, ' ');
+        }
+        node = walk(node, words[end]);
+      }
+    }
+    return matches;
+  }
+
+  private int walk(int node, String s) {
+    for (int i = 0; i < s.length() && node != NONE; i++) {
+      node = next(node, s.charAt(i));
+    }
+    return node;
+  }
+
+  private int next(int node, char c) {
+    if (node == NONE) {
+      return NONE;
+    }
+    int low = firstChild[node];
+    int high = low + childCount[node] - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      char label = labels[mid];
+      if (label < c) {
+        low = mid + 1;
+      } else if (label > c) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return NONE;
+  }
+
+  /**
+   * The phrases found in a sentence, by the position of their last token. For each position,
+   * the phrases are sorted by length, longest first.
+   */
+  static final class Matches {
+    private final int[] first;
+    private final int[] last;
+    private int[] next = new int[8];
+    private int[] starts = new int[8];
+    private int[] entries = new int[8];
+    private int size;
+
+    private Matches(int tokenCount) {
+      first = new int[tokenCount];
+      last = new int[tokenCount];
+      Arrays.fill(first, NONE);
+    }
+
+    // called with ascending start positions, so the longest phrases are added first
+    private void add(int start, int end, int entry) {
+      if (size == starts.length) {
+        next = Arrays.copyOf(next, size * 2);
+        starts = Arrays.copyOf(starts, size * 2);
+        entries = Arrays.copyOf(entries, size * 2);
+      }
+      next[size] = NONE;
+      starts[size] = start;
+      entries[size] = entry;
+      if (first[end] == NONE) {
+        first[end] = size;
+      } else {
+        next[last[end]] = size;
+      }
+      last[end] = size;
+      size++;
+    }
+
+    /** @return the longest match ending at the given token, or -1 */
+    int first(int end) {
+      return first[end];
+    }
+
+    /** @return the next shorter match ending at the same token, or -1 */
+    int next(int match) {
+      return next[match];
+    }
+
+    int start(int match) {
+      return starts[match];
+    }
+
+    int entry(int match) {
+      return entries[match];
+    }
+  }
+
+  private static final class Builder {
+    private char[] labels = new char[1024];
+    private int[] firstChild = new int[1024];
+    private int[] childCount = new int[1024];
+    private int[] entries = new int[1024];
+    private int[] from = new int[1024];
+    private int[] to = new int[1024];
+    private int[] depth = new int[1024];
+    private int size;
+
+    private void add(char label, int from, int to, int depth) {
+      if (size == labels.length) {
+        int capacity = size * 2;
+        labels = Arrays.copyOf(labels, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        childCount = Arrays.copyOf(childCount, capacity);
+        entries = Arrays.copyOf(entries, capacity);
+        this.from = Arrays.copyOf(this.from, capacity);
+        this.to = Arrays.copyOf(this.to, capacity);
+        this.depth = Arrays.copyOf(this.depth, capacity);
+      }
+      labels[size] = label;
+      entries[size] = NONE;
+      this.from[size] = from;
+      this.to[size] = to;
+      this.depth[size] = depth;
+      size++;
+    }
+  }
+
+}
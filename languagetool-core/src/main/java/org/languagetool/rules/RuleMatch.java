@@ -367,8 +367,13 @@ public class RuleMatch implements Comparable<RuleMatch> {
   public void addSuggestedReplacements(List<String> replacements) {
     Objects.requireNonNull(replacements, "replacements may be empty but not null");
     Supplier<List<SuggestedReplacement>> prev = suggestedReplacements;
-    setLazySuggestedReplacements(() ->
-      Lists.newArrayList(Iterables.concat(prev.get(), Iterables.transform(replacements, SuggestedReplacement::new))));
+    if (hasComputedSuggestedReplacements()) {
+      suggestedReplacements = Suppliers.ofInstance(
+        Lists.newArrayList(Iterables.concat(prev.get(), Iterables.transform(replacements, SuggestedReplacement::new))));
+    } else {
+      setLazySuggestedReplacements(() ->
+        Lists.newArrayList(Iterables.concat(prev.get(), Iterables.transform(replacements, SuggestedReplacement::new))));
+    }
   }
   /**
    * The text fragments which might be an appropriate fix for the problem. One
@@ -413,7 +418,33 @@ public class RuleMatch implements Comparable<RuleMatch> {
    */
   public void setLazySuggestedReplacements(@NotNull Supplier<List<SuggestedReplacement>> replacements) {
     Objects.requireNonNull(replacements, "replacements may not be null");
-    suggestedReplacements = Suppliers.memoize(replacements::get);
+    suggestedReplacements = new LazySuggestions(replacements);
+  }
+
+  /**
+   * Whether the suggested replacements are available without computing them, i.e. they haven't been
+   * set with {@link #setLazySuggestedReplacements(Supplier)} or they have been computed already.
+   * @since 5.3
+   */
+  public boolean hasComputedSuggestedReplacements() {
+    return !(suggestedReplacements instanceof LazySuggestions) || ((LazySuggestions) suggestedReplacements).computed;
+  }
+
+  /**
+   * Run {@code callback} once the suggested replacements have been computed, or right away if
+   * {@link #hasComputedSuggestedReplacements()} is already true. The callback runs on the thread that
+   * computes the suggestions, so it should be quick. It's not run if the lazy suggestions are
+   * replaced before they are ever computed.
+   * @since 5.3
+   */
+  public void whenSuggestedReplacementsComputed(Runnable callback) {
+    Objects.requireNonNull(callback);
+    Supplier<List<SuggestedReplacement>> replacements = suggestedReplacements;
+    if (replacements instanceof LazySuggestions) {
+      ((LazySuggestions) replacements).whenComputed(callback);
+    } else {
+      callback.run();
+    }
   }
 
   /**
@@ -529,4 +560,42 @@ public class RuleMatch implements Comparable<RuleMatch> {
       super(start, end);
     }
   }
+
+  private static class LazySuggestions implements Supplier<List<SuggestedReplacement>> {
+    private final Supplier<List<SuggestedReplacement>> supplier;
+    private volatile boolean computed;
+    private List<Runnable> callbacks;  // guarded by this, null once computed
+    LazySuggestions(Supplier<List<SuggestedReplacement>> replacements) {
+      supplier = Suppliers.memoize(replacements::get);
+    }
+    @Override
+    public List<SuggestedReplacement> get() {
+      List<SuggestedReplacement> result = supplier.get();
+      if (!computed) {
+        List<Runnable> toRun;
+        synchronized (this) {
+          computed = true;
+          toRun = callbacks;
+          callbacks = null;
+        }
+        if (toRun != null) {
+          toRun.forEach(Runnable::run);
+        }
+      }
+      return result;
+    }
+    void whenComputed(Runnable callback) {
+      synchronized (this) {
+        if (!computed) {
+          if (callbacks == null) {
+            callbacks = new ArrayList<>(1);
+          }
+          callbacks.add(callback);
+          return;
+        }
+      }
+      callback.run();
+    }
+  }
+
 }
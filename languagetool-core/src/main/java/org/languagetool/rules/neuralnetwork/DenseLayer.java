@@ -0,0 +1,82 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.neuralnetwork;
+
+/**
+ * A fully connected layer ({@code out = in * W + b}, optionally followed by ReLU),
+ * with the weights stored in one row-major array. The forward pass writes into
+ * a caller-provided array and doesn't allocate. Its inner loop runs over contiguous
+ * memory, so the JIT compiler can vectorize it.
+ * @since 5.3
+ */
+final class DenseLayer {
+
+  private final float[] weights;  // inputs x outputs, row-major
+  private final float[] bias;
+  private final int inputs;
+  private final int outputs;
+
+  /**
+   * @param weights a matrix with one row per input and one column per output
+   * @param bias a matrix with one row per output and one column
+   */
+  DenseLayer(Matrix weights, Matrix bias) {
+    if (bias.columns() != 1 || bias.rows() != weights.columns()) {
+      throw new ArithmeticException("Bias with " + bias.rows() + "x" + bias.columns() + " elements doesn't fit weights with " + weights.columns() + " columns");
+    }
+    this.weights = weights.toArray();
+    this.bias = bias.toArray();
+    this.inputs = weights.rows();
+    this.outputs = weights.columns();
+  }
+
+  int inputs() {
+    return inputs;
+  }
+
+  int outputs() {
+    return outputs;
+  }
+
+  /**
+   * @param in an array of at least {@link #inputs()} elements
+   * @param out an array of at least {@link #outputs()} elements, will be overwritten
+   */
+  void forward(float[] in, float[] out, boolean relu) {
+    System.arraycopy(bias, 0, out, 0, outputs);
+    for (int i = 0; i < inputs; i++) {
+      float x = in[i];
+      if (x == 0) {
+        continue;
+      }
+      int base = i * outputs;
+      for (int j = 0; j < outputs; j++) {
+        out[j] += x * weights[base + j];
+      }
+    }
+    if (relu) {
+      for (int j = 0; j < outputs; j++) {
+        if (out[j] < 0) {
+          out[j] = 0;
+        }
+      }
+    }
+  }
+
+}
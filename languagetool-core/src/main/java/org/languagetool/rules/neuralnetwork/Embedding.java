@@ -1,32 +1,56 @@
 package org.languagetool.rules.neuralnetwork;
 
-import java.util.Arrays;
+import java.nio.FloatBuffer;
 import java.util.Objects;
 
 class Embedding {
   
   private final Dictionary dictionary;
-  private final Matrix embedding;
+  private final FloatBuffer vectors;  // one row per word, only accessed with absolute get() so it can be shared by threads
+  private final int dimension;
 
   Embedding(Dictionary dictionary, Matrix embedding) {
+    this(dictionary, FloatBuffer.wrap(embedding.toArray()), embedding.columns());
+  }
+
+  /**
+   * @param vectors the vectors of all words, one after the other, e.g. a memory-mapped file
+   * @param dimension the length of a vector
+   * @since 5.3
+   */
+  Embedding(Dictionary dictionary, FloatBuffer vectors, int dimension) {
     this.dictionary = Objects.requireNonNull(dictionary);
-    this.embedding = Objects.requireNonNull(embedding);
+    this.vectors = Objects.requireNonNull(vectors);
+    this.dimension = dimension;
+  }
+
+  /**
+   * The length of a vector of a single word.
+   * @since 5.3
+   */
+  int dimension() {
+    return dimension;
   }
 
   public Matrix lookup(String[] words) {
-    return new Matrix(Arrays.stream(words)
-            .map(dictionary::safeGet)
-            .map(embedding::row)
-            .reduce(Embedding::concat)
-            .get());
+    float[] result = new float[words.length * dimension];
+    lookup(words, result);
+    return new Matrix(result);
   }
 
-  private static float[] concat(float[] a, float[] b) {
-    int aLen = a.length;
-    int bLen = b.length;
-    float[] c = new float[aLen + bLen];
-    System.arraycopy(a, 0, c, 0, aLen);
-    System.arraycopy(b, 0, c, aLen, bLen);
-    return c;
+  /**
+   * Writes the concatenated vectors of the given words to {@code dest}, which must
+   * have space for {@code words.length * dimension()} values.
+   * @since 5.3
+   */
+  void lookup(String[] words, float[] dest) {
+    int pos = 0;
+    for (String word : words) {
+      int start = dictionary.safeGet(word) * dimension;
+      for (int i = 0; i < dimension; i++) {
+        dest[pos++] = vectors.get(start + i);
+      }
+    }
   }
+
 }
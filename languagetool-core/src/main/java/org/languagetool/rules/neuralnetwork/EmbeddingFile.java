@@ -0,0 +1,130 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.neuralnetwork;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A binary format for word embeddings that can be memory-mapped, so the vectors are not
+ * parsed on startup and don't use heap memory. The file contains a header (magic bytes,
+ * format version, number of rows and columns as 4-byte integers) followed by the
+ * vectors as big-endian floats, row by row. Use {@link #main(String[])} to convert
+ * an embedding in the text format ({@code final_embeddings.txt}).
+ * @since 5.3
+ */
+public final class EmbeddingFile {
+
+  static final String FILE_NAME = "final_embeddings.bin";
+
+  private static final int MAGIC = 0x4c54454d;  // "LTEM"
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 16;
+
+  private EmbeddingFile() {
+  }
+
+  /**
+   * Converts an embedding from the text format, with one vector per line and the values
+   * separated by spaces, to the binary format. The text is processed line by line, so
+   * the embedding doesn't need to fit into memory.
+   */
+  public static void convert(File textFile, File binaryFile) throws IOException {
+    int rows = 0;
+    int columns = -1;
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(textFile), StandardCharsets.UTF_8));
+         DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binaryFile)))) {
+      writeHeader(out, 0, 0);
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isEmpty()) {
+          continue;
+        }
+        String[] values = line.split(" ");
+        if (columns == -1) {
+          columns = values.length;
+        } else if (values.length != columns) {
+          throw new IOException("Line " + (rows + 1) + " of " + textFile + " has " + values.length + " values, expected " + columns);
+        }
+        for (String value : values) {
+          out.writeFloat(Float.parseFloat(value));
+        }
+        rows++;
+      }
+    }
+    if (rows == 0) {
+      throw new IOException("No vectors found in " + textFile);
+    }
+    try (RandomAccessFile file = new RandomAccessFile(binaryFile, "rw")) {
+      writeHeader(file, rows, columns);
+    }
+  }
+
+  private static void writeHeader(DataOutput out, int rows, int columns) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(rows);
+    out.writeInt(columns);
+  }
+
+  /**
+   * Maps an embedding in the binary format into memory (read-only).
+   */
+  static Embedding map(File binaryFile, Dictionary dictionary) throws IOException {
+    try (FileChannel channel = FileChannel.open(binaryFile.toPath(), StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        // read until the header is complete or the file ends
+      }
+      if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+        throw new IOException("Not an embedding file in the binary format: " + binaryFile);
+      }
+      if (header.getInt(4) != VERSION) {
+        throw new IOException("Unsupported version " + header.getInt(4) + " of embedding file " + binaryFile);
+      }
+      int rows = header.getInt(8);
+      int columns = header.getInt(12);
+      long size = (long) rows * columns * Float.BYTES;
+      if (rows <= 0 || columns <= 0 || size != channel.size() - HEADER_SIZE) {
+        throw new IOException("Invalid size of embedding file " + binaryFile + ": " + rows + "x" + columns);
+      }
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("Embedding file too large to be mapped: " + binaryFile);
+      }
+      // the mapping stays valid after the channel has been closed:
+      FloatBuffer vectors = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, size).asFloatBuffer();
+      return new Embedding(dictionary, vectors, columns);
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.out.println("Usage: " + EmbeddingFile.class.getSimpleName() + " <final_embeddings.txt> <" + FILE_NAME + ">");
+      System.out.println("  Converts a word2vec embedding from the text format to the binary format,");
+      System.out.println("  which is used instead of the text format if it exists in the same directory.");
+      System.exit(1);
+    }
+    convert(new File(args[0]), new File(args[1]));
+  }
+
+}
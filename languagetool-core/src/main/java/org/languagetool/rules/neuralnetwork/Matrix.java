@@ -61,6 +61,19 @@ public class Matrix {
     return Arrays.copyOf(m[n], m[n].length);
   }
 
+  /**
+   * All elements, row by row.
+   * @since 5.3
+   */
+  float[] toArray() {
+    int columns = columns();
+    float[] result = new float[m.length * columns];
+    for (int i = 0; i < m.length; i++) {
+      System.arraycopy(m[i], 0, result, i * columns, columns);
+    }
+    return result;
+  }
+
   int rows() {
     return m.length;
   }
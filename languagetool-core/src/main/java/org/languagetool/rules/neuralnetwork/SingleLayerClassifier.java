@@ -23,18 +23,29 @@ import java.io.InputStream;
 public class SingleLayerClassifier implements Classifier {
 
   private final Embedding embedding;
-  private final Matrix W_fc1;
-  private final Matrix b_fc1;
+  private final DenseLayer fc1;
+  private final ThreadLocal<float[]> input;
 
   public SingleLayerClassifier(Embedding embedding, InputStream WPath, InputStream bPath) {
     this.embedding = embedding;
-    W_fc1 = new Matrix(WPath);
-    b_fc1 = new Matrix(bPath).transpose();
+    fc1 = new DenseLayer(new Matrix(WPath), new Matrix(bPath));
+    input = ThreadLocal.withInitial(() -> new float[fc1.inputs()]);
   }
 
   @Override
   public float[] getScores(String[] context) {
-    return embedding.lookup(context).mul(W_fc1).add(b_fc1).row(0);
+    checkInputSize(context.length * embedding.dimension(), fc1.inputs());
+    float[] x = input.get();
+    embedding.lookup(context, x);
+    float[] scores = new float[fc1.outputs()];
+    fc1.forward(x, scores, false);
+    return scores;
+  }
+
+  static void checkInputSize(int size, int expectedSize) {
+    if (size != expectedSize) {
+      throw new ArithmeticException("Input of size " + size + " doesn't fit a layer with " + expectedSize + " inputs");
+    }
   }
 
 }
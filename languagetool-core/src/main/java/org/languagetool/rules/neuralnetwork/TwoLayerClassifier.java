@@ -23,21 +23,28 @@ import java.io.InputStream;
 public class TwoLayerClassifier implements Classifier {
 
   private final Embedding embedding;
-  private final Matrix W_fc1;
-  private final Matrix b_fc1;
-  private final Matrix W_fc2;
-  private final Matrix b_fc2;
+  private final DenseLayer fc1;
+  private final DenseLayer fc2;
+  private final ThreadLocal<float[][]> buffers;  // input and hidden layer, reused per thread
 
   public TwoLayerClassifier(Embedding embedding, InputStream W1, InputStream b1, InputStream W2, InputStream b2) {
     this.embedding = embedding;
-    W_fc1 = new Matrix(W1);
-    b_fc1 = new Matrix(b1).transpose();
-    W_fc2 = new Matrix(W2);
-    b_fc2 = new Matrix(b2).transpose();
+    fc1 = new DenseLayer(new Matrix(W1), new Matrix(b1));
+    fc2 = new DenseLayer(new Matrix(W2), new Matrix(b2));
+    if (fc1.outputs() != fc2.inputs()) {
+      throw new ArithmeticException("First layer with " + fc1.outputs() + " outputs doesn't fit second layer with " + fc2.inputs() + " inputs");
+    }
+    buffers = ThreadLocal.withInitial(() -> new float[][]{new float[fc1.inputs()], new float[fc1.outputs()]});
   }
 
   public float[] getScores(String[] context) {
-    return embedding.lookup(context).mul(W_fc1).add(b_fc1).relu().mul(W_fc2).add(b_fc2).row(0);
+    SingleLayerClassifier.checkInputSize(context.length * embedding.dimension(), fc1.inputs());
+    float[][] b = buffers.get();
+    embedding.lookup(context, b[0]);
+    fc1.forward(b[0], b[1], true);
+    float[] scores = new float[fc2.outputs()];
+    fc2.forward(b[1], scores, false);
+    return scores;
   }
 
 }
@@ -18,19 +18,45 @@
  */
 package org.languagetool.rules.neuralnetwork;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 
 public class Word2VecModel {
 
+  private static final Logger logger = LoggerFactory.getLogger(Word2VecModel.class);
+
   private final Embedding embedding;
   private final File path;
 
-  public Word2VecModel(String path) throws FileNotFoundException {
-    Dictionary dictionary = new org.languagetool.rules.neuralnetwork.Dictionary(new FileInputStream(path + File.separator + "dictionary.txt"));
-    Matrix embedding = new Matrix(new FileInputStream(path + File.separator + "final_embeddings.txt"));
-    this.embedding = new Embedding(dictionary, embedding);
+  /**
+   * Loads the model from {@code path}. The embedding is memory-mapped if it is available in the binary
+   * format ({@code final_embeddings.bin}, see {@link EmbeddingFile}), otherwise it's read from
+   * {@code final_embeddings.txt}.
+   */
+  public Word2VecModel(String path) throws IOException {
+    Dictionary dictionary;
+    try (FileInputStream dictionaryStream = new FileInputStream(path + File.separator + "dictionary.txt")) {
+      dictionary = new org.languagetool.rules.neuralnetwork.Dictionary(dictionaryStream);
+    }
+    File binaryEmbedding = new File(path, EmbeddingFile.FILE_NAME);
+    if (binaryEmbedding.exists()) {
+      this.embedding = EmbeddingFile.map(binaryEmbedding, dictionary);
+    } else {
+      File textEmbedding = new File(path, "final_embeddings.txt");
+      if (!textEmbedding.exists()) {
+        throw new FileNotFoundException("Neither " + binaryEmbedding + " nor " + textEmbedding + " found");
+      }
+      logger.info("Loading {} into memory, convert it with {} to use the faster binary format", textEmbedding,
+        EmbeddingFile.class.getName());
+      try (FileInputStream embeddingStream = new FileInputStream(textEmbedding)) {
+        this.embedding = new Embedding(dictionary, new Matrix(embeddingStream));
+      }
+    }
     this.path = new File(path);
   }
 
@@ -0,0 +1,171 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.languagetool.AnalyzedToken;
+
+import java.util.*;
+
+/**
+ * The equivalences of a {@link UnifierConfiguration} in a compact form for the {@link Unifier}:
+ * features are numbered, and the types of a feature are bits of a {@code long}, so a set of
+ * types is a bitmask. The highest bit ({@link #PRESENT}) marks that a feature is present at all,
+ * as a feature whose types have all been removed isn't the same as a feature that was never
+ * matched.
+ * @since 5.3
+ */
+final class EquivalenceIndex {
+
+  static final long PRESENT = Long.MIN_VALUE;
+  static final long TYPES = ~PRESENT;
+
+  private final int equivalenceCount;
+  private final Map<String, Integer> featureNumbers = new HashMap<>();
+  private final List<Map<String, Integer>> typeNumbers = new ArrayList<>();
+  private final PatternToken[][] typeTokens;
+
+  EquivalenceIndex(Map<EquivalenceTypeLocator, PatternToken> equivalenceTypes, Map<String, List<String>> equivalenceFeatures) {
+    int count = 0;
+    List<PatternToken[]> tokensOfFeatures = new ArrayList<>();
+    for (Map.Entry<String, List<String>> feature : equivalenceFeatures.entrySet()) {
+      List<String> types = feature.getValue();
+      if (types.size() > Long.SIZE - 1) {
+        throw new IllegalArgumentException("Too many types (" + types.size() + ") for unification feature '" + feature.getKey() + "'");
+      }
+      int number = featureNumbers.size();
+      Map<String, Integer> numbers = new HashMap<>();
+      List<PatternToken> tokens = new ArrayList<>();
+      for (String type : types) {
+        PatternToken token = equivalenceTypes.get(new EquivalenceTypeLocator(feature.getKey(), type));
+        if (token != null && !numbers.containsKey(type)) {
+          numbers.put(type, tokens.size());
+          tokens.add(token);
+        }
+      }
+      featureNumbers.put(feature.getKey(), number);
+      typeNumbers.add(numbers);
+      tokensOfFeatures.add(tokens.toArray(new PatternToken[0]));
+      count += tokens.size();
+    }
+    typeTokens = tokensOfFeatures.toArray(new PatternToken[0][]);
+    // counting the equivalences found via the features, so that an equivalence which is
+    // currently being added to the configuration leads to a new index later:
+    equivalenceCount = count;
+  }
+
+  /**
+   * Whether this index still reflects the given equivalences. As equivalences are only ever
+   * added to a {@link UnifierConfiguration}, comparing their number is enough.
+   */
+  boolean isUpToDate(Map<EquivalenceTypeLocator, PatternToken> equivalenceTypes) {
+    return equivalenceTypes.size() == equivalenceCount;
+  }
+
+  int getFeatureCount() {
+    return typeTokens.length;
+  }
+
+  /**
+   * @return the types of {@code feature} out of {@code types} that {@code token} matches
+   */
+  long match(AnalyzedToken token, int feature, long types) {
+    long result = 0;
+    PatternToken[] tokens = typeTokens[feature];
+    for (long remaining = types & TYPES; remaining != 0; remaining &= remaining - 1) {
+      int type = Long.numberOfTrailingZeros(remaining);
+      if (tokens[type].isMatched(token)) {
+        result |= 1L << type;
+      }
+    }
+    return result;
+  }
+
+  Features getFeatures(Map<String, List<String>> uFeatures) {
+    return new Features(uFeatures);
+  }
+
+  /**
+   * The features (and their types) of a {@code unify} element, in the order given.
+   */
+  final class Features {
+    final int size;
+    final String[] names;
+    /** feature numbers, -1 for features that aren't defined */
+    final int[] numbers;
+    /** the types up to (not including) the first type that isn't defined */
+    final long[] typesUpToUndefined;
+    /** all types that are defined */
+    final long[] types;
+    final boolean[] hasUndefinedType;
+    private final Map<String, List<String>> copyOfFeatures = new HashMap<>();
+
+    private Features(Map<String, List<String>> uFeatures) {
+      for (Map.Entry<String, List<String>> feature : uFeatures.entrySet()) {
+        copyOfFeatures.put(feature.getKey(), feature.getValue() == null ? null : new ArrayList<>(feature.getValue()));
+      }
+      size = uFeatures.size();
+      names = new String[size];
+      numbers = new int[size];
+      typesUpToUndefined = new long[size];
+      types = new long[size];
+      hasUndefinedType = new boolean[size];
+      int i = 0;
+      for (Map.Entry<String, List<String>> feature : uFeatures.entrySet()) {
+        names[i] = feature.getKey();
+        Integer number = featureNumbers.get(feature.getKey());
+        numbers[i] = number == null ? -1 : number;
+        List<String> typeNames = feature.getValue();
+        if (typeNames == null || typeNames.isEmpty()) {
+          // all types of the feature
+          types[i] = number == null ? 0 : (1L << typeTokens[number].length) - 1;
+          typesUpToUndefined[i] = types[i];
+        } else {
+          Map<String, Integer> numbersOfTypes = number == null ? Collections.emptyMap() : typeNumbers.get(number);
+          for (String typeName : typeNames) {
+            Integer type = numbersOfTypes.get(typeName);
+            if (type == null) {
+              hasUndefinedType[i] = true;
+            } else {
+              types[i] |= 1L << type;
+              if (!hasUndefinedType[i]) {
+                typesUpToUndefined[i] |= 1L << type;
+              }
+            }
+          }
+        }
+        i++;
+      }
+    }
+
+    /**
+     * Whether these are (still) the features of the given map.
+     */
+    boolean isFor(Map<String, List<String>> uFeatures) {
+      return copyOfFeatures.equals(uFeatures);
+    }
+
+    /**
+     * A feature that isn't defined and for which the {@code unify} element doesn't list types.
+     */
+    boolean isUnknown(int i) {
+      return numbers[i] < 0 && !hasUndefinedType[i];
+    }
+  }
+
+}
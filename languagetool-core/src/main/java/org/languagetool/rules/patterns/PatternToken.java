@@ -335,7 +335,7 @@ public class PatternToken implements Cloneable {
     if (tokenPos == null) {
       return false;
     }
-    return pos.posPattern != null ? pos.posPattern.matches(tokenPos) : pos.posTag.equals(tokenPos);
+    return pos.matches(tokenPos);
   }
 
   private String getTestToken(AnalyzedToken token) {
@@ -762,6 +762,8 @@ public class PatternToken implements Cloneable {
     private final boolean negation;
     private final StringMatcher posPattern;
     private final boolean posUnknown;
+    // only real regular expressions are worth caching, see PosTagMatchCache:
+    private final int cacheNumber;
 
     public PosToken(String posTag, boolean regExp, boolean negation) {
       this.posTag = posTag;
@@ -769,12 +771,24 @@ public class PatternToken implements Cloneable {
       if (regExp) {
         posPattern = StringMatcher.create(posTag, true, true);
         posUnknown = posPattern.matches(UNKNOWN_TAG);
+        cacheNumber = posPattern.getPossibleValues() == null ? PosTagMatchCache.newPatternNumber() : PosTagMatchCache.NO_NUMBER;
       } else {
         posPattern = null;
         posUnknown = UNKNOWN_TAG.equals(posTag);
+        cacheNumber = PosTagMatchCache.NO_NUMBER;
       }
     }
 
+    private boolean matches(String tokenPos) {
+      if (posPattern == null) {
+        return posTag.equals(tokenPos);
+      }
+      if (cacheNumber == PosTagMatchCache.NO_NUMBER) {
+        return posPattern.matches(tokenPos);
+      }
+      return PosTagMatchCache.matches(cacheNumber, posPattern, tokenPos);
+    }
+
     @Override
     public String toString() {
       return posTag;
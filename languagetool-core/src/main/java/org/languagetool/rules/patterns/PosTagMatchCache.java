@@ -0,0 +1,74 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.languagetool.tagging.SymbolTable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Remembers whether the POS tag regular expression of a {@link PatternToken} matches a POS tag,
+ * using the ids of {@link SymbolTable#getPosTags()}. The same few thousand tags are matched
+ * against the same expressions over and over again, so most regular expression evaluations
+ * can be skipped. The cache has a fixed size, entries just overwrite older ones.
+ * @since 5.3
+ */
+final class PosTagMatchCache {
+
+  static final int NO_NUMBER = -1;
+
+  private static final int SIZE = 1 << 18;  // 2 MB
+  private static final int MAX_TAG_ID = (1 << 21) - 1;
+  private static final AtomicInteger patternCount = new AtomicInteger();
+  // each entry: pattern number + 1 (42 bits), tag id (21 bits), result (1 bit), 0 if empty
+  private static final AtomicLongArray entries = new AtomicLongArray(SIZE);
+
+  private PosTagMatchCache() {
+  }
+
+  /**
+   * A number that identifies a POS tag pattern in the cache, or {@link #NO_NUMBER}
+   * if there are no more numbers.
+   */
+  static int newPatternNumber() {
+    int number = patternCount.getAndIncrement();
+    return number < 0 ? NO_NUMBER : number;
+  }
+
+  /**
+   * @param patternNumber a number from {@link #newPatternNumber()}, not {@link #NO_NUMBER}
+   */
+  static boolean matches(int patternNumber, StringMatcher posPattern, String posTag) {
+    int tagId = SymbolTable.getPosTags().getId(posTag);
+    if (tagId == SymbolTable.NO_ID || tagId > MAX_TAG_ID) {
+      return posPattern.matches(posTag);
+    }
+    long key = ((patternNumber + 1L) << 22) | ((long) tagId << 1);
+    int index = (int) (((patternNumber * 0x9E3779B97F4A7C15L) ^ tagId) * 0x9E3779B97F4A7C15L >>> 46) & (SIZE - 1);
+    long entry = entries.get(index);
+    if ((entry & ~1L) == key) {
+      return (entry & 1L) != 0;
+    }
+    boolean matches = posPattern.matches(posTag);
+    entries.lazySet(index, matches ? key | 1L : key);
+    return matches;
+  }
+
+}
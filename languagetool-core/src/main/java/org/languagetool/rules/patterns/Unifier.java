@@ -20,62 +20,67 @@
 package org.languagetool.rules.patterns;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedToken;
 import org.languagetool.AnalyzedTokenReadings;
 
+import static org.languagetool.rules.patterns.EquivalenceIndex.PRESENT;
+import static org.languagetool.rules.patterns.EquivalenceIndex.TYPES;
+
 /**
  * Implements unification of features over tokens.
+ *
+ * <p>The equivalences matched by a reading are kept as an array with one bitmask of types
+ * per feature (see {@link EquivalenceIndex}), so unification is done with bitwise operations.
+ * The arrays are re-used after {@link #reset()}, so a unifier doesn't allocate much once it
+ * has been used a few times. Like before, a unifier must not be used by several threads at
+ * the same time.
  * 
  * @author Marcin Milkowski
  */
 public class Unifier {
 
-  private static final String UNIFY_IGNORE = "unify-ignore";
-    
-  private final List<AnalyzedTokenReadings> tokSequence;
+  private final Map<EquivalenceTypeLocator, PatternToken> equivalenceTypes;
+  private final Map<String, List<String>> equivalenceFeatures;
+  private final Map<Map<String, List<String>>, EquivalenceIndex.Features> featuresCache = new IdentityHashMap<>();
+  private EquivalenceIndex index;
+  /** the number of features, also the position of the "unify-ignore" marker in the equivalence arrays */
+  private int featureCount;
 
   /**
-   * List of all equivalences matched per tokens in the sequence, kept exactly
-   * in sync with the list in tokSequence, so that a reading 2 of token 1 has its
-   * equivalence map addressable as tokSequenceEquivalences.get(1).get(2).
+   * Tokens of the unified sequence with their readings and the equivalences matched
+   * by each reading.
    */
-  private final List<List<Map<String, Set<String>>>> tokSequenceEquivalences;
+  private Position[] tokSequence = new Position[8];
+  private int tokSequenceSize;
 
   /**
-   * A Map for storing the equivalence types for features. Features are
-   * specified as Strings, and map into types defined as maps from Strings to
-   * Elements.
+   * The equivalences matched by the readings of the first token. These arrays are shared
+   * with the first entry of tokSequence.
    */
-  private final Map<EquivalenceTypeLocator, PatternToken> equivalenceTypes;
+  private long[][] equivalencesMatched = new long[8][];
+  private int equivalencesMatchedSize;
 
-  /**
-   * A Map that stores all possible equivalence types listed for features.
-   */
-  private final Map<String, List<String>> equivalenceFeatures;
+  // Equivalences to be kept after every next token has been analyzed:
+  private long[] equivalencesToBeKept;
+  private long[] equivalencesMatchedHere;
 
-  /**
-   * Map of sets of matched equivalences in the unified sequence.
-   */
-  private final List<Map<String, Set<String>>> equivalencesMatched;
+  // the types already tested and matched for the reading in testedToken:
+  private AnalyzedToken testedToken;
+  private long[] testedTypes;
+  private long[] matchedTypes;
+
+  // equivalence arrays, re-used after reset():
+  private long[][] equivalenceArrays = new long[16][];
+  private int equivalenceArraysUsed;
 
   private boolean allFeatsIn;
   private int tokCnt;
   private int readingsCounter;
 
-  // Marks found interpretations in subsequent tokens:
-  private List<Boolean> featuresFound;
-
-  // For checking the current token:
-  private List<Boolean> tmpFeaturesFound;
-
-  // Maps that store equivalences to be removed or kept after every next token has been analyzed:
-  private final Map<String, Set<String>> equivalencesToBeKept;
-
   // stores uFeatures to keep the same signature of some methods...:
-  private Map<String, List<String>> unificationFeats;
+  private EquivalenceIndex.Features unificationFeats;
 
   private boolean inUnification;
   private boolean uniMatched;
@@ -85,16 +90,27 @@ public class Unifier {
    * Instantiates the unifier.
    */
   public Unifier(Map<EquivalenceTypeLocator, PatternToken> equivalenceTypes, Map<String, List<String>> equivalenceFeatures) {
+    this(equivalenceTypes, equivalenceFeatures, new EquivalenceIndex(equivalenceTypes, equivalenceFeatures));
+  }
+
+  Unifier(Map<EquivalenceTypeLocator, PatternToken> equivalenceTypes, Map<String, List<String>> equivalenceFeatures, EquivalenceIndex index) {
     tokCnt = 0;
     readingsCounter = 1;
-    equivalencesMatched = new ArrayList<>();
     this.equivalenceTypes = equivalenceTypes;
     this.equivalenceFeatures = equivalenceFeatures;
-    equivalencesToBeKept = new ConcurrentHashMap<>();
-    featuresFound = new ArrayList<>();
-    tmpFeaturesFound = new ArrayList<>();
-    tokSequence = new ArrayList<>();
-    tokSequenceEquivalences = new ArrayList<>();
+    equivalencesToBeKept = new long[0];
+    setIndex(index);
+  }
+
+  private void setIndex(EquivalenceIndex index) {
+    this.index = index;
+    featureCount = index.getFeatureCount();
+    featuresCache.clear();
+    equivalencesToBeKept = Arrays.copyOf(equivalencesToBeKept, featureCount);
+    equivalencesMatchedHere = new long[featureCount + 1];
+    testedTypes = new long[featureCount];
+    matchedTypes = new long[featureCount];
+    testedToken = null;
   }
 
   /**
@@ -107,57 +123,48 @@ public class Unifier {
   protected final boolean isSatisfied(AnalyzedToken aToken,
       Map<String, List<String>> uFeatures) {
 
-    if (allFeatsIn && equivalencesMatched.isEmpty()) {
+    if (allFeatsIn && equivalencesMatchedSize == 0) {
       return false;
     }
     if (uFeatures == null) {
       throw new RuntimeException("isSatisfied called without features being set");
     }
-    unificationFeats = uFeatures;
+    EquivalenceIndex.Features features = getFeatures(uFeatures);
+    unificationFeats = features;
 
     boolean unified = true;
     if (allFeatsIn) {
-      unified = checkNext(aToken, uFeatures);
+      unified = checkNext(aToken, features);
     } else {
-      while (equivalencesMatched.size() <= tokCnt) {
-        equivalencesMatched.add(new ConcurrentHashMap<>());
-      }
-      for (Map.Entry<String, List<String>> feat : uFeatures.entrySet()) {
-        List<String> types = feat.getValue();
-        if (types == null || types.isEmpty()) {
-          types = equivalenceFeatures.get(feat.getKey());
+      while (equivalencesMatchedSize <= tokCnt) {
+        if (equivalencesMatchedSize == equivalencesMatched.length) {
+          equivalencesMatched = Arrays.copyOf(equivalencesMatched, equivalencesMatchedSize * 2);
         }
-        for (String typeName : types) {
-          PatternToken testElem = equivalenceTypes
-              .get(new EquivalenceTypeLocator(feat.getKey(), typeName));
-          if (testElem == null) {
-            return false;
-          }
-          if (testElem.isMatched(aToken)) {
-            if (!equivalencesMatched.get(tokCnt).containsKey(feat.getKey())) {
-              Set<String> typeSet = new HashSet<>();
-              typeSet.add(typeName);
-              equivalencesMatched.get(tokCnt).put(feat.getKey(), typeSet);
-            } else {
-              equivalencesMatched.get(tokCnt).get(feat.getKey()).add(typeName);
-            }
+        equivalencesMatched[equivalencesMatchedSize++] = newEquivalences();
+      }
+      long[] equivalences = equivalencesMatched[tokCnt];
+      for (int i = 0; i < features.size; i++) {
+        int feature = getFeatureNumber(features, i);
+        if (feature >= 0) {
+          long matched = match(aToken, feature, features.typesUpToUndefined[i]);
+          if (matched != 0) {
+            equivalences[feature] |= PRESENT | matched;
           }
         }
-        unified = equivalencesMatched.get(tokCnt).containsKey(feat.getKey());
+        if (features.hasUndefinedType[i]) {
+          return false;
+        }
+        unified = equivalences[feature] != 0;
         if (!unified) {
-          equivalencesMatched.remove(tokCnt);
+          equivalencesMatchedSize--;
           break;
         }
       }
       if (unified) {
-        if (tokCnt == 0 || tokSequence.isEmpty()) {
-          tokSequence.add(new AnalyzedTokenReadings(aToken, 0));
-          List<Map<String, Set<String>>> equivList = new ArrayList<>();
-          equivList.add(equivalencesMatched.get(tokCnt));
-          tokSequenceEquivalences.add(equivList);
+        if (tokCnt == 0 || tokSequenceSize == 0) {
+          newPosition().add(aToken, equivalences);
         } else {
-          tokSequence.get(0).addReading(aToken, "Unifier");
-          tokSequenceEquivalences.get(0).add(equivalencesMatched.get(tokCnt));
+          tokSequence[0].add(aToken, equivalences);
         }
         tokCnt++;
       }
@@ -165,65 +172,40 @@ public class Unifier {
     return unified;
   }
 
-  private boolean checkNext(AnalyzedToken aToken,
-                            Map<String, List<String>> uFeatures) {
+  private boolean checkNext(AnalyzedToken aToken, EquivalenceIndex.Features features) {
     boolean anyFeatUnified = false;
-    List<Boolean> tokenFeaturesFound = new ArrayList<>(tmpFeaturesFound);
-    Map<String, Set<String>> equivalencesMatchedHere = new ConcurrentHashMap<>();
+    long[] equivalencesHere = equivalencesMatchedHere;
+    Arrays.fill(equivalencesHere, 0);
     if (allFeatsIn) {
       for (int i = 0; i < tokCnt; i++) {
         boolean allFeatsUnified = true;
-        for (Map.Entry<String, List<String>> feat : uFeatures.entrySet()) {
+        for (int j = 0; j < features.size; j++) {
           boolean featUnified = false;
-          List<String> types = feat.getValue();
-          if (types == null || types.isEmpty()) {
-            types = equivalenceFeatures.get(feat.getKey());
-          }
-          for (String typeName : types) {
-            if (equivalencesMatched.get(i).containsKey(feat.getKey())
-                && equivalencesMatched.get(i).get(feat.getKey()).contains(typeName)) {
-              PatternToken testElem = equivalenceTypes.get(new EquivalenceTypeLocator(feat.getKey(), typeName));
-              boolean matched = testElem.isMatched(aToken);
-              featUnified = featUnified || matched;
+          int feature = getFeatureNumber(features, j);
+          if (feature >= 0) {
+            // only the types that the previous tokens have in common:
+            long matched = match(aToken, feature, equivalencesMatched[i][feature] & features.types[j]);
+            if (matched != 0) {
+              featUnified = true;
               //Stores equivalences to be kept
-              if (matched) {
-                if (!equivalencesToBeKept.containsKey(feat.getKey())) {
-                  Set<String> typeSet = new HashSet<>();
-                  typeSet.add(typeName);
-                  equivalencesToBeKept.put(feat.getKey(), typeSet);
-                } else {
-                  equivalencesToBeKept.get(feat.getKey()).add(typeName);
-                }
-                if (!equivalencesMatchedHere.containsKey(feat.getKey())) { // just for this reading
-                  Set<String> typeSet = new HashSet<>();
-                  typeSet.add(typeName);
-                  equivalencesMatchedHere.put(feat.getKey(), typeSet);
-                } else {
-                  equivalencesMatchedHere.get(feat.getKey()).add(typeName);
-                }
-              }
+              equivalencesToBeKept[feature] |= PRESENT | matched;
+              equivalencesHere[feature] |= PRESENT | matched;  // just for this reading
             }
           }
           allFeatsUnified &= featUnified;
         }
-        tokenFeaturesFound.set(i, tokenFeaturesFound.get(i) || allFeatsUnified);
         anyFeatUnified = anyFeatUnified || allFeatsUnified;
       }
       if (anyFeatUnified) {
-        if (tokSequence.size() == readingsCounter) {
-          tokSequence.add(new AnalyzedTokenReadings(aToken, 0));
-          List<Map<String, Set<String>>> equivList = new ArrayList<>();
-          equivList.add(equivalencesMatchedHere);
-          tokSequenceEquivalences.add(equivList);
+        if (tokSequenceSize == readingsCounter) {
+          newPosition().add(aToken, copyOf(equivalencesHere));
         } else {
-          if (readingsCounter < tokSequence.size()) {
-            tokSequence.get(readingsCounter).addReading(aToken, "Unifier");
-            tokSequenceEquivalences.get(readingsCounter).add(equivalencesMatchedHere);
+          if (readingsCounter < tokSequenceSize) {
+            tokSequence[readingsCounter].add(aToken, copyOf(equivalencesHere));
           } else {
             anyFeatUnified = false;
           }
         }
-        tmpFeaturesFound = tokenFeaturesFound;
       }
     }
     return anyFeatUnified;
@@ -233,27 +215,21 @@ public class Unifier {
    * Call after every complete token (AnalyzedTokenReadings) checked.
    */
   public final void startNextToken() {
-    featuresFound = new ArrayList<>(tmpFeaturesFound);
     readingsCounter++;
     // Removes features
-    for (int j = 0; j < tokSequence.size(); j++) {
-      for (int i = 0; i < tokSequenceEquivalences.get(j).size(); i++) {
-        for (Map.Entry<String, List<String>> feat : equivalenceFeatures.entrySet()) {
-          if (!UNIFY_IGNORE.equals(feat.getKey())) {
-            if (tokSequenceEquivalences.get(j).get(i).containsKey(feat.getKey())) {
-              if (equivalencesToBeKept.containsKey(feat.getKey())) {
-                tokSequenceEquivalences.get(j).get(i).get(feat.getKey()).retainAll(equivalencesToBeKept.get(feat.getKey()));
-              } else {
-                tokSequenceEquivalences.get(j).get(i).remove(feat.getKey());
-              }
-            } else {
-              tokSequenceEquivalences.get(j).get(i).remove(feat.getKey());
-            }
+    for (int j = 0; j < tokSequenceSize; j++) {
+      Position position = tokSequence[j];
+      for (int i = 0; i < position.size; i++) {
+        long[] equivalences = position.equivalences[i];
+        for (int feature = 0; feature < featureCount; feature++) {
+          if (equivalences[feature] != 0) {
+            long kept = equivalencesToBeKept[feature];
+            equivalences[feature] = kept != 0 ? PRESENT | (equivalences[feature] & kept & TYPES) : 0;
           }
         }
       }
     }
-    equivalencesToBeKept.clear();
+    Arrays.fill(equivalencesToBeKept, 0);
   }
 
   /**
@@ -261,10 +237,6 @@ public class Unifier {
    */
   public final void startUnify() {
     allFeatsIn = true;
-    for (int i = 0; i < tokCnt; i++) {
-      featuresFound.add(false);
-    }
-    tmpFeaturesFound = new ArrayList<>(featuresFound);
   }
 
   /**
@@ -274,55 +246,54 @@ public class Unifier {
    * @since 2.5
    */
   public final boolean getFinalUnificationValue(Map<String, List<String>> uFeatures) {
+    EquivalenceIndex.Features features = getFeatures(uFeatures);
     int tokUnified = 0;
-    for (int j = 0; j < tokSequence.size(); j++) {
+    for (int j = 0; j < tokSequenceSize; j++) {
       boolean unifiedTokensFound = false; // assume that nothing has been found
-      for (int i = 0; i < tokSequenceEquivalences.get(j).size(); i++) {
-        int featUnified = 0;
-        if (tokSequenceEquivalences.get(j).get(i).containsKey(UNIFY_IGNORE)) {
+      Position position = tokSequence[j];
+      for (int i = 0; i < position.size; i++) {
+        long[] equivalences = position.equivalences[i];
+        if (isNeutral(equivalences)) {
           if (i == 0) {
             tokUnified++;
           }
           unifiedTokensFound = true;
           continue;
-        } else {
-          for (Map.Entry<String, List<String>> feat : uFeatures.entrySet()) {
-            if (tokSequenceEquivalences.get(j).get(i).containsKey(feat.getKey()) &&
-                tokSequenceEquivalences.get(j).get(i).get(feat.getKey()).isEmpty()) {
-              featUnified = 0;
-            } else {
-              featUnified++;
-            }
-            if (featUnified == unificationFeats.entrySet().size() && tokUnified <= j) {
-              tokUnified++;
-              unifiedTokensFound = true;
-              break;
-            }
+        }
+        int featUnified = 0;
+        for (int k = 0; k < features.size; k++) {
+          if (hasLostAllTypes(equivalences, features.numbers[k])) {
+            featUnified = 0;
+          } else {
+            featUnified++;
+          }
+          if (featUnified == unificationFeats.size && tokUnified <= j) {
+            tokUnified++;
+            unifiedTokensFound = true;
+            break;
           }
         }
-
       }
       if (!unifiedTokensFound) {
         return false;
       }
     }
-    if (tokUnified == tokSequence.size()) {
-      return true;
-    }
-    return false;
+    return tokUnified == tokSequenceSize;
   }
 
   /**
    * Resets after use of unification. Required.
    */
   public final void reset() {
-    equivalencesMatched.clear();
+    if (!index.isUpToDate(equivalenceTypes)) {
+      setIndex(new EquivalenceIndex(equivalenceTypes, equivalenceFeatures));
+    }
+    equivalencesMatchedSize = 0;
     allFeatsIn = false;
     tokCnt = 0;
-    featuresFound.clear();
-    tmpFeaturesFound.clear();
-    tokSequence.clear();
-    tokSequenceEquivalences.clear();
+    tokSequenceSize = 0;
+    equivalenceArraysUsed = 0;
+    testedToken = null;
     readingsCounter = 1;
     uniMatched = false;
     uniAllMatched = false;
@@ -336,27 +307,28 @@ public class Unifier {
    */
   @Nullable
   public final AnalyzedTokenReadings[] getUnifiedTokens() {
-    if (tokSequence.isEmpty()) {
+    if (tokSequenceSize == 0) {
       return null;
     }
     List<AnalyzedTokenReadings> uTokens = new ArrayList<>();
-    for (int j = 0; j < tokSequence.size(); j++) {
+    for (int j = 0; j < tokSequenceSize; j++) {
       boolean unifiedTokensFound = false; // assume that nothing has been found
-      for (int i = 0; i < tokSequenceEquivalences.get(j).size(); i++) {
-        int featUnified = 0;
-        if (tokSequenceEquivalences.get(j).get(i).containsKey(UNIFY_IGNORE)) {
-          addTokenToSequence(uTokens, tokSequence.get(j).getAnalyzedToken(i), j);
+      Position position = tokSequence[j];
+      for (int i = 0; i < position.size; i++) {
+        long[] equivalences = position.equivalences[i];
+        if (isNeutral(equivalences)) {
+          addTokenToSequence(uTokens, position.readings[i], j);
           unifiedTokensFound = true;
         } else {
-          for (Map.Entry<String, List<String>> feat : unificationFeats.entrySet()) {
-            if (tokSequenceEquivalences.get(j).get(i).containsKey(feat.getKey()) &&
-                    tokSequenceEquivalences.get(j).get(i).get(feat.getKey()).isEmpty()) {
+          int featUnified = 0;
+          for (int k = 0; k < unificationFeats.size; k++) {
+            if (hasLostAllTypes(equivalences, unificationFeats.numbers[k])) {
               featUnified = 0;
             } else {
               featUnified++;
             }
-            if (featUnified == unificationFeats.entrySet().size()) {
-              addTokenToSequence(uTokens, tokSequence.get(j).getAnalyzedToken(i), j);
+            if (featUnified == unificationFeats.size) {
+              addTokenToSequence(uTokens, position.readings[i], j);
               unifiedTokensFound = true;
             }
           }
@@ -438,14 +410,12 @@ public class Unifier {
    * @since 2.5
    */
   public final void addNeutralElement(AnalyzedTokenReadings analyzedTokenReadings) {
-    tokSequence.add(analyzedTokenReadings);
-    List<Map<String, Set<String>>> tokEquivs = new ArrayList<>(analyzedTokenReadings.getReadingsLength());
-    Map<String, Set<String>> map = new ConcurrentHashMap<>();
-    map.put(UNIFY_IGNORE, new HashSet<>());
+    long[] equivalences = newEquivalences();
+    equivalences[featureCount] = PRESENT;
+    Position position = newPosition();
     for (int i = 0; i < analyzedTokenReadings.getReadingsLength(); i++) {
-      tokEquivs.add(map);
+      position.add(analyzedTokenReadings.getAnalyzedToken(i), equivalences);
     }
-    tokSequenceEquivalences.add(tokEquivs);
     readingsCounter++;
   }
 
@@ -461,4 +431,105 @@ public class Unifier {
     }
     return null;
   }
+
+  private EquivalenceIndex.Features getFeatures(Map<String, List<String>> uFeatures) {
+    EquivalenceIndex.Features features = featuresCache.get(uFeatures);
+    // the maps of the rules don't change, but others might:
+    if (features == null || !features.isFor(uFeatures)) {
+      features = index.getFeatures(uFeatures);
+      featuresCache.put(uFeatures, features);
+    }
+    return features;
+  }
+
+  private static int getFeatureNumber(EquivalenceIndex.Features features, int i) {
+    if (features.isUnknown(i)) {
+      throw new RuntimeException("Unknown unification feature '" + features.names[i] + "'");
+    }
+    return features.numbers[i];
+  }
+
+  /**
+   * The types of {@code feature} out of {@code types} that {@code token} matches, each type
+   * is tested only once per reading.
+   */
+  private long match(AnalyzedToken token, int feature, long types) {
+    if (token != testedToken) {
+      Arrays.fill(testedTypes, 0);
+      Arrays.fill(matchedTypes, 0);
+      testedToken = token;
+    }
+    long untested = types & TYPES & ~testedTypes[feature];
+    if (untested != 0) {
+      matchedTypes[feature] |= index.match(token, feature, untested);
+      testedTypes[feature] |= untested;
+    }
+    return matchedTypes[feature] & types;
+  }
+
+  private boolean isNeutral(long[] equivalences) {
+    return equivalences[featureCount] != 0;
+  }
+
+  /**
+   * Whether the feature was matched, but none of its types is shared by all tokens.
+   */
+  private static boolean hasLostAllTypes(long[] equivalences, int feature) {
+    return feature >= 0 && equivalences[feature] == PRESENT;
+  }
+
+  private long[] newEquivalences() {
+    if (equivalenceArraysUsed == equivalenceArrays.length) {
+      equivalenceArrays = Arrays.copyOf(equivalenceArrays, equivalenceArraysUsed * 2);
+    }
+    long[] equivalences = equivalenceArrays[equivalenceArraysUsed];
+    if (equivalences == null || equivalences.length != featureCount + 1) {
+      equivalences = new long[featureCount + 1];
+      equivalenceArrays[equivalenceArraysUsed] = equivalences;
+    } else {
+      Arrays.fill(equivalences, 0);
+    }
+    equivalenceArraysUsed++;
+    return equivalences;
+  }
+
+  private long[] copyOf(long[] equivalences) {
+    long[] copy = newEquivalences();
+    System.arraycopy(equivalences, 0, copy, 0, equivalences.length);
+    return copy;
+  }
+
+  private Position newPosition() {
+    if (tokSequenceSize == tokSequence.length) {
+      tokSequence = Arrays.copyOf(tokSequence, tokSequenceSize * 2);
+    }
+    Position position = tokSequence[tokSequenceSize];
+    if (position == null) {
+      position = new Position();
+      tokSequence[tokSequenceSize] = position;
+    }
+    position.size = 0;
+    tokSequenceSize++;
+    return position;
+  }
+
+  /**
+   * The readings of a token in the unified sequence and their equivalences.
+   */
+  private static final class Position {
+    private AnalyzedToken[] readings = new AnalyzedToken[4];
+    private long[][] equivalences = new long[4][];
+    private int size;
+
+    void add(AnalyzedToken reading, long[] readingEquivalences) {
+      if (size == readings.length) {
+        readings = Arrays.copyOf(readings, size * 2);
+        equivalences = Arrays.copyOf(equivalences, size * 2);
+      }
+      readings[size] = reading;
+      equivalences[size] = readingEquivalences;
+      size++;
+    }
+  }
+
 }
@@ -42,6 +42,8 @@ public class UnifierConfiguration {
    */
   private final Map<String, List<String>> equivalenceFeatures;
 
+  private volatile EquivalenceIndex equivalenceIndex;
+
   public UnifierConfiguration() {
     // workaround for issue #13
     equivalenceTypes = new ConcurrentHashMap<>();
@@ -86,6 +88,13 @@ public class UnifierConfiguration {
   }
 
   public Unifier createUnifier() {
-    return new Unifier(getEquivalenceTypes(), getEquivalenceFeatures());
+    Map<EquivalenceTypeLocator, PatternToken> types = getEquivalenceTypes();
+    EquivalenceIndex index = equivalenceIndex;
+    if (index == null || !index.isUpToDate(types)) {
+      // shared by all unifiers, so it's not re-built for every rule:
+      index = new EquivalenceIndex(types, getEquivalenceFeatures());
+      equivalenceIndex = index;
+    }
+    return new Unifier(types, getEquivalenceFeatures(), index);
   }
 }
@@ -0,0 +1,49 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.spelling;
+
+/**
+ * A word and the scope of the rule that checks it (see {@link SpellingCheckRule#getVerdictScope()}),
+ * the key of {@link SpellingVerdictCache} and {@link SpellingSuggestionCache}.
+ * @since 5.3
+ */
+final class ScopedWord {
+
+  private final String scope;
+  private final String word;
+
+  ScopedWord(String scope, String word) {
+    this.scope = scope;
+    this.word = word;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof ScopedWord)) return false;
+    ScopedWord other = (ScopedWord) o;
+    return word.equals(other.word) && scope.equals(other.scope);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * scope.hashCode() + word.hashCode();
+  }
+
+}
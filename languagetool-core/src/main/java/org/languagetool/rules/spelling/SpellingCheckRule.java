@@ -18,6 +18,7 @@
  */
 package org.languagetool.rules.spelling;
 
+import com.google.common.hash.Hashing;
 import gnu.trove.THashMap;
 import gnu.trove.THashSet;
 import org.apache.commons.lang3.tuple.Pair;
@@ -33,6 +34,7 @@ import org.languagetool.tokenizers.WordTokenizer;
 import org.languagetool.tools.StringTools;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -85,6 +87,8 @@ public abstract class SpellingCheckRule extends Rule {
   protected final Set<String> wordsToBeIgnored = new THashSet<>();
   protected int ignoreWordsWithLength = 0;
 
+  private volatile VerdictScope verdictScope;
+
   public SpellingCheckRule(ResourceBundle messages, Language language, UserConfig userConfig) {
     this(messages, language, userConfig, Collections.emptyList());
   }
@@ -241,6 +245,51 @@ public abstract class SpellingCheckRule extends Rule {
     this.considerIgnoreWords = considerIgnoreWords;
   }
 
+  /**
+   * Get the scope under which this rule's verdicts are stored in the {@link SpellingVerdictCache}.
+   * Rules share cached verdicts only if they are of the same class and have the same words to be
+   * ignored (including the user's dictionary) and prohibited. Subclasses whose verdicts depend
+   * on other settings need to return those from {@link #getVerdictScopeDetails()}.
+   * @since 5.3
+   */
+  protected final String getVerdictScope() {
+    VerdictScope scope = verdictScope;
+    if (scope == null || !scope.isValidFor(this)) {
+      scope = new VerdictScope(this);
+      verdictScope = scope;
+    }
+    return scope.scope;
+  }
+
+  /**
+   * Settings of this rule (other than the words to be ignored and prohibited) that its verdict
+   * for a single word depends on, e.g. the dictionaries used, as a string. Should return the same
+   * object as long as the settings don't change.
+   * @since 5.3
+   */
+  protected String getVerdictScopeDetails() {
+    return "";
+  }
+
+  /**
+   * Get the verdict for a single word from the cache shared by all instances of this rule
+   * with the same scope (see {@link #getVerdictScope()}), computing it if needed.
+   * @since 5.3
+   */
+  protected SpellingVerdictCache.Verdict getCachedVerdict(String word, SpellingVerdictCache.VerdictComputer computer) throws IOException {
+    return SpellingVerdictCache.getInstance(language).get(getVerdictScope(), word, computer);
+  }
+
+  /**
+   * Get the suggestions for a misspelled word from the cache shared by all instances of this rule
+   * with the same scope (see {@link #getVerdictScope()}), computing them if needed. Only use this
+   * for suggestions that don't depend on the word's context.
+   * @since 5.3
+   */
+  protected List<SuggestedReplacement> getCachedSuggestions(String word, SpellingSuggestionCache.SuggestionComputer computer) throws IOException {
+    return SpellingSuggestionCache.getInstance(language).get(getVerdictScope(), word, computer);
+  }
+
   /**
    * Get additional suggestions added before other suggestions (note the rule may choose to
    * re-order the suggestions anyway). Only add suggestions here that you know are spelled correctly,
@@ -584,4 +633,61 @@ public abstract class SpellingCheckRule extends Rule {
     return match.map(String::length).orElse(0);
   }
 
+
+  // the words to be ignored and prohibited are only ever added, so their size tells us when to re-compute the hash:
+  private static final class VerdictScope {
+    private final int ignoredCount;
+    private final int prohibitedCount;
+    private final boolean considerIgnoreWords;
+    private final boolean convertsCase;
+    private final int ignoreWordsWithLength;
+    private final String details;
+    private final String scope;
+
+    private VerdictScope(SpellingCheckRule rule) {
+      ignoredCount = rule.wordsToBeIgnored.size();
+      prohibitedCount = rule.wordsToBeProhibited.size();
+      considerIgnoreWords = rule.considerIgnoreWords;
+      convertsCase = rule.convertsCase;
+      ignoreWordsWithLength = rule.ignoreWordsWithLength;
+      details = rule.getVerdictScopeDetails();
+      long ignoredHash = unorderedHash(rule.wordsToBeIgnored);
+      long prohibitedHash = unorderedHash(rule.wordsToBeProhibited);
+      scope = rule.getClass().getName() + ":" + rule.getId() + ":" + ignoredCount + ":" + Long.toHexString(ignoredHash)
+        + ":" + prohibitedCount + ":" + Long.toHexString(prohibitedHash)
+        + ":" + considerIgnoreWords + ":" + convertsCase + ":" + ignoreWordsWithLength + ":" + details;
+    }
+
+    // order-independent, so sets with the same content always get the same scope. The sum and the xor
+    // of the word hashes are mixed like in the finalizer of murmur3, so that they don't cancel out:
+    private static long unorderedHash(Collection<String> words) {
+      long sum = 0;
+      long xor = 0;
+      for (String word : words) {
+        long hash = Hashing.murmur3_128().hashString(word, StandardCharsets.UTF_8).asLong();
+        sum += hash;
+        xor ^= mix(hash);
+      }
+      return mix(sum ^ mix(xor + words.size()));
+    }
+
+    private static long mix(long hash) {
+      hash ^= hash >>> 33;
+      hash *= 0xff51afd7ed558ccdL;
+      hash ^= hash >>> 33;
+      hash *= 0xc4ceb9fe1a85ec53L;
+      hash ^= hash >>> 33;
+      return hash;
+    }
+
+    private boolean isValidFor(SpellingCheckRule rule) {
+      return ignoredCount == rule.wordsToBeIgnored.size() &&
+             prohibitedCount == rule.wordsToBeProhibited.size() &&
+             considerIgnoreWords == rule.considerIgnoreWords &&
+             convertsCase == rule.convertsCase &&
+             ignoreWordsWithLength == rule.ignoreWordsWithLength &&
+             details.equals(rule.getVerdictScopeDetails());
+    }
+  }
+
 }
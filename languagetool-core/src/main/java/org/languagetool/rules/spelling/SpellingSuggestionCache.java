@@ -0,0 +1,128 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.spelling;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.languagetool.Language;
+import org.languagetool.rules.SuggestedReplacement;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the suggestions for misspelled words, per language and shared by all instances
+ * of the spelling rules. The same typos occur again and again, but suggestions are expensive
+ * to compute, so each word's suggestions are computed at most once per expiry period, even if
+ * several threads ask for them at the same time. Like {@link SpellingVerdictCache}, entries are
+ * stored under a scope that contains the user's dictionary. Only suggestions that depend on the
+ * word alone (not on its context) can be cached.
+ * The maximum number of entries per language can be set with the system property
+ * {@code spellingSuggestionCacheSize}, {@code 0} disables the cache.
+ * @since 5.3
+ */
+public final class SpellingSuggestionCache {
+
+  @FunctionalInterface
+  public interface SuggestionComputer {
+    List<SuggestedReplacement> compute(String word) throws IOException;
+  }
+
+  private static final long MAX_SIZE = Long.getLong("spellingSuggestionCacheSize", 5_000);
+  private static final Map<String, SpellingSuggestionCache> instances = new ConcurrentHashMap<>();
+
+  private final Cache<ScopedWord, List<SuggestedReplacement>> cache;
+
+  private SpellingSuggestionCache(long maxSize) {
+    cache = CacheBuilder.newBuilder()
+      .maximumSize(maxSize)
+      .expireAfterWrite(10, TimeUnit.MINUTES)
+      .recordStats()
+      .build();
+  }
+
+  /**
+   * Get the cache shared by all spelling rules of the given language.
+   */
+  public static SpellingSuggestionCache getInstance(Language language) {
+    return instances.computeIfAbsent(language.getShortCodeWithCountryAndVariant(), k -> new SpellingSuggestionCache(MAX_SIZE));
+  }
+
+  /**
+   * All caches created so far, with the language code as key, e.g. to export their metrics.
+   */
+  public static Map<String, SpellingSuggestionCache> getInstances() {
+    return Collections.unmodifiableMap(instances);
+  }
+
+  /**
+   * Get the cached suggestions for {@code word} or compute and cache them. The result is a copy
+   * that the caller may modify.
+   */
+  public List<SuggestedReplacement> get(String scope, String word, SuggestionComputer computer) throws IOException {
+    if (MAX_SIZE <= 0) {
+      return computer.compute(word);
+    }
+    List<SuggestedReplacement> suggestions;
+    try {
+      suggestions = cache.get(new ScopedWord(scope, word), () -> copy(computer.compute(word)));
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    } catch (UncheckedExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+    // SuggestedReplacement is mutable, so neither the caller nor the cache may keep the other's objects:
+    return copy(suggestions);
+  }
+
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  private static List<SuggestedReplacement> copy(List<SuggestedReplacement> suggestions) {
+    List<SuggestedReplacement> result = new ArrayList<>(suggestions.size());
+    for (SuggestedReplacement suggestion : suggestions) {
+      result.add(new SuggestedReplacement(suggestion));
+    }
+    return result;
+  }
+
+}
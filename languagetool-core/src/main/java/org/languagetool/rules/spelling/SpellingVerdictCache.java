@@ -0,0 +1,114 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.spelling;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.languagetool.Language;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the spell checker's verdict for single words, per language and shared by all
+ * instances of the spelling rules. As word frequencies follow Zipf's law, a few thousand
+ * entries answer most lookups. Verdicts are stored under a scope that identifies the
+ * rule class and everything that can change its verdict for a single word, like the user's
+ * dictionary (see {@link SpellingCheckRule#getVerdictScope()}). Phrases accepted with
+ * {@link SpellingCheckRule#acceptPhrases(java.util.List)} don't need to be part of the scope,
+ * as they immunize the tokens before the cache is used.
+ * The maximum number of entries per language can be set with the system property
+ * {@code spellingVerdictCacheSize}, {@code 0} disables the cache.
+ * @since 5.3
+ */
+public final class SpellingVerdictCache {
+
+  public enum Verdict {
+    CORRECT,
+    MISSPELLED,
+    /** not in the dictionary, but accepted, e.g. because it's on an ignore list */
+    IGNORED
+  }
+
+  @FunctionalInterface
+  public interface VerdictComputer {
+    Verdict compute(String word) throws IOException;
+  }
+
+  private static final long MAX_SIZE = Long.getLong("spellingVerdictCacheSize", 20_000);
+  private static final Map<String, SpellingVerdictCache> instances = new ConcurrentHashMap<>();
+
+  private final Cache<ScopedWord, Verdict> cache;
+
+  private SpellingVerdictCache(long maxSize) {
+    cache = CacheBuilder.newBuilder()
+      .maximumSize(maxSize)
+      .recordStats()
+      .build();
+  }
+
+  /**
+   * Get the cache shared by all spelling rules of the given language.
+   */
+  public static SpellingVerdictCache getInstance(Language language) {
+    return instances.computeIfAbsent(language.getShortCodeWithCountryAndVariant(), k -> new SpellingVerdictCache(MAX_SIZE));
+  }
+
+  /**
+   * All caches created so far, with the language code as key, e.g. to export their metrics.
+   */
+  public static Map<String, SpellingVerdictCache> getInstances() {
+    return Collections.unmodifiableMap(instances);
+  }
+
+  /**
+   * Get the cached verdict for {@code word} or compute and cache it. The computer may use
+   * the cache itself (e.g. for parts of a compound word).
+   */
+  public Verdict get(String scope, String word, VerdictComputer computer) throws IOException {
+    if (MAX_SIZE <= 0) {
+      return computer.compute(word);
+    }
+    ScopedWord key = new ScopedWord(scope, word);
+    // not using Cache.get(key, loader), as that doesn't allow recursive use:
+    Verdict verdict = cache.getIfPresent(key);
+    if (verdict == null) {
+      verdict = Objects.requireNonNull(computer.compute(word));
+      cache.put(key, verdict);
+    }
+    return verdict;
+  }
+
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+}
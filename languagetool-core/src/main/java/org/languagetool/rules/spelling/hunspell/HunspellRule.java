@@ -29,6 +29,7 @@ import org.languagetool.rules.Categories;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.SuggestedReplacement;
 import org.languagetool.rules.spelling.SpellingCheckRule;
+import org.languagetool.rules.spelling.SpellingVerdictCache;
 
 import java.io.*;
 import java.net.URISyntaxException;
@@ -184,7 +185,7 @@ public class HunspellRule extends SpellingCheckRule {
           if (userConfig == null || userConfig.getMaxSpellingSuggestions() == 0 || ruleMatches.size() <= userConfig.getMaxSpellingSuggestions()) {
             ruleMatch.setLazySuggestedReplacements(() -> {
               try {
-                return calcSuggestions(word, cleanWord);
+                return getCachedSuggestions(word, w -> calcSuggestions(w, cleanWord));
               } catch (IOException e) {
                 throw new RuntimeException(e);
               }
@@ -273,21 +274,26 @@ public class HunspellRule extends SpellingCheckRule {
   public boolean isMisspelled(String word) {
     try {
       ensureInitialized();
-      boolean isAlphabetic = true;
-      if (word.length() == 1) { // hunspell dictionaries usually do not contain punctuation
-        isAlphabetic = Character.isAlphabetic(word.charAt(0));
-      }
-      return (
-              isAlphabetic && !"--".equals(word)
-              && (hunspell != null && !hunspell.spell(word))
-              && !ignoreWord(word)
-             )
-             || isProhibited(cutOffDot(word));
+      return getCachedVerdict(word, this::getVerdict) == SpellingVerdictCache.Verdict.MISSPELLED;
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
   }
 
+  private SpellingVerdictCache.Verdict getVerdict(String word) throws IOException {
+    if (isProhibited(cutOffDot(word))) {
+      return SpellingVerdictCache.Verdict.MISSPELLED;
+    }
+    boolean isAlphabetic = true;
+    if (word.length() == 1) { // hunspell dictionaries usually do not contain punctuation
+      isAlphabetic = Character.isAlphabetic(word.charAt(0));
+    }
+    if (!isAlphabetic || "--".equals(word) || hunspell == null || hunspell.spell(word)) {
+      return SpellingVerdictCache.Verdict.CORRECT;
+    }
+    return ignoreWord(word) ? SpellingVerdictCache.Verdict.IGNORED : SpellingVerdictCache.Verdict.MISSPELLED;
+  }
+
   public List<String> getSuggestions(String word) throws IOException {
     ensureInitialized();
     return hunspell.suggest(word);
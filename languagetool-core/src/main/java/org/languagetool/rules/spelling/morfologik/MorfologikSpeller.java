@@ -25,12 +25,13 @@ import org.jetbrains.annotations.NotNull;
 import org.languagetool.JLanguageTool;
 import org.languagetool.broker.ResourceDataBroker;
 import org.languagetool.rules.spelling.SpellingCheckRule;
+import org.languagetool.rules.spelling.symspell.SymSpellIndex;
 import org.languagetool.tools.StringTools;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -56,16 +57,35 @@ public class MorfologikSpeller {
         }
       });
 
+  // Indexes are memory-mapped, so keeping them doesn't use heap memory:
+  private static final LoadingCache<String, Optional<SymSpellIndex>> indexCache = CacheBuilder.newBuilder()
+      .build(new CacheLoader<String, Optional<SymSpellIndex>>() {
+        @Override
+        public Optional<SymSpellIndex> load(@NotNull String fileInClassPath) throws IOException {
+          String indexPath = fileInClassPath.replaceFirst("\\.dict$", SymSpellIndex.FILE_EXTENSION);
+          if (indexPath.equals(fileInClassPath)) {
+            return Optional.empty();
+          }
+          ResourceDataBroker dataBroker = JLanguageTool.getDataBroker();
+          if (dataBroker.resourceExists(indexPath)) {
+            return Optional.of(SymSpellIndex.map(dataBroker.getFromResourceDirAsUrl(indexPath)));
+          }
+          File indexFile = new File(indexPath);
+          return indexFile.isFile() ? Optional.of(SymSpellIndex.map(indexFile)) : Optional.empty();
+        }
+      });
+
   private final Dictionary dictionary;
   private final Speller speller;
   private final int maxEditDistance;
+  private final SymSpellIndex index;
 
   /**
    * Creates a speller with the given maximum edit distance.
    * @param fileInClassPath path in classpath to morfologik dictionary
    */
   public MorfologikSpeller(String fileInClassPath, int maxEditDistance) {
-    this(dictCache.getUnchecked(fileInClassPath), maxEditDistance);
+    this(dictCache.getUnchecked(fileInClassPath), maxEditDistance, indexCache.getUnchecked(fileInClassPath).orElse(null));
   }
 
   /**
@@ -78,12 +98,34 @@ public class MorfologikSpeller {
 
   /** @since 2.9 */
   MorfologikSpeller(Dictionary dictionary, int maxEditDistance) {
+    this(dictionary, maxEditDistance, null);
+  }
+
+  /**
+   * @param index a SymSpell index of the dictionary's words, used instead of searching the
+   *              dictionary for suggestions if it can replace that search
+   * @since 5.3
+   */
+  MorfologikSpeller(Dictionary dictionary, int maxEditDistance, SymSpellIndex index) {
     if (maxEditDistance <= 0) {
       throw new RuntimeException("maxEditDistance must be > 0: " + maxEditDistance);
     }
     this.dictionary = dictionary;
     this.maxEditDistance = maxEditDistance;
     speller = new Speller(dictionary, maxEditDistance);
+    // the index must compare words like the speller, which only ignores case when it ignores
+    // diacritics, too, and it knows nothing about equivalent characters and conversions:
+    boolean indexUsable = index != null && index.getMaxEditDistance() >= maxEditDistance
+      && index.isIgnoringCase() == (dictionary.metadata.isConvertingCase() && dictionary.metadata.isIgnoringDiacritics())
+      && index.isIgnoringDiacritics() == dictionary.metadata.isIgnoringDiacritics()
+      && dictionary.metadata.getEquivalentChars().isEmpty()
+      && dictionary.metadata.getInputConversionPairs().isEmpty()
+      && dictionary.metadata.getOutputConversionPairs().isEmpty();
+    this.index = indexUsable ? index : null;
+  }
+
+  boolean usesIndex() {
+    return index != null;
   }
 
   public boolean isMisspelled(String word) {
@@ -112,11 +154,14 @@ public class MorfologikSpeller {
     // needs to be reset every time, possible bug: HMatrix for distance computation is not reset;
     // output changes when reused
     Speller speller = new Speller(dictionary, maxEditDistance);
-    List<Speller.CandidateData> replacementCandidates;
     if (word.length() < 50) {   // slow for long words (the limit is arbitrary)
-      replacementCandidates = speller.findReplacementCandidates(word);
-      for (Speller.CandidateData candidate : replacementCandidates) {
-        suggestions.add(new WeightedSuggestion(candidate.getWord(), candidate.getDistance()));
+      if (index != null) {
+        suggestions.addAll(findCandidatesInIndex(speller, word));
+      } else {
+        List<Speller.CandidateData> replacementCandidates = speller.findReplacementCandidates(word);
+        for (Speller.CandidateData candidate : replacementCandidates) {
+          suggestions.add(new WeightedSuggestion(candidate.getWord(), candidate.getDistance()));
+        }
       }
     }
     List<Speller.CandidateData> runOnCandidates = speller.replaceRunOnWordCandidates(word);
@@ -171,6 +216,62 @@ public class MorfologikSpeller {
     return suggestions;
   }
 
+  /**
+   * Same result as {@link Speller#findReplacementCandidates(String)}, but the edit distance
+   * search uses the SymSpell index instead of traversing the dictionary.
+   */
+  private List<WeightedSuggestion> findCandidatesInIndex(Speller speller, String word) {
+    if (word.isEmpty() || word.length() >= Speller.MAX_WORD_LENGTH || speller.isInDictionary(word)) {
+      return Collections.emptyList();
+    }
+    List<WeightedSuggestion> candidates = new ArrayList<>();
+    List<String> wordsToCheck = new ArrayList<>();
+    if (word.length() > 1 && !dictionary.metadata.getReplacementPairs().isEmpty()) {
+      Locale locale = dictionary.metadata.getLocale();
+      for (String replacement : speller.getAllReplacements(word, 0, 0)) {
+        if (speller.isInDictionary(replacement)) {
+          candidates.add(getWeightedSuggestion(speller, replacement, 0));
+        } else {
+          String lowercase = replacement.toLowerCase(locale);
+          String uppercase = replacement.toUpperCase(locale);
+          if (speller.isInDictionary(lowercase)) {
+            candidates.add(getWeightedSuggestion(speller, lowercase, 0));
+          }
+          if (speller.isInDictionary(uppercase)) {
+            candidates.add(getWeightedSuggestion(speller, uppercase, 0));
+          }
+          if (replacement.length() > 1) {
+            String uppercaseFirst = Character.toUpperCase(replacement.charAt(0)) + replacement.substring(1);
+            if (speller.isInDictionary(uppercaseFirst)) {
+              candidates.add(getWeightedSuggestion(speller, uppercaseFirst, 0));
+            }
+          }
+        }
+        wordsToCheck.add(replacement);
+      }
+    } else {
+      wordsToCheck.add(word);
+    }
+    for (String wordToCheck : wordsToCheck.subList(0, Math.min(15, wordsToCheck.size()))) {
+      if (wordToCheck.length() < 4 && maxEditDistance > 2) {
+        continue;
+      }
+      int distance = wordToCheck.length() <= maxEditDistance ? wordToCheck.length() - 1 : maxEditDistance;
+      for (SymSpellIndex.Candidate candidate : index.lookup(wordToCheck, distance)) {
+        candidates.add(getWeightedSuggestion(speller, candidate.getWord(), candidate.getDistance()));
+      }
+    }
+    Collections.sort(candidates);
+    Set<String> seen = new HashSet<>();
+    candidates.removeIf(candidate -> !seen.add(candidate.getWord()));
+    return candidates;
+  }
+
+  // same weight as Speller.CandidateData
+  private static WeightedSuggestion getWeightedSuggestion(Speller speller, String word, int distance) {
+    return new WeightedSuggestion(word, distance * 26 + 25 - speller.getFrequency(word));
+  }
+
   private int getSuggestionIndex(List<WeightedSuggestion> suggestions, String uppercaseFirst) {
     int i = 0;
     for (WeightedSuggestion suggestion : suggestions) {
@@ -31,6 +31,7 @@ import org.languagetool.rules.ITSIssueType;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.SuggestedReplacement;
 import org.languagetool.rules.spelling.SpellingCheckRule;
+import org.languagetool.rules.spelling.SpellingVerdictCache;
 import org.languagetool.rules.spelling.suggestions.SuggestionsChanges;
 import org.languagetool.rules.translation.TranslationEntry;
 import org.languagetool.rules.translation.Translator;
@@ -54,6 +55,7 @@ public abstract class MorfologikSpellerRule extends SpellingCheckRule {
   protected MorfologikMultiSpeller speller1;
   protected MorfologikMultiSpeller speller2;
   protected MorfologikMultiSpeller speller3;
+  private volatile String dictionaries = "";
   protected Locale conversionLocale;
   protected final Language motherTongue;
   protected final GlobalConfig globalConfig;
@@ -206,6 +208,7 @@ public abstract class MorfologikSpellerRule extends SpellingCheckRule {
     speller1 = new MorfologikMultiSpeller(binaryDict, plainTextDicts, languageVariantPlainTextDict, userConfig, 1);
     speller2 = new MorfologikMultiSpeller(binaryDict, plainTextDicts, languageVariantPlainTextDict, userConfig, 2);
     speller3 = new MorfologikMultiSpeller(binaryDict, plainTextDicts, languageVariantPlainTextDict, userConfig, 3);
+    dictionaries = binaryDict + plainTextDicts + languageVariantPlainTextDict;
     setConvertsCase(speller1.convertsCase());
   }
 
@@ -227,7 +230,18 @@ public abstract class MorfologikSpellerRule extends SpellingCheckRule {
   @Override
   public boolean isMisspelled(String word) throws IOException {
     initSpellers();
-    return isMisspelled(speller1, word);
+    return isMisspelledCached(word);
+  }
+
+  private boolean isMisspelledCached(String word) throws IOException {
+    SpellingVerdictCache.Verdict verdict = getCachedVerdict(word,
+      w -> isMisspelled(speller1, w) ? SpellingVerdictCache.Verdict.MISSPELLED : SpellingVerdictCache.Verdict.CORRECT);
+    return verdict == SpellingVerdictCache.Verdict.MISSPELLED;
+  }
+
+  @Override
+  protected String getVerdictScopeDetails() {
+    return dictionaries;
   }
   
   /**
@@ -260,7 +274,7 @@ public abstract class MorfologikSpellerRule extends SpellingCheckRule {
     List<RuleMatch> ruleMatches = new ArrayList<>();
     RuleMatch ruleMatch = null;
     
-    if (!isMisspelled(speller1, word) && !isProhibited(word)) {
+    if (!isMisspelledCached(word) && !isProhibited(word)) {
       return ruleMatches;
     }
     
@@ -447,7 +461,8 @@ public abstract class MorfologikSpellerRule extends SpellingCheckRule {
     return () -> {
       List<SuggestedReplacement> joined;
       try {
-        List<SuggestedReplacement> fromSpeller = calcSpellerSuggestions(word, fullResults);
+        List<SuggestedReplacement> fromSpeller = fullResults ?
+          calcSpellerSuggestions(word, true) : getCachedSuggestions(word, w -> calcSpellerSuggestions(w, false));
         joined = joinBeforeAfterSuggestions(fromSpeller, beforeSuggestionStr, afterSuggestionStr);
       } catch (IOException e) {
         throw new RuntimeException(e);
@@ -0,0 +1,380 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.spelling.symspell;
+
+import org.languagetool.rules.spelling.symspell.implementation.EditDistance;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * A precomputed SymSpell deletion index of a word list, stored in a file that is memory-mapped,
+ * so it neither needs to be built at runtime nor uses heap memory. It finds all words within a
+ * maximum (Damerau-Levenshtein) edit distance of a word with a number of lookups that doesn't
+ * depend on the size of the word list. Words can be compared ignoring case and diacritics, like
+ * Morfologik spellers do. The index is built by {@code SymSpellIndexBuilder} in languagetool-tools.
+ *
+ * <p>The file contains a header with 4-byte integers (magic bytes, format version, maximum edit
+ * distance, prefix length, flags, number of words, keys, postings and bytes of word data),
+ * followed by the sorted hash codes of the deletes (the keys), the start of each key's postings
+ * (plus the end of the last one), the postings (word numbers), the start of each word in the word
+ * data (plus the end of the last one), one frequency byte per word, and the words in UTF-8.
+ * @since 5.3
+ */
+public final class SymSpellIndex {
+
+  public static final String FILE_EXTENSION = ".symspell";
+  public static final int DEFAULT_MAX_EDIT_DISTANCE = 2;
+  public static final int DEFAULT_PREFIX_LENGTH = 7;
+
+  private static final int MAGIC = 0x4c545353;  // "LTSS"
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 9 * Integer.BYTES;
+  private static final int IGNORE_CASE = 1;
+  private static final int IGNORE_DIACRITICS = 2;
+  private static final Pattern DIACRITICS = Pattern.compile("\\p{M}");
+
+  private final int maxEditDistance;
+  private final int prefixLength;
+  private final boolean ignoreCase;
+  private final boolean ignoreDiacritics;
+  private final int wordCount;
+  private final IntBuffer keys;
+  private final IntBuffer keyStarts;
+  private final IntBuffer postings;
+  private final IntBuffer wordStarts;
+  private final ByteBuffer frequencies;
+  private final ByteBuffer words;
+
+  private SymSpellIndex(int maxEditDistance, int prefixLength, int flags, int wordCount, IntBuffer keys, IntBuffer keyStarts,
+                        IntBuffer postings, IntBuffer wordStarts, ByteBuffer frequencies, ByteBuffer words) {
+    this.maxEditDistance = maxEditDistance;
+    this.prefixLength = prefixLength;
+    this.ignoreCase = (flags & IGNORE_CASE) != 0;
+    this.ignoreDiacritics = (flags & IGNORE_DIACRITICS) != 0;
+    this.wordCount = wordCount;
+    this.keys = keys;
+    this.keyStarts = keyStarts;
+    this.postings = postings;
+    this.wordStarts = wordStarts;
+    this.frequencies = frequencies;
+    this.words = words;
+  }
+
+  /**
+   * Builds the index for the given words and writes it to a file.
+   * @param wordsWithFrequency the words with a frequency class of 0 (rare) to 255
+   * @param maxEditDistance the maximum edit distance that lookups can use
+   * @param prefixLength only deletes of the first {@code prefixLength} characters of each word are indexed,
+   *                     a larger value means faster lookups, but a larger index
+   */
+  public static void write(Map<String, Integer> wordsWithFrequency, int maxEditDistance, int prefixLength,
+                           boolean ignoreCase, boolean ignoreDiacritics, File file) throws IOException {
+    if (maxEditDistance < 1 || prefixLength <= maxEditDistance) {
+      throw new IllegalArgumentException("Invalid maxEditDistance " + maxEditDistance + " or prefixLength " + prefixLength);
+    }
+    List<String> wordList = new ArrayList<>(wordsWithFrequency.keySet());
+    // pairs of delete hash (upper 32 bits) and word number (lower 32 bits), sorted by hash:
+    long[] pairs = new long[1024];
+    int pairCount = 0;
+    Set<String> deletes = new HashSet<>();
+    for (int i = 0; i < wordList.size(); i++) {
+      String normalized = normalize(wordList.get(i), ignoreCase, ignoreDiacritics);
+      deletes.clear();
+      addDeletes(prefix(normalized, prefixLength), maxEditDistance, deletes);
+      for (String delete : deletes) {
+        if (pairCount == pairs.length) {
+          pairs = Arrays.copyOf(pairs, pairs.length * 2);
+        }
+        pairs[pairCount++] = ((long) delete.hashCode() << 32) | i;
+      }
+    }
+    Arrays.sort(pairs, 0, pairCount);
+    int[] keys = new int[pairCount];
+    int[] keyStarts = new int[pairCount + 1];
+    int[] postings = new int[pairCount];
+    int keyCount = 0;
+    int postingCount = 0;
+    for (int i = 0; i < pairCount; i++) {
+      int hash = (int) (pairs[i] >> 32);
+      int wordNumber = (int) pairs[i];
+      if (keyCount == 0 || keys[keyCount - 1] != hash) {
+        keys[keyCount] = hash;
+        keyStarts[keyCount] = postingCount;
+        keyCount++;
+      } else if (postings[postingCount - 1] == wordNumber) {
+        continue;  // different deletes with the same hash code
+      }
+      postings[postingCount++] = wordNumber;
+    }
+    keyStarts[keyCount] = postingCount;
+    ByteArrayOutputStream wordData = new ByteArrayOutputStream();
+    int[] wordStarts = new int[wordList.size() + 1];
+    for (int i = 0; i < wordList.size(); i++) {
+      wordStarts[i] = wordData.size();
+      byte[] bytes = wordList.get(i).getBytes(StandardCharsets.UTF_8);
+      wordData.write(bytes, 0, bytes.length);
+    }
+    wordStarts[wordList.size()] = wordData.size();
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(maxEditDistance);
+      out.writeInt(prefixLength);
+      out.writeInt((ignoreCase ? IGNORE_CASE : 0) | (ignoreDiacritics ? IGNORE_DIACRITICS : 0));
+      out.writeInt(wordList.size());
+      out.writeInt(keyCount);
+      out.writeInt(postingCount);
+      out.writeInt(wordData.size());
+      writeInts(out, keys, keyCount);
+      writeInts(out, keyStarts, keyCount + 1);
+      writeInts(out, postings, postingCount);
+      writeInts(out, wordStarts, wordList.size() + 1);
+      for (String word : wordList) {
+        int frequency = wordsWithFrequency.get(word);
+        if (frequency < 0 || frequency > 255) {
+          throw new IllegalArgumentException("Frequency must be 0 to 255: " + word + " - " + frequency);
+        }
+        out.writeByte(frequency);
+      }
+      wordData.writeTo(out);
+    }
+  }
+
+  private static void writeInts(DataOutputStream out, int[] values, int count) throws IOException {
+    for (int i = 0; i < count; i++) {
+      out.writeInt(values[i]);
+    }
+  }
+
+  /**
+   * Maps an index file into memory (read-only).
+   */
+  public static SymSpellIndex map(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        // read until the header is complete or the file ends
+      }
+      if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+        throw new IOException("Not a SymSpell index: " + file);
+      }
+      if (header.getInt(4) != VERSION) {
+        throw new IOException("Unsupported version " + header.getInt(4) + " of SymSpell index " + file);
+      }
+      int wordCount = header.getInt(20);
+      int keyCount = header.getInt(24);
+      int postingCount = header.getInt(28);
+      int wordBytes = header.getInt(32);
+      long pos = HEADER_SIZE;
+      long expectedSize = pos + Integer.BYTES * ((long) keyCount + keyCount + 1 + postingCount + wordCount + 1) + wordCount + wordBytes;
+      if (wordCount < 0 || keyCount < 0 || postingCount < 0 || wordBytes < 0 || expectedSize != channel.size()) {
+        throw new IOException("Invalid size of SymSpell index " + file);
+      }
+      // the mappings stay valid after the channel has been closed:
+      IntBuffer keys = mapInts(channel, pos, keyCount);
+      pos += (long) keyCount * Integer.BYTES;
+      IntBuffer keyStarts = mapInts(channel, pos, keyCount + 1);
+      pos += (long) (keyCount + 1) * Integer.BYTES;
+      IntBuffer postings = mapInts(channel, pos, postingCount);
+      pos += (long) postingCount * Integer.BYTES;
+      IntBuffer wordStarts = mapInts(channel, pos, wordCount + 1);
+      pos += (long) (wordCount + 1) * Integer.BYTES;
+      ByteBuffer frequencies = channel.map(FileChannel.MapMode.READ_ONLY, pos, wordCount);
+      pos += wordCount;
+      ByteBuffer words = channel.map(FileChannel.MapMode.READ_ONLY, pos, wordBytes);
+      return new SymSpellIndex(header.getInt(8), header.getInt(12), header.getInt(16), wordCount,
+        keys, keyStarts, postings, wordStarts, frequencies, words);
+    }
+  }
+
+  /**
+   * Maps an index from the classpath or a file URL. Indexes inside a JAR are copied to a
+   * temporary file first, as only files can be memory-mapped.
+   */
+  public static SymSpellIndex map(URL url) throws IOException {
+    if ("file".equals(url.getProtocol())) {
+      try {
+        return map(new File(url.toURI()));
+      } catch (URISyntaxException e) {
+        throw new IOException(e);
+      }
+    }
+    Path tempFile = Files.createTempFile("languagetool", FILE_EXTENSION);
+    tempFile.toFile().deleteOnExit();
+    try (InputStream in = url.openStream()) {
+      Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+    return map(tempFile.toFile());
+  }
+
+  private static IntBuffer mapInts(FileChannel channel, long position, int count) throws IOException {
+    return channel.map(FileChannel.MapMode.READ_ONLY, position, (long) count * Integer.BYTES).asIntBuffer();
+  }
+
+  public int getMaxEditDistance() {
+    return maxEditDistance;
+  }
+
+  public boolean isIgnoringCase() {
+    return ignoreCase;
+  }
+
+  public boolean isIgnoringDiacritics() {
+    return ignoreDiacritics;
+  }
+
+  public int getWordCount() {
+    return wordCount;
+  }
+
+  /**
+   * Find all words within the given edit distance, in no specific order. The word
+   * itself is part of the result if it's in the index.
+   * @param maxDistance the maximum edit distance, must not be larger than {@link #getMaxEditDistance()}
+   */
+  public List<Candidate> lookup(String word, int maxDistance) {
+    if (maxDistance > maxEditDistance) {
+      throw new IllegalArgumentException("maxDistance " + maxDistance + " > maximum distance of the index (" + maxEditDistance + ")");
+    }
+    String normalized = normalize(word, ignoreCase, ignoreDiacritics);
+    Set<String> deletes = new HashSet<>();
+    addDeletes(prefix(normalized, prefixLength), maxDistance, deletes);
+    EditDistance editDistance = new EditDistance(normalized, EditDistance.DistanceAlgorithm.Damerau);
+    Set<Integer> seen = new HashSet<>();
+    List<Candidate> result = new ArrayList<>();
+    for (String delete : deletes) {
+      int key = findKey(delete.hashCode());
+      if (key < 0) {
+        continue;
+      }
+      for (int i = keyStarts.get(key); i < keyStarts.get(key + 1); i++) {
+        int wordNumber = postings.get(i);
+        if (!seen.add(wordNumber)) {
+          continue;
+        }
+        String candidate = getWord(wordNumber);
+        String normalizedCandidate = normalize(candidate, ignoreCase, ignoreDiacritics);
+        if (Math.abs(normalizedCandidate.length() - normalized.length()) > maxDistance) {
+          continue;
+        }
+        int distance = normalized.isEmpty() ? normalizedCandidate.length() : editDistance.compare(normalizedCandidate, maxDistance);
+        if (distance >= 0 && distance <= maxDistance) {
+          result.add(new Candidate(candidate, distance, frequencies.get(wordNumber) & 0xff));
+        }
+      }
+    }
+    return result;
+  }
+
+  private int findKey(int hash) {
+    int low = 0;
+    int high = keys.limit() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int value = keys.get(mid);
+      if (value < hash) {
+        low = mid + 1;
+      } else if (value > hash) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  private String getWord(int wordNumber) {
+    int start = wordStarts.get(wordNumber);
+    byte[] bytes = new byte[wordStarts.get(wordNumber + 1) - start];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = words.get(start + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static String prefix(String s, int prefixLength) {
+    return s.length() > prefixLength ? s.substring(0, prefixLength) : s;
+  }
+
+  private static void addDeletes(String s, int maxDistance, Set<String> result) {
+    result.add(s);
+    if (maxDistance == 0 || s.isEmpty()) {
+      return;
+    }
+    for (int i = 0; i < s.length(); i++) {
+      addDeletes(s.substring(0, i) + s.substring(i + 1), maxDistance - 1, result);
+    }
+  }
+
+  static String normalize(String word, boolean ignoreCase, boolean ignoreDiacritics) {
+    String result = word;
+    if (ignoreDiacritics) {
+      result = DIACRITICS.matcher(Normalizer.normalize(result, Normalizer.Form.NFD)).replaceAll("");
+    }
+    if (ignoreCase) {
+      result = result.toLowerCase(Locale.ROOT);
+    }
+    return result;
+  }
+
+  public static final class Candidate {
+    private final String word;
+    private final int distance;
+    private final int frequency;
+
+    private Candidate(String word, int distance, int frequency) {
+      this.word = word;
+      this.distance = distance;
+      this.frequency = frequency;
+    }
+
+    public String getWord() {
+      return word;
+    }
+
+    /** The edit distance to the word looked up, after normalization. */
+    public int getDistance() {
+      return distance;
+    }
+
+    /** The frequency class given when building the index. */
+    public int getFrequency() {
+      return frequency;
+    }
+
+    @Override
+    public String toString() {
+      return word + "/" + distance;
+    }
+  }
+
+}
@@ -18,6 +18,8 @@
  */
 package org.languagetool.tagging;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import morfologik.stemming.Dictionary;
 import morfologik.stemming.WordData;
 import org.jetbrains.annotations.NotNull;
@@ -31,6 +33,9 @@ import java.util.*;
 
 /**
  * Base tagger using Morfologik binary dictionaries.
+ * Dictionary lookups and the readings of {@link #getAnalyzedTokens(String)} are cached per word,
+ * the maximum number of cached words per tagger can be set with the system property
+ * {@code taggerCacheSize}, {@code 0} disables the caches.
  *
  * @author Marcin Milkowski
  */
@@ -40,6 +45,10 @@ public abstract class BaseTagger implements Tagger {
   private static final String CUSTOM_MANUAL_ADDITIONS_FILE = "/added_custom.txt";
   private static final String MANUAL_REMOVALS_FILE = "/removed.txt";
   private static final String CUSTOM_MANUAL_REMOVALS_FILE = "/removed_custom.txt";
+  private static final long CACHE_SIZE = Long.getLong("taggerCacheSize", 20_000);
+
+  /** longer words are rare (or not words at all, like URLs) and not worth caching */
+  static final int MAX_CACHED_WORD_LENGTH = 40;
 
   protected final WordTagger wordTagger;
   protected final Locale locale;
@@ -47,6 +56,11 @@ public abstract class BaseTagger implements Tagger {
   private final boolean tagLowercaseWithUppercase;
   private final String dictionaryPath;
   private final Dictionary dictionary;
+  private final SymbolTable lemmas = new SymbolTable(MorfologikTagger.MAX_LEMMAS);
+  // readings don't depend on anything but the word, as the manual additions and removals
+  // are loaded only once, in the constructor:
+  private final Cache<String, List<AnalyzedToken>> analyzedTokensCache =
+    CACHE_SIZE > 0 ? CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build() : null;
 
   /**
    * Get the filenames for manual additions, e.g., {@code /en/added.txt}.
@@ -114,7 +128,12 @@ public abstract class BaseTagger implements Tagger {
   }
 
   private WordTagger initWordTagger(boolean internTags) {
-    MorfologikTagger morfologikTagger = new MorfologikTagger(dictionary, internTags);
+    WordTagger morfologikTagger = new MorfologikTagger(dictionary, internTags);
+    if (CACHE_SIZE > 0) {
+      // not caching the result of the CombiningTagger, as subclasses expect to get that
+      // from getWordTagger(), and it's the dictionary lookup that's expensive anyway
+      morfologikTagger = new CachingWordTagger(morfologikTagger, CACHE_SIZE);
+    }
     try {
       ManualTagger removalTagger = null;
       InputStream stream = null;
@@ -182,6 +201,31 @@ public abstract class BaseTagger implements Tagger {
   }
 
   protected List<AnalyzedToken> getAnalyzedTokens(String word) {
+    if (analyzedTokensCache == null || word.length() > MAX_CACHED_WORD_LENGTH) {
+      return analyze(word);
+    }
+    List<AnalyzedToken> cached = analyzedTokensCache.getIfPresent(word);
+    if (cached != null) {
+      return copyOf(cached);
+    }
+    List<AnalyzedToken> result = analyze(word);
+    // copies, as callers may modify the tokens they get:
+    analyzedTokensCache.put(word, copyOf(result));
+    return result;
+  }
+
+  private static List<AnalyzedToken> copyOf(List<AnalyzedToken> tokens) {
+    List<AnalyzedToken> result = new ArrayList<>(tokens.size());
+    for (AnalyzedToken token : tokens) {
+      AnalyzedToken copy = new AnalyzedToken(token.getToken(), token.getPOSTag(), token.getLemma());
+      copy.setNoPOSTag(token.hasNoTag());
+      copy.setWhitespaceBefore(token.isWhitespaceBefore());
+      result.add(copy);
+    }
+    return result;
+  }
+
+  private List<AnalyzedToken> analyze(String word) {
     List<AnalyzedToken> result = new ArrayList<>();
     String lowerWord = word.toLowerCase(locale);
     boolean isLowercase = word.equals(lowerWord);
@@ -237,13 +281,14 @@ public abstract class BaseTagger implements Tagger {
   }
 
   protected AnalyzedToken asAnalyzedToken(String word, WordData wd) {
-    String tag = StringTools.asString(wd.getTag());
+    CharSequence tag = wd.getTag();
+    int tagLength = tag.length();
     // Remove frequency data from tags (if exists)
     // The frequency data is in the last byte (without a separator)
-    if (dictionary.metadata.isFrequencyIncluded() && tag.length() > 1) {
-      tag = tag.substring(0, tag.length() - 1);
+    if (dictionary.metadata.isFrequencyIncluded() && tagLength > 1) {
+      tagLength--;
     }
-    return new AnalyzedToken( word, tag, StringTools.asString(wd.getStem()));
+    return new AnalyzedToken(word, SymbolTable.getPosTags().intern(tag, tagLength), lemmas.intern(wd.getStem()));
   }
 
   private AnalyzedToken asAnalyzedToken(String word, TaggedWord taggedWord) {
@@ -0,0 +1,56 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Remembers the results of another {@link WordTagger} for the most frequent words.
+ * Callers get a new list they can modify.
+ * @since 5.3
+ */
+final class CachingWordTagger implements WordTagger {
+
+  private final WordTagger tagger;
+  private final Cache<String, List<TaggedWord>> cache;
+
+  CachingWordTagger(WordTagger tagger, long maxSize) {
+    this.tagger = tagger;
+    this.cache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+  }
+
+  @Override
+  public List<TaggedWord> tag(String word) {
+    if (word.length() > BaseTagger.MAX_CACHED_WORD_LENGTH) {
+      return tagger.tag(word);
+    }
+    List<TaggedWord> result = cache.getIfPresent(word);
+    if (result == null) {
+      result = ImmutableList.copyOf(tagger.tag(word));
+      cache.put(word, result);
+    }
+    return new ArrayList<>(result);
+  }
+
+}
@@ -32,10 +32,15 @@ import java.util.*;
  */
 public class MorfologikTagger implements WordTagger {
 
+  /** the maximum number of lemmas that are shared per dictionary, enough for the frequent ones */
+  static final int MAX_LEMMAS = 50_000;
+
   private final URL dictUrl;
+  private final SymbolTable lemmas = new SymbolTable(MAX_LEMMAS);
 
   private Dictionary dictionary;
 
+  // tags are always shared via SymbolTable now, this is kept for compatibility:
   private boolean internTags;
 
   public MorfologikTagger(String dictPath) {
@@ -82,15 +87,18 @@ public class MorfologikTagger implements WordTagger {
       IStemmer dictLookup = new DictionaryLookup(getDictionary());
       List<WordData> lookup = dictLookup.lookup(word);
       for (WordData wordData : lookup) {
-        String tag = wordData.getTag() == null ? null : wordData.getTag().toString();
-        // Remove frequency data from tags (if exists)
-        // The frequency data is in the last byte (without a separator)
-        if (dictionary.metadata.isFrequencyIncluded() && tag != null && tag.length() > 1) {
-          tag = tag.substring(0, tag.length() - 1);
+        CharSequence tagChars = wordData.getTag();
+        String tag = null;
+        if (tagChars != null) {
+          int tagLength = tagChars.length();
+          // Remove frequency data from tags (if exists)
+          // The frequency data is in the last byte (without a separator)
+          if (dictionary.metadata.isFrequencyIncluded() && tagLength > 1) {
+            tagLength--;
+          }
+          tag = SymbolTable.getPosTags().intern(tagChars, tagLength);
         }
-        String stem = wordData.getStem() == null ? null : wordData.getStem().toString();
-        TaggedWord taggedWord = new TaggedWord(stem, (internTags && tag != null) ? tag.intern() : tag);
-        result.add(taggedWord);
+        result.add(new TaggedWord(lemmas.intern(wordData.getStem()), tag));
       }
     } catch (IOException e) {
       throw new RuntimeException("Could not tag word '" + word + "'", e);
@@ -0,0 +1,174 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Maps strings like POS tags and lemmas to one shared {@code String} object and a number (id).
+ * Taggers get tags and lemmas from their dictionaries as {@code CharSequence}s, looking them up
+ * here doesn't create a new {@code String} for every token unless it's the first occurrence.
+ * Ids are assigned in the order of first occurrence, so they can be used as index of arrays,
+ * e.g. to cache results per POS tag. Lookups don't lock, only adding new strings does.
+ * @since 5.3
+ */
+public final class SymbolTable {
+
+  public static final int NO_ID = -1;
+
+  private static final SymbolTable posTags = new SymbolTable(1 << 20);
+
+  private final int maxSize;
+  private volatile Entry[] entries = new Entry[64];
+  private int size;
+
+  /**
+   * @param maxSize the maximum number of strings, strings that don't fit into the table
+   *                anymore are returned as new objects and have no id
+   */
+  public SymbolTable(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * The table for the POS tags of all languages. Its strings are {@link String#intern() interned}.
+   */
+  public static SymbolTable getPosTags() {
+    return posTags;
+  }
+
+  /**
+   * Get the shared string with the content of {@code s}, or {@code null} if {@code s} is {@code null}.
+   */
+  @Nullable
+  public String intern(@Nullable CharSequence s) {
+    return s == null ? null : intern(s, s.length());
+  }
+
+  /**
+   * Get the shared string with the content of the first {@code length} characters of {@code s}.
+   */
+  public String intern(CharSequence s, int length) {
+    int hash = hash(s, length);
+    Entry entry = find(entries, s, length, hash);
+    if (entry == null) {
+      entry = add(s, length, hash);
+    }
+    return entry != null ? entry.value : s.subSequence(0, length).toString();
+  }
+
+  /**
+   * @return the id of the string, or {@link #NO_ID} if it's not in the table
+   */
+  public int getId(@Nullable String s) {
+    if (s == null) {
+      return NO_ID;
+    }
+    Entry entry = find(entries, s, s.length(), s.hashCode());
+    return entry != null ? entry.id : NO_ID;
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  @Nullable
+  private static Entry find(Entry[] table, CharSequence s, int length, int hash) {
+    int mask = table.length - 1;
+    for (int i = hash & mask; ; i = (i + 1) & mask) {
+      Entry entry = table[i];
+      if (entry == null) {
+        return null;
+      }
+      if (entry.hash == hash && contentEquals(entry.value, s, length)) {
+        return entry;
+      }
+    }
+  }
+
+  @Nullable
+  private synchronized Entry add(CharSequence s, int length, int hash) {
+    Entry entry = find(entries, s, length, hash);
+    if (entry != null || size >= maxSize) {
+      return entry;
+    }
+    Entry[] table = entries;
+    if ((size + 1) * 2 > table.length) {
+      Entry[] newTable = new Entry[table.length * 2];
+      for (Entry old : table) {
+        if (old != null) {
+          insert(newTable, old);
+        }
+      }
+      table = newTable;
+    }
+    String value = s.subSequence(0, length).toString();
+    entry = new Entry(this == posTags ? value.intern() : value, size, hash);
+    insert(table, entry);
+    size++;
+    entries = table;
+    return entry;
+  }
+
+  private static void insert(Entry[] table, Entry entry) {
+    int mask = table.length - 1;
+    int i = entry.hash & mask;
+    while (table[i] != null) {
+      i = (i + 1) & mask;
+    }
+    table[i] = entry;
+  }
+
+  // same as String.hashCode():
+  private static int hash(CharSequence s, int length) {
+    int hash = 0;
+    for (int i = 0; i < length; i++) {
+      hash = 31 * hash + s.charAt(i);
+    }
+    return hash;
+  }
+
+  private static boolean contentEquals(String value, CharSequence s, int length) {
+    if (value == s) {
+      return true;
+    }
+    if (value.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (value.charAt(i) != s.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static final class Entry {
+    private final String value;
+    private final int id;
+    private final int hash;
+
+    private Entry(String value, int id, int hash) {
+      this.value = value;
+      this.id = id;
+      this.hash = hash;
+    }
+  }
+
+}
@@ -45,6 +45,7 @@ public class DisambiguationPatternRule extends AbstractTokenBasedRule {
   private AnalyzedToken[] newTokenReadings;
   private List<DisambiguatedExample> examples = Collections.emptyList();
   private List<String> untouchedExamples = Collections.emptyList();
+  private volatile List<PatternRule> antiPatternRules;
 
   /**
    * @param id Id of the Rule
@@ -93,6 +94,28 @@ public class DisambiguationPatternRule extends AbstractTokenBasedRule {
     return canBeIgnoredFor(sentence) ? sentence : new DisambiguationPatternRuleReplacer(this).replace(sentence);
   }
 
+  @Override
+  public void setAntiPatterns(List<DisambiguationPatternRule> antiPatterns) {
+    super.setAntiPatterns(antiPatterns);
+    antiPatternRules = null;
+  }
+
+  /**
+   * The anti-patterns of this rule as pattern rules that can be matched against a sentence,
+   * created only once and then cached.
+   */
+  List<PatternRule> getAntiPatternRules() {
+    List<PatternRule> result = antiPatternRules;
+    if (result == null) {
+      result = new ArrayList<>();
+      for (DisambiguationPatternRule antiPattern : getAntiPatterns()) {
+        result.add(new PatternRule("fake-disambig-id", getLanguage(), antiPattern.getPatternTokens(), "desc", "msg", "short"));
+      }
+      antiPatternRules = result = Collections.unmodifiableList(result);
+    }
+    return result;
+  }
+
   public void setExamples(List<DisambiguatedExample> examples) {
     this.examples = Objects.requireNonNull(examples);
   }
@@ -27,9 +27,7 @@ import org.languagetool.rules.patterns.*;
 import org.languagetool.tools.StringTools;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -48,6 +46,10 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
     AnalyzedTokenReadings[] preDisambigTokens = sentence.getTokens();
     AnalyzedTokenReadings[][] whTokens = {sentence.getTokens()};
     boolean[] changed = {false};
+    // the anti-patterns only need to be matched again if an action has been executed (actions
+    // can modify the readings of the tokens in place), not for every match of the rule:
+    @SuppressWarnings("unchecked")
+    List<RuleMatch>[] antiPatternMatches = new List[1];
 
     doMatch(sentence, tokens, (tokenPositions, firstMatchToken, lastMatchToken, firstMarkerMatchToken, lastMarkerMatchToken) -> {
       int ruleMatchFromPos = -1;
@@ -63,31 +65,42 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
         tokenCount++;
       }
       int matchingTokens = (int)Arrays.stream(tokenPositions).filter(i -> i != 0).count();
-      if (keepDespiteFilter(tokens, tokenPositions, firstMatchToken, lastMatchToken) && keepByDisambig(sentence, ruleMatchFromPos, ruleMatchToPos)) {
+      if (keepDespiteFilter(tokens, tokenPositions, firstMatchToken, lastMatchToken)) {
+        if (antiPatternMatches[0] == null) {
+          antiPatternMatches[0] = getAntiPatternMatches(sentence);
+        }
+        if (!keepByDisambig(antiPatternMatches[0], ruleMatchFromPos, ruleMatchToPos)) {
+          return;
+        }
         whTokens[0] = executeAction(sentence, whTokens[0], unifiedTokens, firstMatchToken, lastMarkerMatchToken, matchingTokens, tokenPositions);
         changed[0] = true;
+        antiPatternMatches[0] = null;
       }
     });
     if (changed[0]) {
-      return new AnalyzedSentence(whTokens[0], preDisambigTokens);
+      return sentence.withTokens(whTokens[0], preDisambigTokens);
     }
     return sentence;
   }
 
-  private boolean keepByDisambig(AnalyzedSentence sentence, int ruleMatchFromPos, int ruleMatchToPos) throws IOException {
-    List<DisambiguationPatternRule> antiPatterns = rule.getAntiPatterns();
-    for (DisambiguationPatternRule antiPattern : antiPatterns) {
-      PatternRule disambigRule = new PatternRule("fake-disambig-id", rule.getLanguage(), antiPattern.getPatternTokens(), "desc", "msg", "short");
-      RuleMatch[] matches = disambigRule.match(sentence);
+  private List<RuleMatch> getAntiPatternMatches(AnalyzedSentence sentence) throws IOException {
+    List<RuleMatch> result = new ArrayList<>();
+    for (PatternRule antiPatternRule : ((DisambiguationPatternRule) rule).getAntiPatternRules()) {
+      RuleMatch[] matches = antiPatternRule.match(sentence);
       if (matches != null) {
-        for (RuleMatch disMatch : matches) {
-          if ((disMatch.getFromPos() <= ruleMatchFromPos && disMatch.getToPos() >= ruleMatchFromPos) ||  // left overlap of rule match start
-              (disMatch.getFromPos() <= ruleMatchToPos && disMatch.getToPos() >= ruleMatchToPos) ||  // right overlap of rule match end
-              (disMatch.getFromPos() >= ruleMatchFromPos && disMatch.getToPos() <= ruleMatchToPos)  // inside longer rule match
-          ) {
-            return false;
-          }
-        }
+        Collections.addAll(result, matches);
+      }
+    }
+    return result;
+  }
+
+  private static boolean keepByDisambig(List<RuleMatch> antiPatternMatches, int ruleMatchFromPos, int ruleMatchToPos) {
+    for (RuleMatch disMatch : antiPatternMatches) {
+      if ((disMatch.getFromPos() <= ruleMatchFromPos && disMatch.getToPos() >= ruleMatchFromPos) ||  // left overlap of rule match start
+          (disMatch.getFromPos() <= ruleMatchToPos && disMatch.getToPos() >= ruleMatchToPos) ||  // right overlap of rule match end
+          (disMatch.getFromPos() >= ruleMatchFromPos && disMatch.getToPos() <= ruleMatchToPos)  // inside longer rule match
+      ) {
+        return false;
       }
     }
     return true;
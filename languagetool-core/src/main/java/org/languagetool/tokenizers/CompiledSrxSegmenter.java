@@ -0,0 +1,562 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tokenizers;
+
+import net.loomchild.segment.srx.LanguageRule;
+import net.loomchild.segment.srx.Rule;
+import net.loomchild.segment.srx.RuleManager;
+import net.loomchild.segment.srx.SrxDocument;
+import net.loomchild.segment.util.Util;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into segments with the rules of an SRX document for one language code, with the
+ * same results as the segment library's {@code SrxTextIterator}. All rules are compiled once, not
+ * per text. The library checks a possible break against one large pattern that combines all
+ * exception rules ({@code break="no"}) of the language, which is slow for languages with many
+ * abbreviations. Here, the exception rules are indexed by the characters they can match directly
+ * before and after the break, so only the few rules that can match are evaluated.
+ * @since 5.3
+ */
+final class CompiledSrxSegmenter {
+
+  // the default of the segment library's SrxTextIterator:
+  private static final int MAX_LOOKBEHIND_CONSTRUCT_LENGTH = 100;
+
+  private final Pattern[] breakBeforePatterns;
+  private final Pattern[] breakAfterPatterns;
+  /** per break rule: the number of exception rules that precede it and thus apply to it */
+  private final int[] exceptionCounts;
+  /** per break rule: the library's pattern of all its exceptions, if they can't be evaluated one by one */
+  private final Pattern[] combinedExceptionPatterns;
+  private final Pattern[] exceptionPatterns;
+  /** per exception rule: the characters its {@code afterbreak} can start with, {@code null} if not known */
+  private final CharSet[] exceptionFirstChars;
+  private final List<ExceptionGroup> exceptionGroups = new ArrayList<>();
+
+  CompiledSrxSegmenter(SrxDocument document, String code) {
+    List<LanguageRule> languageRules = document.getLanguageRuleList(code);
+    List<Rule> breakRules = new ArrayList<>();
+    List<Rule> exceptions = new ArrayList<>();
+    List<Integer> counts = new ArrayList<>();
+    for (LanguageRule languageRule : languageRules) {
+      for (Rule rule : languageRule.getRuleList()) {
+        if (rule.isBreak()) {
+          breakRules.add(rule);
+          counts.add(exceptions.size());
+        } else {
+          exceptions.add(rule);
+        }
+      }
+    }
+    breakBeforePatterns = new Pattern[breakRules.size()];
+    breakAfterPatterns = new Pattern[breakRules.size()];
+    exceptionCounts = new int[breakRules.size()];
+    for (int i = 0; i < breakRules.size(); i++) {
+      breakBeforePatterns[i] = Pattern.compile(breakRules.get(i).getBeforePattern());
+      breakAfterPatterns[i] = Pattern.compile(breakRules.get(i).getAfterPattern());
+      exceptionCounts[i] = counts.get(i);
+    }
+
+    exceptionPatterns = new Pattern[exceptions.size()];
+    exceptionFirstChars = new CharSet[exceptions.size()];
+    Map<String, CharSet> charSets = new HashMap<>();
+    Map<CharSet, List<Integer>> exceptionsByLastChar = new LinkedHashMap<>();
+    // in the combined pattern, group numbers are counted over all rules, so
+    // back references only work there:
+    int firstWithBackReference = exceptions.size();
+    for (int i = 0; i < exceptions.size(); i++) {
+      Rule rule = exceptions.get(i);
+      if (hasBackReference(rule.getBeforePattern()) || hasBackReference(rule.getAfterPattern())) {
+        // this and all following rules will only be evaluated with the combined pattern
+        firstWithBackReference = i;
+        break;
+      }
+      exceptionPatterns[i] = Pattern.compile(getExceptionPattern(rule));
+      String firstAtom = getFirstAtom(rule.getAfterPattern());
+      exceptionFirstChars[i] = firstAtom != null ? charSets.computeIfAbsent(firstAtom, CharSet::new) : null;
+      String lastAtom = getLastAtom(rule.getBeforePattern());
+      CharSet lastChars = lastAtom != null ? charSets.computeIfAbsent(lastAtom, CharSet::new) : null;
+      exceptionsByLastChar.computeIfAbsent(lastChars, k -> new ArrayList<>()).add(i);
+    }
+    for (Map.Entry<CharSet, List<Integer>> entry : exceptionsByLastChar.entrySet()) {
+      exceptionGroups.add(new ExceptionGroup(entry.getKey(), entry.getValue()));
+    }
+
+    combinedExceptionPatterns = new Pattern[breakRules.size()];
+    if (firstWithBackReference < exceptions.size()) {
+      RuleManager ruleManager = new RuleManager(document, languageRules, MAX_LOOKBEHIND_CONSTRUCT_LENGTH);
+      for (int i = 0; i < breakRules.size(); i++) {
+        if (exceptionCounts[i] > firstWithBackReference) {
+          combinedExceptionPatterns[i] = ruleManager.getExceptionPattern(breakRules.get(i));
+        }
+      }
+    }
+  }
+
+  List<String> segment(String text) {
+    List<String> segments = new ArrayList<>();
+    int length = text.length();
+    if (length == 0) {
+      return segments;
+    }
+    Matcher[] exceptionMatchers = new Matcher[exceptionPatterns.length];
+    List<BreakMatcher> matchers = new ArrayList<>(breakBeforePatterns.length);
+    for (int i = 0; i < breakBeforePatterns.length; i++) {
+      BreakMatcher matcher = new BreakMatcher(i, text);
+      if (matcher.find()) {
+        matchers.add(matcher);
+      }
+    }
+    int start = 0;
+    while (start < length) {
+      int end = length;
+      boolean found = false;
+      while (!found) {
+        BreakMatcher minMatcher = getMinMatcher(matchers);
+        if (minMatcher == null) {
+          found = true;
+          end = length;
+        } else {
+          end = minMatcher.getBreakPosition();
+          if (end > start) {
+            found = !isException(minMatcher.ruleIndex, text, end, exceptionMatchers);
+            if (found) {
+              cutMatchers(matchers, end);
+            }
+          }
+        }
+        moveMatchers(matchers, end);
+      }
+      segments.add(text.substring(start, end));
+      start = end;
+    }
+    return segments;
+  }
+
+  @Nullable
+  private static BreakMatcher getMinMatcher(List<BreakMatcher> matchers) {
+    BreakMatcher minMatcher = null;
+    int minPosition = Integer.MAX_VALUE;
+    for (BreakMatcher matcher : matchers) {
+      if (matcher.getBreakPosition() < minPosition) {
+        minPosition = matcher.getBreakPosition();
+        minMatcher = matcher;
+      }
+    }
+    return minMatcher;
+  }
+
+  private static void moveMatchers(List<BreakMatcher> matchers, int end) {
+    for (Iterator<BreakMatcher> iterator = matchers.iterator(); iterator.hasNext(); ) {
+      BreakMatcher matcher = iterator.next();
+      while (matcher.getBreakPosition() <= end) {
+        if (!matcher.find()) {
+          iterator.remove();
+          break;
+        }
+      }
+    }
+  }
+
+  private static void cutMatchers(List<BreakMatcher> matchers, int end) {
+    for (Iterator<BreakMatcher> iterator = matchers.iterator(); iterator.hasNext(); ) {
+      BreakMatcher matcher = iterator.next();
+      if (matcher.getStartPosition() < end && !matcher.find(end)) {
+        iterator.remove();
+      }
+    }
+  }
+
+  private boolean isException(int breakRule, String text, int position, Matcher[] exceptionMatchers) {
+    int count = exceptionCounts[breakRule];
+    if (count == 0) {
+      return false;
+    }
+    int length = text.length();
+    if (combinedExceptionPatterns[breakRule] != null) {
+      Matcher matcher = combinedExceptionPatterns[breakRule].matcher(text);
+      matcher.useTransparentBounds(true);
+      matcher.region(position, length);
+      return matcher.lookingAt();
+    }
+    // a character that's part of a surrogate pair can't be looked up, as the rules match code points
+    char before = text.charAt(position - 1);
+    boolean anyBefore = Character.isSurrogate(before);
+    boolean atEnd = position == length;
+    char after = atEnd ? 0 : text.charAt(position);
+    boolean anyAfter = !atEnd && Character.isSurrogate(after);
+    for (ExceptionGroup group : exceptionGroups) {
+      if (group.lastChars != null && !anyBefore && !group.lastChars.contains(before)) {
+        continue;
+      }
+      for (int i : group.exceptions) {
+        if (i >= count) {
+          break;
+        }
+        CharSet firstChars = exceptionFirstChars[i];
+        if (firstChars != null && (atEnd || !anyAfter && !firstChars.contains(after))) {
+          continue;
+        }
+        Matcher matcher = exceptionMatchers[i];
+        if (matcher == null) {
+          matcher = exceptionPatterns[i].matcher(text);
+          matcher.useTransparentBounds(true);
+          exceptionMatchers[i] = matcher;
+        }
+        matcher.region(position, length);
+        if (matcher.lookingAt()) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  // the same as the alternatives of the library's combined pattern, see RuleManager:
+  private static String getExceptionPattern(Rule rule) {
+    StringBuilder sb = new StringBuilder("(?:");
+    String before = Util.finitize(rule.getBeforePattern(), MAX_LOOKBEHIND_CONSTRUCT_LENGTH);
+    if (before.length() > 0) {
+      sb.append("(?<=").append(before).append(')');
+    }
+    if (rule.getAfterPattern().length() > 0) {
+      sb.append("(?=").append(rule.getAfterPattern()).append(')');
+    }
+    return sb.append(')').toString();
+  }
+
+  private static boolean hasBackReference(String regex) {
+    for (int i = 0; i < regex.length() - 1; i++) {
+      if (regex.charAt(i) == '\\') {
+        char next = regex.charAt(i + 1);
+        if (next >= '1' && next <= '9' || next == 'k') {
+          return true;
+        }
+        i++;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The regular expression for the last character that {@code regex} matches, or {@code null}
+   * if that can't be determined.
+   */
+  @Nullable
+  static String getLastAtom(String regex) {
+    List<Item> items = parse(regex);
+    if (items == null) {
+      return null;
+    }
+    for (int i = items.size() - 1; i >= 0; i--) {
+      if (!items.get(i).zeroWidth) {
+        return items.get(i).getAtom();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * The regular expression for the first character that {@code regex} matches, or {@code null}
+   * if that can't be determined.
+   */
+  @Nullable
+  static String getFirstAtom(String regex) {
+    List<Item> items = parse(regex);
+    if (items == null) {
+      return null;
+    }
+    for (Item item : items) {
+      if (!item.zeroWidth) {
+        return item.getAtom();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Splits a regular expression into its top-level items. Returns {@code null} for
+   * constructs that aren't supported here, e.g. top-level alternatives or inline flags.
+   */
+  @Nullable
+  private static List<Item> parse(String regex) {
+    List<Item> items = new ArrayList<>();
+    int length = regex.length();
+    int i = 0;
+    while (i < length) {
+      char c = regex.charAt(i);
+      Item item;
+      if (c == '(') {
+        int end = findGroupEnd(regex, i);
+        if (end < 0) {
+          return null;
+        }
+        if (regex.startsWith("(?=", i) || regex.startsWith("(?!", i) || regex.startsWith("(?<=", i) || regex.startsWith("(?<!", i)) {
+          item = new Item(null, true);
+        } else if (!regex.startsWith("(?", i) || regex.startsWith("(?:", i) || regex.startsWith("(?>", i)
+                   || regex.startsWith("(?<", i) && i + 3 < length && Character.isLetter(regex.charAt(i + 3))) {
+          item = new Item(null, false);
+        } else {
+          return null;  // inline flags
+        }
+        i = end + 1;
+      } else if (c == '[') {
+        int end = findClassEnd(regex, i);
+        if (end < 0) {
+          return null;
+        }
+        item = new Item(regex.substring(i, end + 1), false);
+        i = end + 1;
+      } else if (c == '\\') {
+        if (i + 1 >= length) {
+          return null;
+        }
+        char escaped = regex.charAt(i + 1);
+        if ("bBAzZG".indexOf(escaped) >= 0) {
+          item = new Item(null, true);
+          i += 2;
+        } else if (escaped == 'p' || escaped == 'P') {
+          int end = i + 2 < length && regex.charAt(i + 2) == '{' ? regex.indexOf('}', i + 2) : i + 2;
+          if (end < 0 || end >= length) {
+            return null;
+          }
+          item = new Item(regex.substring(i, end + 1), false);
+          i = end + 1;
+        } else if ("dDsSwWhHvVtnrfae".indexOf(escaped) >= 0) {
+          item = new Item(regex.substring(i, i + 2), false);
+          i += 2;
+        } else if (escaped == 'u') {
+          if (i + 6 > length) {
+            return null;
+          }
+          char value;
+          try {
+            value = (char) Integer.parseInt(regex.substring(i + 2, i + 6), 16);
+          } catch (NumberFormatException e) {
+            return null;
+          }
+          // surrogates may be combined with the next escape to one code point:
+          item = new Item(Character.isSurrogate(value) ? null : regex.substring(i, i + 6), false);
+          i += 6;
+        } else if (Character.isLetterOrDigit(escaped)) {
+          return null;  // e.g. \Q, \x, \0, \c, \R, \X, back references
+        } else {
+          item = new Item(regex.substring(i, i + 2), false);
+          i += 2;
+        }
+      } else if (c == '.') {
+        item = new Item(".", false);
+        i++;
+      } else if (c == '^' || c == '$') {
+        item = new Item(null, true);
+        i++;
+      } else if (c == '|' || c == ')' || c == '*' || c == '+' || c == '?' || c == '{' || Character.isSurrogate(c)) {
+        return null;
+      } else {
+        item = new Item(Pattern.quote(String.valueOf(c)), false);
+        i++;
+      }
+      // quantifier:
+      if (i < length) {
+        char q = regex.charAt(i);
+        if (q == '?' || q == '*') {
+          item.optional = true;
+          i++;
+        } else if (q == '+') {
+          i++;
+        } else if (q == '{') {
+          int end = regex.indexOf('}', i);
+          if (end < 0) {
+            return null;
+          }
+          String[] range = regex.substring(i + 1, end).split(",", -1);
+          try {
+            item.optional = Integer.parseInt(range[0].trim()) == 0;
+          } catch (NumberFormatException e) {
+            return null;
+          }
+          i = end + 1;
+        }
+        if (i < length && (regex.charAt(i) == '?' || regex.charAt(i) == '+') && (q == '?' || q == '*' || q == '+' || q == '{')) {
+          i++;  // reluctant or possessive
+        }
+      }
+      items.add(item);
+    }
+    return items;
+  }
+
+  private static int findGroupEnd(String regex, int start) {
+    int depth = 0;
+    for (int i = start; i < regex.length(); i++) {
+      char c = regex.charAt(i);
+      if (c == '\\') {
+        if (i + 1 < regex.length() && regex.charAt(i + 1) == 'Q') {
+          return -1;
+        }
+        i++;
+      } else if (c == '[') {
+        i = findClassEnd(regex, i);
+        if (i < 0) {
+          return -1;
+        }
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+        if (depth == 0) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  private static int findClassEnd(String regex, int start) {
+    int i = start + 1;
+    if (i < regex.length() && regex.charAt(i) == '^') {
+      i++;
+    }
+    if (i < regex.length() && regex.charAt(i) == ']') {
+      return -1;
+    }
+    int depth = 1;
+    for (; i < regex.length(); i++) {
+      char c = regex.charAt(i);
+      if (c == '\\') {
+        if (i + 1 < regex.length() && regex.charAt(i + 1) == 'Q') {
+          return -1;
+        }
+        i++;
+      } else if (c == '[') {
+        depth++;
+      } else if (c == ']') {
+        depth--;
+        if (depth == 0) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  private static final class Item {
+    /** regular expression for a single character, {@code null} if not known */
+    private final String atom;
+    private final boolean zeroWidth;
+    private boolean optional;
+
+    private Item(String atom, boolean zeroWidth) {
+      this.atom = atom;
+      this.zeroWidth = zeroWidth;
+    }
+
+    @Nullable
+    private String getAtom() {
+      return optional ? null : atom;
+    }
+  }
+
+  /**
+   * Same as the library's {@code RuleMatcher}, but with a pre-compiled pattern.
+   */
+  private final class BreakMatcher {
+    private final int ruleIndex;
+    private final int length;
+    private final Matcher beforeMatcher;
+    private final Matcher afterMatcher;
+
+    private BreakMatcher(int ruleIndex, String text) {
+      this.ruleIndex = ruleIndex;
+      this.length = text.length();
+      this.beforeMatcher = breakBeforePatterns[ruleIndex].matcher(text);
+      this.afterMatcher = breakAfterPatterns[ruleIndex].matcher(text);
+    }
+
+    private boolean find() {
+      while (beforeMatcher.find()) {
+        afterMatcher.region(beforeMatcher.end(), length);
+        if (afterMatcher.lookingAt()) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private boolean find(int start) {
+      beforeMatcher.region(start, length);
+      return find();
+    }
+
+    private int getStartPosition() {
+      return beforeMatcher.start();
+    }
+
+    private int getBreakPosition() {
+      return afterMatcher.start();
+    }
+  }
+
+  private static final class ExceptionGroup {
+    /** the characters that the rules' {@code beforebreak} can end with, {@code null} if not known */
+    private final CharSet lastChars;
+    private final int[] exceptions;
+
+    private ExceptionGroup(CharSet lastChars, List<Integer> exceptions) {
+      this.lastChars = lastChars;
+      this.exceptions = exceptions.stream().mapToInt(Integer::intValue).toArray();
+    }
+  }
+
+  /**
+   * The characters matched by a regular expression for a single character, with the
+   * results for the more common characters being remembered.
+   */
+  private static final class CharSet {
+    private static final int CACHED_CHARS = 0x2100;  // up to the general punctuation block
+
+    private final Pattern pattern;
+    // 0: not known yet, 1: contained, 2: not contained; concurrent updates are harmless,
+    // as they all write the same value:
+    private final byte[] cache = new byte[CACHED_CHARS];
+
+    private CharSet(String atom) {
+      this.pattern = Pattern.compile(atom);
+    }
+
+    private boolean contains(char c) {
+      if (c >= CACHED_CHARS) {
+        return pattern.matcher(String.valueOf(c)).matches();
+      }
+      byte known = cache[c];
+      if (known == 0) {
+        boolean contains = pattern.matcher(String.valueOf(c)).matches();
+        cache[c] = contains ? (byte) 1 : (byte) 2;
+        return contains;
+      }
+      return known == 1;
+    }
+  }
+
+}
@@ -22,7 +22,9 @@ import net.loomchild.segment.srx.SrxDocument;
 import org.languagetool.Language;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Class to tokenize sentences using rules from an SRX file.
@@ -33,6 +35,7 @@ public class SRXSentenceTokenizer implements SentenceTokenizer {
 
   private final SrxDocument srxDocument;
   private final Language language;
+  private final Map<String, CompiledSrxSegmenter> segmenters = new ConcurrentHashMap<>();
 
   private String parCode;
 
@@ -56,7 +59,8 @@ public class SRXSentenceTokenizer implements SentenceTokenizer {
 
   @Override
   public final List<String> tokenize(String text) {
-    return SrxTools.tokenize(text, srxDocument, language.getShortCode() + parCode);
+    String code = language.getShortCode() + parCode;
+    return segmenters.computeIfAbsent(code, k -> new CompiledSrxSegmenter(srxDocument, k)).segment(text);
   }
 
   @Override
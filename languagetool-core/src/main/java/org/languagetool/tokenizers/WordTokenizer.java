@@ -18,11 +18,7 @@
  */
 package org.languagetool.tokenizers;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
-import java.util.StringTokenizer;
+import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -34,6 +30,8 @@ import org.languagetool.tools.StringTools;
  * The tokenizer is a quite simple character-based one, though it knows
  * about urls and will put them in one token, if fully specified including
  * a protocol (like {@code http://foobar.org}).
+ * Subclasses can add tokenizing characters by overriding {@link #getTokenizingCharacters()},
+ * the tokenizer looks them up in a table built from that string.
  * 
  * @author Daniel Naber
  */
@@ -44,6 +42,8 @@ public class WordTokenizer implements Tokenizer {
   private static final Pattern DOMAIN_CHARS = Pattern.compile("[a-zA-Z0-9][a-zA-Z0-9-]+");
   private static final Pattern NO_PROTOCOL_URL = Pattern.compile("([a-zA-Z0-9][a-zA-Z0-9-]+\\.)?([a-zA-Z0-9][a-zA-Z0-9-]+)\\.([a-zA-Z0-9][a-zA-Z0-9-]+)/.*");
   private static final Pattern E_MAIL = Pattern.compile("(?<!:)\\b[a-zA-Z0-9.!#$%&'*+/=?^_`{|}~-]+@((\\[[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\])|(([a-zA-Z\\-0-9]+\\.)+[a-zA-Z]{2,}))\\b");
+  private static final Pattern E_MAIL_LOCAL_CHARS = Pattern.compile("[a-zA-Z0-9.!#$%&'*+/=?^_`{|}~-]");
+  private static final Pattern E_MAIL_DOMAIN_CHARS = Pattern.compile("[a-zA-Z\\-0-9]");
 
   private static final String TOKENIZING_CHARACTERS = "\u0020\u00A0\u115f" +
       "\u1160\u1680"
@@ -56,6 +56,47 @@ public class WordTokenizer implements Tokenizer {
       + "—"  // em dash
       + "\t\n\r";
 
+  // whether a subclass changes how URLs and e-mail addresses are joined, so tokenize()
+  // needs to call those methods:
+  private static final ClassValue<Boolean> CUSTOM_JOINING = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(Class<?> type) {
+      for (Class<?> c = type; c != WordTokenizer.class; c = c.getSuperclass()) {
+        for (String name : new String[]{"joinEMailsAndUrls", "joinEMails", "joinUrls"}) {
+          try {
+            c.getDeclaredMethod(name, List.class);
+            return true;
+          } catch (NoSuchMethodException ignored) {
+          }
+        }
+      }
+      return false;
+    }
+  };
+  // whether a subclass overrides tokenize(), so tokenizeToOffsets() needs to call it:
+  private static final ClassValue<Boolean> CUSTOM_TOKENIZE = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(Class<?> type) {
+      try {
+        return type.getMethod("tokenize", String.class).getDeclaringClass() != WordTokenizer.class;
+      } catch (NoSuchMethodException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  };
+  private static final boolean[] URL_CHAR_TABLE = new boolean[128];
+  private static final boolean[] E_MAIL_LOCAL_CHAR_TABLE = new boolean[128];
+  private static final boolean[] E_MAIL_DOMAIN_CHAR_TABLE = new boolean[128];
+  static {
+    for (char c = 0; c < URL_CHAR_TABLE.length; c++) {
+      URL_CHAR_TABLE[c] = URL_CHARS.matcher(String.valueOf(c)).matches();
+      E_MAIL_LOCAL_CHAR_TABLE[c] = E_MAIL_LOCAL_CHARS.matcher(String.valueOf(c)).matches();
+      E_MAIL_DOMAIN_CHAR_TABLE[c] = E_MAIL_DOMAIN_CHARS.matcher(String.valueOf(c)).matches();
+    }
+  }
+
+  private volatile TokenizingCharacters tokenizingCharacters;
+
   /**
    * Get the protocols that the tokenizer knows about.
    * @return currently {@code http}, {@code https}, and {@code ftp}
@@ -86,12 +127,66 @@ public class WordTokenizer implements Tokenizer {
 
   @Override
   public List<String> tokenize(String text) {
-    List<String> l = new ArrayList<>();
-    StringTokenizer st = new StringTokenizer(text, getTokenizingCharacters(), true);
-    while (st.hasMoreElements()) {
-      l.add(st.nextToken());
+    TokenizingCharacters chars = getTokenizingCharacterTable();
+    if (chars.table == null || CUSTOM_JOINING.get(getClass())) {
+      List<String> l = new ArrayList<>();
+      StringTokenizer st = new StringTokenizer(text, chars.characters, true);
+      while (st.hasMoreElements()) {
+        l.add(st.nextToken());
+      }
+      return joinEMailsAndUrls(l);
+    }
+    Offsets tokens = joinEMails(text, split(text, chars.table));
+    Offsets groups = joinUrls(text, tokens);
+    List<String> result = new ArrayList<>(groups.size);
+    for (int i = 0; i < groups.size; i++) {
+      int first = groups.start(i);
+      int last = groups.end(i);
+      if (first == last || isContiguous(tokens, first, last)) {
+        result.add(text.substring(tokens.start(first), tokens.end(last)));
+      } else {
+        StringBuilder sb = new StringBuilder();
+        for (int j = first; j <= last; j++) {
+          sb.append(text, tokens.start(j), tokens.end(j));
+        }
+        result.add(sb.toString());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Like {@link #tokenize(String)}, but returns the positions of the tokens in {@code text}
+   * instead of new strings: the n-th token starts at index {@code 2*n} of the result and
+   * ends (exclusively) at index {@code 2*n+1}. For subclasses that tokenize in their own way,
+   * this is based on the result of {@link #tokenize(String)}.
+   */
+  int[] tokenizeToOffsets(String text) {
+    TokenizingCharacters chars = getTokenizingCharacterTable();
+    if (chars.table != null && !CUSTOM_JOINING.get(getClass()) && !CUSTOM_TOKENIZE.get(getClass())) {
+      Offsets tokens = joinEMails(text, split(text, chars.table));
+      Offsets groups = joinUrls(text, tokens);
+      int[] result = new int[groups.size * 2];
+      for (int i = 0; i < groups.size; i++) {
+        result[2 * i] = tokens.start(groups.start(i));
+        result[2 * i + 1] = tokens.end(groups.end(i));
+      }
+      return result;
     }
-    return joinEMailsAndUrls(l);
+    List<String> tokens = tokenize(text);
+    int[] result = new int[tokens.size() * 2];
+    int pos = 0;
+    for (int i = 0; i < tokens.size(); i++) {
+      String token = tokens.get(i);
+      int start = text.startsWith(token, pos) ? pos : text.indexOf(token, pos);
+      if (start < 0) {
+        start = pos;  // token isn't part of the text, e.g. because the tokenizer normalized it
+      }
+      pos = Math.min(text.length(), start + token.length());
+      result[2 * i] = start;
+      result[2 * i + 1] = pos;
+    }
+    return result;
   }
 
   /**
@@ -103,6 +198,16 @@ public class WordTokenizer implements Tokenizer {
     return TOKENIZING_CHARACTERS;
   }
 
+  private TokenizingCharacters getTokenizingCharacterTable() {
+    String characters = getTokenizingCharacters();
+    TokenizingCharacters chars = tokenizingCharacters;
+    if (chars == null || !chars.characters.equals(characters)) {
+      chars = new TokenizingCharacters(characters);
+      tokenizingCharacters = chars;
+    }
+    return chars;
+  }
+
   protected List<String> joinEMailsAndUrls(List<String> list) {
     return joinUrls(joinEMails(list));
   }
@@ -230,4 +335,347 @@ public class WordTokenizer implements Tokenizer {
     return false;
   }
 
+
+  // the same as StringTokenizer with returnDelims = true:
+  private static Offsets split(String text, long[] table) {
+    Offsets tokens = new Offsets(text.length() / 3 + 1);
+    int length = text.length();
+    int i = 0;
+    while (i < length) {
+      int start = i;
+      if (isSet(table, text.charAt(i))) {
+        i++;
+      } else {
+        while (i < length && !isSet(table, text.charAt(i))) {
+          i++;
+        }
+      }
+      tokens.add(start, i);
+    }
+    return tokens;
+  }
+
+  // the same as joinEMails(List), on offsets - instead of running E_MAIL over the
+  // whole text, only the text around each '@' is looked at:
+  private static Offsets joinEMails(String text, Offsets tokens) {
+    Offsets result = null;
+    int currentPosition = 0, idx = 0, searchFrom = 0;
+    for (int at = text.indexOf('@'); at >= 0; at = text.indexOf('@', at + 1)) {
+      int start = getEMailStart(text, at, searchFrom);
+      int end = start < 0 ? -1 : getEMailEnd(text, at + 1);
+      if (end < 0) {
+        continue;
+      }
+      if (result == null) {
+        result = new Offsets(tokens.size);
+      }
+      while (currentPosition < end) {
+        if (currentPosition < start) {
+          result.add(tokens.start(idx), tokens.end(idx));
+        } else if (currentPosition == start) {
+          result.add(start, end);
+        }
+        currentPosition += tokens.end(idx) - tokens.start(idx);
+        idx++;
+      }
+      searchFrom = end;
+    }
+    if (result == null) {
+      return tokens;
+    }
+    if (currentPosition < text.length()) {
+      for (; idx < tokens.size; idx++) {
+        result.add(tokens.start(idx), tokens.end(idx));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Where the local part of an e-mail address with its '@' at {@code at} starts, as
+   * matched by {@code (?<!:)\\b[a-zA-Z0-9.!#$%&'*+/=?^_`{|}~-]+@} of {@link #E_MAIL}
+   * when searching from {@code from}, or -1.
+   */
+  private static int getEMailStart(String text, int at, int from) {
+    int runStart = at;
+    while (runStart > from && isEMailChar(E_MAIL_LOCAL_CHAR_TABLE, text.charAt(runStart - 1))) {
+      runStart--;
+    }
+    for (int i = runStart; i < at; i++) {
+      if ((i == 0 || text.charAt(i - 1) != ':') && isWordBoundary(text, i)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Where the domain of an e-mail address starting at {@code start} ends, as matched by
+   * {@code ((\\[[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\])|(([a-zA-Z\\-0-9]+\\.)+[a-zA-Z]{2,}))\\b}
+   * of {@link #E_MAIL}, or -1.
+   */
+  private static int getEMailEnd(String text, int start) {
+    int length = text.length();
+    if (start < length && text.charAt(start) == '[') {
+      int i = start + 1;
+      for (int part = 0; part < 4; part++) {
+        int digitsStart = i;
+        while (i < length && i - digitsStart < 3 && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+          i++;
+        }
+        if (i == digitsStart || i >= length || text.charAt(i) != (part < 3 ? '.' : ']')) {
+          return -1;
+        }
+        i++;
+      }
+      return isWordBoundary(text, i) ? i : -1;
+    }
+    // as many labels as possible, as the regex is greedy:
+    int end = -1;
+    int i = start;
+    for (;;) {
+      int labelStart = i;
+      while (i < length && isEMailChar(E_MAIL_DOMAIN_CHAR_TABLE, text.charAt(i))) {
+        i++;
+      }
+      if (i == labelStart || i >= length || text.charAt(i) != '.') {
+        return end;
+      }
+      i++;
+      int tldEnd = i;
+      while (tldEnd < length && isAsciiLetter(text.charAt(tldEnd))) {
+        tldEnd++;
+      }
+      if (tldEnd - i >= 2 && isWordBoundary(text, tldEnd)) {
+        end = tldEnd;
+      }
+    }
+  }
+
+  private static boolean isEMailChar(boolean[] table, char c) {
+    return c < table.length && table[c];
+  }
+
+  private static boolean isAsciiLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  // the same as \b in java.util.regex:
+  private static boolean isWordBoundary(String text, int i) {
+    boolean left = i > 0 && isWordChar(text, i - Character.charCount(Character.codePointBefore(text, i)));
+    boolean right = i < text.length() && isWordChar(text, i);
+    return left != right;
+  }
+
+  private static boolean isWordChar(String text, int i) {
+    int c = text.codePointAt(i);
+    if (c == '_' || Character.isLetterOrDigit(c)) {
+      return true;
+    }
+    // a non-spacing mark belongs to the letter or digit it follows:
+    for (int j = i; j >= 0 && Character.getType(c) == Character.NON_SPACING_MARK; ) {
+      if (--j < 0) {
+        return false;
+      }
+      c = text.codePointAt(j);
+      if (Character.isLetterOrDigit(c)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The same as {@link #joinUrls(List)}, on offsets. Returns the first and last index
+   * of the tokens that make up each of the resulting tokens.
+   */
+  private static Offsets joinUrls(String text, Offsets tokens) {
+    Offsets groups = new Offsets(tokens.size);
+    boolean inUrl = false;
+    int urlStart = -1;
+    int urlQuote = -1;
+    for (int i = 0; i < tokens.size; i++) {
+      if (!inUrl && urlStartsAt(text, tokens, i)) {
+        inUrl = true;
+        urlQuote = i - 1;
+        urlStart = i;
+      } else if (inUrl && urlEndsAt(text, tokens, i, urlQuote)) {
+        inUrl = false;
+        urlQuote = -1;
+        groups.add(urlStart, i - 1);
+        urlStart = -1;
+        groups.add(i, i);
+      } else if (!inUrl) {
+        groups.add(i, i);
+      }
+    }
+    if (urlStart >= 0) {
+      groups.add(urlStart, tokens.size - 1);
+    }
+    return groups;
+  }
+
+  private static boolean urlStartsAt(String text, Offsets l, int i) {
+    int size = l.size;
+    if (size > i + 3 && isProtocol(text, l, i) && is(text, l, i + 1, ':') && is(text, l, i + 2, '/') && is(text, l, i + 3, '/')) {
+      return true;
+    }
+    if (size > i + 1 && equals(text, l, i, "www") && is(text, l, i + 1, '.')) {
+      return true;
+    }
+    if (size > i + 3 && is(text, l, i + 1, '.') && is(text, l, i + 3, '/') &&
+        isDomainPart(text, l, i) && isDomainPart(text, l, i + 2)) {
+      return true;
+    }
+    return size > i + 5 && is(text, l, i + 1, '.') && is(text, l, i + 3, '.') && is(text, l, i + 5, '/') &&
+        isDomainPart(text, l, i) && isDomainPart(text, l, i + 2) && isDomainPart(text, l, i + 4);
+  }
+
+  private static boolean urlEndsAt(String text, Offsets l, int i, int urlQuote) {
+    if (isWhitespace(text, l, i) || is(text, l, i, ')') || is(text, l, i, ']')) {
+      return true;
+    } else if (l.size > i + 1) {
+      int next = i + 1;
+      boolean nextEndsUrl = isWhitespace(text, l, next) || l.end(next) - l.start(next) == 1 && "\"»«‘’“”'.".indexOf(text.charAt(l.start(next))) >= 0;
+      boolean isPunctuation = l.end(i) - l.start(i) == 1 && ".,;:!?".indexOf(text.charAt(l.start(i))) >= 0;
+      return nextEndsUrl && (isPunctuation || sameToken(text, l, i, urlQuote)) || !isUrlPart(text, l, i);
+    } else {
+      return !isUrlPart(text, l, i) || is(text, l, i, '.') || sameToken(text, l, i, urlQuote);
+    }
+  }
+
+  private static boolean isProtocol(String text, Offsets l, int i) {
+    for (String protocol : PROTOCOLS) {
+      if (equals(text, l, i, protocol)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // same as DOMAIN_CHARS:
+  private static boolean isDomainPart(String text, Offsets l, int i) {
+    int start = l.start(i);
+    int end = l.end(i);
+    if (end - start < 2 || !isAsciiLetterOrDigit(text.charAt(start))) {
+      return false;
+    }
+    for (int j = start + 1; j < end; j++) {
+      char c = text.charAt(j);
+      if (!isAsciiLetterOrDigit(c) && c != '-') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // same as URL_CHARS:
+  private static boolean isUrlPart(String text, Offsets l, int i) {
+    for (int j = l.start(i); j < l.end(i); j++) {
+      char c = text.charAt(j);
+      if (c >= URL_CHAR_TABLE.length || !URL_CHAR_TABLE[c]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isAsciiLetterOrDigit(char c) {
+    return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9';
+  }
+
+  // same as StringTools.isWhitespace(), but for single characters only, as longer tokens aren't whitespace
+  // (with the tokenizing characters of this class, whitespace characters are single tokens):
+  private static boolean isWhitespace(String text, Offsets l, int i) {
+    if (l.end(i) - l.start(i) != 1) {
+      return StringTools.isWhitespace(text.substring(l.start(i), l.end(i)));
+    }
+    char c = text.charAt(l.start(i));
+    if (c == '\u0001' || c == '\u0002') {
+      return false;
+    }
+    return c <= ' ' || c == '\uFEFF' || c == '\u200B' || c == '\u00A0' || c == '\u202F' || Character.isWhitespace(c);
+  }
+
+  private static boolean is(String text, Offsets l, int i, char c) {
+    return l.end(i) - l.start(i) == 1 && text.charAt(l.start(i)) == c;
+  }
+
+  private static boolean equals(String text, Offsets l, int i, String s) {
+    return l.end(i) - l.start(i) == s.length() && text.startsWith(s, l.start(i));
+  }
+
+  private static boolean sameToken(String text, Offsets l, int i, int j) {
+    if (j < 0) {
+      return false;
+    }
+    int length = l.end(i) - l.start(i);
+    return l.end(j) - l.start(j) == length && text.regionMatches(l.start(i), text, l.start(j), length);
+  }
+
+  private static boolean isContiguous(Offsets tokens, int first, int last) {
+    for (int i = first; i < last; i++) {
+      if (tokens.end(i) != tokens.start(i + 1)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSet(long[] table, char c) {
+    return (table[c >>> 6] & (1L << c)) != 0;
+  }
+
+  /**
+   * The tokenizing characters as a bit set over all chars (8 KB).
+   */
+  private static final class TokenizingCharacters {
+    private final String characters;
+    /** {@code null} if there are characters outside the Basic Multilingual Plane */
+    private final long[] table;
+
+    private TokenizingCharacters(String characters) {
+      this.characters = characters;
+      long[] table = new long[1 << 10];
+      for (int i = 0; i < characters.length(); i++) {
+        char c = characters.charAt(i);
+        if (Character.isSurrogate(c)) {
+          table = null;
+          break;
+        }
+        table[c >>> 6] |= 1L << c;
+      }
+      this.table = table;
+    }
+  }
+
+  /**
+   * A growing list of (start, end) pairs.
+   */
+  private static final class Offsets {
+    private int[] values;
+    private int size;
+
+    private Offsets(int capacity) {
+      values = new int[Math.max(2, capacity * 2)];
+    }
+
+    private void add(int start, int end) {
+      if (size * 2 == values.length) {
+        values = Arrays.copyOf(values, values.length * 2);
+      }
+      values[size * 2] = start;
+      values[size * 2 + 1] = end;
+      size++;
+    }
+
+    private int start(int i) {
+      return values[i * 2];
+    }
+
+    private int end(int i) {
+      return values[i * 2 + 1];
+    }
+  }
+
 }
@@ -21,8 +21,11 @@ package org.languagetool;
 
 import org.junit.Test;
 
+import java.util.Collections;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
 
 public class AnalyzedSentenceTest {
 
@@ -53,4 +56,24 @@ public class AnalyzedSentenceTest {
     assertNotEquals(sentence, copySentence);
   }
 
+  @Test
+  public void testWithTokens() {
+    AnalyzedTokenReadings[] words = new AnalyzedTokenReadings[4];
+    words[0] = new AnalyzedTokenReadings(new AnalyzedToken("", "SENT_START", null));
+    words[1] = new AnalyzedTokenReadings(new AnalyzedToken("word", "POS", "lemma"));
+    words[2] = new AnalyzedTokenReadings(new AnalyzedToken(" ", null, null));
+    words[3] = new AnalyzedTokenReadings(new AnalyzedToken("other", "POS", "other"));
+    AnalyzedSentence sentence = new AnalyzedSentence(words);
+    AnalyzedTokenReadings[] newWords = words.clone();
+    newWords[3] = new AnalyzedTokenReadings(words[3], Collections.singletonList(new AnalyzedToken("other", "POS2", "lemma2")), "");
+    AnalyzedSentence newSentence = sentence.withTokens(newWords, words);
+    assertEquals(new AnalyzedSentence(newWords, words), newSentence);
+    assertEquals(3, newSentence.getOriginalPosition(2));
+    assertEquals(newWords[3], newSentence.getTokensWithoutWhitespace()[2]);
+    assertEquals(words[3], newSentence.getPreDisambigTokensWithoutWhitespace()[2]);
+    assertEquals(Collections.singletonList(2), newSentence.getTokenOffsets("other"));
+    assertEquals(Collections.singletonList(2), newSentence.getLemmaOffsets("lemma2"));
+    assertNull(sentence.getLemmaOffsets("lemma2"));
+  }
+
 }
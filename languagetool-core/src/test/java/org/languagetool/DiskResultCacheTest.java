@@ -0,0 +1,218 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.junit.Test;
+import org.languagetool.language.Demo;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.SuggestedReplacement;
+import org.languagetool.rules.WordRepeatRule;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class DiskResultCacheTest {
+
+  @Test
+  public void testPutAndGet() throws IOException {
+    File file = File.createTempFile("lt-disk-cache", ".bin");
+    file.deleteOnExit();
+    HashCode key1 = key(1);
+    HashCode key2 = key(2);
+    try (DiskResultCache cache = new DiskResultCache(file, 10_000)) {
+      assertNull(cache.get(key1));
+      cache.put(key1, new byte[]{1, 2, 3});
+      assertArrayEquals(new byte[]{1, 2, 3}, cache.get(key1));
+      assertNull(cache.get(key2));
+    }
+    // simulate a restart:
+    try (DiskResultCache cache = new DiskResultCache(file, 10_000)) {
+      assertArrayEquals(new byte[]{1, 2, 3}, cache.get(key1));
+    }
+  }
+
+  @Test
+  public void testCompaction() throws IOException {
+    File file = File.createTempFile("lt-disk-cache", ".bin");
+    file.deleteOnExit();
+    try (DiskResultCache cache = new DiskResultCache(file, 10_000)) {
+      for (int i = 0; i < 1000; i++) {
+        cache.put(key(i), new byte[]{(byte) i});
+      }
+      assertTrue(cache.compactionCount() > 0);
+      assertTrue(cache.usedBytes() < 10_000);
+      assertNull(cache.get(key(0)));
+      assertArrayEquals(new byte[]{(byte) 999}, cache.get(key(999)));
+    }
+  }
+
+  @Test
+  public void testReadThrough() throws Exception {
+    File file = File.createTempFile("lt-disk-cache", ".bin");
+    file.deleteOnExit();
+    Demo lang = new Demo();
+    try (DiskResultCache diskCache = new DiskResultCache(file, 100_000)) {
+      List<RuleMatch> matches1 = check(lang, new ResultCache(1000, 5, TimeUnit.MINUTES, diskCache));
+      assertThat(matches1.size(), is(1));
+      for (int i = 0; i < 100 && diskCache.writeCount() == 0; i++) {
+        Thread.sleep(50);  // writing is asynchronous
+      }
+      // a new in-memory cache, as after a restart:
+      List<RuleMatch> matches2 = check(lang, new ResultCache(1000, 5, TimeUnit.MINUTES, diskCache));
+      assertThat(diskCache.hitCount(), is(1L));
+      assertThat(matches2.size(), is(1));
+      assertThat(matches2.get(0).getRule().getId(), is(matches1.get(0).getRule().getId()));
+      assertThat(matches2.get(0).getFromPos(), is(matches1.get(0).getFromPos()));
+      assertThat(matches2.get(0).getToPos(), is(matches1.get(0).getToPos()));
+      assertThat(matches2.get(0).getMessage(), is(matches1.get(0).getMessage()));
+      assertThat(matches2.get(0).getSuggestedReplacements(), is(matches1.get(0).getSuggestedReplacements()));
+    }
+  }
+
+  @Test
+  public void testUserSpellerWordsArePartOfKey() throws Exception {
+    File file = File.createTempFile("lt-disk-cache", ".bin");
+    file.deleteOnExit();
+    Demo lang = new Demo();
+    AnalyzedSentence sentence = new JLanguageTool(lang).getAnalyzedSentence("This is a test.");
+    InputSentence key1 = inputSentence(lang, new UserConfig(Arrays.asList("foo", "bar")));
+    InputSentence key1b = inputSentence(lang, new UserConfig(Arrays.asList("bar", "foo")));
+    InputSentence key2 = inputSentence(lang, new UserConfig(Arrays.asList("foo", "other")));
+    assertEquals(key1.hashCode(), key2.hashCode());  // UserConfig.hashCode() ignores the words
+    assertEquals(key1.contentHash(), key1b.contentHash());
+    assertNotEquals(key1.contentHash(), key2.contentHash());
+    try (DiskResultCache cache = new DiskResultCache(file, 10_000)) {
+      assertTrue(cache.put(key1, Collections.emptyList()));
+      assertNotNull(cache.getIfPresent(key1, sentence, id -> null));
+      assertNull(cache.getIfPresent(key2, sentence, id -> null));
+    }
+  }
+
+  @Test
+  public void testLazySuggestionsAreNotComputed() throws Exception {
+    File file = File.createTempFile("lt-disk-cache", ".bin");
+    file.deleteOnExit();
+    Demo lang = new Demo();
+    AnalyzedSentence sentence = new JLanguageTool(lang).getAnalyzedSentence("This is is a test.");
+    RuleMatch match = new RuleMatch(new WordRepeatRule(TestTools.getEnglishMessages(), lang), sentence, 5, 10, "msg");
+    AtomicInteger computed = new AtomicInteger();
+    match.setLazySuggestedReplacements(() -> {
+      computed.incrementAndGet();
+      return Collections.singletonList(new SuggestedReplacement("is"));
+    });
+    InputSentence key = inputSentence(lang, new UserConfig());
+    try (DiskResultCache cache = new DiskResultCache(file, 10_000)) {
+      assertFalse(cache.put(key, Collections.singletonList(match)));
+      assertEquals(0, computed.get());
+      assertEquals(Collections.singletonList("is"), match.getSuggestedReplacements());
+      assertTrue(cache.put(key, Collections.singletonList(match)));
+      assertEquals(1, computed.get());
+    }
+  }
+
+  @Test
+  public void testLazyMatchesAreWrittenOnceResolved() throws Exception {
+    File file = File.createTempFile("lt-disk-cache", ".bin");
+    file.deleteOnExit();
+    Demo lang = new Demo();
+    AnalyzedSentence sentence = new JLanguageTool(lang).getAnalyzedSentence("This is is a test.");
+    RuleMatch match = new RuleMatch(new WordRepeatRule(TestTools.getEnglishMessages(), lang), sentence, 5, 10, "msg");
+    match.setLazySuggestedReplacements(() -> Collections.singletonList(new SuggestedReplacement("is")));
+    InputSentence key = inputSentence(lang, new UserConfig());
+    try (DiskResultCache diskCache = new DiskResultCache(file, 10_000)) {
+      ResultCache cache = new ResultCache(1000, 5, TimeUnit.MINUTES, diskCache);
+      cache.put(key, Collections.singletonList(match));
+      Thread.sleep(100);
+      assertEquals(0, diskCache.writeCount());
+      match.getSuggestedReplacements();
+      for (int i = 0; i < 100 && diskCache.writeCount() == 0; i++) {
+        Thread.sleep(50);  // writing is asynchronous
+      }
+      assertEquals(1, diskCache.writeCount());
+      match.getSuggestedReplacements();
+      Thread.sleep(100);
+      assertEquals(1, diskCache.writeCount());
+    }
+  }
+
+  @Test
+  public void testAllMatchFieldsAreKept() throws Exception {
+    Demo lang = new Demo();
+    AnalyzedSentence sentence = new JLanguageTool(lang).getAnalyzedSentence("This is is a test.");
+    WordRepeatRule rule = new WordRepeatRule(TestTools.getEnglishMessages(), lang);
+    RuleMatch match = new RuleMatch(rule, sentence, 5, 10, 4, 11, "msg", "short");
+    match.setType(RuleMatch.Type.Hint);
+    match.setAutoCorrect(true);
+    match.setLine(2);
+    match.setEndLine(3);
+    match.setColumn(4);
+    match.setEndColumn(5);
+    match.setFeatures(new TreeMap<>(Collections.singletonMap("f", 0.5f)));
+    SuggestedReplacement replacement = new SuggestedReplacement("is", "desc", "suffix");
+    replacement.setType(SuggestedReplacement.SuggestionType.Curated);
+    replacement.setConfidence(0.75f);
+    replacement.setFeatures(new TreeMap<>(Collections.singletonMap("g", 1.5f)));
+    match.setSuggestedReplacementObjects(Collections.singletonList(replacement));
+    List<RuleMatch> decoded = DiskResultCache.decode(DiskResultCache.encode(Collections.singletonList(match)), sentence, id -> rule);
+    assertNotNull(decoded);
+    RuleMatch match2 = decoded.get(0);
+    assertEquals(match, match2);
+    assertEquals("short", match2.getShortMessage());
+    assertTrue(match2.isAutoCorrect());
+    assertEquals(2, match2.getLine());
+    assertEquals(3, match2.getEndLine());
+    assertEquals(4, match2.getColumn());
+    assertEquals(5, match2.getEndColumn());
+    assertEquals(match.getFeatures(), match2.getFeatures());
+    SuggestedReplacement replacement2 = match2.getSuggestedReplacementObjects().get(0);
+    assertEquals(replacement, replacement2);
+    assertEquals("suffix", replacement2.getSuffix());
+    assertEquals(SuggestedReplacement.SuggestionType.Curated, replacement2.getType());
+    assertEquals(Float.valueOf(0.75f), replacement2.getConfidence());
+    assertEquals(replacement.getFeatures(), replacement2.getFeatures());
+  }
+
+  private InputSentence inputSentence(Language lang, UserConfig userConfig) {
+    return new InputSentence("This is a test.", lang, null, Collections.emptySet(), Collections.emptySet(),
+      Collections.emptySet(), Collections.emptySet(), userConfig, Collections.emptyList(),
+      JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT);
+  }
+
+  private HashCode key(long l) {
+    return Hashing.murmur3_128().hashLong(l);
+  }
+
+  private List<RuleMatch> check(Demo lang, ResultCache cache) throws IOException {
+    JLanguageTool lt = new JLanguageTool(lang, null, cache, new UserConfig());
+    lt.addRule(new WordRepeatRule(TestTools.getEnglishMessages(), lang));
+    return lt.check("This is is a test.");
+  }
+
+}
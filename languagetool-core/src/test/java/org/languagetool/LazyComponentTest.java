@@ -0,0 +1,76 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LazyComponentTest {
+
+  @Test
+  public void testCreatedOnce() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    LazyComponent<Object> component = new LazyComponent<>(() -> {
+      calls.incrementAndGet();
+      return new Object();
+    });
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<Object>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          return component.get();
+        }));
+      }
+      start.countDown();
+      for (Future<Object> future : futures) {
+        assertSame(component.get(), future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void testNullAndSet() {
+    AtomicInteger calls = new AtomicInteger();
+    LazyComponent<String> component = new LazyComponent<>(() -> {
+      calls.incrementAndGet();
+      return null;
+    });
+    assertNull(component.get());
+    assertNull(component.get());
+    assertEquals(1, calls.get());
+    component.set("foo");
+    assertEquals("foo", component.get());
+    component.set(null);
+    assertNull(component.get());
+    assertEquals(2, calls.get());
+  }
+
+}
@@ -20,6 +20,9 @@ package org.languagetool;
 
 import org.junit.Test;
 import org.languagetool.language.Demo;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.FakeRule;
 import org.languagetool.rules.MultipleWhitespaceRule;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
@@ -28,11 +31,15 @@ import org.languagetool.rules.patterns.AbstractPatternRule;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 @SuppressWarnings("ResultOfObjectAllocationIgnored")
@@ -75,6 +82,115 @@ public class MultiThreadedJLanguageToolTest {
     lt.shutdown();
   }
   
+  @Test
+  public void testBatchedTextAnalysis() throws IOException {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      text.append("This is sentence number ").append(i).append(". ");
+    }
+    MultiThreadedJLanguageTool lt1 = new MultiThreadedJLanguageTool(new Demo(), 3);
+    List<AnalyzedSentence> sentences1 = lt1.analyzeText(text.toString());
+    lt1.shutdown();
+    List<AnalyzedSentence> sentences2 = new JLanguageTool(new Demo()).analyzeText(text.toString());
+    assertThat(sentences1.size(), is(200));
+    for (int i = 0; i < sentences1.size(); i++) {
+      assertThat(sentences1.get(i).getText(), is(sentences2.get(i).getText()));
+    }
+    AnalyzedTokenReadings[] lastTokens = sentences1.get(199).getTokens();
+    assertThat(lastTokens[lastTokens.length - 1].isParagraphEnd(), is(true));
+  }
+
+  @Test
+  public void testCheckWhileAnalyzing() throws IOException {
+    CountDownLatch ruleCalled = new CountDownLatch(1);
+    AtomicBoolean checkedBeforeLastSentenceAnalyzed = new AtomicBoolean();
+    MultiThreadedJLanguageTool lt = new MultiThreadedJLanguageTool(new Demo(), 2) {
+      @Override
+      public AnalyzedSentence getAnalyzedSentence(String sentence) throws IOException {
+        if (sentence.startsWith("Last")) {
+          try {
+            // if analysis and checking didn't overlap, this would time out:
+            checkedBeforeLastSentenceAnalyzed.set(ruleCalled.await(10, TimeUnit.SECONDS));
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+        }
+        return super.getAnalyzedSentence(sentence);
+      }
+    };
+    lt.addRule(new FakeRule() {
+      @Override
+      public RuleMatch[] match(AnalyzedSentence sentence) throws IOException {
+        ruleCalled.countDown();
+        return super.match(sentence);
+      }
+    });
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      text.append("This is sentence number ").append(i).append(". ");
+    }
+    text.append("Last sentence.");
+    lt.check(text.toString());
+    lt.shutdown();
+    assertTrue(checkedBeforeLastSentenceAnalyzed.get());
+  }
+
+  @Test
+  public void testCheckWhileAnalyzingHasSameResult() throws IOException {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 60; i++) {
+      text.append("A small toast. No error here. Foo go bar. First goes last there, please!\n\n");
+    }
+    MultiThreadedJLanguageTool lt1 = new MultiThreadedJLanguageTool(new Demo(), 3);
+    lt1.setCleanOverlappingMatches(false);
+    JLanguageTool lt2 = new JLanguageTool(new Demo());
+    lt2.setCleanOverlappingMatches(false);
+    for (JLanguageTool.Mode mode : JLanguageTool.Mode.values()) {
+      AnnotatedText annotatedText = new AnnotatedTextBuilder().addText(text.toString()).build();
+      List<RuleMatch> matches1 = lt1.check(annotatedText, true, JLanguageTool.ParagraphHandling.NORMAL, null, mode, JLanguageTool.Level.DEFAULT);
+      List<RuleMatch> matches2 = lt2.check(annotatedText, true, JLanguageTool.ParagraphHandling.NORMAL, null, mode, JLanguageTool.Level.DEFAULT);
+      assertEquals(toString(matches2), toString(matches1));
+    }
+    lt1.shutdown();
+  }
+
+  @Test
+  public void testErrorRateCoversAllBatches() throws IOException {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      text.append("Hi there. ");
+    }
+    // every batch has fewer than 25 words, but all sentences together have more:
+    MultiThreadedJLanguageTool lt = new MultiThreadedJLanguageTool(new Demo(), 2);
+    lt.setMaxErrorsPerWordRate(0.1f);
+    lt.addRule(new FakeRule() {
+      @Override
+      public RuleMatch[] match(AnalyzedSentence sentence) {
+        return new RuleMatch[]{new RuleMatch(this, sentence, 0, 2, "error")};
+      }
+    });
+    try {
+      lt.check(text.toString());
+      fail();
+    } catch (RuntimeException e) {
+      Throwable cause = e;
+      while (cause != null && !(cause instanceof ErrorRateTooHighException)) {
+        cause = cause.getCause();
+      }
+      assertTrue(e.toString(), cause instanceof ErrorRateTooHighException);
+    } finally {
+      lt.shutdown();
+    }
+  }
+
+  private List<String> toString(List<RuleMatch> matches) {
+    List<String> result = new ArrayList<>();
+    for (RuleMatch match : matches) {
+      result.add(match.getRule().getId() + "@" + match.getFromPos() + "-" + match.getToPos() + ":" + match.getLine() + "/" + match.getColumn());
+    }
+    return result;
+  }
+
   @Test
   public void testConfigurableThreadPoolSize() throws IOException {
     MultiThreadedJLanguageTool lt = new MultiThreadedJLanguageTool(new Demo());
@@ -0,0 +1,79 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.language.Demo;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class ResultCacheTest {
+
+  private final Demo lang = new Demo();
+  private final JLanguageTool lt = new JLanguageTool(lang);
+
+  @Test
+  public void testSentenceCountPolicyHasNoByteMetrics() {
+    ResultCache cache = new ResultCache(100);
+    assertThat(cache.getEvictionPolicy(), is(ResultCache.EvictionPolicy.SENTENCE_COUNT));
+    assertThat(cache.getSentenceCacheBytes(), is(-1L));
+    assertThat(cache.getRejectedCount(), is(-1L));
+  }
+
+  @Test
+  public void testByteAccounting() throws IOException {
+    ResultCache cache = new ResultCache(1_000_000, 5, TimeUnit.MINUTES, null, ResultCache.EvictionPolicy.COST_AWARE);
+    SimpleInputSentence key = new SimpleInputSentence("This is a test.", lang);
+    cache.put(key, lt.getAnalyzedSentence("This is a test."), 1000);
+    long bytes = cache.getSentenceCacheBytes();
+    assertTrue("Unexpected size: " + bytes, bytes > 500 && bytes < 10_000);
+    assertNotNull(cache.getIfPresent(key));
+    cache.getSentenceCache().invalidateAll();
+    assertThat(cache.getSentenceCacheBytes(), is(0L));
+  }
+
+  @Test
+  public void testCheapEntriesDontDisplaceValuableOnes() throws IOException {
+    ResultCache cache = new ResultCache(400_000, 5, TimeUnit.MINUTES, null, ResultCache.EvictionPolicy.COST_AWARE);
+    // fill the cache with frequently used, expensive entries:
+    for (int i = 0; i < 100; i++) {
+      String text = "Expensive sentence number " + i + ".";
+      SimpleInputSentence key = new SimpleInputSentence(text, lang);
+      for (int j = 0; j < 5; j++) {
+        cache.getIfPresent(key);
+      }
+      cache.put(key, lt.getAnalyzedSentence(text), 50_000_000);
+    }
+    assertTrue(cache.getSentenceCacheBytes() <= 200_000);
+    // new entries, seen only once and cheap to compute, should mostly be rejected:
+    for (int i = 0; i < 100; i++) {
+      String text = "Cheap sentence number " + i + ".";
+      SimpleInputSentence key = new SimpleInputSentence(text, lang);
+      cache.getIfPresent(key);
+      cache.put(key, lt.getAnalyzedSentence(text), 1);
+    }
+    assertTrue(cache.getRejectedCount() > 50);
+    assertTrue(cache.getSentenceCacheBytes() <= 200_000);
+  }
+
+}
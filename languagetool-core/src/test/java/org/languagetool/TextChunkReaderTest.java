@@ -0,0 +1,98 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.language.Demo;
+import org.languagetool.rules.RuleMatch;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TextChunkReaderTest {
+
+  @Test
+  public void testChunksEndAtParagraphs() throws IOException {
+    String text = "First line.\nSecond line.\n\nNext paragraph.\r\n\r\nLast one.";
+    TextChunkReader reader = new TextChunkReader(new StringReader(text), false, 10, 1000);
+    assertChunk(reader.next(), "First line.\nSecond line.\n\n", 0, 0);
+    assertChunk(reader.next(), "Next paragraph.\r\n\r\n", 26, 3);
+    assertChunk(reader.next(), "Last one.", 45, 5);
+    assertNull(reader.next());
+  }
+
+  @Test
+  public void testSingleLineBreakMarksParagraph() throws IOException {
+    TextChunkReader reader = new TextChunkReader(new StringReader("One.\nTwo.\nThree."), true, 1, 1000);
+    assertChunk(reader.next(), "One.\n", 0, 0);
+    assertChunk(reader.next(), "Two.\n", 5, 1);
+    assertChunk(reader.next(), "Three.", 10, 2);
+    assertNull(reader.next());
+  }
+
+  @Test
+  public void testLongTextWithoutParagraphs() throws IOException {
+    TextChunkReader reader = new TextChunkReader(new StringReader("aaa bbb\nccc ddd eee fff ggg"), false, 2, 4);
+    assertChunk(reader.next(), "aaa bbb\n", 0, 0);
+    TextChunkReader.Chunk chunk = reader.next();
+    assertChunk(chunk, "ccc ddd ", 8, 1);
+    assertChunk(reader.next(), "eee fff ", 16, 1);
+    assertThat(reader.next().getColumn(), is(16));
+    assertNull(reader.next());
+  }
+
+  @Test
+  public void testCheckStream() throws IOException {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 30; i++) {
+      text.append("Paragraph ").append(i).append(" has has an error.\nFoo go bar.\n\n");
+    }
+    JLanguageTool lt = new JLanguageTool(new Demo());
+    List<RuleMatch> expected = lt.check(text.toString());
+    List<RuleMatch> streamed = new ArrayList<>();
+    long count = lt.checkStream(new StringReader(text.toString()), streamed::add,
+      JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT, 100, 200);
+    assertTrue(expected.size() >= 30);
+    assertThat(count, is((long) expected.size()));
+    for (int i = 0; i < expected.size(); i++) {
+      RuleMatch m1 = expected.get(i);
+      RuleMatch m2 = streamed.get(i);
+      assertThat(m2.getRule().getId(), is(m1.getRule().getId()));
+      assertThat(m2.getFromPos(), is(m1.getFromPos()));
+      assertThat(m2.getToPos(), is(m1.getToPos()));
+      assertThat(m2.getLine(), is(m1.getLine()));
+      assertThat(m2.getColumn(), is(m1.getColumn()));
+      assertThat(m2.getEndColumn(), is(m1.getEndColumn()));
+    }
+  }
+
+  private void assertChunk(TextChunkReader.Chunk chunk, String text, long offset, int line) {
+    assertThat(chunk.getText(), is(text));
+    assertThat(chunk.getOffset(), is(offset));
+    assertThat(chunk.getLine(), is(line));
+  }
+
+}
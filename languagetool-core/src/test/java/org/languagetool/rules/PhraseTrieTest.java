@@ -0,0 +1,78 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules;
+
+import org.junit.Test;
+import org.languagetool.AnalyzedTokenReadings;
+import org.languagetool.JLanguageTool;
+import org.languagetool.language.Demo;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PhraseTrieTest {
+
+  @Test
+  public void testFind() throws IOException {
+    List<Map<String, SuggestionWithMessage>> wrongWords = new ArrayList<>();
+    wrongWords.add(map("b", "foo"));
+    wrongWords.add(map("a b", "b c", "c.", "x.y"));  // "x.y" has 3 tokens, so it's never found
+    wrongWords.add(map("a b c", "x.z"));
+    wrongWords.add(map());
+    wrongWords.add(map("x.y.z"));
+    PhraseTrie trie = new PhraseTrie(wrongWords);
+    assertEquals("[a b c (1-3), b c (2-3), a b (1-2), b (2-2)]", find(trie, "a b c"));
+    assertEquals("[a b (1-2), b (2-2)]", find(trie, "a b"));
+    assertEquals("[]", find(trie, "ab c"));
+    assertEquals("[c. (2-3)]", find(trie, "x c."));
+    assertEquals("[]", find(trie, "x c ."));
+    assertEquals("[x.y.z (1-5)]", find(trie, "x.y.z"));
+    assertEquals("[x.z (1-3)]", find(trie, "x.z"));
+    assertEquals("[foo (2-2), foo (1-1)]", find(trie, "foo foo"));
+    assertTrue(new PhraseTrie(Collections.emptyList()).isEmpty());
+  }
+
+  private static Map<String, SuggestionWithMessage> map(String... phrases) {
+    Map<String, SuggestionWithMessage> map = new HashMap<>();
+    for (String phrase : phrases) {
+      map.put(phrase, new SuggestionWithMessage(phrase));
+    }
+    return map;
+  }
+
+  private static String find(PhraseTrie trie, String text) throws IOException {
+    AnalyzedTokenReadings[] tokens = new JLanguageTool(new Demo()).getAnalyzedSentence(text).getTokensWithoutWhitespace();
+    String[] words = new String[tokens.length];
+    for (int i = 0; i < tokens.length; i++) {
+      words[i] = tokens[i].getToken();
+    }
+    PhraseTrie.Matches matches = trie.find(tokens, words);
+    List<String> result = new ArrayList<>();
+    for (int end = tokens.length - 1; end > 0; end--) {
+      for (int match = matches.first(end); match != -1; match = matches.next(match)) {
+        result.add(trie.getSuggestion(matches.entry(match)).getSuggestion() + " (" + matches.start(match) + "-" + end + ")");
+      }
+    }
+    return result.toString();
+  }
+
+}
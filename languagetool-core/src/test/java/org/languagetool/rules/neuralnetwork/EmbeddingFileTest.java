@@ -0,0 +1,63 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.neuralnetwork;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class EmbeddingFileTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testConvertAndMap() throws IOException {
+    File dir = tempFolder.newFolder();
+    Files.write(new File(dir, "dictionary.txt").toPath(), "{'foo': 0, 'bar': 1, 'UNK': 2}".getBytes(StandardCharsets.UTF_8));
+    File textFile = new File(dir, "final_embeddings.txt");
+    Files.write(textFile.toPath(), Arrays.asList("1 2 3", "3 4 5.5", "-1 0 0.25"), StandardCharsets.UTF_8);
+
+    Embedding textEmbedding = new Word2VecModel(dir.getPath()).getEmbedding();
+    EmbeddingFile.convert(textFile, new File(dir, EmbeddingFile.FILE_NAME));
+    assertTrue(textFile.delete());
+    Embedding mappedEmbedding = new Word2VecModel(dir.getPath()).getEmbedding();
+
+    assertEquals(3, mappedEmbedding.dimension());
+    String[] words = {"bar", "unknown", "foo"};
+    assertEquals(textEmbedding.lookup(words), mappedEmbedding.lookup(words));
+    assertEquals(new Matrix(new float[]{3, 4, 5.5f, -1, 0, 0.25f, 1, 2, 3}), mappedEmbedding.lookup(words));
+  }
+
+  @Test(expected = IOException.class)
+  public void testInvalidFile() throws IOException {
+    File file = tempFolder.newFile();
+    Files.write(file.toPath(), "no embedding".getBytes(StandardCharsets.UTF_8));
+    EmbeddingFile.map(file, new Dictionary("{'UNK': 0}"));
+  }
+
+}
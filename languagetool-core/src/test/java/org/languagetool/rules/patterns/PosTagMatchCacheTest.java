@@ -0,0 +1,72 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.junit.Test;
+import org.languagetool.AnalyzedToken;
+import org.languagetool.tagging.SymbolTable;
+
+import static org.junit.Assert.*;
+
+public class PosTagMatchCacheTest {
+
+  @Test
+  public void testCachedResults() {
+    String noun = SymbolTable.getPosTags().intern("POSCACHETEST:NN:SG");
+    String verb = SymbolTable.getPosTags().intern("POSCACHETEST:VB:SG");
+    int number = PosTagMatchCache.newPatternNumber();
+    StringMatcher nounPattern = StringMatcher.create("POSCACHETEST:NN.*", true, true);
+    StringMatcher verbPattern = StringMatcher.create("POSCACHETEST:VB.*", true, true);
+    assertTrue(PosTagMatchCache.matches(number, nounPattern, noun));
+    assertFalse(PosTagMatchCache.matches(number, nounPattern, verb));
+    // a hit doesn't evaluate the pattern again, the number identifies it:
+    assertTrue(PosTagMatchCache.matches(number, verbPattern, noun));
+    assertFalse(PosTagMatchCache.matches(number, verbPattern, verb));
+    // another pattern number is a miss:
+    int otherNumber = PosTagMatchCache.newPatternNumber();
+    assertFalse(PosTagMatchCache.matches(otherNumber, verbPattern, noun));
+    assertTrue(PosTagMatchCache.matches(otherNumber, verbPattern, verb));
+  }
+
+  @Test
+  public void testTagsWithoutId() {
+    String tag = "POSCACHETEST:NOT_IN_TABLE";
+    assertEquals(SymbolTable.NO_ID, SymbolTable.getPosTags().getId(tag));
+    int number = PosTagMatchCache.newPatternNumber();
+    assertTrue(PosTagMatchCache.matches(number, StringMatcher.create("POSCACHETEST:.*", true, true), tag));
+    assertFalse(PosTagMatchCache.matches(number, StringMatcher.create("POSCACHETEST:VB.*", true, true), tag));
+  }
+
+  @Test
+  public void testRegexAndNegatedPosTokens() {
+    String noun = SymbolTable.getPosTags().intern("POSCACHETEST:NN:PL");
+    String verb = SymbolTable.getPosTags().intern("POSCACHETEST:VB:PL");
+    PatternToken regex = new PatternToken("", false, false, false);
+    regex.setPosToken(new PatternToken.PosToken("POSCACHETEST:NN.*", true, false));
+    PatternToken negated = new PatternToken("", false, false, false);
+    negated.setPosToken(new PatternToken.PosToken("POSCACHETEST:NN.*", true, true));
+    for (int i = 0; i < 2; i++) {  // the second time, the results come from the cache
+      assertTrue(regex.isMatched(new AnalyzedToken("houses", noun, "house")));
+      assertFalse(regex.isMatched(new AnalyzedToken("walks", verb, "walk")));
+      assertFalse(negated.isMatched(new AnalyzedToken("houses", noun, "house")));
+      assertTrue(negated.isMatched(new AnalyzedToken("walks", verb, "walk")));
+    }
+  }
+
+}
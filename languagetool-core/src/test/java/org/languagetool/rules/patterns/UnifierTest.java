@@ -598,4 +598,23 @@ public class UnifierTest {
     uni.reset();
   }
 
+  @Test
+  public void testEquivalencesAddedAfterCreation() {
+    UnifierConfiguration unifierConfig = new UnifierConfiguration();
+    unifierConfig.setEquivalence("number", "singular", preparePOSElement(".*[\\.:]sg:.*"));
+    Unifier uni = unifierConfig.createUnifier();
+    unifierConfig.setEquivalence("number", "plural", preparePOSElement(".*[\\.:]pl:.*"));
+
+    Map<String, List<String>> equiv = new HashMap<>();
+    equiv.put("number", null);
+    AnalyzedToken plural1 = new AnalyzedToken("osobiste", "adj:pl:nom.acc.voc:f.n.m2.m3:pos:aff", "osobisty");
+    AnalyzedToken plural2 = new AnalyzedToken("godła", "subst:pl:nom.acc.voc:n", "godło");
+
+    for (int i = 0; i < 2; i++) {  // the same unifier gives the same result when re-used
+      uni.reset();
+      uni.isUnified(plural1, equiv, true);
+      assertEquals(true, uni.isUnified(plural2, equiv, true));
+    }
+  }
+
 }
@@ -0,0 +1,55 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.spelling;
+
+import org.junit.Test;
+import org.languagetool.language.Demo;
+import org.languagetool.rules.SuggestedReplacement;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class SpellingSuggestionCacheTest {
+
+  @Test
+  public void testSuggestionsAreComputedOnceAndCopied() throws IOException {
+    SpellingSuggestionCache cache = SpellingSuggestionCache.getInstance(new Demo());
+    cache.invalidateAll();
+    AtomicInteger computed = new AtomicInteger();
+    SpellingSuggestionCache.SuggestionComputer computer = word -> {
+      computed.incrementAndGet();
+      return SuggestedReplacement.convert(Arrays.asList("the", "tea"));
+    };
+    List<SuggestedReplacement> first = cache.get("scope1", "teh", computer);
+    first.get(0).setReplacement("modified");
+    first.clear();
+    List<SuggestedReplacement> second = cache.get("scope1", "teh", computer);
+    assertThat(computed.get(), is(1));
+    assertThat(second.size(), is(2));
+    assertThat(second.get(0).getReplacement(), is("the"));
+    cache.get("scope2", "teh", computer);  // e.g. a user with a different dictionary
+    assertThat(computed.get(), is(2));
+  }
+
+}
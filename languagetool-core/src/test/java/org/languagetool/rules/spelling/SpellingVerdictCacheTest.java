@@ -0,0 +1,101 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.spelling;
+
+import org.junit.Test;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.TestTools;
+import org.languagetool.UserConfig;
+import org.languagetool.language.Demo;
+import org.languagetool.rules.RuleMatch;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpellingVerdictCacheTest {
+
+  private static final Demo DEMO = new Demo();
+
+  @Test
+  public void testVerdictsAreSharedBetweenRules() throws IOException {
+    SpellingVerdictCache.getInstance(DEMO).invalidateAll();
+    CountingRule rule1 = new CountingRule(null);
+    CountingRule rule2 = new CountingRule(null);
+    assertTrue(rule1.isMisspelled("foo"));
+    assertTrue(rule1.isMisspelled("foo"));
+    assertTrue(rule2.isMisspelled("foo"));
+    assertFalse(rule2.isMisspelled("correct"));
+    assertThat(rule1.computed, is(1));
+    assertThat(rule2.computed, is(1));
+    assertTrue(SpellingVerdictCache.getInstance(DEMO).getStats().hitCount() >= 2);
+    assertTrue(SpellingVerdictCache.getInstances().containsKey(DEMO.getShortCodeWithCountryAndVariant()));
+  }
+
+  @Test
+  public void testUserWordsOverlayCachedVerdicts() throws IOException {
+    SpellingVerdictCache.getInstance(DEMO).invalidateAll();
+    CountingRule rule = new CountingRule(null);
+    CountingRule userRule = new CountingRule(new UserConfig(Collections.singletonList("foo")));
+    assertTrue(rule.isMisspelled("foo"));
+    assertFalse(userRule.isMisspelled("foo"));
+    assertTrue(rule.isMisspelled("foo"));
+    rule.addIgnoreTokens(Arrays.asList("bar", "foo"));
+    assertFalse(rule.isMisspelled("foo"));
+    CountingRule otherRule = new CountingRule(null);
+    assertTrue(otherRule.isMisspelled("foo"));
+  }
+
+  static class CountingRule extends SpellingCheckRule {
+    private int computed;
+
+    CountingRule(UserConfig userConfig) {
+      super(TestTools.getEnglishMessages(), DEMO, userConfig);
+    }
+    @Override
+    public String getId() {
+      return "COUNTING_SPELLER_RULE";
+    }
+    @Override
+    public String getDescription() {
+      return "test rule";
+    }
+    @Override
+    public RuleMatch[] match(AnalyzedSentence sentence) {
+      return RuleMatch.EMPTY_ARRAY;
+    }
+    @Override
+    public boolean isMisspelled(String word) throws IOException {
+      return getCachedVerdict(word, this::getVerdict) == SpellingVerdictCache.Verdict.MISSPELLED;
+    }
+    private SpellingVerdictCache.Verdict getVerdict(String word) throws IOException {
+      computed++;
+      if (word.equals("correct")) {
+        return SpellingVerdictCache.Verdict.CORRECT;
+      }
+      return ignoreWord(word) ? SpellingVerdictCache.Verdict.IGNORED : SpellingVerdictCache.Verdict.MISSPELLED;
+    }
+  }
+
+}
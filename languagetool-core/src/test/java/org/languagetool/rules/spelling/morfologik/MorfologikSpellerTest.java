@@ -18,15 +18,32 @@
  */
 package org.languagetool.rules.spelling.morfologik;
 
+import morfologik.fsa.builders.CFSA2Serializer;
+import morfologik.fsa.builders.FSABuilder;
+import morfologik.stemming.Dictionary;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.languagetool.JLanguageTool;
+import org.languagetool.broker.ResourceDataBroker;
+import org.languagetool.rules.spelling.symspell.SymSpellIndex;
 
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.*;
 
 public class MorfologikSpellerTest {
 
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
   @Test
   public void testIsMisspelled() throws IOException {
     MorfologikSpeller speller = new MorfologikSpeller("/xx/spelling/test.dict");
@@ -59,4 +76,57 @@ public class MorfologikSpellerTest {
 
     assertThat(spellerDist2.getSuggestions("wordoxix").toString(), is("[]"));
   }
+
+  @Test
+  public void testGetSuggestionsWithIndex() throws IOException {
+    List<String> words = Arrays.asList("wordone", "wordtwo", "Uppercase", "Häuser", "a", "Ö");
+    List<String> misspellings = Arrays.asList("wordone", "wordonex", "wordonix", "wordoxix", "Wordonex", "WORDTWOO",
+      "wordwto", "Hauser", "hauser", "HÄUSR", "uppercse", "wordon", "wrd", "xyz", "", "a", "A", "b", "ab", "o", "O", "ö", "öx");
+    for (boolean convertCase : new boolean[] {true, false}) {
+      for (boolean ignoreDiacritics : new boolean[] {true, false}) {
+        // the speller only ignores case if it ignores diacritics, too:
+        boolean ignoreCase = convertCase && ignoreDiacritics;
+        Map<String, Integer> wordsWithFrequency = new HashMap<>();
+        for (String word : words) {
+          wordsWithFrequency.put(word, 0);
+        }
+        File indexFile = tempFolder.newFile("test-" + convertCase + "-" + ignoreDiacritics + SymSpellIndex.FILE_EXTENSION);
+        SymSpellIndex.write(wordsWithFrequency, 2, SymSpellIndex.DEFAULT_PREFIX_LENGTH, ignoreCase, ignoreDiacritics, indexFile);
+        SymSpellIndex index = SymSpellIndex.map(indexFile);
+        String flags = "fsa.dict.speller.convert-case=" + convertCase + "\nfsa.dict.speller.ignore-diacritics=" + ignoreDiacritics;
+        for (String info : Arrays.asList(flags, flags + "\nfsa.dict.speller.replacement-pairs=x o, ou u, ä a")) {
+          Dictionary dictionary = buildTestDictionary(words, info);
+          for (int maxEditDistance = 1; maxEditDistance <= 2; maxEditDistance++) {
+            MorfologikSpeller speller = new MorfologikSpeller(dictionary, maxEditDistance);
+            MorfologikSpeller indexSpeller = new MorfologikSpeller(dictionary, maxEditDistance, index);
+            assertTrue(info, indexSpeller.usesIndex());
+            for (String misspelling : misspellings) {
+              assertThat(misspelling + " (" + maxEditDistance + ", " + info + ")",
+                indexSpeller.getSuggestions(misspelling).toString(), is(speller.getSuggestions(misspelling).toString()));
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private Dictionary buildTestDictionary(List<String> words, String additionalInfo) throws IOException {
+    List<byte[]> lines = new ArrayList<>();
+    for (String word : words) {
+      lines.add(word.getBytes(StandardCharsets.UTF_8));
+    }
+    lines.sort(FSABuilder.LEXICAL_ORDERING);
+    ByteArrayOutputStream fsa = new CFSA2Serializer().serialize(FSABuilder.build(lines), new ByteArrayOutputStream());
+    ResourceDataBroker dataBroker = JLanguageTool.getDataBroker();
+    ByteArrayOutputStream info = new ByteArrayOutputStream();
+    try (InputStream in = dataBroker.getFromResourceDirAsStream("/xx/spelling/test.info")) {
+      byte[] buffer = new byte[4096];
+      int len;
+      while ((len = in.read(buffer)) > 0) {
+        info.write(buffer, 0, len);
+      }
+    }
+    info.write(("\n" + additionalInfo + "\n").getBytes(StandardCharsets.UTF_8));
+    return Dictionary.read(new ByteArrayInputStream(fsa.toByteArray()), new ByteArrayInputStream(info.toByteArray()));
+  }
 }
@@ -0,0 +1,120 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.spelling.symspell;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class SymSpellIndexTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testLookup() throws IOException {
+    Map<String, Integer> words = new LinkedHashMap<>();
+    words.put("house", 20);
+    words.put("Häuser", 10);
+    words.put("mouse", 5);
+    words.put("houseboat", 1);
+    words.put("extraordinarily", 0);
+    SymSpellIndex index = write(words, true, true);
+    assertThat(index.getWordCount(), is(5));
+    assertThat(index.getMaxEditDistance(), is(2));
+    assertThat(lookup(index, "house", 0), is("[house/0]"));
+    assertThat(lookup(index, "hose", 1), is("[house/1]"));
+    assertThat(lookup(index, "hosue", 1), is("[house/1]"));  // transposition
+    assertThat(lookup(index, "hous", 2), is("[house/1, mouse/2]"));
+    assertThat(lookup(index, "HAUSER", 0), is("[Häuser/0]"));
+    assertThat(lookup(index, "extraordinarly", 1), is("[extraordinarily/1]"));  // typo after the prefix
+    assertThat(lookup(index, "xyz", 2), is("[]"));
+    assertThat(index.lookup("mouse", 0).get(0).getFrequency(), is(5));
+  }
+
+  @Test
+  public void testCaseAndDiacriticsSensitive() throws IOException {
+    Map<String, Integer> words = new HashMap<>();
+    words.put("Häuser", 0);
+    SymSpellIndex index = write(words, false, false);
+    assertThat(lookup(index, "Häuser", 0), is("[Häuser/0]"));
+    assertThat(lookup(index, "Hauser", 0), is("[]"));
+    assertThat(lookup(index, "häuser", 1), is("[Häuser/1]"));
+  }
+
+  @Test
+  public void testIgnoreCaseOrDiacriticsOnly() throws IOException {
+    Map<String, Integer> words = new HashMap<>();
+    words.put("Häuser", 0);
+    SymSpellIndex ignoreCase = write(words, true, false);
+    assertThat(lookup(ignoreCase, "HÄUSER", 0), is("[Häuser/0]"));
+    assertThat(lookup(ignoreCase, "Hauser", 0), is("[]"));
+    assertThat(lookup(ignoreCase, "hauser", 1), is("[Häuser/1]"));
+    SymSpellIndex ignoreDiacritics = write(words, false, true);
+    assertThat(lookup(ignoreDiacritics, "Hauser", 0), is("[Häuser/0]"));
+    assertThat(lookup(ignoreDiacritics, "häuser", 0), is("[]"));
+    assertThat(lookup(ignoreDiacritics, "hauser", 1), is("[Häuser/1]"));
+  }
+
+  @Test
+  public void testShortWords() throws IOException {
+    Map<String, Integer> words = new HashMap<>();
+    words.put("a", 0);
+    words.put("xy", 0);
+    for (boolean ignoreCase : new boolean[] {true, false}) {
+      for (boolean ignoreDiacritics : new boolean[] {true, false}) {
+        SymSpellIndex index = write(words, ignoreCase, ignoreDiacritics);
+        assertThat(lookup(index, "b", 1), is("[a/1]"));
+        assertThat(lookup(index, "bc", 2), is("[a/2, xy/2]"));
+        assertThat(lookup(index, "", 1), is("[a/1]"));
+        assertThat(lookup(index, "", 2), is("[a/1, xy/2]"));
+      }
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testInvalidFile() throws IOException {
+    File file = tempFolder.newFile();
+    Files.write(file.toPath(), new byte[100]);
+    SymSpellIndex.map(file);
+  }
+
+  private SymSpellIndex write(Map<String, Integer> words, boolean ignoreCase, boolean ignoreDiacritics) throws IOException {
+    File file = tempFolder.newFile();
+    SymSpellIndex.write(words, 2, 5, ignoreCase, ignoreDiacritics, file);
+    return SymSpellIndex.map(file);
+  }
+
+  private String lookup(SymSpellIndex index, String word, int maxDistance) {
+    return index.lookup(word, maxDistance).stream()
+      .sorted(Comparator.comparing(SymSpellIndex.Candidate::getDistance).thenComparing(SymSpellIndex.Candidate::getWord))
+      .map(SymSpellIndex.Candidate::toString)
+      .collect(Collectors.toList()).toString();
+  }
+
+}
@@ -0,0 +1,49 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class CachingWordTaggerTest {
+
+  @Test
+  public void testTag() {
+    AtomicInteger lookups = new AtomicInteger();
+    WordTagger tagger = word -> {
+      lookups.incrementAndGet();
+      return word.equals("house") ? new ArrayList<>(Collections.singletonList(new TaggedWord("house", "NN"))) : new ArrayList<>();
+    };
+    CachingWordTagger cachingTagger = new CachingWordTagger(tagger, 10);
+    List<TaggedWord> result = cachingTagger.tag("house");
+    assertEquals("[house/NN]", result.toString());
+    result.add(new TaggedWord("foo", "XX"));  // callers may modify the result
+    assertEquals("[house/NN]", cachingTagger.tag("house").toString());
+    assertEquals(0, cachingTagger.tag("xyz").size());
+    assertEquals(0, cachingTagger.tag("xyz").size());
+    assertEquals(2, lookups.get());
+  }
+
+}
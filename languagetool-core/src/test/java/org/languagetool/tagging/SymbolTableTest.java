@@ -0,0 +1,55 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SymbolTableTest {
+
+  @Test
+  public void testIntern() {
+    SymbolTable table = new SymbolTable(100);
+    String s = table.intern(new StringBuilder("SUB:NOM:SIN"));
+    assertEquals("SUB:NOM:SIN", s);
+    assertSame(s, table.intern("SUB:NOM:SIN"));
+    assertSame(s, table.intern(new StringBuilder("SUB:NOM:SIN+"), 11));
+    assertEquals(0, table.getId("SUB:NOM:SIN"));
+    assertEquals(1, table.getId(table.intern("VER:INF")));
+    assertEquals(SymbolTable.NO_ID, table.getId("ADJ"));
+    assertEquals(SymbolTable.NO_ID, table.getId(null));
+    assertNull(table.intern(null));
+    assertEquals(2, table.size());
+  }
+
+  @Test
+  public void testGrowAndMaxSize() {
+    SymbolTable table = new SymbolTable(500);
+    for (int i = 0; i < 1000; i++) {
+      assertEquals("tag" + i, table.intern("tag" + i));
+    }
+    assertEquals(500, table.size());
+    for (int i = 0; i < 500; i++) {
+      assertEquals(i, table.getId("tag" + i));
+    }
+    assertEquals(SymbolTable.NO_ID, table.getId("tag500"));
+  }
+
+}
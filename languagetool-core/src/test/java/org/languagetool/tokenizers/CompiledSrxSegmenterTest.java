@@ -0,0 +1,162 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tokenizers;
+
+import net.loomchild.segment.srx.LanguageRule;
+import net.loomchild.segment.srx.Rule;
+import net.loomchild.segment.srx.SrxDocument;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class CompiledSrxSegmenterTest {
+
+  private static final String[] LANGUAGE_CODES = {"ar", "ast", "be", "br", "ca", "da", "de", "el", "en", "eo", "es", "fa",
+    "fr", "ga", "gl", "is", "it", "ja", "km", "nl", "pl", "pt", "ro", "ru", "sk", "sl", "sr", "sv", "ta", "uk", "xx"};
+  // the sentences used to evaluate language detection, one file per language:
+  private static final String CORPUS_DIR = "../languagetool-dev/src/test/resources/org/languagetool/dev/eval/lang";
+  private static final String[] TEXTS = {
+    "", " ", "A", "Hello world. This is a test! Is it? Yes.",
+    "Das ist z. B. ein Test. Und Prof. Dr. Müller kommt am 3. Mai. Er sagt: „Hallo!“ Dann geht er.",
+    "Visit www.example.com. Or write to foo.bar@example.org! Thanks... and bye.\n\nNew paragraph.\nSame one?",
+    "Mr. Smith bought cheapsite.com for 1.5 million dollars, i.e. he paid a lot for it. Did he mind? Adam Jones Jr. thinks he didn't.",
+    "O Sr. Silva chegou às 10h. Ele disse: \"Olá!\" E saiu. Av. Paulista, n.º 5.",
+    "To jest np. zdanie. Inne zdanie, tzn. drugie… Trzecie? Tak. Ul. Długa 5.",
+    "Это тест. Т. е. пример! Ещё один?.. Да. Новый абзац.",
+    "1. Punkt\n2. Punkt\n- Liste\n* Liste\n\n00:00:01,000\nUntertitel\n",
+    "He said \"Stop.\" Then he left. (See p. 5.) [Note.] {0>Segment<0} Done.  Next",
+  };
+
+  @Test
+  public void testSameResultsAsSegmentLibrary() {
+    SrxDocument document = SrxTools.createSrxDocument("/segment.srx");
+    Random random = new Random(42);
+    List<String> fragments = getFragments(document);
+    for (String code : LANGUAGE_CODES) {
+      for (String parCode : new String[]{"_one", "_two"}) {
+        String fullCode = code + parCode;
+        CompiledSrxSegmenter segmenter = new CompiledSrxSegmenter(document, fullCode);
+        for (String text : TEXTS) {
+          assertEquals(fullCode + ": " + text, SrxTools.tokenize(text, document, fullCode), segmenter.segment(text));
+        }
+        for (int i = 0; i < 3; i++) {
+          String text = getRandomText(random, fragments, 2000);
+          assertEquals(fullCode + ": " + text, SrxTools.tokenize(text, document, fullCode), segmenter.segment(text));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSameResultsOnTestCorpora() throws IOException {
+    SrxDocument document = SrxTools.createSrxDocument("/segment.srx");
+    File[] corpora = new File(CORPUS_DIR).listFiles((dir, name) -> name.endsWith(".txt"));
+    // the corpora are only available when building the whole project, not the core module alone:
+    Assume.assumeTrue("Corpus directory not found: " + CORPUS_DIR, corpora != null);
+    assertTrue(corpora.length > 0);
+    List<String> codes = Arrays.asList(LANGUAGE_CODES);
+    for (File corpus : corpora) {
+      String code = corpus.getName().replaceFirst("\\.txt$", "");
+      if (!codes.contains(code)) {
+        code = "xx";
+      }
+      List<String> lines = Files.readAllLines(corpus.toPath(), StandardCharsets.UTF_8);
+      // as in the file, one sentence per line, and as one paragraph, so that every break has to be found:
+      String[] texts = {String.join("\n", lines), String.join(" ", lines)};
+      for (String parCode : new String[]{"_one", "_two"}) {
+        String fullCode = code + parCode;
+        CompiledSrxSegmenter segmenter = new CompiledSrxSegmenter(document, fullCode);
+        for (String text : texts) {
+          assertEquals(corpus + ", " + fullCode, SrxTools.tokenize(text, document, fullCode), segmenter.segment(text));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSameResultsWithBackReferences() {
+    SrxDocument document = new SrxDocument();
+    LanguageRule languageRule = new LanguageRule("Test");
+    languageRule.addRule(new Rule(false, "\\bNr\\.\\s", "\\d"));
+    languageRule.addRule(new Rule(true, "[.!?]\\s+", "\\p{Lu}"));
+    languageRule.addRule(new Rule(false, "\\.\\s", "(A)\\1"));
+    languageRule.addRule(new Rule(true, "\\.\\s+", ""));
+    document.addLanguageMap("xx.*", languageRule);
+    CompiledSrxSegmenter segmenter = new CompiledSrxSegmenter(document, "xx_two");
+    String text = "This is it. AA test. And Nr. 5. Is it? Yes. Nr. A. AB. Done.";
+    assertEquals(SrxTools.tokenize(text, document, "xx_two"), segmenter.segment(text));
+  }
+
+  @Test
+  public void testAtoms() {
+    assertEquals("\\.", CompiledSrxSegmenter.getLastAtom("\\b(?:Dr|Prof)\\."));
+    assertEquals("\\s", CompiledSrxSegmenter.getLastAtom("[^-\\p{L}'’/]\\p{L}[\\.!?…]['|\"|“|«|\\)|\\]|\\}]?\\s"));
+    assertEquals("\\u00A0", CompiledSrxSegmenter.getLastAtom("\\p{L}[\\.!?…]\\s+\\u00A0+"));
+    assertEquals("[\\.!?]", CompiledSrxSegmenter.getLastAtom("[\\.!?]\\b"));
+    assertEquals("\\p{Lu}", CompiledSrxSegmenter.getFirstAtom("\\b\\p{Lu}\\p{Ll}"));
+    assertEquals(Pattern.quote("D"), CompiledSrxSegmenter.getFirstAtom("Dr"));
+    assertNull(CompiledSrxSegmenter.getLastAtom("\\s?"));
+    assertNull(CompiledSrxSegmenter.getLastAtom("a|b"));
+    assertNull(CompiledSrxSegmenter.getLastAtom("(?i)FRITZ!"));
+    assertNull(CompiledSrxSegmenter.getLastAtom("(Dr|Prof)"));
+    assertNull(CompiledSrxSegmenter.getFirstAtom(""));
+    assertNull(CompiledSrxSegmenter.getFirstAtom("\\S*@"));
+  }
+
+  // words from the rules, so that the random text triggers many of them:
+  private static List<String> getFragments(SrxDocument document) {
+    Set<String> fragments = new TreeSet<>();
+    Pattern word = Pattern.compile("\\p{L}{2,}");
+    for (LanguageRule languageRule : document.getLanguageRuleList(".*")) {
+      for (Rule rule : languageRule.getRuleList()) {
+        Matcher matcher = word.matcher(rule.getBeforePattern() + " " + rule.getAfterPattern());
+        while (matcher.find()) {
+          fragments.add(matcher.group());
+        }
+      }
+    }
+    fragments.addAll(Arrays.asList(". ", ".", "! ", "? ", "…", "... ", "\"", "„", "“", "«", "»", "'", "’", "(", ")", "[", "]",
+      ":", ";", ",", "-", "–", "@", "/", "*", " ", " ", " ", "  ", "\n", "\n\n", "\r\n", " ", "\t", "1", "12", "3.",
+      "www.", ".com", "http://", "a", "B", "z", "Ü", "д", "😀"));
+    return new ArrayList<>(fragments);
+  }
+
+  private static String getRandomText(Random random, List<String> fragments, int length) {
+    StringBuilder sb = new StringBuilder();
+    while (sb.length() < length) {
+      String fragment = fragments.get(random.nextInt(fragments.size()));
+      switch (random.nextInt(4)) {
+        case 0: sb.append(Character.toUpperCase(fragment.charAt(0))).append(fragment.substring(1)); break;
+        case 1: sb.append(fragment).append(". "); break;
+        default: sb.append(fragment).append(' ');
+      }
+    }
+    return sb.toString();
+  }
+
+}
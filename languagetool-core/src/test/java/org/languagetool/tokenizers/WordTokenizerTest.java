@@ -21,7 +21,9 @@ package org.languagetool.tokenizers;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -126,6 +128,78 @@ public class WordTokenizerTest {
     assertEquals("foo| |http://|?| |bar", tokenize("foo http://? bar"));
   }
 
+  @Test
+  public void testTokenizeToOffsets() {
+    String text = "Mail foo@bar.org or see http://ex.net/p?a=x#i, ok.";
+    int[] offsets = wordTokenizer.tokenizeToOffsets(text);
+    List<String> tokens = new ArrayList<>();
+    for (int i = 0; i < offsets.length; i += 2) {
+      tokens.add(text.substring(offsets[i], offsets[i + 1]));
+    }
+    assertEquals(wordTokenizer.tokenize(text), tokens);
+    assertEquals("Mail| |foo@bar.org| |or| |see| |http://ex.net/p?a=x#i|,| |ok|.", String.join("|", tokens));
+    assertEquals(0, wordTokenizer.tokenizeToOffsets("").length);
+  }
+
+  @Test
+  public void testTokenizeToOffsetsWithCustomTokenize() {
+    WordTokenizer tokenizer = new WordTokenizer() {
+      @Override
+      public List<String> tokenize(String text) {
+        List<String> tokens = super.tokenize(text);
+        tokens.remove(" ");
+        return tokens;
+      }
+    };
+    assertArrayEquals(new int[]{0, 3, 4, 7, 7, 8, 8, 9}, tokenizer.tokenizeToOffsets("foo bar.x"));
+  }
+
+  @Test
+  public void testSameResultsAsListBasedJoining() {
+    // overriding a join method makes tokenize() use the List based code:
+    WordTokenizer listTokenizer = new WordTokenizer() {
+      @Override
+      protected List<String> joinUrls(List<String> l) {
+        return super.joinUrls(l);
+      }
+    };
+    String[] fragments = {"http", "https", "ftp", ":", "/", "//", "www", ".", "org", "my-domain", "sub", "a", "x1",
+      "foo@bar.org", "@", "mail", "x:y@z.de", "?", "#", "=", "&", ",", ";", "!", "'", "\"", "»", "(", ")", "[", "]",
+      " ", " ", " ", "\u00A0", "\u200B", "\t", "\n", "ä", "€", "😀"};
+    Random random = new Random(42);
+    for (int i = 0; i < 2000; i++) {
+      StringBuilder sb = new StringBuilder();
+      int length = random.nextInt(25);
+      for (int j = 0; j < length; j++) {
+        sb.append(fragments[random.nextInt(fragments.length)]);
+      }
+      String text = sb.toString();
+      assertEquals(text, listTokenizer.tokenize(text), wordTokenizer.tokenize(text));
+    }
+  }
+
+  @Test
+  public void testSameEMailsAsRegex() {
+    WordTokenizer listTokenizer = new WordTokenizer() {
+      @Override
+      protected List<String> joinEMails(List<String> list) {
+        return super.joinEMails(list);
+      }
+    };
+    String[] fragments = {"a", "Bc", "x1", "_", "-", ".", "..", "@", "@@", ":", "+", "'", "de", "org", "co.uk", "[", "]",
+      "1.2.3.4", "[10.0.0.1]", "123", "1234", " ", "\n", "/", "ä", "é", "e\u0301", "\u0301", "😀", "foo@bar.org", "x:y@z.de"};
+    Random random = new Random(42);
+    for (int i = 0; i < 5000; i++) {
+      StringBuilder sb = new StringBuilder();
+      int length = random.nextInt(15);
+      for (int j = 0; j < length; j++) {
+        sb.append(fragments[random.nextInt(fragments.length)]);
+      }
+      String text = sb.toString();
+      assertEquals(text, listTokenizer.tokenize(text), wordTokenizer.tokenize(text));
+    }
+  }
+
   private String tokenize(String text) {
     List<String> tokens = wordTokenizer.tokenize(text);
     return String.join("|", tokens);
@@ -18,6 +18,8 @@
  */
 package org.languagetool.rules.de;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import de.danielnaber.jwordsplitter.GermanWordSplitter;
 import de.danielnaber.jwordsplitter.InputTooLongException;
 import org.apache.commons.lang3.RegExUtils;
@@ -30,6 +32,7 @@ import org.languagetool.rules.Example;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.SuggestedReplacement;
 import org.languagetool.rules.ngrams.Probability;
+import org.languagetool.rules.spelling.SpellingVerdictCache;
 import org.languagetool.rules.spelling.hunspell.CompoundAwareHunspellRule;
 import org.languagetool.rules.spelling.morfologik.MorfologikMultiSpeller;
 import org.languagetool.synthesis.Synthesizer;
@@ -1030,6 +1033,10 @@ public class GermanSpellerRule extends CompoundAwareHunspellRule {
   }
 
   private static final GermanWordSplitter splitter = getSplitter();
+  // splitting is expensive and the same misspellings occur again and again:
+  private static final Cache<String, List<List<String>>> splitCache = CacheBuilder.newBuilder()
+    .maximumSize(10_000)
+    .build();
   private static GermanWordSplitter getSplitter() {
     try {
       return new GermanWordSplitter(false);
@@ -1081,12 +1088,7 @@ public class GermanSpellerRule extends CompoundAwareHunspellRule {
 
   @Override
   public List<String> getCandidates(String word) {
-    List<List<String>> partList;
-    try {
-      partList = splitter.getAllSplits(word);
-    } catch (InputTooLongException e) {
-      partList = new ArrayList<>();
-    }
+    List<List<String>> partList = getAllSplits(word);
     List<String> candidates = new ArrayList<>();
     for (List<String> parts : partList) {
       candidates.addAll(super.getCandidates(parts));
@@ -1111,6 +1113,19 @@ public class GermanSpellerRule extends CompoundAwareHunspellRule {
     return candidates;
   }
 
+  private static List<List<String>> getAllSplits(String word) {
+    List<List<String>> partList = splitCache.getIfPresent(word);
+    if (partList == null) {
+      try {
+        partList = Collections.unmodifiableList(splitter.getAllSplits(word));
+      } catch (InputTooLongException e) {
+        partList = Collections.emptyList();
+      }
+      splitCache.put(word, partList);
+    }
+    return partList;
+  }
+
   @Override
   protected boolean isProhibited(String word) {
     return super.isProhibited(word) ||
@@ -1334,11 +1349,18 @@ public class GermanSpellerRule extends CompoundAwareHunspellRule {
       if (words.get(idx).contains("-")) {
         ignoreByHyphen = words.get(idx).endsWith("-") && ignoreByHangingHyphen(words, idx);
       }
-      ignoreHyphenatedCompound = !ignoreByHyphen && ignoreCompoundWithIgnoredWord(words.get(idx));
+      ignoreHyphenatedCompound = !ignoreByHyphen && ignoreCompound(words.get(idx));
     }
     return ignore || ignoreUncapitalizedWord || ignoreByHyphen || ignoreHyphenatedCompound || ignoreElative(words.get(idx));
   }
 
+  private boolean ignoreCompound(String word) throws IOException {
+    // use a scope of its own, as the verdicts for the same word from isMisspelled() are different:
+    SpellingVerdictCache.Verdict verdict = SpellingVerdictCache.getInstance(language).get(getVerdictScope() + ":compound", word,
+      w -> ignoreCompoundWithIgnoredWord(w) ? SpellingVerdictCache.Verdict.IGNORED : SpellingVerdictCache.Verdict.MISSPELLED);
+    return verdict == SpellingVerdictCache.Verdict.IGNORED;
+  }
+
   @Override
   protected List<SuggestedReplacement> getAdditionalTopSuggestions(List<SuggestedReplacement> suggestions, String word) throws IOException {
     List<String> suggestionsList = suggestions.stream()
@@ -0,0 +1,496 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.openoffice;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The cache file of a document (see {@link CacheIO}).
+ * The file starts with a header (format version, LT version and rules). It is followed
+ * by sections that are only ever appended: the document cache, one record per paragraph
+ * and result cache, and an index of the sections in use. The trailer at the end of the
+ * file points to the latest index.
+ * Saving again appends only what has changed: the document cache if it differs, the new
+ * records, a new index and a new trailer. Records that haven't changed stay where they are.
+ * The file is rewritten without the unused sections when these make up more than half of it.
+ * Records are read one by one from the file when they are used for the first time.
+ * The document cache is compressed, as it is read completely anyway. The records are not
+ * compressed: they are short and have to be readable one by one.
+ * @since 5.3
+ */
+class CacheFileStore {
+
+  private static final int MAGIC = 0x4C544F43;          //  "LTOC": begin of the file (older files are zipped Java objects)
+  private static final int VERSION = 2;                 //  has to be increased with every change of the format
+  private static final int TRAILER_MAGIC = 0x4C54494E;  //  "LTIN": end of the file
+  private static final int TRAILER_LENGTH = 20;
+
+  private final Path path;
+  private FileChannel channel;              //  opened when needed
+  private Header header;                    //  null as long as the file hasn't been read or written
+  private long headerLength;
+  private Record docRecord;
+  private int docContentChecksum;           //  checksum of the uncompressed document cache
+  private List<Map<Integer, Record>> recordIndex;
+  private long fileLength;
+
+  CacheFileStore(Path path) {
+    this.path = path;
+  }
+
+  Path getPath() {
+    return path;
+  }
+
+  /**
+   * read the header and the index of the file
+   * throws an IOException if the file has an other format or is damaged
+   */
+  synchronized Header read() throws IOException {
+    FileChannel ch = getChannel();
+    long length = ch.size();
+    ch.position(0);
+    DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(ch)));
+    if (length < 8 + TRAILER_LENGTH || in.readInt() != MAGIC) {
+      throw new IOException("unsupported format");
+    }
+    int version = in.readInt();
+    if (version != VERSION) {
+      throw new IOException("other format version (" + version + ")");
+    }
+    Header fileHeader = new Header(in);
+    ByteBuffer trailer = ByteBuffer.wrap(readBytes(length - TRAILER_LENGTH, TRAILER_LENGTH));
+    long indexOffset = trailer.getLong();
+    int indexLength = trailer.getInt();
+    int indexChecksum = trailer.getInt();
+    if (trailer.getInt() != TRAILER_MAGIC || indexOffset < 0 || indexOffset + indexLength != length - TRAILER_LENGTH) {
+      throw new IOException("damaged trailer");
+    }
+    byte[] index = readBytes(indexOffset, indexLength);
+    if (checksum(index) != indexChecksum) {
+      throw new IOException("damaged index");
+    }
+    in = new DataInputStream(new ByteArrayInputStream(index));
+    long fileHeaderLength = in.readLong();
+    Record doc = new Record(in);
+    int docChecksum = in.readInt();
+    if (fileHeaderLength < 8 || !doc.isWithin(fileHeaderLength, indexOffset)) {
+      throw new IOException("damaged index");
+    }
+    int numCaches = in.readInt();
+    List<Map<Integer, Record>> records = new ArrayList<>(numCaches);
+    for (int i = 0; i < numCaches; i++) {
+      Map<Integer, Record> cacheRecords = new TreeMap<>();
+      int numEntries = in.readInt();
+      for (int j = 0; j < numEntries; j++) {
+        int nPara = in.readInt();
+        Record record = new Record(in);
+        if (record.isWithin(fileHeaderLength, indexOffset)) {
+          cacheRecords.put(nPara, record);
+        }
+      }
+      records.add(cacheRecords);
+    }
+    header = fileHeader;
+    headerLength = fileHeaderLength;
+    docRecord = doc;
+    docContentChecksum = docChecksum;
+    recordIndex = records;
+    fileLength = length;
+    return fileHeader;
+  }
+
+  /**
+   * read the document cache (after {@link #read()})
+   */
+  synchronized DocumentCache readDocumentCache() throws IOException {
+    byte[] data = readRecord(docRecord);
+    if (data == null) {
+      throw new IOException("damaged document cache");
+    }
+    try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+      return new DocumentCache(in);
+    }
+  }
+
+  /**
+   * get the result caches (after {@link #read()}), their entries are read when they are used
+   */
+  synchronized List<ResultCache> readResultCaches() {
+    List<ResultCache> caches = new ArrayList<>(recordIndex.size());
+    for (Map<Integer, Record> records : recordIndex) {
+      ResultCache cache = new ResultCache();
+      for (Map.Entry<Integer, Record> record : records.entrySet()) {
+        cache.putStoredEntry(record.getKey(), this, record.getValue());
+      }
+      caches.add(cache);
+    }
+    return caches;
+  }
+
+  /**
+   * read the record of a cache entry
+   * returns null if the entry isn't stored in this file or if the record is damaged
+   */
+  synchronized byte[] readRecord(ResultCache.CacheEntry entry) throws IOException {
+    //  the record is looked up while holding the lock, as rewriting the file moves the records
+    Record record = entry.getRecord(this);
+    return record == null ? null : readRecord(record);
+  }
+
+  /**
+   * write the caches to the file: append the changes if possible, rewrite the file otherwise
+   * returns true if the changes were appended
+   */
+  synchronized boolean write(Header newHeader, DocumentCache docCache, List<ResultCache> caches) throws IOException {
+    ByteArrayOutputStream docContent = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(docContent)) {
+      docCache.write(out);
+    }
+    List<Map<Integer, ResultCache.CacheEntry>> entries = new ArrayList<>(caches.size());
+    for (ResultCache cache : caches) {
+      entries.add(cache.getEntries());
+    }
+    if (header != null && header.isSameAs(newHeader) && Files.exists(path) && Files.size(path) == fileLength) {
+      try {
+        if (append(docContent.toByteArray(), entries)) {
+          return true;
+        }
+      } catch (IOException e) {
+        getChannel().truncate(fileLength);
+        //  and rewrite the file
+      }
+    }
+    rewrite(newHeader, docContent.toByteArray(), entries);
+    return false;
+  }
+
+  /**
+   * append the changes to the file
+   * returns false if nothing has been written because the file should be rewritten
+   */
+  private boolean append(byte[] docContent, List<Map<Integer, ResultCache.CacheEntry>> entries) throws IOException {
+    ByteArrayOutputStream appended = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(appended);
+    long liveBytes = headerLength;
+    int newDocChecksum = checksum(docContent);
+    Record newDocRecord = docRecord;
+    if (newDocChecksum != docContentChecksum) {
+      newDocRecord = writeRecord(out, fileLength, compress(docContent));
+    }
+    liveBytes += newDocRecord.length;
+    List<Map<Integer, Record>> newIndex = new ArrayList<>(entries.size());
+    Map<ResultCache.CacheEntry, Record> written = new IdentityHashMap<>();
+    for (Map<Integer, ResultCache.CacheEntry> cacheEntries : entries) {
+      Map<Integer, Record> cacheRecords = new TreeMap<>();
+      for (Map.Entry<Integer, ResultCache.CacheEntry> entry : cacheEntries.entrySet()) {
+        Record record = entry.getValue().getRecord(this);
+        if (record == null) {
+          record = written.get(entry.getValue());
+        }
+        if (record == null) {
+          byte[] data = entry.getValue().getData();
+          if (data == null) {
+            continue;   //  damaged
+          }
+          record = writeRecord(out, fileLength + appended.size(), data);
+          written.put(entry.getValue(), record);
+        }
+        cacheRecords.put(entry.getKey(), record);
+        liveBytes += record.length;
+      }
+      newIndex.add(cacheRecords);
+    }
+    long indexOffset = fileLength + appended.size();
+    byte[] index = writeIndexAndTrailer(out, indexOffset, headerLength, newDocRecord, newDocChecksum, newIndex);
+    liveBytes += index.length + TRAILER_LENGTH;
+    out.flush();
+    long newLength = fileLength + appended.size();
+    if (liveBytes * 2 < newLength) {
+      return false;
+    }
+    FileChannel ch = getChannel();
+    ByteBuffer buffer = ByteBuffer.wrap(appended.toByteArray());
+    long position = fileLength;
+    while (buffer.hasRemaining()) {
+      position += ch.write(buffer, position);
+    }
+    ch.force(false);
+    docRecord = newDocRecord;
+    docContentChecksum = newDocChecksum;
+    recordIndex = newIndex;
+    fileLength = newLength;
+    for (Map.Entry<ResultCache.CacheEntry, Record> entry : written.entrySet()) {
+      entry.getKey().setRecord(this, entry.getValue());
+    }
+    return true;
+  }
+
+  /**
+   * write a new file that contains only the sections in use and replace the old file with it
+   */
+  private void rewrite(Header newHeader, byte[] docContent, List<Map<Integer, ResultCache.CacheEntry>> entries) throws IOException {
+    Path tmpPath = path.resolveSibling(path.getFileName() + ".tmp");
+    List<Map<Integer, Record>> newIndex = new ArrayList<>(entries.size());
+    Map<ResultCache.CacheEntry, Record> written = new IdentityHashMap<>();
+    long newHeaderLength;
+    Record newDocRecord;
+    int newDocChecksum = checksum(docContent);
+    long newLength;
+    try (CountingOutputStream counter = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpPath)));
+         DataOutputStream out = new DataOutputStream(counter)) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      newHeader.write(out);
+      newHeaderLength = counter.count;
+      newDocRecord = writeRecord(out, counter.count, compress(docContent));
+      for (Map<Integer, ResultCache.CacheEntry> cacheEntries : entries) {
+        Map<Integer, Record> cacheRecords = new TreeMap<>();
+        for (Map.Entry<Integer, ResultCache.CacheEntry> entry : cacheEntries.entrySet()) {
+          Record record = written.get(entry.getValue());
+          if (record == null) {
+            byte[] data = entry.getValue().getData();
+            if (data == null) {
+              continue;   //  damaged
+            }
+            record = writeRecord(out, counter.count, data);
+            written.put(entry.getValue(), record);
+          }
+          cacheRecords.put(entry.getKey(), record);
+        }
+        newIndex.add(cacheRecords);
+      }
+      writeIndexAndTrailer(out, counter.count, newHeaderLength, newDocRecord, newDocChecksum, newIndex);
+      newLength = counter.count;
+    } catch (IOException e) {
+      Files.deleteIfExists(tmpPath);
+      throw e;
+    }
+    close();    //  a file can't be replaced while it is open on Windows
+    Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING);
+    header = newHeader;
+    headerLength = newHeaderLength;
+    docRecord = newDocRecord;
+    docContentChecksum = newDocChecksum;
+    recordIndex = newIndex;
+    fileLength = newLength;
+    for (Map.Entry<ResultCache.CacheEntry, Record> entry : written.entrySet()) {
+      entry.getKey().setRecord(this, entry.getValue());
+    }
+  }
+
+  /**
+   * close the file, it is opened again when a record is read
+   */
+  synchronized void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+      channel = null;
+    }
+  }
+
+  private FileChannel getChannel() throws IOException {
+    if (channel == null) {
+      channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+    return channel;
+  }
+
+  private byte[] readRecord(Record record) throws IOException {
+    byte[] data = readBytes(record.offset, record.length);
+    return checksum(data) == record.checksum ? data : null;
+  }
+
+  private byte[] readBytes(long offset, int length) throws IOException {
+    FileChannel ch = getChannel();
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (ch.read(buffer, offset + buffer.position()) < 0) {
+        throw new IOException("unexpected end of file");
+      }
+    }
+    return buffer.array();
+  }
+
+  private static Record writeRecord(DataOutputStream out, long offset, byte[] data) throws IOException {
+    out.write(data);
+    return new Record(offset, data.length, checksum(data));
+  }
+
+  private static byte[] writeIndexAndTrailer(DataOutputStream out, long indexOffset, long headerLength, Record doc, int docChecksum,
+      List<Map<Integer, Record>> records) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream indexOut = new DataOutputStream(bytes);
+    indexOut.writeLong(headerLength);
+    doc.write(indexOut);
+    indexOut.writeInt(docChecksum);
+    indexOut.writeInt(records.size());
+    for (Map<Integer, Record> cacheRecords : records) {
+      indexOut.writeInt(cacheRecords.size());
+      for (Map.Entry<Integer, Record> record : cacheRecords.entrySet()) {
+        indexOut.writeInt(record.getKey());
+        record.getValue().write(indexOut);
+      }
+    }
+    indexOut.flush();
+    byte[] index = bytes.toByteArray();
+    out.write(index);
+    out.writeLong(indexOffset);
+    out.writeInt(index.length);
+    out.writeInt(checksum(index));
+    out.writeInt(TRAILER_MAGIC);
+    return index;
+  }
+
+  private static byte[] compress(byte[] data) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DeflaterOutputStream out = new DeflaterOutputStream(bytes)) {
+      out.write(data);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static int checksum(byte[] data) {
+    CRC32 crc = new CRC32();
+    crc.update(data);
+    return (int) crc.getValue();
+  }
+
+  /**
+   * position, length and checksum of a section of the file
+   */
+  static final class Record {
+    final long offset;
+    final int length;
+    final int checksum;
+
+    Record(long offset, int length, int checksum) {
+      this.offset = offset;
+      this.length = length;
+      this.checksum = checksum;
+    }
+
+    private Record(DataInputStream in) throws IOException {
+      this(in.readLong(), in.readInt(), in.readInt());
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+      out.writeLong(offset);
+      out.writeInt(length);
+      out.writeInt(checksum);
+    }
+
+    private boolean isWithin(long start, long end) {
+      return offset >= start && length >= 0 && offset + length <= end;
+    }
+  }
+
+  /**
+   * LT version and rules the cache was created with
+   */
+  static final class Header {
+    final String ltVersion;
+    final List<String> disabledRuleIds;
+    final List<String> disabledCategories;
+    final List<String> enabledRuleIds;
+
+    Header(String ltVersion, List<String> disabledRuleIds, List<String> disabledCategories, List<String> enabledRuleIds) {
+      this.ltVersion = ltVersion;
+      this.disabledRuleIds = disabledRuleIds;
+      this.disabledCategories = disabledCategories;
+      this.enabledRuleIds = enabledRuleIds;
+    }
+
+    private Header(DataInputStream in) throws IOException {
+      this(CacheIO.readString(in), CacheIO.readStringList(in), CacheIO.readStringList(in), CacheIO.readStringList(in));
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+      CacheIO.writeString(out, ltVersion);
+      CacheIO.writeStringList(out, disabledRuleIds);
+      CacheIO.writeStringList(out, disabledCategories);
+      CacheIO.writeStringList(out, enabledRuleIds);
+    }
+
+    private boolean isSameAs(Header other) {
+      return ltVersion.equals(other.ltVersion)
+          && new HashSet<>(disabledRuleIds).equals(new HashSet<>(other.disabledRuleIds))
+          && new HashSet<>(disabledCategories).equals(new HashSet<>(other.disabledCategories))
+          && new HashSet<>(enabledRuleIds).equals(new HashSet<>(other.enabledRuleIds));
+    }
+  }
+
+  /**
+   * counts the bytes written so far, to get the offsets of the records
+   */
+  private static class CountingOutputStream extends OutputStream {
+    private final OutputStream out;
+    private long count;
+
+    CountingOutputStream(OutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      count += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+  }
+
+}
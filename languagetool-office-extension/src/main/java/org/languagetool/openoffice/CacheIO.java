@@ -19,21 +19,23 @@
 
 package org.languagetool.openoffice;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 import org.languagetool.JLanguageTool;
 import org.languagetool.gui.Configuration;
@@ -46,6 +48,10 @@ import com.sun.star.uno.UnoRuntime;
 
 /**
  * Class to read and write LT-Office-Extension-Cache
+ * The cache file is binary (see {@link CacheFileStore}): the header (LT version and rules)
+ * is checked before anything else is read, the records of the paragraphs are read from
+ * the file when they are used for the first time, and saving again only appends
+ * what has changed.
  * @since 5.2
  * @author Fred Kruse
  */
@@ -57,11 +63,12 @@ public class CacheIO implements Serializable {
   private static final long MAX_CACHE_TIME = 365 * 24 * 3600000;      //  Save cache files maximal one year
   private static final String CACHEFILE_MAP = "LtCacheMap";           //  Name of cache map file
   private static final String CACHEFILE_PREFIX = "LtCache";           //  Prefix for cache files (simply a number is added for file name)
-  private static final String CACHEFILE_EXTENSION = "lcz";            //  extension of the files name (Note: cache files are in zip format)
+  private static final String CACHEFILE_EXTENSION = "lcz";            //  extension of the files name
   private static final int MIN_CHARACTERS_TO_SAVE_CACHE = 25000;      //  Minimum characters of document for saving cache 
   
   private String documentPath;
   private AllCaches allCaches;
+  private transient CacheFileStore store;     //  the cache file read or written last, entries not used so far are read from it
   
   CacheIO(XComponent xComponent) {
     documentPath = getDocumentPath(xComponent);
@@ -138,12 +145,16 @@ public class CacheIO implements Serializable {
    */
   private void saveAllCaches(String cachePath) {
     try {
-      GZIPOutputStream fileOut = new GZIPOutputStream(new FileOutputStream(cachePath));
-      ObjectOutputStream out = new ObjectOutputStream(fileOut);
-      out.writeObject(allCaches);
-      out.close();
-      fileOut.close();
-      MessageHandler.printToLogFile("Caches saved to: " + cachePath);
+      File cacheFile = new File(cachePath);
+      if (store == null || !store.getPath().equals(cacheFile.toPath())) {
+        closeStore();
+        store = new CacheFileStore(cacheFile.toPath());
+      }
+      CacheFileStore.Header header = new CacheFileStore.Header(allCaches.ltVersion, 
+          allCaches.disabledRuleIds, allCaches.disabledCategories, allCaches.enabledRuleIds);
+      boolean appended = store.write(header, allCaches.docCache, allCaches.paragraphsCache);
+      store.close();
+      MessageHandler.printToLogFile("Caches saved to: " + cachePath + (appended ? " (changes appended)" : ""));
       if (DEBUG_MODE) {
         printCacheInfo();
       }
@@ -152,6 +163,112 @@ public class CacheIO implements Serializable {
     }
   }
   
+  /**
+   * read the caches from a cache file
+   * returns false if the file has an other format or was created with other rules
+   */
+  private boolean readAllCaches(File file, Configuration config, MultiDocumentsHandler mDocHandler) throws IOException {
+    store = new CacheFileStore(file.toPath());
+    CacheFileStore.Header header;
+    try {
+      header = store.read();
+    } catch (IOException e) {
+      MessageHandler.printToLogFile("Cache file: " + e.getMessage() + ": Cache rejected");
+      return false;
+    }
+    allCaches = new AllCaches(header.disabledRuleIds, header.disabledCategories, header.enabledRuleIds, header.ltVersion);
+    if (!runSameRules(config, mDocHandler)) {
+      MessageHandler.printToLogFile("Version or active rules have changed: Cache rejected (Cache Version: " 
+            + allCaches.ltVersion + ", actual LT Version: " + JLanguageTool.VERSION + ")");
+      return false;
+    }
+    allCaches.docCache = store.readDocumentCache();
+    allCaches.paragraphsCache = store.readResultCaches();
+    return true;
+  }
+  
+  /**
+   * close the cache file, the records not read so far can't be read any more
+   */
+  private void closeStore() {
+    if (store != null) {
+      try {
+        store.close();
+      } catch (IOException e) {
+        MessageHandler.printException(e);
+      }
+      store = null;
+    }
+  }
+  
+  /**
+   * write a string to a cache file (null and strings of any length are allowed)
+   */
+  static void writeString(DataOutputStream out, String s) throws IOException {
+    if (s == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+  
+  /**
+   * read a string written by writeString
+   */
+  static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+  
+  static void writeStringList(DataOutputStream out, List<String> list) throws IOException {
+    out.writeInt(list.size());
+    for (String s : list) {
+      writeString(out, s);
+    }
+  }
+  
+  static List<String> readStringList(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    List<String> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(readString(in));
+    }
+    return list;
+  }
+  
+  /**
+   * write a list of integers to a cache file (null is allowed)
+   */
+  static void writeIntList(DataOutputStream out, List<Integer> list) throws IOException {
+    if (list == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(list.size());
+      for (int i : list) {
+        out.writeInt(i);
+      }
+    }
+  }
+  
+  static List<Integer> readIntList(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    if (size < 0) {
+      return null;
+    }
+    List<Integer> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(in.readInt());
+    }
+    return list;
+  }
+  
   /**
    * returns true if the number of characters of a document exceeds 
    * the minimal number of characters to save the cache
@@ -186,6 +303,7 @@ public class CacheIO implements Serializable {
         } else {
           File file = new File( cachePath );
           if (file.exists() && !file.isDirectory()) {
+            closeStore();
             file.delete();
           }
         }
@@ -209,25 +327,21 @@ public class CacheIO implements Serializable {
     try {
       File file = new File( cachePath );
       if (file.exists() && !file.isDirectory()) {
-        GZIPInputStream fileIn = new GZIPInputStream(new FileInputStream(file));
-        ObjectInputStream in = new ObjectInputStream(fileIn);
-        allCaches = (AllCaches) in.readObject();
-        in.close();
-        fileIn.close();
-        MessageHandler.printToLogFile("Caches read from: " + cachePath);
-        if (DEBUG_MODE) {
-          printCacheInfo();
-        }
-        if (runSameRules(config, mDocHandler)) {
+        if (readAllCaches(file, config, mDocHandler)) {
+          MessageHandler.printToLogFile("Caches read from: " + cachePath);
+          if (DEBUG_MODE) {
+            printCacheInfo();
+          }
           return true;
-        } else {
-          MessageHandler.printToLogFile("Version or active rules have changed: Cache rejected (Cache Version: " 
-                + allCaches.ltVersion + ", actual LT Version: " + JLanguageTool.VERSION + ")");
-          return false;
         }
+        allCaches = null;
+        closeStore();
+        return false;
       }
     } catch (Throwable t) {
       MessageHandler.printException(t);     // all Exceptions thrown by UnoRuntime.queryInterface are caught
+      allCaches = null;
+      closeStore();
     }
     return false;
   }
@@ -322,9 +436,7 @@ public class CacheIO implements Serializable {
     }
   }
 
-  class AllCaches implements Serializable {
-
-    private static final long serialVersionUID = 3L;
+  class AllCaches {
 
     DocumentCache docCache;                 //  cache of paragraphs
     List<ResultCache> paragraphsCache;      //  Cache for matches of text rules
@@ -335,20 +447,16 @@ public class CacheIO implements Serializable {
     
     AllCaches(DocumentCache docCache, List<ResultCache> paragraphsCache, 
         Set<String> disabledRuleIds, Set<String> disabledCategories, Set<String> enabledRuleIds, String ltVersion) {
+      this(new ArrayList<String>(disabledRuleIds), new ArrayList<String>(disabledCategories), 
+          new ArrayList<String>(enabledRuleIds), ltVersion);
       this.docCache = docCache;
       this.paragraphsCache = paragraphsCache;
-      this.disabledRuleIds = new ArrayList<String>();
-      for (String ruleID : disabledRuleIds) {
-        this.disabledRuleIds.add(ruleID);
-      }
-      this.disabledCategories = new ArrayList<String>();
-      for (String category : disabledCategories) {
-        this.disabledCategories.add(category);
-      }
-      this.enabledRuleIds = new ArrayList<String>();
-      for (String ruleID : enabledRuleIds) {
-        this.enabledRuleIds.add(ruleID);
-      }
+    }
+    
+    AllCaches(List<String> disabledRuleIds, List<String> disabledCategories, List<String> enabledRuleIds, String ltVersion) {
+      this.disabledRuleIds = disabledRuleIds;
+      this.disabledCategories = disabledCategories;
+      this.enabledRuleIds = enabledRuleIds;
       this.ltVersion = ltVersion;
     }
     
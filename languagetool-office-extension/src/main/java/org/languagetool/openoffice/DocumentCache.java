@@ -18,6 +18,9 @@
  */
 package org.languagetool.openoffice;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -73,6 +76,66 @@ public class DocumentCache implements Serializable {
     mapParagraphs(textParagraphs);
   }
   
+  /**
+   * read the document cache from a cache file (see {@link CacheIO})
+   */
+  DocumentCache(DataInputStream in) throws IOException {
+    defaultParaCheck = in.readInt();
+    paragraphs = CacheIO.readStringList(in);
+    int nLocales = in.readInt();
+    locales = new ArrayList<SerialLocale>(nLocales);
+    for (int i = 0; i < nLocales; i++) {
+      locales.add(new SerialLocale(new Locale(CacheIO.readString(in), CacheIO.readString(in), CacheIO.readString(in))));
+    }
+    int nFootnotes = in.readInt();
+    if (nFootnotes >= 0) {
+      footnotes = new ArrayList<int[]>(nFootnotes);
+      for (int i = 0; i < nFootnotes; i++) {
+        int length = in.readInt();
+        int[] footnotePositions = length < 0 ? null : new int[length];
+        for (int j = 0; j < length; j++) {
+          footnotePositions[j] = in.readInt();
+        }
+        footnotes.add(footnotePositions);
+      }
+    }
+    chapterBegins = CacheIO.readIntList(in);
+    toTextMapping = CacheIO.readIntList(in);
+    toParaMapping = CacheIO.readIntList(in);
+  }
+  
+  /**
+   * write the document cache to a cache file (see {@link CacheIO})
+   */
+  void write(DataOutputStream out) throws IOException {
+    out.writeInt(defaultParaCheck);
+    CacheIO.writeStringList(out, paragraphs);
+    out.writeInt(locales.size());
+    for (SerialLocale locale : locales) {
+      CacheIO.writeString(out, locale.Language);
+      CacheIO.writeString(out, locale.Country);
+      CacheIO.writeString(out, locale.Variant);
+    }
+    if (footnotes == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(footnotes.size());
+      for (int[] footnotePositions : footnotes) {
+        if (footnotePositions == null) {
+          out.writeInt(-1);
+        } else {
+          out.writeInt(footnotePositions.length);
+          for (int footnotePosition : footnotePositions) {
+            out.writeInt(footnotePosition);
+          }
+        }
+      }
+    }
+    CacheIO.writeIntList(out, chapterBegins);
+    CacheIO.writeIntList(out, toTextMapping);
+    CacheIO.writeIntList(out, toParaMapping);
+  }
+  
   /**
    * reset the document cache
    * load the actual state of the document into the cache
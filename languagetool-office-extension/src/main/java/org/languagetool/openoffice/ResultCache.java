@@ -18,6 +18,13 @@
  */
 package org.languagetool.openoffice;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -26,6 +33,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import com.sun.star.beans.PropertyState;
 import com.sun.star.beans.PropertyValue;
@@ -115,9 +123,49 @@ class ResultCache implements Serializable {
 
   /**
    * get cache entry of paragraph
+   * an entry stored in a cache file is read here; it is removed if its record is damaged
    */
   CacheEntry getCacheEntry(int numberOfParagraph) {
-    return entries.get(numberOfParagraph);
+    CacheEntry entry = entries.get(numberOfParagraph);
+    if (entry != null && !entry.decode()) {
+      entries.remove(numberOfParagraph, entry);
+      return null;
+    }
+    return entry;
+  }
+
+  /**
+   * true if there is an entry for the paragraph
+   * an entry stored in a cache file isn't read, so a damaged record is only noticed when the entry is used
+   */
+  boolean hasEntry(int numberOfParagraph) {
+    return entries.containsKey(numberOfParagraph);
+  }
+
+  /**
+   * get the numbers of all paragraphs with a cache entry
+   */
+  List<Integer> getParagraphNumbers() {
+    synchronized(entries) {
+      return new ArrayList<>(entries.keySet());
+    }
+  }
+
+  /**
+   * get a copy of all entries sorted by paragraph, to write them to a cache file (see {@link CacheFileStore})
+   */
+  Map<Integer, CacheEntry> getEntries() {
+    synchronized(entries) {
+      return new TreeMap<>(entries);
+    }
+  }
+
+  /**
+   * add a cache entry stored in a cache file (see {@link CacheFileStore})
+   * the record is read when the entry is used for the first time
+   */
+  void putStoredEntry(int numberOfParagraph, CacheFileStore store, CacheFileStore.Record record) {
+    entries.put(numberOfParagraph, new CacheEntry(store, record));
   }
 
   /**
@@ -128,14 +176,18 @@ class ResultCache implements Serializable {
     if (entry == null) {
       return null;
     }
-    return entries.get(numberOfParagraph).getErrorArray();
+    return entry.getErrorArray();
   }
 
   /**
    * get start sentence position from cache
    */
   int getStartSentencePosition(int numberOfParagraph, int sentencePosition) {
-    List<Integer> nextSentencePositions = entries.get(numberOfParagraph).nextSentencePositions;
+    CacheEntry entry = getCacheEntry(numberOfParagraph);
+    if (entry == null) {
+      return 0;
+    }
+    List<Integer> nextSentencePositions = entry.getNextSentencePositions();
     if (nextSentencePositions == null || nextSentencePositions.size() < 2) {
       return 0;
     }
@@ -153,7 +205,11 @@ class ResultCache implements Serializable {
    * get next sentence position from cache
    */
   int getNextSentencePosition(int numberOfParagraph, int sentencePosition) {
-    List<Integer> nextSentencePositions = entries.get(numberOfParagraph).nextSentencePositions;
+    CacheEntry entry = getCacheEntry(numberOfParagraph);
+    if (entry == null) {
+      return 0;
+    }
+    List<Integer> nextSentencePositions = entry.getNextSentencePositions();
     if (nextSentencePositions == null || nextSentencePositions.size() == 0) {
       return 0;
     }
@@ -170,7 +226,7 @@ class ResultCache implements Serializable {
    */
   SingleProofreadingError[] getFromPara(int numberOfParagraph,
                                         int startOfSentencePosition, int endOfSentencePosition) {
-    CacheEntry entry = entries.get(numberOfParagraph);
+    CacheEntry entry = getCacheEntry(numberOfParagraph);
     if (entry == null) {
       return null;
     }
@@ -226,8 +282,9 @@ class ResultCache implements Serializable {
       for (int nPara : entrySet) {
         if (oldCache != null) {
           nEntry = entries.get(nPara);
-          oEntry = oldCache.getCacheEntry(nPara);
-          isDifferent = areDifferentEntries(nEntry, oEntry);
+          oEntry = oldCache.entries.get(nPara);
+          //  an entry taken over unchanged from the old cache isn't read from the cache file
+          isDifferent = nEntry != oEntry && areDifferentEntries(getCacheEntry(nPara), oldCache.getCacheEntry(nPara));
         }
         if (isDifferent) {
           differentParas.add(nPara);
@@ -253,11 +310,15 @@ class ResultCache implements Serializable {
 
   /**
    * get number of matches
+   * all entries stored in a cache file are read, so use it for debug output only
    */
   int getNumberOfMatches() {
     int number = 0;
-    for (int n : entries.keySet()) {
-      number += entries.get(n).errorArray.length;
+    for (int n : getParagraphNumbers()) {
+      CacheEntry entry = getCacheEntry(n);
+      if (entry != null) {
+        number += entry.getNumberOfErrors();
+      }
     }
     return number;
   }
@@ -268,7 +329,7 @@ class ResultCache implements Serializable {
    * if there are more than one that begins at the same position return the one with the smallest size
    */
   SingleProofreadingError getErrorAtPosition(int numPara, int numChar) {
-    CacheEntry entry = entries.get(numPara);
+    CacheEntry entry = getCacheEntry(numPara);
     if (entry == null) {
       return null;
     }
@@ -287,25 +348,108 @@ class ResultCache implements Serializable {
   /**
    * Class of serializable cache entries
    */
-  private class CacheEntry implements Serializable {
+  class CacheEntry implements Serializable {
     private static final long serialVersionUID = 2L;
-    final SerialProofreadingError[] errorArray;
-    List<Integer> nextSentencePositions = null;
+    private volatile SerialProofreadingError[] errorArray;    //  null as long as a stored entry hasn't been read
+    private List<Integer> nextSentencePositions = null;
+    private transient volatile CacheFileStore store;           //  the cache file the entry is stored in, if any
+    private transient volatile CacheFileStore.Record record;   //  guarded by the lock of store
 
     CacheEntry(List<Integer> nextSentencePositions, SingleProofreadingError[] sErrorArray) {
       if (nextSentencePositions != null) {
         this.nextSentencePositions = new ArrayList<Integer>(nextSentencePositions);
       }
-      this.errorArray = new SerialProofreadingError[sErrorArray.length];
+      SerialProofreadingError[] errors = new SerialProofreadingError[sErrorArray.length];
       for (int i = 0; i < sErrorArray.length; i++) {
-        this.errorArray[i] = new SerialProofreadingError(sErrorArray[i]);
+        errors[i] = new SerialProofreadingError(sErrorArray[i]);
+      }
+      this.errorArray = errors;
+    }
+    
+    CacheEntry(CacheFileStore store, CacheFileStore.Record record) {
+      this.store = store;
+      this.record = record;
+    }
+    
+    /**
+     * read the entry from the cache file, if that hasn't been done yet
+     * returns false if the record is damaged
+     */
+    private synchronized boolean decode() {
+      if (errorArray != null) {
+        return true;
+      }
+      try {
+        CacheFileStore entryStore = store;
+        byte[] data = entryStore == null ? null : entryStore.readRecord(this);
+        if (data == null) {
+          return false;
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        nextSentencePositions = CacheIO.readIntList(in);
+        SerialProofreadingError[] errors = new SerialProofreadingError[in.readInt()];
+        for (int i = 0; i < errors.length; i++) {
+          errors[i] = new SerialProofreadingError(in);
+        }
+        errorArray = errors;
+        return true;
+      } catch (IOException e) {
+        return false;
+      }
+    }
+    
+    /**
+     * get the position of the entry in a cache file
+     * returns null if the entry isn't stored in that file
+     */
+    CacheFileStore.Record getRecord(CacheFileStore cacheFile) {
+      return cacheFile == store ? record : null;
+    }
+    
+    /**
+     * set the position of the entry in a cache file, after it has been written to it
+     */
+    void setRecord(CacheFileStore cacheFile, CacheFileStore.Record record) {
+      this.record = record;
+      this.store = cacheFile;
+    }
+    
+    /**
+     * Get the entry as record of a cache file
+     * returns null if the entry was stored in a cache file and its record is damaged
+     */
+    byte[] getData() throws IOException {
+      SerialProofreadingError[] errors = errorArray;
+      if (errors == null) {
+        CacheFileStore entryStore = store;
+        return entryStore == null ? null : entryStore.readRecord(this);
+      }
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      CacheIO.writeIntList(out, nextSentencePositions);
+      out.writeInt(errors.length);
+      for (SerialProofreadingError error : errors) {
+        error.write(out);
       }
+      out.flush();
+      return bytes.toByteArray();
+    }
+    
+    List<Integer> getNextSentencePositions() {
+      decode();
+      return nextSentencePositions;
+    }
+    
+    int getNumberOfErrors() {
+      decode();
+      return errorArray.length;
     }
     
     /**
      * Get an SingleProofreadingError array for one entry
      */
     SingleProofreadingError[] getErrorArray() {
+      decode();
       SingleProofreadingError[] eArray = new SingleProofreadingError[errorArray.length];
       for (int i = 0; i < errorArray.length; i++) {
         eArray[i] = errorArray[i].toSingleProofreadingError();
@@ -345,6 +489,54 @@ class ResultCache implements Serializable {
       }
     }
     
+    SerialProofreadingError(DataInputStream in) throws IOException {
+      nErrorStart = in.readInt();
+      nErrorLength = in.readInt();
+      nErrorType = in.readInt();
+      aFullComment = CacheIO.readString(in);
+      aRuleIdentifier = CacheIO.readString(in);
+      aShortComment = CacheIO.readString(in);
+      int nSuggestions = in.readInt();
+      if (nSuggestions >= 0) {
+        aSuggestions = new String[nSuggestions];
+        for (int i = 0; i < nSuggestions; i++) {
+          aSuggestions[i] = CacheIO.readString(in);
+        }
+      }
+      int nProperties = in.readInt();
+      if (nProperties >= 0) {
+        aProperties = new SerialPropertyValue[nProperties];
+        for (int i = 0; i < nProperties; i++) {
+          aProperties[i] = new SerialPropertyValue(in);
+        }
+      }
+    }
+    
+    void write(DataOutputStream out) throws IOException {
+      out.writeInt(nErrorStart);
+      out.writeInt(nErrorLength);
+      out.writeInt(nErrorType);
+      CacheIO.writeString(out, aFullComment);
+      CacheIO.writeString(out, aRuleIdentifier);
+      CacheIO.writeString(out, aShortComment);
+      if (aSuggestions == null) {
+        out.writeInt(-1);
+      } else {
+        out.writeInt(aSuggestions.length);
+        for (String suggestion : aSuggestions) {
+          CacheIO.writeString(out, suggestion);
+        }
+      }
+      if (aProperties == null) {
+        out.writeInt(-1);
+      } else {
+        out.writeInt(aProperties.length);
+        for (SerialPropertyValue property : aProperties) {
+          property.write(out);
+        }
+      }
+    }
+    
     SingleProofreadingError toSingleProofreadingError () {
       SingleProofreadingError error = new SingleProofreadingError();
       error.nErrorStart = nErrorStart;
@@ -372,6 +564,12 @@ class ResultCache implements Serializable {
   class SerialPropertyValue implements Serializable {
 
     private static final long serialVersionUID = 1L;
+    //  types of values in cache files (the properties set by LT are strings and numbers)
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_STRING = 1;
+    private static final byte VALUE_INT = 2;
+    private static final byte VALUE_SHORT = 3;
+    private static final byte VALUE_OBJECT = 4;
     String name;
     Object value;
     
@@ -380,6 +578,52 @@ class ResultCache implements Serializable {
       value = properties.Value;
     }
     
+    SerialPropertyValue(DataInputStream in) throws IOException {
+      name = CacheIO.readString(in);
+      byte type = in.readByte();
+      if (type == VALUE_STRING) {
+        value = CacheIO.readString(in);
+      } else if (type == VALUE_INT) {
+        value = in.readInt();
+      } else if (type == VALUE_SHORT) {
+        value = in.readShort();
+      } else if (type == VALUE_OBJECT) {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+          value = objectIn.readObject();
+        } catch (ClassNotFoundException e) {
+          throw new IOException(e);
+        }
+      } else {
+        value = null;
+      }
+    }
+    
+    void write(DataOutputStream out) throws IOException {
+      CacheIO.writeString(out, name);
+      if (value == null) {
+        out.writeByte(VALUE_NULL);
+      } else if (value instanceof String) {
+        out.writeByte(VALUE_STRING);
+        CacheIO.writeString(out, (String) value);
+      } else if (value instanceof Integer) {
+        out.writeByte(VALUE_INT);
+        out.writeInt((Integer) value);
+      } else if (value instanceof Short) {
+        out.writeByte(VALUE_SHORT);
+        out.writeShort((Short) value);
+      } else {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+          objectOut.writeObject(value);
+        }
+        out.writeByte(VALUE_OBJECT);
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+      }
+    }
+    
     PropertyValue toPropertyValue() {
       PropertyValue properties = new PropertyValue();
       properties.Name = name;
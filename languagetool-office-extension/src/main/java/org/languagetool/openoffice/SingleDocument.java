@@ -211,7 +211,7 @@ class SingleDocument {
           if (docCursor == null) {
             docCursor = new DocumentCursorTools(xComponent);
           }
-          if (useQueue && !isDialogRequest.contains(paraNum) && paragraphsCache.get(1).getCacheEntry(paraNum) != null) {
+          if (useQueue && !isDialogRequest.contains(paraNum) && paragraphsCache.get(1).hasEntry(paraNum)) {
             List<Integer> changedParas = new ArrayList<Integer>();
             changedParas.add(paraNum);
             remarkChangedParagraphs(changedParas, docCursor.getParagraphCursor(), flatPara);
@@ -700,6 +700,9 @@ class SingleDocument {
     }
     int nPara = viewCursor.getViewCursorParagraph();
     if (nPara >= 0 && nPara < docCache.textSize() && docCache.isEqual(docCache.getFlatParagraphNumber(nPara), chPara, locale)) {
+      if (useQueue) {
+        mDocHandler.getTextLevelCheckQueue().setFocus(docID, nPara);
+      }
       nPara = docCache.getFlatParagraphNumber(nPara);
       numLastVCPara = nPara;
       if (debugMode > 0) {
@@ -853,6 +856,11 @@ class SingleDocument {
       docCache.setFlatParagraph(nPara, chPara, locale);
       resetCheck.add(nPara);
       if (useQueue) {
+        //  the paragraph is changed where the view cursor is
+        int nTPara = docCache.getNumberOfTextParagraph(nPara);
+        if (nTPara >= 0) {
+          mDocHandler.getTextLevelCheckQueue().setFocus(docID, nTPara);
+        }
         for (int i = 0; i < minToCheckPara.size(); i++) {
           if (minToCheckPara.get(i) == 0) {
             paragraphsCache.get(i).remove(nPara);
@@ -1063,21 +1071,21 @@ class SingleDocument {
     if (docCache != null) {
       if (nPara >= 0) {
         for (int nCache = 1; nCache < paragraphsCache.size(); nCache++) {
-          if (mDocHandler.isSortedRuleForIndex(nCache) && docCache.isFinished() && paragraphsCache.get(nCache).getCacheEntry(docCache.getFlatParagraphNumber(nPara)) == null) {
+          if (mDocHandler.isSortedRuleForIndex(nCache) && docCache.isFinished() && !paragraphsCache.get(nCache).hasEntry(docCache.getFlatParagraphNumber(nPara))) {
             return createQueueEntry(nPara, nCache);
           }
         }
       }
       for (int i = nPara + 1; i < docCache.textSize(); i++) {
         for (int nCache = 1; nCache < paragraphsCache.size(); nCache++) {
-          if (mDocHandler.isSortedRuleForIndex(nCache) && docCache.isFinished() && paragraphsCache.get(nCache).getCacheEntry(docCache.getFlatParagraphNumber(i)) == null) {
+          if (mDocHandler.isSortedRuleForIndex(nCache) && docCache.isFinished() && !paragraphsCache.get(nCache).hasEntry(docCache.getFlatParagraphNumber(i))) {
             return createQueueEntry(i, nCache);
           }
         }
       }
       for (int i = 0; i < nPara; i++) {
         for (int nCache = 1; nCache < paragraphsCache.size(); nCache++) {
-          if (mDocHandler.isSortedRuleForIndex(nCache) && docCache.isFinished() && paragraphsCache.get(nCache).getCacheEntry(docCache.getFlatParagraphNumber(i)) == null) {
+          if (mDocHandler.isSortedRuleForIndex(nCache) && docCache.isFinished() && !paragraphsCache.get(nCache).hasEntry(docCache.getFlatParagraphNumber(i))) {
             return createQueueEntry(i, nCache);
           }
         }
@@ -1109,7 +1117,7 @@ class SingleDocument {
     try {
       // use Cache for check in single paragraph mode only after the first call of paragraph
       if (nFPara >= 0 || (sentencePos > 0 && lastSinglePara != null && lastSinglePara.equals(paraText))) {
-        if (paragraphsCache.get(0).getCacheEntry(nFPara) != null) {
+        if (paragraphsCache.get(0).hasEntry(nFPara)) {
           startSentencePos = paragraphsCache.get(0).getStartSentencePosition(nFPara, sentencePos);
           endSentencePos = paragraphsCache.get(0).getNextSentencePosition(nFPara, sentencePos);
           pErrors = paragraphsCache.get(cacheNum).getFromPara(nFPara, startSentencePos, endSentencePos);
@@ -1225,7 +1233,7 @@ class SingleDocument {
       int endPos;
       int footnotesBefore = 0;
       for (int i = startPara; i < endPara; i++) {
-        if (useQueue && !isDialogRequest.contains(nFPara) && mDH.getTextLevelCheckQueue().isInterrupted()) {
+        if (useQueue && !isDialogRequest.contains(nFPara) && mDH.getTextLevelCheckQueue().isInterrupted(docID)) {
           return;
         }
         int[] footnotePos = docCache.getTextParagraphFootnotes(i);
@@ -1274,7 +1282,7 @@ class SingleDocument {
         footnotesBefore += footnotePos.length;
       }
       if (useQueue && !isDialogRequest.contains(nFPara)) {
-        if (mDH.getTextLevelCheckQueue().isInterrupted()) {
+        if (mDH.getTextLevelCheckQueue().isInterrupted(docID)) {
           return;
         }
         if (docCursor == null) {
@@ -1287,7 +1295,7 @@ class SingleDocument {
           tmpChangedParas = paragraphsCache.get(cacheNum).differenceInCaches(oldCache);
           List<Integer> changedParas = new ArrayList<>();
           for (int n : tmpChangedParas) {
-            if (paragraphsCache.get(0).getCacheEntry(n) != null) {
+            if (paragraphsCache.get(0).hasEntry(n)) {
               changedParas.add(n);
             }
           }
@@ -1307,7 +1315,7 @@ class SingleDocument {
             SingleProofreadingError[] errors = paragraphsCache.get(cacheNum).getMatches(nFlat);
             if (errors != null && errors.length != 0) {
               SingleProofreadingError[] filteredErrors = filterIgnoredMatches(errors, nFlat);
-              if (paragraphsCache.get(0).getCacheEntry(nFlat) != null && filteredErrors != null && filteredErrors.length != 0) {
+              if (paragraphsCache.get(0).hasEntry(nFlat) && filteredErrors != null && filteredErrors.length != 0) {
                 changedParas.add(nFlat);
               }
             }
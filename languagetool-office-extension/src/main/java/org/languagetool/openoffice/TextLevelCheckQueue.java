@@ -19,8 +19,13 @@
 package org.languagetool.openoffice;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
 
 import org.languagetool.Language;
 
@@ -28,6 +33,11 @@ import com.sun.star.lang.Locale;
 
 /**
  * Class of a queue to handle parallel check of text level rules
+ * The entries are sorted by document and position: entries of the document
+ * in focus are run first, starting with the one nearest to the view cursor
+ * (see {@link #setFocus(String, int)}), then the oldest entries of the other documents.
+ * Several threads run the entries, each with its own LanguageTool, but
+ * never two of them for the same document.
  * @since 4.9
  * @author Fred Kruse
  */
@@ -39,29 +49,46 @@ public class TextLevelCheckQueue {
   public static final int DISPOSE_FLAG = 3;
 
   private static final int MAX_WAIT = 2000;
+  private static final int MAX_ITERATORS = 2;   //  every iterator has its own LanguageTool, so keep this small
 
-  private List<QueueEntry> textRuleQueue = Collections.synchronizedList(new ArrayList<QueueEntry>());  //  Queue to check text rules in a separate thread
-  private Object queueWakeup = new Object();
+  //  entries sorted by position (superseded entries are found by range)
+  private static final Comparator<QueueEntry> POSITION_ORDER = Comparator.<QueueEntry>comparingInt(e -> e.nStart)
+      .thenComparingInt(e -> e.nCache).thenComparingInt(e -> e.nEnd).thenComparingInt(e -> e.nCheck).thenComparingLong(e -> e.number);
+
+  private final Object queueLock = new Object();  //  guards the queue and the running entries; iterators wait on it
+  private final Map<String, NavigableSet<QueueEntry>> documentQueues = new HashMap<>();   //  entries per document
+  private final NavigableSet<QueueEntry> entriesByAge = new TreeSet<>(Comparator.comparingLong(e -> e.number));
+  private final Object initLock = new Object();   //  LanguageTool is initialized by one iterator at a time
+  private final List<QueueIterator> queueIterators = new ArrayList<>();
   private MultiDocumentsHandler multiDocHandler;
-  private SortedTextRules sortedTextRules = null;
 
-  private QueueIterator queueIterator;
+  private long entryNumber = 0;
+  private long wakeups = 0;
+  private int runningIterators = 0;
+  private String focusDocId = null;   //  document with the view cursor
+  private int focusPara = -1;         //  text paragraph of the view cursor
   private int lastStart = -1;
-  private int lastEnd = -1;
-  private int lastCache = -1;
   private String lastDocId = null;
-  private Language lastLanguage = null;
-  private boolean interruptCheck = false;
-  private boolean queueRuns = false;
-  private boolean queueWaits = false;
+  private volatile boolean stopQueue = false;
+  private volatile boolean queueRuns = false;
 
   private static boolean debugMode = false;   //  should be false except for testing
   
   TextLevelCheckQueue(MultiDocumentsHandler multiDocumentsHandler) {
+    this(multiDocumentsHandler, Math.max(1, Math.min(MAX_ITERATORS, Runtime.getRuntime().availableProcessors() - 1)));
+  }
+
+  TextLevelCheckQueue(MultiDocumentsHandler multiDocumentsHandler, int numIterators) {
     multiDocHandler = multiDocumentsHandler;
-    queueIterator = new QueueIterator();
-    queueIterator.start();
     debugMode = OfficeTools.DEBUG_MODE_TQ;
+    for (int i = 0; i < numIterators; i++) {
+      queueIterators.add(new QueueIterator());
+    }
+    queueRuns = true;
+    runningIterators = numIterators;
+    for (QueueIterator queueIterator : queueIterators) {
+      queueIterator.start();
+    }
   }
  
  /**
@@ -78,43 +105,66 @@ public class TextLevelCheckQueue {
       return;
     }
     QueueEntry queueEntry = new QueueEntry(nStart, nEnd, cacheNum, nCheck, docId, overrideRunning);
-    int setIn = -1;
-    if (!textRuleQueue.isEmpty()) {
-      if (!overrideRunning && nStart >= lastStart  && nEnd <= lastEnd && cacheNum == lastCache && docId.equals(lastDocId)) {
+    synchronized(queueLock) {
+      if (stopQueue) {
         return;
       }
-      synchronized(textRuleQueue) {
-        for (int i = 0; i < textRuleQueue.size(); i++) {
-          QueueEntry entry = textRuleQueue.get(i);
+      if (!overrideRunning) {
+        for (QueueIterator queueIterator : queueIterators) {
+          QueueEntry running = queueIterator.runningEntry;
+          if (running != null && nStart >= running.nStart && nEnd <= running.nEnd 
+              && cacheNum == running.nCache && docId.equals(running.docId)) {
+            return;
+          }
+        }
+      }
+      NavigableSet<QueueEntry> docQueue = documentQueues.get(docId);
+      if (docQueue == null) {
+        docQueue = new TreeSet<>(POSITION_ORDER);
+        documentQueues.put(docId, docQueue);
+      } else {
+        //  superseded entries start within the range of the new entry
+        QueueEntry from = createSearchEntry(nStart, Integer.MIN_VALUE, Long.MIN_VALUE);
+        QueueEntry to = createSearchEntry(nEnd, Integer.MAX_VALUE, Long.MAX_VALUE);
+        Iterator<QueueEntry> iterator = docQueue.subSet(from, true, to, true).iterator();
+        while (iterator.hasNext()) {
+          QueueEntry entry = iterator.next();
           if (entry.isEqualOrSmaller(queueEntry)) {
             if (!overrideRunning && entry.overrideRunning) {
               queueEntry.overrideRunning = true;
             }
-            textRuleQueue.remove(i);
-            i--;
+            iterator.remove();
+            entriesByAge.remove(entry);
             if (debugMode) {
               MessageHandler.printToLogFile("remove queue entry: docId = " + entry.docId + ", nStart = " + entry.nStart + ", nEnd = " + entry.nEnd 
                   + ", nCache = " + entry.nCache + ", nCheck = " + entry.nCheck + ", overrideRunning = " + entry.overrideRunning);
             }
-          } else if (entry.isEqualButSmallerCacheNumber(queueEntry)) {
-            setIn = i;
           }
         }
       }
+      if (debugMode) {
+        MessageHandler.printToLogFile("add queue entry: docId = " + docId + ", nStart = " + nStart + ", nEnd = " + nEnd 
+            + ", nCache = " + cacheNum + ", nCheck = " + nCheck + ", overrideRunning = " + overrideRunning);
+      }
+      queueEntry.number = entryNumber++;
+      docQueue.add(queueEntry);
+      entriesByAge.add(queueEntry);
+      wakeupQueue();
     }
-    if (debugMode) {
-      MessageHandler.printToLogFile("add queue entry: docId = " + docId + ", nStart = " + nStart + ", nEnd = " + nEnd 
-          + ", nCache = " + cacheNum + ", nCheck = " + nCheck + ", overrideRunning = " + overrideRunning);
-    }
-    if (setIn >= 0) {
-      textRuleQueue.add(setIn, queueEntry);
-    } else {
-      textRuleQueue.add(queueEntry);
-    }
-    interruptCheck = false;
-    wakeupQueue();
   }
   
+  /**
+   * Set the position of the view cursor: the entries of this document
+   * nearest to the paragraph are run first
+   * nPara is number of text paragraph
+   */
+  public void setFocus(String docId, int nPara) {
+    synchronized(queueLock) {
+      focusDocId = docId;
+      focusPara = nPara;
+    }
+  }
+
   /**
    * Create and give back a new queue entry
    */
@@ -127,34 +177,116 @@ public class TextLevelCheckQueue {
   }
   
   /**
-   * wake up the waiting iteration of the queue
+   * Create an entry to search in the sorted queue of a document
+   */
+  private QueueEntry createSearchEntry(int nStart, int value, long number) {
+    QueueEntry entry = new QueueEntry(nStart, value, value, value, null);
+    entry.number = number;
+    return entry;
+  }
+  
+  /**
+   * wake up the waiting iterations of the queue
+   * has to be called with lock of queueLock
    */
   private void wakeupQueue() {
-    synchronized(queueWakeup) {
-      if (debugMode) {
-        MessageHandler.printToLogFile("wake queue");
+    if (debugMode) {
+      MessageHandler.printToLogFile("wake queue");
+    }
+    wakeups++;
+    queueLock.notifyAll();
+  }
+
+  /**
+   * Remove all entries
+   * has to be called with lock of queueLock
+   */
+  private void clearQueue() {
+    documentQueues.clear();
+    entriesByAge.clear();
+  }
+
+  /**
+   * Remove an entry
+   * has to be called with lock of queueLock
+   */
+  private void removeEntry(QueueEntry queueEntry) {
+    NavigableSet<QueueEntry> docQueue = documentQueues.get(queueEntry.docId);
+    if (docQueue != null) {
+      docQueue.remove(queueEntry);
+      if (docQueue.isEmpty()) {
+        documentQueues.remove(queueEntry.docId);
       }
-      queueWakeup.notify();
     }
+    entriesByAge.remove(queueEntry);
+  }
+
+  /**
+   * true if an iterator runs an entry of the document
+   * has to be called with lock of queueLock
+   */
+  private boolean isRunningDocument(String docId) {
+    for (QueueIterator queueIterator : queueIterators) {
+      QueueEntry running = queueIterator.runningEntry;
+      if (running != null && docId.equals(running.docId)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Give back the entry to run next and remove it from queue:
+   * the entry of the document in focus nearest to the view cursor,
+   * else the oldest entry of a document which is not checked at the moment
+   * has to be called with lock of queueLock
+   */
+  QueueEntry takeQueueEntry() {
+    QueueEntry queueEntry = null;
+    if (focusDocId != null && !isRunningDocument(focusDocId)) {
+      NavigableSet<QueueEntry> docQueue = documentQueues.get(focusDocId);
+      if (docQueue != null) {
+        QueueEntry focus = createSearchEntry(focusPara, Integer.MIN_VALUE, Long.MIN_VALUE);
+        QueueEntry after = docQueue.ceiling(focus);
+        QueueEntry before = docQueue.lower(focus);
+        if (after == null || (before != null && focusPara - before.nEnd < after.nStart - focusPara)) {
+          queueEntry = before;
+        } else {
+          queueEntry = after;
+        }
+      }
+    }
+    if (queueEntry == null) {
+      for (QueueEntry entry : entriesByAge) {
+        if (!isRunningDocument(entry.docId)) {
+          queueEntry = entry;
+          break;
+        }
+      }
+    }
+    if (queueEntry != null) {
+      removeEntry(queueEntry);
+    }
+    return queueEntry;
   }
 
   /**
    * Set a stop flag to get a definite ending of the iteration
    */
   public void setStop() {
-    if (queueRuns) {
-      synchronized(textRuleQueue) {
-        textRuleQueue.clear();
-      }
-      interruptCheck = true;
-      QueueEntry queueEntry = new QueueEntry();
-      queueEntry.setStop();
-      if (debugMode) {
-        MessageHandler.printToLogFile("stop queue");
+    synchronized(queueLock) {
+      if (queueRuns) {
+        clearQueue();
+        for (QueueIterator queueIterator : queueIterators) {
+          queueIterator.interruptCheck = true;
+        }
+        if (debugMode) {
+          MessageHandler.printToLogFile("stop queue");
+        }
       }
-      textRuleQueue.add(queueEntry);
+      stopQueue = true;
+      wakeupQueue();
     }
-    wakeupQueue();
   }
   
   /**
@@ -162,17 +294,17 @@ public class TextLevelCheckQueue {
    * all entries are removed; LanguageTool is new initialized
    */
   public void setReset() {
-    synchronized(textRuleQueue) {
-      textRuleQueue.clear();
-    }
-    if (!queueWaits && lastStart >= 0) {
-      waitForInterrupt();
+    synchronized(queueLock) {
+      clearQueue();
     }
+    waitForInterrupt(null);
     if (debugMode) {
       MessageHandler.printToLogFile("reset queue");
     }
     doReset();
-    wakeupQueue();
+    synchronized(queueLock) {
+      wakeupQueue();
+    }
   }
   
   /**
@@ -183,30 +315,37 @@ public class TextLevelCheckQueue {
     if (debugMode) {
       MessageHandler.printToLogFile("dispose queue");
     }
-    if (!textRuleQueue.isEmpty()) {
-      synchronized(textRuleQueue) {
-        for (int i = textRuleQueue.size() - 1; i >= 0; i--) {
-          QueueEntry queueEntry = textRuleQueue.get(i);
-          if (docId.equals(queueEntry.docId)) {
-            textRuleQueue.remove(queueEntry);
-          }
-        }
+    synchronized(queueLock) {
+      NavigableSet<QueueEntry> docQueue = documentQueues.remove(docId);
+      if (docQueue != null) {
+        entriesByAge.removeAll(docQueue);
+      }
+      if (docId.equals(lastDocId)) {
+        lastDocId = null;
       }
     }
-    if (!queueWaits && lastStart >= 0 && lastDocId != null && lastDocId.equals(docId)) {
-      waitForInterrupt();
-      lastDocId = null;
-    }
+    waitForInterrupt(docId);
   }
   
   /**
-   * Set interrupt and wait till finish last check
+   * Set interrupt and wait till finish the running checks
+   * of the document (of all documents if docId is null)
    */
-  private void waitForInterrupt() {
-    interruptCheck = true;
-    wakeupQueue();
+  private void waitForInterrupt(String docId) {
+    List<QueueIterator> interrupted = new ArrayList<>();
+    List<QueueEntry> interruptedEntries = new ArrayList<>();
+    synchronized(queueLock) {
+      for (QueueIterator queueIterator : queueIterators) {
+        QueueEntry running = queueIterator.runningEntry;
+        if (running != null && (docId == null || docId.equals(running.docId))) {
+          queueIterator.interruptCheck = true;
+          interrupted.add(queueIterator);
+          interruptedEntries.add(running);
+        }
+      }
+    }
     int n = 0;
-    while (interruptCheck && n < MAX_WAIT) {
+    while (n < MAX_WAIT && isRunning(interrupted, interruptedEntries)) {
       try {
         Thread.sleep(1);
         n++;
@@ -216,6 +355,18 @@ public class TextLevelCheckQueue {
     }
   }
 
+  /**
+   * true if one of the iterators runs still the given entry
+   */
+  private static boolean isRunning(List<QueueIterator> queueIterators, List<QueueEntry> entries) {
+    for (int i = 0; i < queueIterators.size(); i++) {
+      if (queueIterators.get(i).runningEntry == entries.get(i)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    *  get the document by ID
    */
@@ -249,7 +400,31 @@ public class TextLevelCheckQueue {
    * gives back information if queue is interrupted
    */
   public boolean isInterrupted() {
-    return interruptCheck;
+    if (stopQueue) {
+      return true;
+    }
+    for (QueueIterator queueIterator : queueIterators) {
+      if (queueIterator.interruptCheck) {
+        return true;
+      }
+    }
+    return false;
+  }
+  
+  /**
+   * gives back information if the check of a document is interrupted
+   */
+  public boolean isInterrupted(String docId) {
+    if (stopQueue) {
+      return true;
+    }
+    for (QueueIterator queueIterator : queueIterators) {
+      QueueEntry running = queueIterator.runningEntry;
+      if (queueIterator.interruptCheck && running != null && docId.equals(running.docId)) {
+        return true;
+      }
+    }
+    return false;
   }
   
   /**
@@ -263,15 +438,24 @@ public class TextLevelCheckQueue {
    * gives back information if queue is waiting
    */
   public boolean isWaiting() {
-    return queueWaits;
+    for (QueueIterator queueIterator : queueIterators) {
+      if (!queueIterator.queueWaits) {
+        return false;
+      }
+    }
+    return true;
   }
   
   /**
    * reset LanguageToo; do an new initialization
    */
   private void doReset() {
-    textRuleQueue.clear();
-    queueIterator.initLangtool(null);
+    synchronized(queueLock) {
+      clearQueue();
+      for (QueueIterator queueIterator : queueIterators) {
+        queueIterator.resetLangtool = true;
+      }
+    }
   }
   
   /**
@@ -282,16 +466,18 @@ public class TextLevelCheckQueue {
     int nDoc = 0;
     for (int n = 0; n < documents.size(); n++) {
       if (docId.equals(documents.get(n).getDocID()) && !documents.get(n).isDisposed()) {
-        QueueEntry queueEntry = documents.get(n).getNextQueueEntry(nPara);
-        if (queueEntry != null) {
-          return queueEntry;
+        if (!isRunningDocument(documents.get(n))) {
+          QueueEntry queueEntry = documents.get(n).getNextQueueEntry(nPara);
+          if (queueEntry != null) {
+            return queueEntry;
+          }
         }
         nDoc = n;
         break;
       }
     }
     for (int i = nDoc + 1; i < documents.size(); i++) {
-      if (!documents.get(i).isDisposed()) {
+      if (!documents.get(i).isDisposed() && !isRunningDocument(documents.get(i))) {
         QueueEntry queueEntry = documents.get(i).getNextQueueEntry(-1);
         if (queueEntry != null) {
           return queueEntry;
@@ -299,7 +485,7 @@ public class TextLevelCheckQueue {
       }
     }
     for (int i = 0; i < nDoc; i++) {
-      if (!documents.get(i).isDisposed()) {
+      if (!documents.get(i).isDisposed() && !isRunningDocument(documents.get(i))) {
         QueueEntry queueEntry = documents.get(i).getNextQueueEntry(-1);
         if (queueEntry != null) {
           return queueEntry;
@@ -309,6 +495,12 @@ public class TextLevelCheckQueue {
     return null;
   }
   
+  private boolean isRunningDocument(SingleDocument document) {
+    synchronized(queueLock) {
+      return isRunningDocument(document.getDocID());
+    }
+  }
+  
   /**
    * Internal class to store queue entries
    */
@@ -320,6 +512,7 @@ public class TextLevelCheckQueue {
     String docId;
     boolean overrideRunning;
     int special = TextLevelCheckQueue.NO_FLAG;
+    long number;    //  order of adding to queue
     
     QueueEntry(int nStart, int nEnd, int nCache, int nCheck, String docId, boolean overrideRunning) {
       this.nStart = nStart;
@@ -411,13 +604,27 @@ public class TextLevelCheckQueue {
     
   }
 
+  /**
+   * Run an entry taken from the queue by the iterator
+   */
+  void runQueueEntry(QueueIterator queueIterator, QueueEntry queueEntry) {
+    queueIterator.checkQueueEntry(queueEntry);
+  }
+
   /**
    * class for automatic iteration of the queue
+   * there are several of them, every one with its own LanguageTool
    */
   class QueueIterator extends Thread {
     
     private SwJLanguageTool langTool;
-
+    private SortedTextRules sortedTextRules = null;
+    private Language lastLanguage = null;
+    private int lastCache = -1;
+    private volatile QueueEntry runningEntry = null;
+    private volatile boolean interruptCheck = false;
+    private volatile boolean resetLangtool = false;
+    private volatile boolean queueWaits = false;
       
     public QueueIterator() {
     }
@@ -429,9 +636,88 @@ public class TextLevelCheckQueue {
       if (debugMode) {
         MessageHandler.printToLogFile("queue: InitLangtool: language = " + (language == null ? "null" : language.getShortCodeWithCountryAndVariant()));
       }
-      langTool = multiDocHandler.initLanguageTool(language, false);
-      multiDocHandler.initCheck(langTool, multiDocHandler.getLocale());
-      sortedTextRules = new SortedTextRules(langTool, multiDocHandler.getConfiguration(), multiDocHandler.getDisabledRules());
+      synchronized(initLock) {
+        langTool = multiDocHandler.initLanguageTool(language, false);
+        multiDocHandler.initCheck(langTool, multiDocHandler.getLocale());
+        sortedTextRules = new SortedTextRules(langTool, multiDocHandler.getConfiguration(), multiDocHandler.getDisabledRules());
+      }
+    }
+    
+    /**
+     * Check an entry with the LanguageTool of the iterator
+     */
+    private void checkQueueEntry(QueueEntry queueEntry) {
+      if (resetLangtool) {
+        resetLangtool = false;
+        lastLanguage = null;
+      }
+      Language entryLanguage = getLanguage(queueEntry.docId, queueEntry.nStart);
+      if (entryLanguage != null) {
+        if (lastLanguage == null || !lastLanguage.equals(entryLanguage)) {
+          lastLanguage = entryLanguage;
+          initLangtool(lastLanguage);
+        } else if (lastCache != queueEntry.nCache) {
+          sortedTextRules.activateTextRulesByIndex(queueEntry.nCache, langTool);
+        }
+        synchronized(queueLock) {
+          lastDocId = queueEntry.docId;
+          lastStart = queueEntry.nStart;
+        }
+        lastCache = queueEntry.nCache;
+        queueEntry.runQueueEntry(multiDocHandler, langTool);
+      }
+    }
+
+    /**
+     * Get the next entry: from the queue or if the queue is empty
+     * the next unchecked paragraphs; wait if there is nothing to do
+     * returns null if the queue is stopped
+     */
+    private QueueEntry nextQueueEntry() throws InterruptedException {
+      for (;;) {
+        String docId;
+        int nStart;
+        long lastWakeups;
+        synchronized(queueLock) {
+          if (stopQueue) {
+            return null;
+          }
+          QueueEntry queueEntry = takeQueueEntry();
+          if (queueEntry != null) {
+            runningEntry = queueEntry;
+            return queueEntry;
+          }
+          docId = lastDocId;
+          nStart = lastStart;
+          lastWakeups = wakeups;
+        }
+        //  nothing in queue (or only entries of documents checked by other iterators): search unchecked paragraphs
+        QueueEntry queueEntry = docId == null ? null : getNextQueueEntry(nStart, docId);
+        synchronized(queueLock) {
+          if (stopQueue) {
+            return null;
+          }
+          QueueEntry nextEntry = takeQueueEntry();   //  entries added meanwhile come first
+          if (nextEntry == null && queueEntry != null && !isRunningDocument(queueEntry.docId)) {
+            nextEntry = queueEntry;
+          }
+          if (nextEntry != null) {
+            runningEntry = nextEntry;
+            return nextEntry;
+          }
+          if (wakeups == lastWakeups) {   //  nothing has changed meanwhile
+            if (debugMode) {
+              MessageHandler.printToLogFile("queue waits");
+            }
+            queueWaits = true;
+            try {
+              queueLock.wait();
+            } finally {
+              queueWaits = false;
+            }
+          }
+        }
+      }
     }
     
     /**
@@ -440,79 +726,40 @@ public class TextLevelCheckQueue {
     @Override
     public void run() {
       try {
-        queueRuns = true;
         if (debugMode) {
           MessageHandler.printToLogFile("queue started");
         }
         for (;;) {
-          queueWaits = false;
-          interruptCheck = false;
-          if (textRuleQueue.isEmpty()) {
-            synchronized(textRuleQueue) {
-              if (lastDocId != null) {
-                QueueEntry queueEntry = getNextQueueEntry(lastStart, lastDocId);
-                if (queueEntry != null) {
-                  textRuleQueue.add(queueEntry);
-                  queueEntry = null;
-                  continue;
-                }
-              }
-            }
-            synchronized(queueWakeup) {
-              try {
-                if (debugMode) {
-                  MessageHandler.printToLogFile("queue waits");
-                }
-                lastStart = -1;
-                lastEnd = -1;
-                queueWaits = true;
-                queueWakeup.wait();
-              } catch (Throwable e) {
-                MessageHandler.showError(e);
-                return;
-              }
+          QueueEntry queueEntry = nextQueueEntry();
+          if (queueEntry == null) {
+            if (debugMode) {
+              MessageHandler.printToLogFile("queue ended");
             }
-          } else {
-            QueueEntry queueEntry;
-            synchronized(textRuleQueue) {
-              if (!textRuleQueue.isEmpty()) {
-                queueEntry = textRuleQueue.get(textRuleQueue.size() - 1);
-                textRuleQueue.remove(textRuleQueue.size() - 1);
-              } else {
-                continue;
-              }
+            return;
+          }
+          try {
+            if (debugMode) {
+              MessageHandler.printToLogFile("run queue entry: docId = " + queueEntry.docId + ", nStart = " 
+                  + queueEntry.nStart + ", nEnd = " + queueEntry.nEnd + ", nCheck = " + queueEntry.nCheck + ", overrideRunning = " + queueEntry.overrideRunning);
             }
-            if (queueEntry.special == STOP_FLAG) {
-              if (debugMode) {
-                MessageHandler.printToLogFile("queue ended");
-              }
-              queueRuns = false;
-              return;
-            } else {
-              if (debugMode) {
-                MessageHandler.printToLogFile("run queue entry: docId = " + queueEntry.docId + ", nStart = " 
-                    + queueEntry.nStart + ", nEnd = " + queueEntry.nEnd + ", nCheck = " + queueEntry.nCheck + ", overrideRunning = " + queueEntry.overrideRunning);
-              }
-              Language entryLanguage = getLanguage(queueEntry.docId, queueEntry.nStart);
-              if (entryLanguage != null) {
-                if (lastLanguage == null || !lastLanguage.equals(entryLanguage)) {
-                  lastLanguage = entryLanguage;
-                  initLangtool(lastLanguage);
-                } else if (lastCache != queueEntry.nCache) {
-                  sortedTextRules.activateTextRulesByIndex(queueEntry.nCache, langTool);
-                }
-                lastDocId = queueEntry.docId;
-                lastStart = queueEntry.nStart;
-                lastEnd = queueEntry.nEnd;
-                lastCache = queueEntry.nCache;
-                queueEntry.runQueueEntry(multiDocHandler, langTool);
-              }
-              queueEntry = null;
+            runQueueEntry(this, queueEntry);
+          } finally {
+            synchronized(queueLock) {
+              runningEntry = null;
+              interruptCheck = false;
+              wakeupQueue();    //  an other iterator may wait for this document
             }
           }
         }
       } catch (Throwable e) {
         MessageHandler.showError(e);
+      } finally {
+        synchronized(queueLock) {
+          runningIterators--;
+          if (runningIterators == 0) {
+            queueRuns = false;
+          }
+        }
       }
     }
     
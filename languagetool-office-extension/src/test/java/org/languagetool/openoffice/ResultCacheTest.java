@@ -0,0 +1,223 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.openoffice;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.star.beans.PropertyState;
+import com.sun.star.beans.PropertyValue;
+import com.sun.star.lang.Locale;
+import com.sun.star.linguistic2.SingleProofreadingError;
+
+import static org.junit.Assert.*;
+
+public class ResultCacheTest {
+
+  private static final CacheFileStore.Header HEADER = new CacheFileStore.Header("5.3", 
+      Arrays.asList("RULE_A", "RULE_B"), Collections.emptyList(), Collections.singletonList("RULE_C"));
+
+  private Path dir;
+  private Path file;
+
+  @Before
+  public void setUp() throws Exception {
+    dir = Files.createTempDirectory("resultCacheTest");
+    file = dir.resolve("cache.lcz");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    Files.deleteIfExists(file);
+    Files.delete(dir);
+  }
+
+  @Test
+  public void testEntryData() throws Exception {
+    SingleProofreadingError error = new SingleProofreadingError();
+    error.nErrorStart = 3;
+    error.nErrorLength = 5;
+    error.nErrorType = 2;
+    error.aRuleIdentifier = "MY_RULE";
+    error.aShortComment = "short";
+    error.aFullComment = "a comment with ümlauts";
+    error.aSuggestions = new String[] { "foo", "bar" };
+    error.aProperties = new PropertyValue[] {
+        new PropertyValue("FullCommentURL", -1, "https://example.org", PropertyState.DIRECT_VALUE),
+        new PropertyValue("LineColor", -1, 0xFF0000, PropertyState.DIRECT_VALUE),
+        new PropertyValue("LineType", -1, (short) 3, PropertyState.DIRECT_VALUE) };
+    ResultCache cache = new ResultCache();
+    cache.put(7, Arrays.asList(10, 20), new SingleProofreadingError[] { error });
+    cache.put(8, new SingleProofreadingError[0]);
+    assertEquals(Arrays.asList(7, 8), cache.getParagraphNumbers());
+    assertFalse(new CacheFileStore(file).write(HEADER, docCache("first", "second"), Arrays.asList(cache, new ResultCache())));
+
+    CacheFileStore store = new CacheFileStore(file);
+    CacheFileStore.Header header = store.read();
+    assertEquals("5.3", header.ltVersion);
+    assertEquals(Arrays.asList("RULE_A", "RULE_B"), header.disabledRuleIds);
+    assertEquals(Collections.emptyList(), header.disabledCategories);
+    assertEquals(Collections.singletonList("RULE_C"), header.enabledRuleIds);
+    assertEquals(2, store.readDocumentCache().size());
+    List<ResultCache> readCaches = store.readResultCaches();
+    assertEquals(2, readCaches.size());
+    assertEquals(0, readCaches.get(1).getNumberOfParas());
+    ResultCache readCache = readCaches.get(0);
+    assertEquals(Arrays.asList(7, 8), readCache.getParagraphNumbers());
+    assertArrayEquals(cache.getEntries().get(7).getData(), readCache.getEntries().get(7).getData());   // read without decoding
+
+    assertEquals(20, readCache.getNextSentencePosition(7, 10));
+    SingleProofreadingError[] errors = readCache.getMatches(7);
+    assertEquals(1, errors.length);
+    assertEquals(3, errors[0].nErrorStart);
+    assertEquals(5, errors[0].nErrorLength);
+    assertEquals(2, errors[0].nErrorType);
+    assertEquals("MY_RULE", errors[0].aRuleIdentifier);
+    assertEquals("short", errors[0].aShortComment);
+    assertEquals("a comment with ümlauts", errors[0].aFullComment);
+    assertArrayEquals(new String[] { "foo", "bar" }, errors[0].aSuggestions);
+    assertEquals(3, errors[0].aProperties.length);
+    assertEquals("https://example.org", errors[0].aProperties[0].Value);
+    assertEquals(0xFF0000, errors[0].aProperties[1].Value);
+    assertEquals((short) 3, errors[0].aProperties[2].Value);
+    assertArrayEquals(cache.getEntries().get(7).getData(), readCache.getEntries().get(7).getData());   // encoded again after decoding
+    assertTrue(readCache.differenceInCaches(cache).isEmpty());
+    store.close();
+  }
+
+  @Test
+  public void testAppendChanges() throws Exception {
+    ResultCache cache = new ResultCache();
+    for (int i = 0; i < 20; i++) {
+      cache.put(i, new SingleProofreadingError[] { error(i) });
+    }
+    DocumentCache docCache = docCache("first", "second");
+    assertFalse(new CacheFileStore(file).write(HEADER, docCache, Collections.singletonList(cache)));
+
+    CacheFileStore store = new CacheFileStore(file);
+    store.read();
+    ResultCache readCache = store.readResultCaches().get(0);
+    CacheFileStore.Record unchanged = readCache.getEntries().get(3).getRecord(store);
+    long length = Files.size(file);
+    readCache.put(5, new SingleProofreadingError[] { error(50) });
+    readCache.remove(6);
+    assertTrue(store.write(HEADER, docCache, Collections.singletonList(readCache)));
+    assertTrue(Files.size(file) > length);
+    assertTrue(Files.size(file) < 2 * length);    // neither the document cache nor the unchanged records are written again
+    assertSame(unchanged, readCache.getEntries().get(3).getRecord(store));
+    assertEquals(length, readCache.getEntries().get(5).getRecord(store).offset);
+    store.close();
+
+    store = new CacheFileStore(file);
+    store.read();
+    readCache = store.readResultCaches().get(0);
+    assertEquals(19, readCache.getNumberOfParas());
+    assertNull(readCache.getMatches(6));
+    assertEquals(50, readCache.getMatches(5)[0].nErrorStart);
+    assertEquals(3, readCache.getMatches(3)[0].nErrorStart);
+
+    // a changed header needs the file to be rewritten, a changed document cache is appended:
+    CacheFileStore.Header otherHeader = new CacheFileStore.Header("5.4", HEADER.disabledRuleIds, HEADER.disabledCategories, HEADER.enabledRuleIds);
+    assertFalse(store.write(otherHeader, docCache, Collections.singletonList(readCache)));
+    assertEquals("5.4", new CacheFileStore(file).read().ltVersion);
+    assertTrue(store.write(otherHeader, docCache("other"), Collections.singletonList(readCache)));
+    store.close();
+    store = new CacheFileStore(file);
+    store.read();
+    assertEquals(1, store.readDocumentCache().size());
+    assertEquals(19, store.readResultCaches().get(0).getNumberOfParas());
+    store.close();
+  }
+
+  @Test
+  public void testRewriteUnusedSections() throws Exception {
+    ResultCache cache = new ResultCache();
+    for (int i = 0; i < 10; i++) {
+      cache.put(i, new SingleProofreadingError[] { error(i) });
+    }
+    DocumentCache docCache = docCache("first");
+    CacheFileStore store = new CacheFileStore(file);
+    store.write(HEADER, docCache, Collections.singletonList(cache));
+    long length = Files.size(file);
+    int rewritten = 0;
+    for (int n = 0; n < 10; n++) {
+      for (int i = 0; i < 10; i++) {
+        cache.put(i, new SingleProofreadingError[] { error(i + n) });
+      }
+      if (!store.write(HEADER, docCache, Collections.singletonList(cache))) {
+        rewritten++;
+      }
+      assertTrue(Files.size(file) < 3 * length);
+    }
+    assertTrue(rewritten > 0);
+    assertEquals(9, cache.getMatches(0)[0].nErrorStart);
+    store.close();
+  }
+
+  @Test
+  public void testDamagedRecord() throws Exception {
+    ResultCache cache = new ResultCache();
+    cache.put(1, new SingleProofreadingError[] { error(1) });
+    cache.put(2, new SingleProofreadingError[] { error(2) });
+    new CacheFileStore(file).write(HEADER, docCache("first"), Collections.singletonList(cache));
+    CacheFileStore store = new CacheFileStore(file);
+    store.read();
+    ResultCache readCache = store.readResultCaches().get(0);
+    CacheFileStore.Record record = readCache.getEntries().get(2).getRecord(store);
+    store.close();
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.seek(record.offset);
+      raf.write(~raf.read());
+    }
+    // unchanged entries of a copy are compared without reading them:
+    assertTrue(new ResultCache(readCache).differenceInCaches(readCache).isEmpty());
+    assertTrue(readCache.hasEntry(2));    // not read yet
+    assertEquals(0, readCache.getStartSentencePosition(2, 5));
+    assertFalse(readCache.hasEntry(2));
+    assertEquals(1, readCache.getMatches(1)[0].nErrorStart);
+    assertNull(readCache.getMatches(2));
+    assertEquals(0, readCache.getNextSentencePosition(2, 5));
+    assertEquals(Collections.singletonList(1), readCache.getParagraphNumbers());
+    store.close();
+  }
+
+  private static SingleProofreadingError error(int start) {
+    SingleProofreadingError error = new SingleProofreadingError();
+    error.nErrorStart = start;
+    error.nErrorLength = 1;
+    error.aRuleIdentifier = "RULE_" + start;
+    error.aSuggestions = new String[0];
+    error.aProperties = new PropertyValue[0];
+    return error;
+  }
+
+  private static DocumentCache docCache(String... paragraphs) {
+    List<String> paraList = Arrays.asList(paragraphs);
+    return new DocumentCache(paraList, paraList, null, new Locale("en", "US", ""));
+  }
+
+}
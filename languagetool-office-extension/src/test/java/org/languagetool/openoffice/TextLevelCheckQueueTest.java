@@ -0,0 +1,146 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.openoffice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.languagetool.openoffice.TextLevelCheckQueue.QueueEntry;
+
+import static org.junit.Assert.*;
+
+public class TextLevelCheckQueueTest {
+
+  @Test
+  public void testSupersededEntriesAreRemoved() {
+    TextLevelCheckQueue queue = new TextLevelCheckQueue(null, 0);
+    queue.addQueueEntry(2, 4, 0, 1, "doc", false);
+    queue.addQueueEntry(3, 4, 0, 1, "doc", true);
+    queue.addQueueEntry(12, 14, 0, 1, "doc", false);
+    queue.addQueueEntry(5, 6, 1, 1, "doc", false);   //  other cache
+    queue.addQueueEntry(0, 10, 0, 1, "doc", false);
+    List<QueueEntry> entries = takeAll(queue);
+    assertEquals(3, entries.size());
+    //  without focus, the oldest entry comes first
+    assertEntry(entries.get(0), 12, 14, 0, "doc");
+    assertEntry(entries.get(1), 5, 6, 1, "doc");
+    assertEntry(entries.get(2), 0, 10, 0, "doc");
+    assertTrue(entries.get(2).overrideRunning);   //  taken over from the removed entry
+    assertFalse(entries.get(0).overrideRunning);
+  }
+
+  @Test
+  public void testEntriesNearestToFocusFirst() {
+    TextLevelCheckQueue queue = new TextLevelCheckQueue(null, 0);
+    queue.addQueueEntry(0, 1, 0, 1, "other", false);
+    queue.addQueueEntry(0, 2, 0, 1, "doc", false);
+    queue.addQueueEntry(12, 13, 0, 1, "doc", false);
+    queue.addQueueEntry(8, 9, 0, 1, "doc", false);
+    queue.addQueueEntry(3, 4, 0, 1, "other", false);
+    queue.setFocus("doc", 10);
+    List<QueueEntry> entries = takeAll(queue);
+    assertEquals(5, entries.size());
+    assertEntry(entries.get(0), 8, 9, 0, "doc");
+    assertEntry(entries.get(1), 12, 13, 0, "doc");
+    assertEntry(entries.get(2), 0, 2, 0, "doc");
+    assertEntry(entries.get(3), 0, 1, 0, "other");
+    assertEntry(entries.get(4), 3, 4, 0, "other");
+  }
+
+  @Test
+  public void testInterruptWaitsForRunningCheck() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    AtomicBoolean finished = new AtomicBoolean();
+    TextLevelCheckQueue queue = new TextLevelCheckQueue(null, 1) {
+      @Override
+      void runQueueEntry(QueueIterator queueIterator, QueueEntry queueEntry) {
+        started.countDown();
+        waitForInterrupt(this, queueEntry.docId);
+        finished.set(true);
+      }
+    };
+    try {
+      queue.addQueueEntry(0, 1, 0, 1, "doc", false);
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+      assertFalse(queue.isInterrupted("doc"));
+      queue.interruptCheck("doc");
+      assertTrue(finished.get());
+      assertFalse(queue.isInterrupted("doc"));
+    } finally {
+      queue.setStop();
+    }
+  }
+
+  @Test
+  public void testStopInterruptsRunningCheck() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch finished = new CountDownLatch(1);
+    TextLevelCheckQueue queue = new TextLevelCheckQueue(null, 1) {
+      @Override
+      void runQueueEntry(QueueIterator queueIterator, QueueEntry queueEntry) {
+        started.countDown();
+        waitForInterrupt(this, queueEntry.docId);
+        finished.countDown();
+      }
+    };
+    queue.addQueueEntry(0, 1, 0, 1, "doc", false);
+    queue.addQueueEntry(5, 6, 0, 1, "doc", false);
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    queue.setStop();
+    assertTrue(finished.await(10, TimeUnit.SECONDS));
+    for (int i = 0; i < 1000 && queue.isRunning(); i++) {
+      Thread.sleep(10);
+    }
+    assertFalse(queue.isRunning());
+    assertNull(queue.takeQueueEntry());   //  the waiting entry was removed
+  }
+
+  private static void waitForInterrupt(TextLevelCheckQueue queue, String docId) {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (!queue.isInterrupted(docId) && System.currentTimeMillis() < deadline) {
+      try {
+        Thread.sleep(1);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private static List<QueueEntry> takeAll(TextLevelCheckQueue queue) {
+    List<QueueEntry> entries = new ArrayList<>();
+    QueueEntry entry;
+    while ((entry = queue.takeQueueEntry()) != null) {
+      entries.add(entry);
+    }
+    return entries;
+  }
+
+  private static void assertEntry(QueueEntry entry, int nStart, int nEnd, int nCache, String docId) {
+    assertEquals(nStart, entry.nStart);
+    assertEquals(nEnd, entry.nEnd);
+    assertEquals(nCache, entry.nCache);
+    assertEquals(docId, entry.docId);
+  }
+
+}
@@ -31,8 +31,6 @@ import org.languagetool.markup.AnnotatedText;
 import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.CorrectExample;
 import org.languagetool.rules.IncorrectExample;
-import org.languagetool.rules.Rule;
-import org.languagetool.rules.TextLevelRule;
 
 import java.io.IOException;
 import java.io.StringWriter;
@@ -51,6 +49,9 @@ class ApiV2 {
   private static final String TEXT_CONTENT_TYPE = "text/plain";
   private static final String ENCODING = "UTF-8";
 
+  // languages are only added at startup, so the response can usually be re-used:
+  private static volatile LanguagesResponse languagesResponse;
+
   private final TextChecker textChecker;
   private final String allowOriginUrl;
   private final JsonFactory factory = new JsonFactory();
@@ -183,20 +184,11 @@ class ApiV2 {
       throw new IllegalArgumentException("'ruleId' parameter missing");
     }
     Language lang = Languages.getLanguageForShortCode(params.get("lang"));
-    JLanguageTool lt = new JLanguageTool(lang);
-    if (textChecker.config.languageModelDir != null) {
-      lt.activateLanguageModelRules(textChecker.config.languageModelDir);
-    }
-    List<Rule> rules = lt.getAllRules();
-    List<Rule> foundRules = new ArrayList<>();
-    for (Rule rule : rules) {
-      if (rule.getId().equals(params.get("ruleId"))) {
-        foundRules.add(rule);
-      }
-    }
+    RuleMetadataIndex.LanguageRules rules = textChecker.ruleMetadataIndex.get(lang);
+    List<RuleMetadataIndex.RuleMetadata> foundRules = rules.getRules(params.get("ruleId"));
     if (foundRules.isEmpty()) {
       throw new PathNotFoundException("Rule '" + params.get("ruleId") + "' not found for language " + lang +
-              " (LanguageTool version/date: " + JLanguageTool.VERSION + "/" + JLanguageTool.BUILD_DATE + ", total rules of language: " + rules.size() + ")");
+              " (LanguageTool version/date: " + JLanguageTool.VERSION + "/" + JLanguageTool.BUILD_DATE + ", total rules of language: " + rules.getRules().size() + ")");
     }
     StringWriter sw = new StringWriter();
     try (JsonGenerator g = factory.createGenerator(sw)) {
@@ -205,14 +197,14 @@ class ApiV2 {
       g.writeStartObject();
       g.writeStringField("warning", "*** This is not a public API - it may change anytime ***");
       g.writeEndObject();
-      for (Rule foundRule : foundRules) {
-        for (CorrectExample example : foundRule.getCorrectExamples()) {
+      for (RuleMetadataIndex.RuleMetadata foundRule : foundRules) {
+        for (CorrectExample example : foundRule.correctExamples) {
           g.writeStartObject();
           g.writeStringField("status", "correct");
           g.writeStringField("sentence", example.getExample());
           g.writeEndObject();
         }
-        for (IncorrectExample example : foundRule.getIncorrectExamples()) {
+        for (IncorrectExample example : foundRule.incorrectExamples) {
           g.writeStartObject();
           g.writeStringField("status", "incorrect");
           g.writeStringField("sentence", example.getExample());
@@ -346,10 +338,20 @@ class ApiV2 {
   }
 
   String getLanguages() throws IOException {
+    List<Language> languages = Languages.get();
+    LanguagesResponse response = languagesResponse;
+    if (response == null || !response.languages.equals(languages)) {
+      response = new LanguagesResponse(languages, getLanguagesJson(languages));
+      languagesResponse = response;
+    }
+    return response.json;
+  }
+
+  private String getLanguagesJson(List<Language> unsortedLanguages) throws IOException {
     StringWriter sw = new StringWriter();
     try (JsonGenerator g = factory.createGenerator(sw)) {
       g.writeStartArray();
-      List<Language> languages = new ArrayList<>(Languages.get());
+      List<Language> languages = new ArrayList<>(unsortedLanguages);
       languages.sort(Comparator.comparing(Language::getName));
       for (Language lang : languages) {
         g.writeStartObject();
@@ -381,14 +383,7 @@ class ApiV2 {
 
   String getConfigurationInfo(Language lang, HTTPServerConfig config) throws IOException {
     StringWriter sw = new StringWriter();
-    JLanguageTool lt = new JLanguageTool(lang);
-    if (textChecker.config.languageModelDir != null) {
-      lt.activateLanguageModelRules(textChecker.config.languageModelDir);
-    }
-    if (textChecker.config.word2vecModelDir != null) {
-      lt.activateWord2VecModelRules(textChecker.config.word2vecModelDir);
-    }
-    List<Rule> rules = lt.getAllRules();
+    List<RuleMetadataIndex.RuleMetadata> rules = textChecker.ruleMetadataIndex.get(lang).getRules();
     try (JsonGenerator g = factory.createGenerator(sw)) {
       g.writeStartObject();
 
@@ -404,35 +399,35 @@ class ApiV2 {
       g.writeEndObject();
 
       g.writeArrayFieldStart("rules");
-      for (Rule rule : rules) {
+      for (RuleMetadataIndex.RuleMetadata rule : rules) {
         g.writeStartObject();
-        g.writeStringField("ruleId", rule.getId());
-        g.writeStringField("description", rule.getDescription());
-        if(rule.isDictionaryBasedSpellingRule()) {
+        g.writeStringField("ruleId", rule.id);
+        g.writeStringField("description", rule.description);
+        if(rule.dictionaryBasedSpellingRule) {
           g.writeStringField("isDictionaryBasedSpellingRule", "yes");
         }
-        if(rule.isDefaultOff()) {
+        if(rule.defaultOff) {
           g.writeStringField("isDefaultOff", "yes");
         }
-        if(rule.isOfficeDefaultOff()) {
+        if(rule.officeDefaultOff) {
           g.writeStringField("isOfficeDefaultOff", "yes");
         }
-        if(rule.isOfficeDefaultOn()) {
+        if(rule.officeDefaultOn) {
           g.writeStringField("isOfficeDefaultOn", "yes");
         }
-        if(rule.hasConfigurableValue()) {
+        if(rule.configurableValue) {
           g.writeStringField("hasConfigurableValue", "yes");
-          g.writeStringField("configureText", rule.getConfigureText());
-          g.writeStringField("maxConfigurableValue", Integer.toString(rule.getMaxConfigurableValue()));
-          g.writeStringField("minConfigurableValue", Integer.toString(rule.getMinConfigurableValue()));
-          g.writeStringField("defaultValue", Integer.toString(rule.getDefaultValue()));
+          g.writeStringField("configureText", rule.configureText);
+          g.writeStringField("maxConfigurableValue", Integer.toString(rule.maxConfigurableValue));
+          g.writeStringField("minConfigurableValue", Integer.toString(rule.minConfigurableValue));
+          g.writeStringField("defaultValue", Integer.toString(rule.defaultValue));
         }
-        g.writeStringField("categoryId", rule.getCategory().getId().toString());
-        g.writeStringField("categoryName", rule.getCategory().getName());
-        g.writeStringField("locQualityIssueType", rule.getLocQualityIssueType().toString());
-        if(rule instanceof TextLevelRule) {
+        g.writeStringField("categoryId", rule.categoryId);
+        g.writeStringField("categoryName", rule.categoryName);
+        g.writeStringField("locQualityIssueType", rule.locQualityIssueType);
+        if(rule.textLevelRule) {
           g.writeStringField("isTextLevelRule", "yes");
-          g.writeStringField("minToCheckParagraph", Integer.toString(((TextLevelRule) rule).minToCheckParagraph()));
+          g.writeStringField("minToCheckParagraph", Integer.toString(rule.minToCheckParagraph));
         }
         g.writeEndObject();
       }
@@ -443,4 +438,13 @@ class ApiV2 {
     return sw.toString();
   }
 
+  private static class LanguagesResponse {
+    private final List<Language> languages;
+    private final String json;
+    private LanguagesResponse(List<Language> languages, String json) {
+      this.languages = languages;
+      this.json = json;
+    }
+  }
+
 }
@@ -83,7 +83,7 @@ class DatabaseAccess {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> ((PooledDataSource)sqlSessionFactory
           .getConfiguration().getEnvironment().getDataSource()).forceCloseAll()));
 
-        DatabaseLogger.init(sqlSessionFactory);
+        DatabaseLogger.init(sqlSessionFactory, config);
         if (!config.getDatabaseLogging()) {
           logger.info("dbLogging not set to true, turning off logging");
           DatabaseLogger.getInstance().disableLogging();
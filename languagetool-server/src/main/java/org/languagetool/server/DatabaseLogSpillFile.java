@@ -0,0 +1,223 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An append-only file for the log entries that don't fit into the queue of
+ * {@link DatabaseLogger}, so they can be written to the database later.
+ * Each entry is stored as its mybatis statement identifier and parameters.
+ * A replay keeps track of how far it got, so a replay that was interrupted
+ * continues after the last entry that was moved to the queue.
+ * @since 5.3
+ */
+class DatabaseLogSpillFile {
+
+  private final File file;
+  private final File replayFile;
+  private final File offsetFile;
+  private DataOutputStream out;
+  private long size;
+
+  DatabaseLogSpillFile(File file) {
+    this.file = file;
+    this.replayFile = new File(file.getPath() + ".replay");
+    this.offsetFile = new File(file.getPath() + ".replay.offset");
+    this.size = removeIncompleteEntry(file);
+  }
+
+  /**
+   * Remove an incomplete entry at the end of the file, left when the server was stopped
+   * while writing it, so new entries are not appended after it.
+   * @return the length of the file
+   */
+  private static long removeIncompleteEntry(File file) {
+    if (!file.exists()) {
+      return 0;
+    }
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      long length = raf.length();
+      long position = 0;
+      while (length - position >= 4) {
+        raf.seek(position);
+        int entryLength = raf.readInt();
+        if (entryLength <= 0 || entryLength > length - position - 4) {
+          break;
+        }
+        position += entryLength + 4;
+      }
+      if (position < length) {
+        ServerTools.print("Removing incomplete log entry at the end of " + file + " (" + (length - position) + " bytes)");
+        raf.setLength(position);
+      }
+      return position;
+    } catch (IOException e) {
+      ServerTools.print("Could not check " + file + ": " + e);
+      return file.length();
+    }
+  }
+
+  /**
+   * @return false if the entry could not be written
+   */
+  synchronized boolean append(DatabaseLogEntry entry) {
+    try {
+      byte[] bytes = serialize(entry);
+      if (out == null) {
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+      }
+      out.writeInt(bytes.length);
+      out.write(bytes);
+      size += bytes.length + 4;
+      return true;
+    } catch (IOException e) {
+      ServerTools.print("Could not write log entry to " + file + ": " + e);
+      return false;
+    }
+  }
+
+  synchronized boolean isEmpty() {
+    return size == 0 && !replayFile.exists();
+  }
+
+  /**
+   * Read all entries written so far. New entries can be appended while
+   * the entries are being read. If the consumer gets interrupted, the next
+   * replay starts with the entry it was given last.
+   */
+  void replay(EntryConsumer consumer) throws IOException, InterruptedException {
+    synchronized (this) {
+      if (!replayFile.exists()) {  // otherwise a replay was interrupted, continue with that one first
+        if (out != null) {
+          out.close();
+          out = null;
+        }
+        if (!file.exists()) {
+          size = 0;
+          return;
+        }
+        Files.deleteIfExists(offsetFile.toPath());  // left over if the server was stopped right after a replay
+        Files.move(file.toPath(), replayFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        size = 0;
+      }
+    }
+    try (FileInputStream fileIn = new FileInputStream(replayFile);
+         RandomAccessFile offsetOut = new RandomAccessFile(offsetFile, "rw")) {
+      long offset = offsetOut.length() >= 8 ? offsetOut.readLong() : 0;
+      long length = fileIn.getChannel().size();
+      fileIn.getChannel().position(offset);
+      DataInputStream in = new DataInputStream(new BufferedInputStream(fileIn));
+      while (length - offset >= 4) {
+        int entryLength = in.readInt();
+        if (entryLength <= 0 || entryLength > length - offset - 4) {
+          // last entry incomplete because the server was stopped while writing it, or the file is damaged:
+          ServerTools.print("Ignoring unreadable log entries at the end of " + replayFile + " (" + (length - offset) + " bytes)");
+          break;
+        }
+        byte[] bytes = new byte[entryLength];
+        in.readFully(bytes);
+        DatabaseLogEntry entry;
+        try {
+          entry = deserialize(bytes);
+        } catch (IOException e) {
+          ServerTools.print("Skipping log entry that could not be read from " + replayFile + ": " + e);
+          entry = null;
+        }
+        if (entry != null) {
+          consumer.accept(entry);
+        }
+        offset += bytes.length + 4;
+        offsetOut.seek(0);
+        offsetOut.writeLong(offset);
+      }
+    }
+    Files.delete(replayFile.toPath());
+    Files.delete(offsetFile.toPath());
+  }
+
+  synchronized void flush() {
+    if (out != null) {
+      try {
+        out.flush();
+      } catch (IOException e) {
+        ServerTools.print("Could not flush " + file + ": " + e);
+      }
+    }
+  }
+
+  private static byte[] serialize(DatabaseLogEntry entry) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(new SpilledLogEntry(entry));
+    }
+    return bytes.toByteArray();
+  }
+
+  private static DatabaseLogEntry deserialize(byte[] bytes) throws IOException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return (DatabaseLogEntry) in.readObject();
+    } catch (ClassNotFoundException e) {
+      throw new IOException(e);
+    }
+  }
+
+  interface EntryConsumer {
+    void accept(DatabaseLogEntry entry) throws InterruptedException;
+  }
+
+  private static class SpilledLogEntry extends DatabaseLogEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String mappingIdentifier;
+    private final HashMap<Object, Object> mapping;
+    private final SpilledLogEntry followup;
+
+    SpilledLogEntry(DatabaseLogEntry entry) {
+      mappingIdentifier = entry.getMappingIdentifier();
+      mapping = new HashMap<>(entry.getMapping());
+      DatabaseLogEntry followupEntry = entry.followup();
+      followup = followupEntry != null ? new SpilledLogEntry(followupEntry) : null;
+    }
+
+    @Override
+    public Map<Object, Object> getMapping() {
+      return mapping;
+    }
+
+    @Override
+    public String getMappingIdentifier() {
+      return mappingIdentifier;
+    }
+
+    @Nullable
+    @Override
+    public DatabaseLogEntry followup() {
+      return followup;
+    }
+  }
+
+}
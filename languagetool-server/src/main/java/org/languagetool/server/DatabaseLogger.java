@@ -25,15 +25,33 @@ import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Writes log entries to the database in the background. Entries are kept in a queue
+ * of limited size, what happens when it's full depends on the {@link OverflowPolicy}.
  * @since 4.3
  */
 class DatabaseLogger {
 
+  /**
+   * What to do with new entries when the queue is full.
+   * @since 5.3
+   */
+  enum OverflowPolicy {
+    /** discard new entries */
+    DROP,
+    /** when the queue is 3/4 full, keep only one of {@link #SAMPLE_RATE} new entries, discard them if it's full */
+    SAMPLE,
+    /** write new entries to a local file, they get added to the database when the queue is less busy */
+    SPILL
+  }
+
   // package private for mocking in tests
   static DatabaseLogger instance = null;
 
@@ -41,8 +59,9 @@ class DatabaseLogger {
   static final int POLLING_TIME = 1000;
   static int SQL_BATCH_SIZE = 1000;
   static int SQL_BATCH_WAITING_TIME = 10000; // milliseconds to wait until batch gets committed anyway
-  
-  private static final int MAX_QUEUE_SIZE = 50000; // drop entries after limit is reached, to avoid running out of memory
+
+  static final int DEFAULT_QUEUE_SIZE = 50000; // drop entries after limit is reached, to avoid running out of memory
+  static final int SAMPLE_RATE = 10;
 
   /**
    * @return an instance that will be disabled until initialized by DatabaseAccess
@@ -58,11 +77,16 @@ class DatabaseLogger {
    * called by DatabaseAccess.init
    * @param factory shared factory from DatabaseAccess
    */
-  static void init(SqlSessionFactory factory) {
-    getInstance().start(factory);
+  static void init(SqlSessionFactory factory, HTTPServerConfig config) {
+    getInstance().start(factory, config);
   }
 
   private class WorkerThread extends Thread {
+    private final int number;
+    WorkerThread(int number) {
+      super("database-logger-" + number);
+      this.number = number;
+    }
     @Override
     public void run() {
       try (SqlSession session = sessionFactory.openSession(ExecutorType.BATCH, false)) {
@@ -73,9 +97,6 @@ class DatabaseLogger {
           while(!Thread.currentThread().isInterrupted()
             && batchSize < SQL_BATCH_SIZE
             && System.currentTimeMillis() - batchTime < SQL_BATCH_WAITING_TIME)  {
-            if (messages.size() > SQL_BATCH_SIZE) {
-              ServerTools.print(String.format("Logging queue filling up: %d entries", messages.size()));
-            }
             // polling to be able to react when waiting time has elapsed
             DatabaseLogEntry entry = messages.poll(POLLING_TIME, TimeUnit.MILLISECONDS);
             if (entry == null) {
@@ -94,32 +115,109 @@ class DatabaseLogger {
       } catch (Exception e) {
         e.printStackTrace();
         if (!Thread.currentThread().isInterrupted()) {
-          new WorkerThread().start();
+          replaceThread(this, new WorkerThread(number));
         }
       }
     }
   }
 
-  private final BlockingQueue<DatabaseLogEntry> messages = new LinkedBlockingQueue<>();
+  /**
+   * Moves entries from the spill file back to the queue when the queue is less than half full.
+   */
+  private class ReplayThread extends Thread {
+    ReplayThread() {
+      super("database-logger-replay");
+    }
+    @Override
+    public void run() {
+      try {
+        while (!Thread.currentThread().isInterrupted()) {
+          Thread.sleep(POLLING_TIME);
+          spillFile.flush();
+          if (!spillFile.isEmpty() && messages.size() < capacity / 2) {
+            ServerTools.print("Moving logging entries from " + config.getDatabaseLogSpillFile() + " back to the queue");
+            spillFile.replay(messages::put);
+          }
+        }
+      } catch (InterruptedException ignored) {
+      } catch (Exception e) {
+        e.printStackTrace();
+        if (!Thread.currentThread().isInterrupted()) {
+          replaceThread(this, new ReplayThread());
+        }
+      }
+    }
+  }
+
+  private final List<Thread> workers = new ArrayList<>();
+  private final AtomicLong sampleCounter = new AtomicLong();
+  private final AtomicLong discardedCount = new AtomicLong();
+  private BlockingQueue<DatabaseLogEntry> messages = new ArrayBlockingQueue<>(DEFAULT_QUEUE_SIZE);
+  private int capacity = DEFAULT_QUEUE_SIZE;
+  private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+  private DatabaseLogSpillFile spillFile;
+  private HTTPServerConfig config;
   private SqlSessionFactory sessionFactory = null;
-  private WorkerThread worker = null;
-  private boolean disabled = true;
+  private volatile boolean disabled = true;
 
   private DatabaseLogger() {
   }
 
-  private void start(SqlSessionFactory factory) {
-    sessionFactory = factory;
-    disabled = false;
-    worker = new WorkerThread();
-    worker.start();
+  /**
+   * For tests: a logger that only queues the entries, nothing is written to a database.
+   * @param overflowPolicy {@code DROP} or {@code SAMPLE}
+   */
+  DatabaseLogger(int capacity, OverflowPolicy overflowPolicy) {
+    if (overflowPolicy == OverflowPolicy.SPILL) {
+      throw new IllegalArgumentException("Spilling needs a running logger: " + overflowPolicy);
+    }
+    this.capacity = capacity;
+    this.messages = new ArrayBlockingQueue<>(capacity);
+    this.overflowPolicy = overflowPolicy;
+    this.disabled = false;
+  }
+
+  private void start(SqlSessionFactory factory, HTTPServerConfig config) {
+    this.sessionFactory = factory;
+    this.config = config;
+    this.capacity = config.getDatabaseLogQueueSize();
+    this.messages = new ArrayBlockingQueue<>(capacity);
+    this.overflowPolicy = config.getDatabaseLogOverflowPolicy();
+    if (overflowPolicy == OverflowPolicy.SPILL) {
+      spillFile = new DatabaseLogSpillFile(config.getDatabaseLogSpillFile());
+      startThread(new ReplayThread());
+    }
+    for (int i = 0; i < config.getDatabaseLogWriters(); i++) {
+      startThread(new WorkerThread(i));
+    }
+    disabled = false;  // volatile, so log() sees the fields set above
+  }
+
+  private synchronized void startThread(Thread thread) {
+    workers.add(thread);
+    thread.start();
+  }
+
+  /**
+   * Start {@code newThread} in place of {@code deadThread}, unless logging has been disabled in the meantime.
+   */
+  private synchronized void replaceThread(Thread deadThread, Thread newThread) {
+    int index = workers.indexOf(deadThread);
+    if (index >= 0) {
+      workers.set(index, newThread);
+      newThread.start();
+    }
   }
 
-  public void disableLogging() {
+  public synchronized void disableLogging() {
     this.disabled = true;
-    if (worker != null) {
+    for (Thread worker : workers) {
       worker.interrupt();
     }
+    workers.clear();
+    if (spillFile != null) {
+      spillFile.flush();
+    }
   }
 
   public boolean isLogging() {
@@ -127,16 +225,35 @@ class DatabaseLogger {
   }
 
   public void log(DatabaseLogEntry entry) {
-    try {
-      if (!disabled) {
-        if (messages.size() < MAX_QUEUE_SIZE) {
-          messages.put(entry);
-        } else {
-          ServerTools.print("Logging queue has reached size limit; discarding new messages.");
-        }
+    if (disabled) {
+      return;
+    }
+    if (overflowPolicy == OverflowPolicy.SAMPLE && messages.size() >= capacity / 4 * 3
+        && sampleCounter.incrementAndGet() % SAMPLE_RATE != 0) {
+      discard();
+      return;
+    }
+    if (!messages.offer(entry)) {
+      if (overflowPolicy == OverflowPolicy.SPILL && spillFile.append(entry)) {
+        return;
       }
-    } catch (InterruptedException e) {
-      e.printStackTrace();
+      discard();
+    }
+  }
+
+  int getQueueSize() {
+    return messages.size();
+  }
+
+  long getDiscardedCount() {
+    return discardedCount.get();
+  }
+
+  private void discard() {
+    // don't print for every entry, as this happens when the server is busy anyway:
+    if (discardedCount.getAndIncrement() % 1000 == 0) {
+      ServerTools.print(String.format("Logging queue is full (%d entries), discarding new messages (%d so far)",
+        messages.size(), discardedCount.get()));
     }
   }
 
@@ -22,21 +22,48 @@
 package org.languagetool.server;
 
 import org.apache.commons.lang3.StringUtils;
+import org.languagetool.rules.RuleMatch;
 import org.languagetool.tools.StringTools;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 
+/**
+ * The rule matches of a check, pre-aggregated to one row per rule with the number of its matches.
+ */
 class DatabaseRuleMatchLogEntry extends DatabaseLogEntry {
   private final List<RuleMatchInfo> matches = new ArrayList<>();
 
+  /**
+   * @param matchCounts number of matches per rule id; ids that are the same after being
+   *                    abbreviated to the column size are counted together
+   */
   DatabaseRuleMatchLogEntry(Map<String, Integer> matchCounts) {
+    Map<String, RuleMatchInfo> byRuleId = new LinkedHashMap<>();
     for (Map.Entry<String, Integer> match : matchCounts.entrySet()) {
-      matches.add(new RuleMatchInfo(match.getKey(), match.getValue()));
+      RuleMatchInfo info = new RuleMatchInfo(match.getKey(), match.getValue());
+      RuleMatchInfo sameRule = byRuleId.putIfAbsent(info.ruleId, info);
+      if (sameRule != null) {
+        sameRule.matchCount += info.matchCount;
+      }
+    }
+    matches.addAll(byRuleId.values());
+  }
+
+  /**
+   * @since 5.3
+   */
+  static DatabaseRuleMatchLogEntry countMatches(List<RuleMatch> ruleMatches) {
+    Map<String, Integer> matchCounts = new HashMap<>();
+    for (RuleMatch match : ruleMatches) {
+      matchCounts.merge(match.getRule().getId(), 1, Integer::sum);
     }
+    return new DatabaseRuleMatchLogEntry(matchCounts);
   }
 
   public int getMatchCount() {
@@ -55,7 +82,8 @@ class DatabaseRuleMatchLogEntry extends DatabaseLogEntry {
     return "org.languagetool.server.LogMapper.ruleMatch";
   }
 
-  static class RuleMatchInfo {
+  static class RuleMatchInfo implements Serializable {  // for DatabaseLogSpillFile
+    private static final long serialVersionUID = 1L;
     String ruleId;
     int matchCount;
 
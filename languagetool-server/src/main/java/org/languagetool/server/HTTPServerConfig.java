@@ -85,6 +85,9 @@ public class HTTPServerConfig {
   protected File remoteRulesConfigFile = null;
   protected int cacheSize = 0;
   protected long cacheTTLSeconds = 300;
+  protected int cacheMaxMemoryMB = 0;
+  protected File cacheDiskFile = null;
+  protected int cacheDiskSizeMB = 256;
   protected float maxErrorsPerWordRate = 0;
   protected int maxSpellingSuggestions = 0;
   protected List<String> blockedReferrers = new ArrayList<>();
@@ -98,6 +101,10 @@ public class HTTPServerConfig {
   protected String dbUsername = null;
   protected String dbPassword = null;
   protected boolean dbLogging;
+  protected int dbLogQueueSize = DatabaseLogger.DEFAULT_QUEUE_SIZE;
+  protected DatabaseLogger.OverflowPolicy dbLogOverflow = DatabaseLogger.OverflowPolicy.DROP;
+  protected File dbLogSpillFile = null;
+  protected int dbLogWriters = 1;
   protected boolean prometheusMonitoring = false;
   protected int prometheusPort = 9301;
   protected GlobalConfig globalConfig = new GlobalConfig();
@@ -115,7 +122,7 @@ public class HTTPServerConfig {
   protected File ngramLangIdentData;
 
   private static final List<String> KNOWN_OPTION_KEYS = Arrays.asList("abTest", "abTestClients", "abTestRollout",
-    "beolingusFile", "blockedReferrers", "cacheSize", "cacheTTLSeconds",
+    "beolingusFile", "blockedReferrers", "cacheSize", "cacheTTLSeconds", "cacheMaxMemoryMB", "cacheDiskFile", "cacheDiskSizeMB",
     "dbDriver", "dbPassword", "dbUrl", "dbUsername", "disabledRuleIds", "fasttextBinary", "fasttextModel", "grammalectePassword",
     "grammalecteServer", "grammalecteUser", "hiddenMatchesLanguages", "hiddenMatchesServer", "hiddenMatchesServerFailTimeout",
     "hiddenMatchesServerTimeout", "hiddenMatchesServerFall", "ipFingerprintFactor", "languageModel", "maxCheckThreads", "maxCheckTimeMillis",
@@ -127,7 +134,7 @@ public class HTTPServerConfig {
     "skipLoggingChecks", "skipLoggingRuleMatches", "timeoutRequestLimit", "trustXForwardForHeader", "warmUp", "word2vecModel",
     "keystore", "password", "maxTextLengthPremium", "maxTextLengthAnonymous", "maxTextLengthLoggedIn", "gracefulDatabaseFailure",
     "ngramLangIdentData",
-    "redisPassword", "redisHost", "dbLogging", "premiumOnly");
+    "redisPassword", "redisHost", "dbLogging", "premiumOnly", "dbLogQueueSize", "dbLogOverflow", "dbLogSpillFile", "dbLogWriters");
 
   /**
    * Create a server configuration for the default port ({@link #DEFAULT_PORT}).
@@ -282,10 +289,29 @@ public class HTTPServerConfig {
         if (cacheSize < 0) {
           throw new IllegalArgumentException("Invalid value for cacheSize: " + cacheSize + ", use 0 to deactivate cache");
         }
-        if (props.containsKey("cacheTTLSeconds") && !props.containsKey("cacheSize")) {
+        cacheMaxMemoryMB = Integer.parseInt(getOptionalProperty(props, "cacheMaxMemoryMB", "0"));
+        if (cacheMaxMemoryMB < 0) {
+          throw new IllegalArgumentException("Invalid value for cacheMaxMemoryMB: " + cacheMaxMemoryMB + ", use 0 to deactivate");
+        }
+        if (props.containsKey("cacheSize") && props.containsKey("cacheMaxMemoryMB")) {
+          throw new IllegalArgumentException("Use either cacheSize or cacheMaxMemoryMB, not both.");
+        }
+        boolean hasCache = props.containsKey("cacheSize") || props.containsKey("cacheMaxMemoryMB");
+        if (props.containsKey("cacheTTLSeconds") && !hasCache) {
           throw new IllegalArgumentException("Use of cacheTTLSeconds without also setting cacheSize has no effect.");
         }
         cacheTTLSeconds = Integer.parseInt(getOptionalProperty(props, "cacheTTLSeconds", "300"));
+        String cacheDiskFilePath = getOptionalProperty(props, "cacheDiskFile", null);
+        if (cacheDiskFilePath != null) {
+          if (!hasCache) {
+            throw new IllegalArgumentException("Use of cacheDiskFile without also setting cacheSize has no effect.");
+          }
+          cacheDiskFile = new File(cacheDiskFilePath);
+        }
+        cacheDiskSizeMB = Integer.parseInt(getOptionalProperty(props, "cacheDiskSizeMB", "256"));
+        if (cacheDiskSizeMB < 1 || cacheDiskSizeMB > 2047) {
+          throw new IllegalArgumentException("Invalid value for cacheDiskSizeMB, must be between 1 and 2047: " + cacheDiskSizeMB);
+        }
         if (props.containsKey("warmUp")) {
           System.err.println("Setting ignored: 'warmUp'. Look into using pipelineCaching and pipelinePrewarming instead.");
         }
@@ -314,6 +340,22 @@ public class HTTPServerConfig {
         if (dbLogging && (dbDriver == null || dbUrl == null || dbUsername == null || dbPassword == null)) {
           throw new IllegalArgumentException("dbLogging can only be true if dbDriver, dbUrl, dbUsername, and dbPassword are all set");
         }
+        dbLogQueueSize = Integer.parseInt(getOptionalProperty(props, "dbLogQueueSize", Integer.toString(DatabaseLogger.DEFAULT_QUEUE_SIZE)));
+        if (dbLogQueueSize < 1) {
+          throw new IllegalArgumentException("Invalid value for dbLogQueueSize, must be >= 1: " + dbLogQueueSize);
+        }
+        dbLogOverflow = DatabaseLogger.OverflowPolicy.valueOf(getOptionalProperty(props, "dbLogOverflow", "drop").trim().toUpperCase());
+        String spillFile = getOptionalProperty(props, "dbLogSpillFile", null);
+        if (spillFile != null) {
+          dbLogSpillFile = new File(spillFile);
+        }
+        if (dbLogOverflow == DatabaseLogger.OverflowPolicy.SPILL && dbLogSpillFile == null) {
+          throw new IllegalArgumentException("dbLogOverflow can only be 'spill' if dbLogSpillFile is set");
+        }
+        dbLogWriters = Integer.parseInt(getOptionalProperty(props, "dbLogWriters", "1"));
+        if (dbLogWriters < 1) {
+          throw new IllegalArgumentException("Invalid value for dbLogWriters, must be >= 1: " + dbLogWriters);
+        }
         slowRuleLoggingThreshold = Integer.valueOf(getOptionalProperty(props, "slowRuleLoggingThreshold", "-1"));
         disabledRuleIds = Arrays.asList(getOptionalProperty(props, "disabledRuleIds", "").split(",\\s*"));
         globalConfig.setGrammalecteServer(getOptionalProperty(props, "grammalecteServer", null));
@@ -771,6 +813,22 @@ public class HTTPServerConfig {
     this.cacheSize = sentenceCacheSize;
   }
 
+  /**
+   * Maximum heap memory for the cache (in megabytes), 0 if not set. If set, the cache
+   * evicts entries by their estimated size and cost to re-compute.
+   * @since 5.3
+   */
+  int getCacheMaxMemoryMB() {
+    return cacheMaxMemoryMB;
+  }
+
+  /**
+   * @since 5.3
+   */
+  void setCacheMaxMemoryMB(int cacheMaxMemoryMB) {
+    this.cacheMaxMemoryMB = cacheMaxMemoryMB;
+  }
+
   /**
    * Cache entry TTL; refreshed on access; in seconds
    * @since 4.6
@@ -787,6 +845,23 @@ public class HTTPServerConfig {
     this.cacheTTLSeconds = cacheTTLSeconds;
   }
 
+  /**
+   * File for the second-level cache that survives restarts, or {@code null}.
+   * @since 5.3
+   */
+  @Nullable
+  File getCacheDiskFile() {
+    return cacheDiskFile;
+  }
+
+  /**
+   * Maximum size of the second-level cache file, in megabytes.
+   * @since 5.3
+   */
+  int getCacheDiskSizeMB() {
+    return cacheDiskSizeMB;
+  }
+
   /**
    * Maximum errors per word rate, checking will stop if the rate is higher.
    * For example, with a rate of 0.33, the checking would stop if the user's
@@ -962,6 +1037,67 @@ public class HTTPServerConfig {
     return this.dbLogging;
   }
 
+  /**
+   * @return maximum number of log entries waiting to be written to the database
+   * @since 5.3
+   */
+  int getDatabaseLogQueueSize() {
+    return dbLogQueueSize;
+  }
+
+  /**
+   * @since 5.3
+   */
+  void setDatabaseLogQueueSize(int size) {
+    this.dbLogQueueSize = size;
+  }
+
+  /**
+   * @return what to do with new log entries when the queue is full
+   * @since 5.3
+   */
+  DatabaseLogger.OverflowPolicy getDatabaseLogOverflowPolicy() {
+    return dbLogOverflow;
+  }
+
+  /**
+   * @since 5.3
+   */
+  void setDatabaseLogOverflowPolicy(DatabaseLogger.OverflowPolicy policy) {
+    this.dbLogOverflow = policy;
+  }
+
+  /**
+   * @return file for log entries that don't fit into the queue, used with {@link DatabaseLogger.OverflowPolicy#SPILL}
+   * @since 5.3
+   */
+  @Nullable
+  File getDatabaseLogSpillFile() {
+    return dbLogSpillFile;
+  }
+
+  /**
+   * @since 5.3
+   */
+  void setDatabaseLogSpillFile(File file) {
+    this.dbLogSpillFile = file;
+  }
+
+  /**
+   * @return number of threads writing log entries to the database, each with its own connection
+   * @since 5.3
+   */
+  int getDatabaseLogWriters() {
+    return dbLogWriters;
+  }
+
+  /**
+   * @since 5.3
+   */
+  void setDatabaseLogWriters(int writers) {
+    this.dbLogWriters = writers;
+  }
+
 
   /**
    * @since 4.6
@@ -0,0 +1,174 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.RuleMatchListener;
+import org.languagetool.rules.RuleMatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Lets identical checks that run at the same time share one check: the first request
+ * for a key starts the check, later requests for the same key wait for its result
+ * instead of starting their own. Each request waits with its own timeout. The shared
+ * check is only cancelled when all requests waiting for it have given up.
+ * A check is forgotten as soon as it is done, so this is not a cache.
+ * @since 5.3
+ */
+class InFlightChecks {
+
+  interface Check {
+    List<RuleMatch> run(RuleMatchListener listener) throws Exception;
+  }
+
+  private final ConcurrentMap<Object, SharedCheck> checks = new ConcurrentHashMap<>();
+  private final ExecutorService executorService;
+
+  InFlightChecks(ExecutorService executorService) {
+    this.executorService = executorService;
+  }
+
+  /**
+   * Start {@code check} for {@code key}, or join the check for an equal key if one is running.
+   * @param key must implement {@code equals()} and {@code hashCode()} over everything that influences the result
+   */
+  Handle submit(Object key, Check check) {
+    while (true) {
+      SharedCheck running = checks.get(key);
+      if (running == null) {
+        SharedCheck newCheck = new SharedCheck(key, check);
+        running = checks.putIfAbsent(key, newCheck);
+        if (running == null) {
+          newCheck.join();
+          executorService.execute(newCheck);
+          return new Handle(newCheck, false);
+        }
+      }
+      if (running.join()) {
+        return new Handle(running, true);
+      }
+      checks.remove(key, running);  // all its requests have given up, so it's being cancelled
+    }
+  }
+
+  /**
+   * Number of checks currently running.
+   */
+  int size() {
+    return checks.size();
+  }
+
+  /**
+   * One request's view of a (possibly shared) check.
+   */
+  static class Handle {
+
+    private final SharedCheck check;
+    private final boolean shared;
+    private boolean left;
+
+    private Handle(SharedCheck check, boolean shared) {
+      this.check = check;
+      this.shared = shared;
+    }
+
+    /**
+     * Whether this request joined a check started by another request.
+     */
+    boolean isShared() {
+      return shared;
+    }
+
+    List<RuleMatch> get() throws InterruptedException, ExecutionException {
+      return new ArrayList<>(check.get());
+    }
+
+    List<RuleMatch> get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+      return new ArrayList<>(check.get(timeout, unit));
+    }
+
+    /**
+     * The matches the check has found so far, for incomplete results.
+     */
+    List<RuleMatch> getMatchesSoFar() {
+      synchronized (check.matchesSoFar) {
+        return new ArrayList<>(check.matchesSoFar);
+      }
+    }
+
+    /**
+     * Stop waiting for the check. The check gets cancelled if no other request waits for it.
+     * @return true if the check has been cancelled
+     */
+    boolean cancel() {
+      if (left) {
+        return check.isCancelled();
+      }
+      left = true;
+      return check.leave();
+    }
+  }
+
+  private class SharedCheck extends FutureTask<List<RuleMatch>> {
+
+    private final Object key;
+    private final List<RuleMatch> matchesSoFar;
+    private int waiting;  // guarded by this
+    private boolean abandoned;  // guarded by this
+
+    SharedCheck(Object key, Check check) {
+      this(key, check, Collections.synchronizedList(new ArrayList<>()));
+    }
+
+    private SharedCheck(Object key, Check check, List<RuleMatch> matchesSoFar) {
+      super(() -> check.run(matchesSoFar::add));
+      this.key = key;
+      this.matchesSoFar = matchesSoFar;
+    }
+
+    synchronized boolean join() {
+      if (abandoned) {
+        return false;
+      }
+      waiting++;
+      return true;
+    }
+
+    boolean leave() {
+      synchronized (this) {
+        waiting--;
+        if (waiting > 0 || isDone()) {
+          return false;
+        }
+        abandoned = true;
+      }
+      checks.remove(key, this);
+      return cancel(true);
+    }
+
+    @Override
+    protected void done() {
+      checks.remove(key, this);
+    }
+  }
+
+}
@@ -0,0 +1,153 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.rules.CorrectExample;
+import org.languagetool.rules.IncorrectExample;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.TextLevelRule;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Descriptions, categories, examples etc. of the rules of a language, for the
+ * end points that only describe rules but don't check text. They are collected
+ * once per language on first use, so requests to these end points don't need
+ * to load all rules again.
+ * @since 5.3
+ */
+class RuleMetadataIndex {
+
+  private final HTTPServerConfig config;
+  private final Cache<String, LanguageRules> languageRules = CacheBuilder.newBuilder().build();
+
+  RuleMetadataIndex(HTTPServerConfig config) {
+    this.config = config;
+  }
+
+  LanguageRules get(Language lang) throws IOException {
+    try {
+      return languageRules.get(lang.getShortCodeWithCountryAndVariant(), () -> load(lang));
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new RuntimeException("Could not load rules for " + lang, e.getCause());
+    } catch (UncheckedExecutionException e) {
+      throw new RuntimeException("Could not load rules for " + lang, e.getCause());
+    }
+  }
+
+  private LanguageRules load(Language lang) throws IOException {
+    JLanguageTool lt = new JLanguageTool(lang);
+    if (config.languageModelDir != null) {
+      lt.activateLanguageModelRules(config.languageModelDir);
+    }
+    if (config.word2vecModelDir != null) {
+      lt.activateWord2VecModelRules(config.word2vecModelDir);
+    }
+    ImmutableList.Builder<RuleMetadata> rules = ImmutableList.builder();
+    for (Rule rule : lt.getAllRules()) {
+      rules.add(new RuleMetadata(rule));
+    }
+    return new LanguageRules(rules.build());
+  }
+
+  static class LanguageRules {
+
+    private final List<RuleMetadata> rules;
+    private final ImmutableListMultimap<String, RuleMetadata> rulesById;
+
+    private LanguageRules(ImmutableList<RuleMetadata> rules) {
+      this.rules = rules;
+      this.rulesById = Multimaps.index(rules, rule -> rule.id);
+    }
+
+    /**
+     * All rules, in the order of {@link JLanguageTool#getAllRules()}.
+     */
+    List<RuleMetadata> getRules() {
+      return rules;
+    }
+
+    /**
+     * Rules with the given id (there can be more than one, e.g. for rule groups).
+     */
+    List<RuleMetadata> getRules(String ruleId) {
+      return rulesById.get(ruleId);
+    }
+  }
+
+  /**
+   * A snapshot of the properties of a {@link Rule} that the API reports.
+   */
+  static class RuleMetadata {
+
+    final String id;
+    final String description;
+    final boolean dictionaryBasedSpellingRule;
+    final boolean defaultOff;
+    final boolean officeDefaultOff;
+    final boolean officeDefaultOn;
+    final boolean configurableValue;
+    final String configureText;
+    final int minConfigurableValue;
+    final int maxConfigurableValue;
+    final int defaultValue;
+    final String categoryId;
+    final String categoryName;
+    final String locQualityIssueType;
+    final boolean textLevelRule;
+    final int minToCheckParagraph;
+    final List<CorrectExample> correctExamples;
+    final List<IncorrectExample> incorrectExamples;
+
+    private RuleMetadata(Rule rule) {
+      id = rule.getId();
+      description = rule.getDescription();
+      dictionaryBasedSpellingRule = rule.isDictionaryBasedSpellingRule();
+      defaultOff = rule.isDefaultOff();
+      officeDefaultOff = rule.isOfficeDefaultOff();
+      officeDefaultOn = rule.isOfficeDefaultOn();
+      configurableValue = rule.hasConfigurableValue();
+      configureText = configurableValue ? rule.getConfigureText() : null;
+      minConfigurableValue = configurableValue ? rule.getMinConfigurableValue() : 0;
+      maxConfigurableValue = configurableValue ? rule.getMaxConfigurableValue() : 0;
+      defaultValue = configurableValue ? rule.getDefaultValue() : 0;
+      categoryId = rule.getCategory().getId().toString();
+      categoryName = rule.getCategory().getName();
+      locQualityIssueType = rule.getLocQualityIssueType().toString();
+      textLevelRule = rule instanceof TextLevelRule;
+      minToCheckParagraph = textLevelRule ? ((TextLevelRule) rule).minToCheckParagraph() : 0;
+      correctExamples = ImmutableList.copyOf(rule.getCorrectExamples());
+      incorrectExamples = ImmutableList.copyOf(rule.getIncorrectExamples());
+    }
+  }
+
+}
@@ -126,7 +126,12 @@ abstract class Server {
                        "                                            affects Hunspell-based languages only)");
     System.out.println("                 'maxCheckThreads' - maximum number of threads working in parallel (optional)");
     System.out.println("                 'cacheSize' - size of internal cache in number of sentences (optional, default: 0)");
-    System.out.println("                 'cacheTTLSeconds' - how many seconds sentences are kept in cache (optional, default: 300 if 'cacheSize' is set)");
+    System.out.println("                 'cacheMaxMemoryMB' - use a cache limited by its estimated memory use instead of 'cacheSize', preferring entries\n" +
+                       "                                    that are used often and are expensive to compute (optional)");
+    System.out.println("                 'cacheTTLSeconds' - how many seconds sentences are kept in cache (optional, default: 300 if 'cacheSize' or 'cacheMaxMemoryMB' is set)");
+    System.out.println("                 'cacheDiskFile' - file for a second-level cache that survives restarts and can be shared by several servers\n" +
+                       "                                   on the same host, requires 'cacheSize' or 'cacheMaxMemoryMB' (optional)");
+    System.out.println("                 'cacheDiskSizeMB' - maximum size of 'cacheDiskFile' in megabytes (optional, default: 256)");
     System.out.println("                 'requestLimit' - maximum number of requests per requestLimitPeriodInSeconds (optional)");
     System.out.println("                 'requestLimitInBytes' - maximum aggregated size of requests per requestLimitPeriodInSeconds (optional)");
     System.out.println("                 'timeoutRequestLimit' - maximum number of timeout request (optional)");
@@ -19,16 +19,25 @@
 package org.languagetool.server;
 
 import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import io.prometheus.client.Collector;
 import io.prometheus.client.Counter;
+import io.prometheus.client.CounterMetricFamily;
 import io.prometheus.client.Gauge;
+import io.prometheus.client.GaugeMetricFamily;
 import io.prometheus.client.Histogram;
 import io.prometheus.client.exporter.HTTPServer;
 import io.prometheus.client.guava.cache.CacheMetricsCollector;
 import io.prometheus.client.hotspot.DefaultExports;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
+import org.languagetool.ResultCache;
+import org.languagetool.rules.spelling.SpellingSuggestionCache;
+import org.languagetool.rules.spelling.SpellingVerdictCache;
 
 import java.io.IOException;
+import java.util.*;
+import java.util.function.LongSupplier;
 
 public class ServerMetricsCollector {
 
@@ -111,6 +120,17 @@ public class ServerMetricsCollector {
     .labelNames("status").register();
 
   private final CacheMetricsCollector cacheMetrics = new CacheMetricsCollector().register();
+  private final SpellingCacheCollector spellingCacheMetrics = new SpellingCacheCollector().register();
+
+  private final Gauge cacheBytes = Gauge
+    .build("languagetool_cache_bytes", "Estimated heap memory used by cache entries")
+    .labelNames("cache").register();
+  private final Gauge cacheEvictedBytes = Gauge
+    .build("languagetool_cache_evicted_bytes", "Estimated memory of cache entries evicted because the cache was full")
+    .labelNames("cache").register();
+  private final Gauge cacheRejected = Gauge
+    .build("languagetool_cache_rejected_total", "Entries not admitted to the cache because they were considered less valuable than existing ones")
+    .register();
 
 
   public static void init(int port) throws IOException {
@@ -130,6 +150,17 @@ public class ServerMetricsCollector {
     cacheMetrics.addCache(name, cache);
   }
 
+  /**
+   * Export byte-level metrics of a cache using {@link ResultCache.EvictionPolicy#COST_AWARE}.
+   */
+  public void monitorCacheBytes(ResultCache cache) {
+    cacheBytes.setChild(new CallbackGauge(cache::getMatchesCacheBytes), "languagetool_matches_cache");
+    cacheBytes.setChild(new CallbackGauge(cache::getSentenceCacheBytes), "languagetool_sentences_cache");
+    cacheEvictedBytes.setChild(new CallbackGauge(cache::getMatchesCacheEvictedBytes), "languagetool_matches_cache");
+    cacheEvictedBytes.setChild(new CallbackGauge(cache::getSentenceCacheEvictedBytes), "languagetool_sentences_cache");
+    cacheRejected.setChild(new CallbackGauge(cache::getRejectedCount));
+  }
+
   public void logHiddenServerConfiguration(boolean enabled) {
     hiddenMatchesServerEnabled.set(enabled ? 1.0 : 0.0);
   }
@@ -190,4 +221,58 @@ public class ServerMetricsCollector {
     failedHealthcheckCounter.inc();
   }
 
+  /**
+   * Exports the hits and misses of the {@link SpellingVerdictCache} and {@link SpellingSuggestionCache}
+   * of each language. The caches are created on demand, so we cannot simply use {@link CacheMetricsCollector}.
+   */
+  private static class SpellingCacheCollector extends Collector {
+    @Override
+    public List<MetricFamilySamples> collect() {
+      List<MetricFamilySamples> result = new ArrayList<>();
+      Map<String, CacheStats> verdictStats = new HashMap<>();
+      Map<String, Long> verdictSizes = new HashMap<>();
+      SpellingVerdictCache.getInstances().forEach((lang, cache) -> {
+        verdictStats.put(lang, cache.getStats());
+        verdictSizes.put(lang, cache.size());
+      });
+      addMetrics(result, "languagetool_spelling_verdict_cache", "spelling verdicts", verdictStats, verdictSizes);
+      Map<String, CacheStats> suggestionStats = new HashMap<>();
+      Map<String, Long> suggestionSizes = new HashMap<>();
+      SpellingSuggestionCache.getInstances().forEach((lang, cache) -> {
+        suggestionStats.put(lang, cache.getStats());
+        suggestionSizes.put(lang, cache.size());
+      });
+      addMetrics(result, "languagetool_spelling_suggestion_cache", "suggestions for misspellings", suggestionStats, suggestionSizes);
+      return result;
+    }
+
+    private static void addMetrics(List<MetricFamilySamples> result, String prefix, String what,
+                                   Map<String, CacheStats> stats, Map<String, Long> sizes) {
+      List<String> labels = Collections.singletonList("language");
+      CounterMetricFamily hits = new CounterMetricFamily(prefix + "_hit_total", "Lookups of " + what + " answered from the cache", labels);
+      CounterMetricFamily misses = new CounterMetricFamily(prefix + "_miss_total", "Lookups of " + what + " that needed to be computed", labels);
+      CounterMetricFamily evictions = new CounterMetricFamily(prefix + "_eviction_total", "Entries evicted from the cache of " + what, labels);
+      GaugeMetricFamily size = new GaugeMetricFamily(prefix + "_size", "Number of entries in the cache of " + what, labels);
+      for (Map.Entry<String, CacheStats> entry : stats.entrySet()) {
+        List<String> language = Collections.singletonList(entry.getKey());
+        hits.addMetric(language, entry.getValue().hitCount());
+        misses.addMetric(language, entry.getValue().missCount());
+        evictions.addMetric(language, entry.getValue().evictionCount());
+        size.addMetric(language, sizes.get(entry.getKey()));
+      }
+      result.addAll(Arrays.asList(hits, misses, evictions, size));
+    }
+  }
+
+  private static class CallbackGauge extends Gauge.Child {
+    private final LongSupplier supplier;
+    CallbackGauge(LongSupplier supplier) {
+      this.supplier = supplier;
+    }
+    @Override
+    public double get() {
+      return supplier.getAsLong();
+    }
+  }
+
 }
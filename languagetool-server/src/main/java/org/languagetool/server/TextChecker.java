@@ -92,6 +92,7 @@ abstract class TextChecker {
   private long hiddenMatchesServerFailures = 0;
   private final LanguageIdentifier fastTextIdentifier;
   private final ExecutorService executorService;
+  private final InFlightChecks inFlightChecks;
   private final ResultCache cache;
   private final DatabaseLogger databaseLogger;
   private final Long logServerId;
@@ -100,6 +101,7 @@ abstract class TextChecker {
   private long pingsCleanDateMillis = System.currentTimeMillis();
   private LanguageIdentifier ngramIdentifier = null;
   PipelinePool pipelinePool; // mocked in test -> package-private / not final
+  final RuleMetadataIndex ruleMetadataIndex;
 
   TextChecker(HTTPServerConfig config, boolean internalServer, Queue<Runnable> workQueue, RequestCounter reqCounter) {
     this.config = config;
@@ -112,8 +114,14 @@ abstract class TextChecker {
       this.ngramIdentifier.enableNgrams(config.getNgramLangIdentData());
     }
     this.executorService = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("lt-textchecker-thread-%d").build());
-    this.cache = config.getCacheSize() > 0 ? new ResultCache(
-      config.getCacheSize(), config.getCacheTTLSeconds(), TimeUnit.SECONDS) : null;
+    this.inFlightChecks = new InFlightChecks(executorService);
+    if (config.getCacheMaxMemoryMB() > 0) {
+      this.cache = new ResultCache(config.getCacheMaxMemoryMB() * 1024L * 1024L, config.getCacheTTLSeconds(), TimeUnit.SECONDS,
+        createDiskCache(config), ResultCache.EvictionPolicy.COST_AWARE);
+    } else {
+      this.cache = config.getCacheSize() > 0 ? new ResultCache(
+        config.getCacheSize(), config.getCacheTTLSeconds(), TimeUnit.SECONDS, createDiskCache(config)) : null;
+    }
     this.databaseLogger = DatabaseLogger.getInstance();
     if (databaseLogger.isLogging()) {
       this.logServerId = DatabaseAccess.getInstance().getOrCreateServerId();
@@ -128,9 +136,13 @@ abstract class TextChecker {
       ServerMetricsCollector.getInstance().monitorCache("languagetool_remote_matches_cache", cache.getRemoteMatchesCache());
       ServerMetricsCollector.getInstance().monitorCache("languagetool_sentences_cache", cache.getSentenceCache());
       ServerMetricsCollector.getInstance().monitorCache("languagetool_remote_matches_cache", cache.getRemoteMatchesCache());
+      if (cache.getEvictionPolicy() == ResultCache.EvictionPolicy.COST_AWARE) {
+        ServerMetricsCollector.getInstance().monitorCacheBytes(cache);
+      }
     }
 
     pipelinePool = new PipelinePool(config, cache, internalServer);
+    ruleMetadataIndex = new RuleMetadataIndex(config);
     if (config.isPipelinePrewarmingEnabled()) {
       logger.info("Prewarming pipelines...");
       prewarmPipelinePool();
@@ -145,6 +157,19 @@ abstract class TextChecker {
     }
   }
 
+  @Nullable
+  private static DiskResultCache createDiskCache(HTTPServerConfig config) {
+    if (config.getCacheDiskFile() == null) {
+      return null;
+    }
+    try {
+      logger.info("Using disk cache " + config.getCacheDiskFile() + " (max. " + config.getCacheDiskSizeMB() + "MB)");
+      return new DiskResultCache(config.getCacheDiskFile(), config.getCacheDiskSizeMB() * 1024L * 1024L);
+    } catch (IOException e) {
+      throw new RuntimeException("Could not open disk cache " + config.getCacheDiskFile(), e);
+    }
+  }
+
   private void prewarmPipelinePool() {
     // setting + number of pipelines
     // typical addon settings at the moment (2018-11-05)
@@ -362,37 +387,34 @@ abstract class TextChecker {
 
     int textSize = aText.getPlainText().length();
 
-    List<RuleMatch> ruleMatchesSoFar = Collections.synchronizedList(new ArrayList<>());
-
-    Future<List<RuleMatch>> future = executorService.submit(new Callable<List<RuleMatch>>() {
-      @Override
-      public List<RuleMatch> call() throws Exception {
-        // use to fake OOM in thread for testing:
-        /*if (Math.random() < 0.1) {
-          throw new OutOfMemoryError();
-        }*/
-        return getRuleMatches(aText, lang, motherTongue, parameters, params, userConfig, detLang, preferredLangs, preferredVariants, f -> ruleMatchesSoFar.add(f));
-      }
+    // identical requests (e.g. retries) running at the same time share one check:
+    Object checkKey = getCheckKey(parameters, lang, motherTongue, params, userConfig, detLang, preferredLangs, preferredVariants);
+    InFlightChecks.Handle check = inFlightChecks.submit(checkKey, listener -> {
+      // use to fake OOM in thread for testing:
+      /*if (Math.random() < 0.1) {
+        throw new OutOfMemoryError();
+      }*/
+      return getRuleMatches(aText, lang, motherTongue, parameters, params, userConfig, detLang, preferredLangs, preferredVariants, listener);
     });
     String incompleteResultReason = null;
     List<RuleMatch> matches;
     try {
       if (limits.getMaxCheckTimeMillis() < 0) {
-        matches = future.get();
+        matches = check.get();
       } else {
-        matches = future.get(limits.getMaxCheckTimeMillis(), TimeUnit.MILLISECONDS);
+        matches = check.get(limits.getMaxCheckTimeMillis(), TimeUnit.MILLISECONDS);
       }
     } catch (ExecutionException e) {
-      future.cancel(true);
+      check.cancel();
       if (ExceptionUtils.getRootCause(e) instanceof ErrorRateTooHighException) {
         ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.TOO_MANY_ERRORS);
-        databaseLogger.log(new DatabaseCheckErrorLogEntry("ErrorRateTooHigh", logServerId, agentId, userId, lang, detLang.getDetectedLanguage(), textSize, "matches: " + ruleMatchesSoFar.size()));
+        databaseLogger.log(new DatabaseCheckErrorLogEntry("ErrorRateTooHigh", logServerId, agentId, userId, lang, detLang.getDetectedLanguage(), textSize, "matches: " + check.getMatchesSoFar().size()));
       }
       if (params.allowIncompleteResults && ExceptionUtils.getRootCause(e) instanceof ErrorRateTooHighException) {
-        logger.warn(e.getMessage() + " - returning " + ruleMatchesSoFar.size() + " matches found so far. " +
+        matches = check.getMatchesSoFar();  // threads might still be running, so this is a copy
+        logger.warn(e.getMessage() + " - returning " + matches.size() + " matches found so far. " +
           "Detected language: " + detLang + ", " + ServerTools.getLoggingInfo(remoteAddress, null, -1, httpExchange,
           parameters, System.currentTimeMillis()-timeStart, reqCounter));
-        matches = new ArrayList<>(ruleMatchesSoFar);  // threads might still be running, so make a copy
         incompleteResultReason = "Results are incomplete: " + ExceptionUtils.getRootCause(e).getMessage();
       } else if (e.getCause() != null && e.getCause() instanceof OutOfMemoryError) {
         throw (OutOfMemoryError)e.getCause();
@@ -400,7 +422,7 @@ abstract class TextChecker {
         throw new RuntimeException(ServerTools.cleanUserTextFromMessage(e.getMessage(), parameters) + ", detected: " + detLang, e);
       }
     } catch (TimeoutException e) {
-      boolean cancelled = future.cancel(true);
+      boolean cancelled = check.cancel();
       Path loadFile = Paths.get("/proc/loadavg");  // works in Linux only(?)
       String loadInfo = loadFile.toFile().exists() ? Files.readAllLines(loadFile).toString() : "(unknown)";
       if (errorRequestLimiter != null) {
@@ -418,8 +440,8 @@ abstract class TextChecker {
                        ", requestId: " + requestId +
                        ", system load: " + loadInfo + ")";
       if (params.allowIncompleteResults) {
-        logger.info(message + " - returning " + ruleMatchesSoFar.size() + " matches found so far");
-        matches = new ArrayList<>(ruleMatchesSoFar);  // threads might still be running, so make a copy
+        matches = check.getMatchesSoFar();  // threads might still be running, so this is a copy
+        logger.info(message + " - returning " + matches.size() + " matches found so far");
         incompleteResultReason = "Results are incomplete: text checking took longer than allowed maximum of " +
                 String.format(Locale.ENGLISH, "%.2f", limits.getMaxCheckTimeMillis()/1000.0) + " seconds";
       } else {
@@ -499,14 +521,9 @@ abstract class TextChecker {
             + computationTime + "ms, agent:" + agent + version
             + ", " + messageSent + ", q:" + (workQueue != null ? workQueue.size() : "?")
             + ", h:" + reqCounter.getHandleCount() + ", dH:" + reqCounter.getDistinctIps()
-            + ", m:" + ServerTools.getModeForLog(mode) + skipLimits);
+            + ", m:" + ServerTools.getModeForLog(mode) + skipLimits + (check.isShared() ? ", coalesced" : ""));
 
     int matchCount = matches.size();
-    Map<String, Integer> ruleMatchCount = new HashMap<>();
-    for (RuleMatch match : matches) {
-      String ruleId = match.getRule().getId();
-      ruleMatchCount.put(ruleId, ruleMatchCount.getOrDefault(ruleId, 0) + 1);
-    }
 
     ServerMetricsCollector.getInstance().logCheck(
       lang, computationTime, textSize, matchCount, mode);
@@ -514,8 +531,8 @@ abstract class TextChecker {
     if (!config.isSkipLoggingChecks()) {
       DatabaseCheckLogEntry logEntry = new DatabaseCheckLogEntry(userId, agentId, logServerId, textSize, matchCount,
         lang, detLang.getDetectedLanguage(), computationTime, textSessionId, mode.toString());
-      logEntry.setRuleMatches(new DatabaseRuleMatchLogEntry(
-        config.isSkipLoggingRuleMatches() ? Collections.emptyMap() : ruleMatchCount));
+      logEntry.setRuleMatches(config.isSkipLoggingRuleMatches() ?
+        new DatabaseRuleMatchLogEntry(Collections.emptyMap()) : DatabaseRuleMatchLogEntry.countMatches(matches));
       databaseLogger.log(logEntry);
     }
 
@@ -566,6 +583,19 @@ abstract class TextChecker {
     }
   }
 
+  /**
+   * A key that's equal for two requests only if they will get the same matches.
+   */
+  private static Object getCheckKey(Map<String, String> parameters, Language lang, Language motherTongue,
+                                    QueryParams params, UserConfig userConfig, DetectedLanguage detLang,
+                                    List<String> preferredLangs, List<String> preferredVariants) {
+    // 'text' or 'data' instead of the AnnotatedText, which has no equals(); UserConfig.equals()
+    // ignores the textSessionId, but it influences which remote rules are used:
+    return Arrays.asList(parameters.get("text"), parameters.get("data"), lang, motherTongue, params,
+      userConfig, userConfig.getTextSessionId(), detLang.getDetectedLanguage(), preferredLangs, preferredVariants,
+      parameters.get("sourceText"), parameters.get("sourceLanguage"), parameters.get("multilingual"));
+  }
+
   private List<RuleMatch> getRuleMatches(AnnotatedText aText, Language lang,
                                          Language motherTongue, Map<String, String> parameters, 
                                          QueryParams params, UserConfig userConfig,
@@ -576,6 +606,11 @@ abstract class TextChecker {
       double hitRate = cache.hitRate();
       String hitPercentage = String.format(Locale.ENGLISH, "%.2f", hitRate * 100.0f);
       logger.info("Cache stats: " + hitPercentage + "% hit rate");
+      DiskResultCache diskCache = cache.getDiskCache();
+      if (diskCache != null) {
+        logger.info("Disk cache stats: " + diskCache.hitCount() + " hits, " + diskCache.missCount() + " misses, " +
+          diskCache.usedBytes() / 1024 / 1024 + "MB used, " + diskCache.compactionCount() + " compactions");
+      }
       //print("Matches    : " + cache.getMatchesCache().stats().hitRate() + " hit rate");
       //print("Sentences  : " + cache.getSentenceCache().stats().hitRate() + " hit rate");
       //print("Size       : " + cache.getMatchesCache().size() + " (matches cache), " + cache.getSentenceCache().size() + " (sentence cache)");
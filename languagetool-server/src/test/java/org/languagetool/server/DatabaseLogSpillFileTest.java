@@ -0,0 +1,159 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DatabaseLogSpillFileTest {
+
+  @Test
+  public void testAppendAndReplay() throws Exception {
+    File file = File.createTempFile("db-log-spill", ".bin");
+    file.deleteOnExit();
+    try {
+      DatabaseLogSpillFile spillFile = new DatabaseLogSpillFile(file);
+      assertTrue(spillFile.isEmpty());
+      DatabaseMiscLogEntry misc = new DatabaseMiscLogEntry(1L, 2L, null, "my message");
+      Language en = Languages.getLanguageForShortCode("en-US");
+      DatabaseCheckLogEntry check = new DatabaseCheckLogEntry(null, null, 1L, 100, 1, en, en, 50, 1234L, "ALL");
+      check.setRuleMatches(new DatabaseRuleMatchLogEntry(Collections.singletonMap("MY_RULE", 1)));
+      assertTrue(spillFile.append(misc));
+      assertTrue(spillFile.append(check));
+      assertFalse(spillFile.isEmpty());
+
+      List<DatabaseLogEntry> entries = new ArrayList<>();
+      spillFile.replay(entry -> {
+        entries.add(entry);
+        spillFile.append(misc);  // new entries are written while replaying
+      });
+      assertEquals(2, entries.size());
+      assertEquals(misc.getMappingIdentifier(), entries.get(0).getMappingIdentifier());
+      assertEquals(misc.getMapping(), entries.get(0).getMapping());
+      assertNull(entries.get(0).followup());
+      assertEquals(check.getMappingIdentifier(), entries.get(1).getMappingIdentifier());
+      assertEquals(check.getMapping(), entries.get(1).getMapping());
+      DatabaseLogEntry followup = entries.get(1).followup();
+      assertNotNull(followup);
+      assertEquals("org.languagetool.server.LogMapper.ruleMatch", followup.getMappingIdentifier());
+
+      assertFalse(spillFile.isEmpty());
+      entries.clear();
+      spillFile.replay(entries::add);
+      assertEquals(2, entries.size());
+      assertTrue(spillFile.isEmpty());
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testInterruptedReplay() throws Exception {
+    File file = File.createTempFile("db-log-spill", ".bin");
+    file.deleteOnExit();
+    try {
+      DatabaseLogSpillFile spillFile = new DatabaseLogSpillFile(file);
+      for (int i = 0; i < 5; i++) {
+        assertTrue(spillFile.append(new DatabaseMiscLogEntry(1L, 2L, null, "message " + i)));
+      }
+      List<DatabaseLogEntry> entries = new ArrayList<>();
+      try {
+        spillFile.replay(entry -> {
+          if (entries.size() == 2) {
+            throw new InterruptedException();  // as if the logger was disabled while the queue was full
+          }
+          entries.add(entry);
+        });
+        fail();
+      } catch (InterruptedException expected) {
+      }
+      assertEquals(2, entries.size());
+      assertFalse(spillFile.isEmpty());
+      spillFile.append(new DatabaseMiscLogEntry(1L, 2L, null, "message 5"));
+
+      entries.clear();
+      new DatabaseLogSpillFile(file).replay(entries::add);  // as after a restart
+      assertEquals(3, entries.size());
+      assertEquals("message 2", entries.get(0).getMapping().get("message"));
+      assertEquals("message 4", entries.get(2).getMapping().get("message"));
+      entries.clear();
+      spillFile.replay(entries::add);
+      assertEquals(1, entries.size());
+      assertEquals("message 5", entries.get(0).getMapping().get("message"));
+      assertTrue(spillFile.isEmpty());
+      assertFalse(new File(file.getPath() + ".replay.offset").exists());
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testIncompleteEntry() throws IOException, InterruptedException {
+    File file = File.createTempFile("db-log-spill", ".bin");
+    file.deleteOnExit();
+    try {
+      DatabaseLogSpillFile spillFile = new DatabaseLogSpillFile(file);
+      assertTrue(spillFile.append(new DatabaseMiscLogEntry(1L, 2L, null, "my message")));
+      spillFile.flush();
+      try (FileOutputStream out = new FileOutputStream(file, true)) {
+        out.write(new byte[]{0, 0, 1, 0, 42});  // as if the server was stopped while writing
+      }
+      List<DatabaseLogEntry> entries = new ArrayList<>();
+      DatabaseLogSpillFile restarted = new DatabaseLogSpillFile(file);  // removes the incomplete entry
+      assertTrue(restarted.append(new DatabaseMiscLogEntry(1L, 2L, null, "after restart")));
+      restarted.replay(entries::add);
+      assertEquals(2, entries.size());
+      assertEquals("after restart", entries.get(1).getMapping().get("message"));
+      assertFalse(file.exists());
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testUnreadableEntryLength() throws IOException, InterruptedException {
+    File file = File.createTempFile("db-log-spill", ".bin");
+    file.deleteOnExit();
+    try {
+      DatabaseLogSpillFile spillFile = new DatabaseLogSpillFile(file);
+      assertTrue(spillFile.append(new DatabaseMiscLogEntry(1L, 2L, null, "my message")));
+      spillFile.flush();
+      try (FileOutputStream out = new FileOutputStream(file, true)) {
+        out.write(new byte[]{-1, -1, -1, -2, 42});  // negative length
+      }
+      List<DatabaseLogEntry> entries = new ArrayList<>();
+      spillFile.replay(entries::add);
+      assertEquals(1, entries.size());
+      assertTrue(spillFile.isEmpty());
+    } finally {
+      file.delete();
+    }
+  }
+
+}
@@ -0,0 +1,70 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DatabaseLoggerOverflowTest {
+
+  @Test
+  public void testDrop() {
+    DatabaseLogger logger = new DatabaseLogger(8, DatabaseLogger.OverflowPolicy.DROP);
+    for (int i = 0; i < 20; i++) {
+      logger.log(entry(i));
+    }
+    assertEquals(8, logger.getQueueSize());
+    assertEquals(12, logger.getDiscardedCount());
+  }
+
+  @Test
+  public void testSample() {
+    DatabaseLogger logger = new DatabaseLogger(100, DatabaseLogger.OverflowPolicy.SAMPLE);
+    for (int i = 0; i < 75; i++) {
+      logger.log(entry(i));
+    }
+    assertEquals(75, logger.getQueueSize());  // everything is kept until the queue is 3/4 full
+    assertEquals(0, logger.getDiscardedCount());
+    for (int i = 0; i < 100; i++) {
+      logger.log(entry(i));
+    }
+    assertEquals(75 + 100 / DatabaseLogger.SAMPLE_RATE, logger.getQueueSize());
+    assertEquals(100 - 100 / DatabaseLogger.SAMPLE_RATE, logger.getDiscardedCount());
+    for (int i = 0; i < 500; i++) {
+      logger.log(entry(i));
+    }
+    assertEquals(100, logger.getQueueSize());  // sampled entries are discarded too when the queue is full
+    assertEquals(600 - 25, logger.getDiscardedCount());
+  }
+
+  @Test
+  public void testDisabled() {
+    DatabaseLogger logger = new DatabaseLogger(8, DatabaseLogger.OverflowPolicy.DROP);
+    logger.disableLogging();
+    logger.log(entry(1));
+    assertEquals(0, logger.getQueueSize());
+    assertEquals(0, logger.getDiscardedCount());
+  }
+
+  private static DatabaseLogEntry entry(int i) {
+    return new DatabaseMiscLogEntry(1L, 2L, null, "message " + i);
+  }
+
+}
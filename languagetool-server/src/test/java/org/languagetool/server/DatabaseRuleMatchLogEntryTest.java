@@ -0,0 +1,75 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+import org.languagetool.rules.FakeRule;
+import org.languagetool.rules.RuleMatch;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class DatabaseRuleMatchLogEntryTest {
+
+  @Test
+  public void testCountMatches() {
+    List<RuleMatch> matches = Arrays.asList(match("RULE_A"), match("RULE_B"), match("RULE_A"), match("RULE_A"));
+    DatabaseRuleMatchLogEntry entry = DatabaseRuleMatchLogEntry.countMatches(matches);
+    assertEquals(2, entry.getMatchCount());
+    Map<String, Integer> counts = counts(entry);
+    assertEquals(3, (int) counts.get("RULE_A"));
+    assertEquals(1, (int) counts.get("RULE_B"));
+    assertEquals(0, DatabaseRuleMatchLogEntry.countMatches(Collections.emptyList()).getMatchCount());
+  }
+
+  @Test
+  public void testAbbreviatedRuleIdsCountedTogether() {
+    String prefix = StringUtils.repeat("X", 200);
+    Map<String, Integer> matchCounts = new LinkedHashMap<>();
+    matchCounts.put(prefix + "_ONE", 2);
+    matchCounts.put(prefix + "_TWO", 5);
+    matchCounts.put("OTHER", 1);
+    DatabaseRuleMatchLogEntry entry = new DatabaseRuleMatchLogEntry(matchCounts);
+    assertEquals(2, entry.getMatchCount());
+    Map<String, Integer> counts = counts(entry);
+    assertEquals(7, (int) counts.get(StringUtils.abbreviate(prefix, 128)));
+    assertEquals(1, (int) counts.get("OTHER"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Integer> counts(DatabaseRuleMatchLogEntry entry) {
+    Map<String, Integer> counts = new HashMap<>();
+    for (DatabaseRuleMatchLogEntry.RuleMatchInfo info : (List<DatabaseRuleMatchLogEntry.RuleMatchInfo>) entry.getMapping().get("matches")) {
+      assertNull(counts.put(info.ruleId, info.matchCount));
+    }
+    return counts;
+  }
+
+  private static RuleMatch match(String ruleId) {
+    return new RuleMatch(new FakeRule() {
+      @Override
+      public String getId() {
+        return ruleId;
+      }
+    }, null, 0, 1, "msg");
+  }
+
+}
@@ -0,0 +1,97 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.After;
+import org.junit.Test;
+import org.languagetool.rules.RuleMatch;
+
+import java.util.Collections;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class InFlightChecksTest {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final InFlightChecks checks = new InFlightChecks(executor);
+  private final AtomicInteger runs = new AtomicInteger();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testIdenticalChecksShareResult() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+    InFlightChecks.Handle first = checks.submit("key", blockingCheck(latch));
+    InFlightChecks.Handle second = checks.submit("key", blockingCheck(latch));
+    InFlightChecks.Handle other = checks.submit("other key", blockingCheck(latch));
+    assertFalse(first.isShared());
+    assertTrue(second.isShared());
+    assertFalse(other.isShared());
+    latch.countDown();
+    assertEquals(0, first.get(10, TimeUnit.SECONDS).size());
+    assertEquals(0, second.get(10, TimeUnit.SECONDS).size());
+    assertEquals(0, other.get(10, TimeUnit.SECONDS).size());
+    assertEquals(2, runs.get());
+    waitUntilEmpty();
+    // done checks are forgotten:
+    assertFalse(checks.submit("key", blockingCheck(latch)).isShared());
+  }
+
+  @Test
+  public void testCancelledOnlyWhenAllRequestsGaveUp() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+    InFlightChecks.Handle first = checks.submit("key", blockingCheck(latch));
+    InFlightChecks.Handle second = checks.submit("key", blockingCheck(latch));
+    try {
+      first.get(10, TimeUnit.MILLISECONDS);
+      fail();
+    } catch (TimeoutException expected) {
+      assertFalse(first.cancel());
+    }
+    try {
+      second.get(10, TimeUnit.MILLISECONDS);
+      fail();
+    } catch (TimeoutException expected) {
+      assertTrue(second.cancel());
+    }
+    assertEquals(0, checks.size());
+    assertFalse(checks.submit("key", blockingCheck(latch)).isShared());
+  }
+
+  private InFlightChecks.Check blockingCheck(CountDownLatch latch) {
+    return listener -> {
+      runs.incrementAndGet();
+      latch.await();
+      return Collections.<RuleMatch>emptyList();
+    };
+  }
+
+  private void waitUntilEmpty() throws InterruptedException {
+    for (int i = 0; i < 100 && checks.size() > 0; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, checks.size());
+  }
+
+}
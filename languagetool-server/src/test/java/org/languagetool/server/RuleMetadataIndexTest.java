@@ -0,0 +1,55 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.rules.Rule;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RuleMetadataIndexTest {
+
+  @Test
+  public void testGet() throws Exception {
+    Language lang = Languages.getLanguageForShortCode("fr");
+    RuleMetadataIndex index = new RuleMetadataIndex(new HTTPServerConfig());
+    RuleMetadataIndex.LanguageRules rules = index.get(lang);
+    assertSame(rules, index.get(lang));
+
+    List<Rule> allRules = new JLanguageTool(lang).getAllRules();
+    assertEquals(allRules.size(), rules.getRules().size());
+    for (int i = 0; i < allRules.size(); i++) {
+      Rule rule = allRules.get(i);
+      RuleMetadataIndex.RuleMetadata metadata = rules.getRules().get(i);
+      assertEquals(rule.getId(), metadata.id);
+      assertEquals(rule.getDescription(), metadata.description);
+      assertEquals(rule.isDefaultOff(), metadata.defaultOff);
+      assertEquals(rule.getCategory().getId().toString(), metadata.categoryId);
+      assertEquals(rule.getIncorrectExamples().size(), metadata.incorrectExamples.size());
+      assertTrue(rules.getRules(rule.getId()).contains(metadata));
+    }
+    assertTrue(rules.getRules("NO_SUCH_RULE_ID").isEmpty());
+  }
+
+}
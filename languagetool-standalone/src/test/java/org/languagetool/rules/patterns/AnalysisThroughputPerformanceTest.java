@@ -0,0 +1,94 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.tools.StringTools;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Check how the analysis of sentences (tokenizing, tagging, disambiguation) scales
+ * with the number of threads, when all threads use the same {@link Language} object,
+ * like in the server. Ideally, the number of sentences per second grows with the
+ * number of threads, up to the number of cores.
+ * Not a unit test, for interactive use only.
+ */
+final class AnalysisThroughputPerformanceTest {
+
+  private static final long WARMUP_MILLIS = 5_000;
+  private static final long RUN_MILLIS = 10_000;
+
+  private void run(String languageCode, File textFile, int maxThreads) throws Exception {
+    String text = StringTools.readStream(new FileInputStream(textFile), "utf-8");
+    Language language = Languages.getLanguageForShortCode(languageCode);
+    List<String> sentences = new JLanguageTool(language).sentenceTokenize(text);
+    System.out.println("Language: " + language + ", " + sentences.size() + " sentences, " +
+                       Runtime.getRuntime().availableProcessors() + " cores");
+    analyze(language, sentences, maxThreads, WARMUP_MILLIS);
+    double singleThreaded = 0;
+    for (int threads = 1; threads <= maxThreads; threads *= 2) {
+      double perSecond = analyze(language, sentences, threads, RUN_MILLIS) * 1000.0 / RUN_MILLIS;
+      if (threads == 1) {
+        singleThreaded = perSecond;
+      }
+      System.out.printf("%2d threads: %8.0f sentences/s, speedup %.2f%n", threads, perSecond, perSecond / singleThreaded);
+    }
+  }
+
+  private long analyze(Language language, List<String> sentences, int threads, long millis) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    AtomicLong count = new AtomicLong();
+    long endTime = System.currentTimeMillis() + millis;
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      int offset = i * sentences.size() / threads;
+      futures.add(executor.submit(() -> {
+        JLanguageTool lt = new JLanguageTool(language);
+        for (int j = offset; System.currentTimeMillis() < endTime; j++) {
+          lt.getAnalyzedSentence(sentences.get(j % sentences.size()));
+          count.incrementAndGet();
+        }
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+    return count.get();
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2 || args.length > 3) {
+      System.out.println("Usage: " + AnalysisThroughputPerformanceTest.class.getSimpleName() + " <languageCode> <text_file> [maxThreads]");
+      System.exit(1);
+    }
+    int maxThreads = args.length == 3 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+    new AnalysisThroughputPerformanceTest().run(args[0], new File(args[1]), maxThreads);
+  }
+
+}
@@ -32,10 +32,13 @@ class BuilderOptions {
   public static final String OUTPUT_OPTION = "o";
   public static final String INPUT_OPTION = "i";
   public static final String FREQ_OPTION = "freq";
+  public static final String THREADS_OPTION = "threads";
   public static final String FREQ_HELP = "optional .xml file with a frequency wordlist, " 
       + "see https://dev.languagetool.org/developing-a-tagger-dictionary";
   public static final String INFO_HELP = "*.info properties file, " 
       + "see https://dev.languagetool.org/developing-a-tagger-dictionary";
+  public static final String THREADS_HELP = "optional number of threads used to sort and encode the input, "
+      + "defaults to the number of processors";
   public static final String TAB_INPUT_HELP = "tab-separated plain-text dictionary file " 
       + "with format: wordform<tab>lemma<tab>postag";
 
@@ -18,32 +18,34 @@
  */
 package org.languagetool.tools;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Scanner;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.JLanguageTool;
 
-import morfologik.tools.DictCompile;
-import morfologik.tools.FSACompile;
-import morfologik.tools.SerializationFormat;
+import morfologik.fsa.FSA;
+import morfologik.fsa.builders.CFSA2Serializer;
+import morfologik.stemming.DictionaryMetadata;
 
 /**
  * Create a Morfologik binary dictionary from plain text data.
@@ -55,13 +57,13 @@ class DictionaryBuilder {
   private static final int FREQ_RANGES_IN = 256;
   private static final int FREQ_RANGES_OUT = 26; // (A-Z)
   private static final int FIRST_RANGE_CODE = 65; // character 'A', less frequent words
-  private static final SerializationFormat serializationFormat = SerializationFormat.CFSA2;
 
   private final Map<String, Integer> freqList = new HashMap<>();
   private final Pattern pFreqEntry = Pattern.compile(".*<w f=\"(\\d+)\"(?: flags=\"(.*?)\")?>(.+)</w>.*");
   // Valid for tagger dictionaries (wordform_TAB_lemma_TAB_postag) or spelling dictionaries (wordform)
   private final Pattern pTaggerEntry = Pattern.compile("^([^\t]+).*$");
   private String outputFilename;
+  private int threads = Runtime.getRuntime().availableProcessors();
 
   protected DictionaryBuilder(File infoFile) throws IOException {
     props.load(new FileInputStream(infoFile));
@@ -74,38 +76,52 @@ class DictionaryBuilder {
   protected String getOutputFilename() {
     return outputFilename;
   }
+
+  /**
+   * Number of threads used to encode and sort the input when building the binary dictionary.
+   * @since 5.3
+   */
+  protected void setThreads(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("threads must be >= 1: " + threads);
+    }
+    this.threads = threads;
+  }
   
   protected File buildDict(File inputFile) throws Exception {
     File outputFile = new File(outputFilename);
     String infoPath = inputFile.toString().replaceAll("\\.txt$", ".info");
-    File resultFile = new File (inputFile.toString().replaceAll("\\.txt$", JLanguageTool.DICTIONARY_FILENAME_EXTENSION));
     File infoFile = new File(infoPath);
     // save info file in the same path of input text file and with the same name
-    props.store(new FileOutputStream(infoFile), "");
-    String[] buildOptions = {"--exit", "false",
-        "-i", inputFile.toString(), 
-        "-f", serializationFormat.toString()};
-    System.out.println("Running Morfologik DictCompile.main with these options: " + Arrays.toString(buildOptions));
-    DictCompile.main(buildOptions);
-    // move output file to the desired path and name
-    Files.move(resultFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    try (OutputStream out = new FileOutputStream(infoFile)) {
+      props.store(out, "");
+    }
+    DictionaryMetadata metadata;
+    try (InputStream in = new FileInputStream(infoFile)) {
+      metadata = DictionaryMetadata.read(in);
+    }
+    System.out.println("Building the binary dictionary from " + inputFile + " using " + threads + " threads");
+    compile(inputFile, outputFile, ParallelFSACompiler.dictionaryEncoders(metadata));
     System.out.println("Done. The binary dictionary has been written to " + outputFile.getAbsolutePath());
     return outputFile;
   }
   
   protected File buildFSA(File inputFile) throws Exception {
     File resultFile = new File(outputFilename);
-    String[] buildOptions = {
-        "--exit", "false",
-        "-i", inputFile.toString(), 
-        "-o", resultFile.toString(),
-        "-f", serializationFormat.toString()};
-    System.out.println("Running Morfologik FSACompile.main with these options: " + Arrays.toString(buildOptions));
-    FSACompile.main(buildOptions);
+    System.out.println("Building the automaton from " + inputFile + " using " + threads + " threads");
+    compile(inputFile, resultFile, ParallelFSACompiler.plainEncoders());
     System.out.println("Done. The binary dictionary has been written to " + resultFile.getAbsolutePath());
     return resultFile;
   }
 
+  private void compile(File inputFile, File outputFile, Supplier<ParallelFSACompiler.LineEncoder> encoders) throws IOException {
+    ParallelFSACompiler compiler = new ParallelFSACompiler(encoders, threads, ParallelFSACompiler.DEFAULT_CHUNK_BYTES);
+    FSA fsa = compiler.build(inputFile.toPath());
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(outputFile.toPath()))) {
+      new CFSA2Serializer().serialize(fsa, out);
+    }
+  }
+
   @Nullable
   protected String getOption(String option) {
     String property = props.getProperty(option);
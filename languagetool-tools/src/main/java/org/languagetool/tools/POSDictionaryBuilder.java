@@ -41,11 +41,16 @@ public final class POSDictionaryBuilder extends DictionaryBuilder {
         BuilderOptions.INFO_HELP, true);
     builderOptions.addOption(BuilderOptions.FREQ_OPTION, true, 
         BuilderOptions.FREQ_HELP, false);
+    builderOptions.addOption(BuilderOptions.THREADS_OPTION, true, 
+        BuilderOptions.THREADS_HELP, false);
     CommandLine cmdLine = builderOptions.parseArguments(args, POSDictionaryBuilder.class);
     
     POSDictionaryBuilder builder = new POSDictionaryBuilder(new File(cmdLine.getOptionValue(BuilderOptions.INFO_OPTION)));
 
     builder.setOutputFilename(cmdLine.getOptionValue(BuilderOptions.OUTPUT_OPTION));
+    if (cmdLine.hasOption(BuilderOptions.THREADS_OPTION)) {
+      builder.setThreads(Integer.parseInt(cmdLine.getOptionValue(BuilderOptions.THREADS_OPTION)));
+    }
     File inputFile = new File(cmdLine.getOptionValue(BuilderOptions.INPUT_OPTION));
 
     if (cmdLine.hasOption(BuilderOptions.FREQ_OPTION)) {
@@ -0,0 +1,371 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import morfologik.fsa.FSA;
+import morfologik.fsa.builders.FSABuilder;
+import morfologik.stemming.BufferUtils;
+import morfologik.stemming.DictionaryMetadata;
+import morfologik.stemming.ISequenceEncoder;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Builds a Morfologik automaton from a file with one sequence per line, like
+ * Morfologik's {@code FSACompile} and {@code DictCompile}, but without loading
+ * the whole input into memory: the input is read in chunks, each chunk is encoded
+ * and sorted on its own thread and written to a temporary file, then the sorted
+ * files are merged and the automaton is built from the merged sequences.
+ * @since 5.3
+ */
+final class ParallelFSACompiler {
+
+  static final long DEFAULT_CHUNK_BYTES = 32 * 1024 * 1024;
+
+  private static final Comparator<byte[]> ORDER = FSABuilder.LEXICAL_ORDERING;
+  // estimated heap bytes of a line besides its content: the array header and the list reference
+  private static final int LINE_OVERHEAD = 24;
+
+  /**
+   * Turns an input line into the sequence stored in the automaton. Each instance is used by one thread.
+   */
+  interface LineEncoder {
+    byte[] encode(byte[] line) throws IOException;
+  }
+
+  private final Supplier<LineEncoder> encoders;
+  private final int threads;
+  private final long chunkBytes;
+
+  /**
+   * @param chunkBytes estimated heap bytes of the lines of a chunk, including the overhead of each line -
+   *                   up to {@code threads} chunks are encoded and sorted while the next one is read, so
+   *                   {@code (threads + 1) * chunkBytes} are kept in memory, plus the encoded sequences
+   *                   of the chunks being sorted
+   */
+  ParallelFSACompiler(Supplier<LineEncoder> encoders, int threads, long chunkBytes) {
+    this.encoders = encoders;
+    this.threads = threads;
+    this.chunkBytes = chunkBytes;
+  }
+
+  /**
+   * Encoders that store the lines as they are, like {@code FSACompile}.
+   */
+  static Supplier<LineEncoder> plainEncoders() {
+    return () -> line -> line;
+  }
+
+  /**
+   * Encoders for {@code base<separator>inflected[<separator>tag]} lines, like {@code DictCompile}.
+   */
+  static Supplier<LineEncoder> dictionaryEncoders(DictionaryMetadata metadata) {
+    AtomicInteger separatorCount = new AtomicInteger(-1);  // must be the same for all lines
+    return () -> new DictionaryLineEncoder(metadata, separatorCount);
+  }
+
+  FSA build(Path input) throws IOException {
+    Path tmpDir = Files.createTempDirectory(ParallelFSACompiler.class.getSimpleName());
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Path> runFiles = new ArrayList<>();
+    try {
+      List<Future<Path>> runs = writeSortedRuns(input, tmpDir, executor);
+      for (Future<Path> run : runs) {
+        runFiles.add(getResult(run));
+      }
+      if (runFiles.isEmpty()) {
+        throw new IOException("No input sequences found in " + input);
+      }
+      return merge(runFiles);
+    } finally {
+      executor.shutdownNow();
+      for (Path runFile : runFiles) {
+        Files.deleteIfExists(runFile);
+      }
+      try (DirectoryStream<Path> remaining = Files.newDirectoryStream(tmpDir)) {
+        for (Path file : remaining) {  // runs of failed chunks
+          Files.deleteIfExists(file);
+        }
+      }
+      Files.deleteIfExists(tmpDir);
+    }
+  }
+
+  private List<Future<Path>> writeSortedRuns(Path input, Path tmpDir, ExecutorService executor) throws IOException {
+    List<Future<Path>> runs = new ArrayList<>();
+    Semaphore chunksInMemory = new Semaphore(threads);
+    List<byte[]> chunk = new ArrayList<>();
+    long chunkSize = 0;
+    byte[] buffer = new byte[64 * 1024];
+    byte[] line = new byte[256];
+    int lineLength = 0;
+    boolean firstLine = true;
+    try (InputStream in = Files.newInputStream(input)) {
+      int length;
+      while (true) {
+        length = in.read(buffer);
+        int start = 0;
+        for (int i = 0; i <= length; i++) {
+          boolean endOfInput = length == -1;
+          if (endOfInput || i == length || buffer[i] == '\n') {
+            int partLength = (endOfInput ? 0 : i) - start;
+            if (lineLength + partLength > line.length) {
+              line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + partLength));
+            }
+            if (partLength > 0) {
+              System.arraycopy(buffer, start, line, lineLength, partLength);
+              lineLength += partLength;
+            }
+            start = i + 1;
+            if (endOfInput || i < length) {  // a complete line
+              if (endOfInput && lineLength == 0) {
+                break;
+              }
+              if (firstLine && lineLength >= 3 && (line[0] & 0xff) == 0xef && (line[1] & 0xff) == 0xbb && (line[2] & 0xff) == 0xbf) {
+                throw new IOException("The input starts with UTF-8 BOM bytes which is most likely not what you want. Use header-less UTF-8 file: " + input);
+              }
+              firstLine = false;
+              chunk.add(Arrays.copyOf(line, lineLength));
+              chunkSize += lineLength + LINE_OVERHEAD;
+              lineLength = 0;
+              if (chunkSize >= chunkBytes) {
+                runs.add(submitChunk(chunk, tmpDir.resolve("run" + runs.size()), executor, chunksInMemory));
+                chunk = new ArrayList<>();
+                chunkSize = 0;
+              }
+            }
+          }
+        }
+        if (length == -1) {
+          break;
+        }
+      }
+    }
+    if (!chunk.isEmpty()) {
+      runs.add(submitChunk(chunk, tmpDir.resolve("run" + runs.size()), executor, chunksInMemory));
+    }
+    return runs;
+  }
+
+  private Future<Path> submitChunk(List<byte[]> lines, Path runFile, ExecutorService executor, Semaphore chunksInMemory) throws IOException {
+    try {
+      chunksInMemory.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for sort threads", e);
+    }
+    return executor.submit(() -> {
+      try {
+        return sortChunk(lines, runFile);
+      } finally {
+        chunksInMemory.release();
+      }
+    });
+  }
+
+  private Path sortChunk(List<byte[]> lines, Path runFile) throws IOException {
+    LineEncoder encoder = encoders.get();
+    byte[][] sequences = new byte[lines.size()][];
+    for (int i = 0; i < sequences.length; i++) {
+      byte[] line = lines.get(i);
+      if (line.length == 0) {
+        throw new IOException("The input contains empty sequences.");
+      }
+      for (byte b : line) {
+        if (b == '\r') {
+          throw new IOException("The input contains \\r byte (CR) which would be encoded as part of the automaton: " +
+            new String(line, StandardCharsets.ISO_8859_1));
+        }
+      }
+      sequences[i] = encoder.encode(line);
+      lines.set(i, null);  // not needed anymore
+    }
+    Arrays.sort(sequences, ORDER);
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(runFile), 64 * 1024))) {
+      byte[] previous = null;
+      for (byte[] sequence : sequences) {
+        if (previous == null || !Arrays.equals(previous, sequence)) {
+          out.writeInt(sequence.length);
+          out.write(sequence);
+        }
+        previous = sequence;
+      }
+    }
+    return runFile;
+  }
+
+  private static FSA merge(List<Path> runFiles) throws IOException {
+    PriorityQueue<RunReader> queue = new PriorityQueue<>(runFiles.size(), (r1, r2) -> ORDER.compare(r1.current, r2.current));
+    List<RunReader> readers = new ArrayList<>();
+    try {
+      for (Path runFile : runFiles) {
+        RunReader reader = new RunReader(runFile);
+        readers.add(reader);
+        if (reader.next()) {
+          queue.add(reader);
+        }
+      }
+      FSABuilder builder = new FSABuilder();
+      byte[] previous = null;
+      while (!queue.isEmpty()) {
+        RunReader reader = queue.poll();
+        byte[] sequence = reader.current;
+        if (previous == null || !Arrays.equals(previous, sequence)) {  // the same sequence can be in several runs
+          builder.add(sequence, 0, sequence.length);
+          previous = sequence;
+        }
+        if (reader.next()) {
+          queue.add(reader);
+        }
+      }
+      return builder.complete();
+    } finally {
+      for (RunReader reader : readers) {
+        reader.in.close();
+      }
+    }
+  }
+
+  private static <T> T getResult(Future<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for sort threads", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  private static class RunReader {
+    private final DataInputStream in;
+    private byte[] current;
+
+    RunReader(Path runFile) throws IOException {
+      in = new DataInputStream(new BufferedInputStream(Files.newInputStream(runFile), 64 * 1024));
+    }
+
+    boolean next() throws IOException {
+      int length;
+      try {
+        length = in.readInt();
+      } catch (EOFException e) {
+        return false;
+      }
+      current = new byte[length];
+      in.readFully(current);
+      return true;
+    }
+  }
+
+  /**
+   * Encodes the inflected form relative to the base form, the same way as Morfologik's {@code DictCompile}.
+   */
+  private static class DictionaryLineEncoder implements LineEncoder {
+
+    private final byte separator;
+    private final char separatorChar;
+    private final ISequenceEncoder sequenceEncoder;
+    private final AtomicInteger separatorCount;
+
+    private ByteBuffer encoded = ByteBuffer.allocate(0);
+    private ByteBuffer source = ByteBuffer.allocate(0);
+    private ByteBuffer target = ByteBuffer.allocate(0);
+    private ByteBuffer tag = ByteBuffer.allocate(0);
+    private ByteBuffer assembled = ByteBuffer.allocate(0);
+
+    DictionaryLineEncoder(DictionaryMetadata metadata, AtomicInteger separatorCount) {
+      this.separator = metadata.getSeparator();
+      this.separatorChar = metadata.getSeparatorAsChar();
+      this.sequenceEncoder = metadata.getSequenceEncoderType().get();
+      this.separatorCount = separatorCount;
+    }
+
+    @Override
+    public byte[] encode(byte[] row) throws IOException {
+      int count = 0;
+      for (byte b : row) {
+        if (b == separator) {
+          count++;
+        }
+      }
+      if (count < 1 || count > 2) {
+        throw new IOException("Invalid input. Each row must consist of [base,inflected,tag?] columns, where '" + separatorChar +
+          "' is the separator character. This row contains " + count + " separator characters: " + new String(row, StandardCharsets.ISO_8859_1));
+      }
+      separatorCount.compareAndSet(-1, count);
+      if (separatorCount.get() != count) {
+        throw new IOException("The number of separators (" + count + ") is inconsistent with other lines: " + new String(row, StandardCharsets.ISO_8859_1));
+      }
+      int sep1 = indexOf(row, 0);
+      int sep2 = indexOf(row, sep1 + 1);
+      if (sep2 < 0) {
+        sep2 = row.length;
+      }
+      source = BufferUtils.clearAndEnsureCapacity(source, sep1);
+      source.put(row, 0, sep1);
+      source.flip();
+      int targetLength = sep2 - (sep1 + 1);
+      target = BufferUtils.clearAndEnsureCapacity(target, targetLength);
+      target.put(row, sep1 + 1, targetLength);
+      target.flip();
+      int tagLength = row.length - (sep2 + 1);
+      tag = BufferUtils.clearAndEnsureCapacity(tag, tagLength);
+      if (tagLength > 0) {
+        tag.put(row, sep2 + 1, tagLength);
+      }
+      tag.flip();
+
+      encoded = sequenceEncoder.encode(encoded, target, source);
+
+      assembled = BufferUtils.clearAndEnsureCapacity(assembled, target.remaining() + 1 + encoded.remaining() + 1 + tag.remaining());
+      assembled.put(target);
+      assembled.put(separator);
+      assembled.put(encoded);
+      if (tag.hasRemaining()) {
+        assembled.put(separator);
+        assembled.put(tag);
+      }
+      assembled.flip();
+      return BufferUtils.toArray(assembled);
+    }
+
+    private int indexOf(byte[] row, int fromIndex) {
+      for (int i = fromIndex; i < row.length; i++) {
+        if (row[i] == separator) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+
+}
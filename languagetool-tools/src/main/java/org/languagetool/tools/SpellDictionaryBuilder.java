@@ -47,6 +47,8 @@ final class SpellDictionaryBuilder extends DictionaryBuilder {
         BuilderOptions.INFO_HELP, true);
     builderOptions.addOption(BuilderOptions.FREQ_OPTION, true, 
         BuilderOptions.FREQ_HELP, false);
+    builderOptions.addOption(BuilderOptions.THREADS_OPTION, true, 
+        BuilderOptions.THREADS_HELP, false);
     CommandLine cmdLine = builderOptions.parseArguments(args, SpellDictionaryBuilder.class);
     
     String plainTextFile = cmdLine.getOptionValue(BuilderOptions.INPUT_OPTION);
@@ -54,6 +56,9 @@ final class SpellDictionaryBuilder extends DictionaryBuilder {
     
     SpellDictionaryBuilder builder = new SpellDictionaryBuilder(new File(infoFile));
     builder.setOutputFilename(cmdLine.getOptionValue(BuilderOptions.OUTPUT_OPTION));
+    if (cmdLine.hasOption(BuilderOptions.THREADS_OPTION)) {
+      builder.setThreads(Integer.parseInt(cmdLine.getOptionValue(BuilderOptions.THREADS_OPTION)));
+    }
 
     File inputFile = new File(plainTextFile);
 
@@ -0,0 +1,114 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import morfologik.stemming.Dictionary;
+import morfologik.stemming.DictionaryMetadata;
+import org.apache.commons.cli.CommandLine;
+import org.languagetool.rules.spelling.symspell.SymSpellIndex;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Create a SymSpell index for a Morfologik spelling binary dictionary. If the index is stored
+ * next to the dictionary, with the same name but the extension {@code .symspell}, the speller
+ * uses it to find suggestions, which is much faster than searching the dictionary.
+ * @since 5.3
+ */
+final class SymSpellIndexBuilder extends DictionaryBuilder {
+
+  private static final String DISTANCE_OPTION = "d";
+
+  SymSpellIndexBuilder(File infoFile) throws IOException {
+    super(infoFile);
+  }
+
+  public static void main(String[] args) throws Exception {
+    BuilderOptions builderOptions = new BuilderOptions();
+    builderOptions.addOption(BuilderOptions.INPUT_OPTION, true,
+        "binary Morfologik spelling dictionary file (.dict)", true);
+    builderOptions.addOption(BuilderOptions.INFO_OPTION, true,
+        BuilderOptions.INFO_HELP, true);
+    builderOptions.addOption(DISTANCE_OPTION, true,
+        "maximum edit distance of lookups, default: " + SymSpellIndex.DEFAULT_MAX_EDIT_DISTANCE, false);
+    CommandLine cmdLine = builderOptions.parseArguments(args, SymSpellIndexBuilder.class);
+
+    File binaryDictFile = new File(cmdLine.getOptionValue(BuilderOptions.INPUT_OPTION));
+    File infoFile = new File(cmdLine.getOptionValue(BuilderOptions.INFO_OPTION));
+    int maxEditDistance = cmdLine.hasOption(DISTANCE_OPTION) ?
+        Integer.parseInt(cmdLine.getOptionValue(DISTANCE_OPTION)) : SymSpellIndex.DEFAULT_MAX_EDIT_DISTANCE;
+
+    SymSpellIndexBuilder builder = new SymSpellIndexBuilder(infoFile);
+    builder.setOutputFilename(cmdLine.getOptionValue(BuilderOptions.OUTPUT_OPTION));
+    builder.build(binaryDictFile, infoFile, maxEditDistance);
+  }
+
+  File build(File binaryDictFile, File infoFile, int maxEditDistance) throws IOException {
+    Dictionary dictionary;
+    try (InputStream fsa = new FileInputStream(binaryDictFile);
+         InputStream info = new FileInputStream(infoFile)) {
+      dictionary = Dictionary.read(fsa, info);
+    }
+    DictionaryMetadata metadata = dictionary.metadata;
+    Map<String, Integer> words = getWords(dictionary);
+    File outputFile = new File(getOutputFilename());
+    System.out.println("Indexing " + words.size() + " words with a maximum edit distance of " + maxEditDistance + "...");
+    // Morfologik's speller only ignores case when it ignores diacritics, too:
+    SymSpellIndex.write(words, maxEditDistance, SymSpellIndex.DEFAULT_PREFIX_LENGTH,
+        metadata.isConvertingCase() && metadata.isIgnoringDiacritics(), metadata.isIgnoringDiacritics(), outputFile);
+    System.out.println("Done. The index has been written to " + outputFile.getAbsolutePath());
+    return outputFile;
+  }
+
+  private static Map<String, Integer> getWords(Dictionary dictionary) {
+    DictionaryMetadata metadata = dictionary.metadata;
+    Charset charset = metadata.getDecoder().charset();
+    byte separator = metadata.getSeparator();
+    Map<String, Integer> words = new LinkedHashMap<>();
+    for (ByteBuffer entry : dictionary.fsa) {
+      int separatorPos = -1;
+      for (int i = entry.position(); i < entry.limit(); i++) {
+        if (entry.get(i) == separator) {
+          separatorPos = i;
+          break;
+        }
+      }
+      int end = separatorPos == -1 ? entry.limit() : separatorPos;
+      byte[] wordBytes = new byte[end - entry.position()];
+      for (int i = 0; i < wordBytes.length; i++) {
+        wordBytes[i] = entry.get(entry.position() + i);
+      }
+      int frequency = 0;
+      if (metadata.isFrequencyIncluded() && separatorPos != -1 && separatorPos + 1 < entry.limit()) {
+        // same as Speller.getFrequency(): 'A' (rare) to 'Z' (frequent)
+        frequency = Math.max(0, entry.get(separatorPos + 1) - 'A');
+      }
+      words.putIfAbsent(new String(wordBytes, charset), frequency);
+    }
+    return words;
+  }
+
+}
@@ -48,6 +48,8 @@ final class SynthDictionaryBuilder extends DictionaryBuilder {
         BuilderOptions.TAB_INPUT_HELP, true);
     builderOptions.addOption(BuilderOptions.INFO_OPTION, true, 
         BuilderOptions.INFO_HELP, true);
+    builderOptions.addOption(BuilderOptions.THREADS_OPTION, true, 
+        BuilderOptions.THREADS_HELP, false);
     CommandLine cmdLine = builderOptions.parseArguments(args, SynthDictionaryBuilder.class);
     
     File plainTextDictFile = new File(cmdLine.getOptionValue(BuilderOptions.INPUT_OPTION));
@@ -55,6 +57,9 @@ final class SynthDictionaryBuilder extends DictionaryBuilder {
     
     SynthDictionaryBuilder builder = new SynthDictionaryBuilder(infoFile);
     builder.setOutputFilename(cmdLine.getOptionValue(BuilderOptions.OUTPUT_OPTION));
+    if (cmdLine.hasOption(BuilderOptions.THREADS_OPTION)) {
+      builder.setThreads(Integer.parseInt(cmdLine.getOptionValue(BuilderOptions.THREADS_OPTION)));
+    }
 	
     tagsFilename = cmdLine.getOptionValue(BuilderOptions.OUTPUT_OPTION) + "_tags.txt";
 
@@ -0,0 +1,130 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import morfologik.fsa.FSA;
+import morfologik.fsa.builders.CFSA2Serializer;
+import morfologik.stemming.DictionaryMetadata;
+import morfologik.tools.DictCompile;
+import morfologik.tools.FSACompile;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ParallelFSACompilerTest {
+
+  @Test
+  public void testSameOutputAsDictCompile() throws Exception {
+    Path dir = Files.createTempDirectory("parallelFsaTest");
+    Path input = dir.resolve("test.txt");
+    Path info = dir.resolve("test.info");
+    try {
+      List<String> lines = new ArrayList<>();
+      for (int i = 0; i < 2000; i++) {
+        lines.add("lemma" + (i % 300) + "+form" + i + "s+tag:" + (i % 7));
+        lines.add("lemma" + (i % 300) + "+form" + i + "s+tag:" + (i % 7));  // duplicate
+      }
+      Collections.shuffle(lines, new Random(42));
+      Files.write(input, lines, StandardCharsets.UTF_8);
+      Files.write(info, Collections.singletonList("fsa.dict.separator=+\nfsa.dict.encoding=utf-8\nfsa.dict.encoder=SUFFIX"));
+      DictCompile.main(new String[]{"--exit", "false", "-i", input.toString(), "-f", "CFSA2"});
+      byte[] expected = Files.readAllBytes(dir.resolve("test.dict"));
+      DictionaryMetadata metadata;
+      try (InputStream in = Files.newInputStream(info)) {
+        metadata = DictionaryMetadata.read(in);
+      }
+      ParallelFSACompiler compiler = new ParallelFSACompiler(ParallelFSACompiler.dictionaryEncoders(metadata), 3, 1000);
+      assertArrayEquals(expected, serialize(compiler.build(input)));
+    } finally {
+      deleteAll(dir);
+    }
+  }
+
+  @Test
+  public void testSameOutputAsFSACompile() throws Exception {
+    Path dir = Files.createTempDirectory("parallelFsaTest");
+    Path input = dir.resolve("words.txt");
+    Path output = dir.resolve("words.dict");
+    try {
+      List<String> lines = new ArrayList<>();
+      for (int i = 0; i < 3000; i++) {
+        lines.add("wörter" + (i % 1000) + "x");
+      }
+      Files.write(input, lines, StandardCharsets.UTF_8);
+      FSACompile.main(new String[]{"--exit", "false", "-i", input.toString(), "-o", output.toString(), "-f", "CFSA2"});
+      ParallelFSACompiler compiler = new ParallelFSACompiler(ParallelFSACompiler.plainEncoders(), 2, 500);
+      assertArrayEquals(Files.readAllBytes(output), serialize(compiler.build(input)));
+    } finally {
+      deleteAll(dir);
+    }
+  }
+
+  @Test
+  public void testInvalidInput() throws Exception {
+    Path input = Files.createTempFile("parallelFsaTest", ".txt");
+    try {
+      ParallelFSACompiler compiler = new ParallelFSACompiler(ParallelFSACompiler.plainEncoders(), 2, 500);
+      Files.write(input, "foo\n\nbar\n".getBytes(StandardCharsets.UTF_8));
+      assertInvalid(compiler, input, "empty sequences");
+      Files.write(input, "foo\r\nbar\r\n".getBytes(StandardCharsets.UTF_8));
+      assertInvalid(compiler, input, "CR");
+      Files.write(input, "\uFEFFfoo\nbar\n".getBytes(StandardCharsets.UTF_8));
+      assertInvalid(compiler, input, "BOM");
+    } finally {
+      Files.delete(input);
+    }
+  }
+
+  private void assertInvalid(ParallelFSACompiler compiler, Path input, String expectedMessage) {
+    try {
+      compiler.build(input);
+      fail();
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains(expectedMessage));
+    }
+  }
+
+  private byte[] serialize(FSA fsa) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new CFSA2Serializer().serialize(fsa, out);
+    return out.toByteArray();
+  }
+
+  private void deleteAll(Path dir) throws IOException {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+      for (Path file : files) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(dir);
+  }
+
+}
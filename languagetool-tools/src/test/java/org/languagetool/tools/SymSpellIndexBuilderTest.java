@@ -0,0 +1,74 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import org.junit.Test;
+import org.languagetool.rules.spelling.symspell.SymSpellIndex;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class SymSpellIndexBuilderTest {
+
+  private static final String INFO =
+      "fsa.dict.separator=+\n" +
+      "fsa.dict.encoding=utf-8\n" +
+      "fsa.dict.frequency-included=true\n" +
+      "fsa.dict.encoder=SUFFIX";
+
+  @Test
+  public void testBuildIndex() throws Exception {
+    Path inputFile = Files.createTempFile("dictTest", ".txt");
+    Path infoFile = Files.createTempFile("dictTest", ".info");
+    Path dictFile = Files.createTempFile("dictTest", ".dict");
+    Path indexFile = Files.createTempFile("dictTest", SymSpellIndex.FILE_EXTENSION);
+    try {
+      Files.write(inputFile, Arrays.asList("house+K", "mouse+C", "Häuser+A"));
+      Files.write(infoFile, Arrays.asList(INFO));
+      SpellDictionaryBuilder.main(new String[] {
+          "-i", inputFile.toAbsolutePath().toString(),
+          "-info", infoFile.toAbsolutePath().toString(),
+          "-o", dictFile.toAbsolutePath().toString()} );
+      SymSpellIndexBuilder.main(new String[] {
+          "-i", dictFile.toAbsolutePath().toString(),
+          "-info", infoFile.toAbsolutePath().toString(),
+          "-o", indexFile.toAbsolutePath().toString()} );
+
+      SymSpellIndex index = SymSpellIndex.map(indexFile.toFile());
+      assertThat(index.getWordCount(), is(3));
+      assertThat(index.getMaxEditDistance(), is(SymSpellIndex.DEFAULT_MAX_EDIT_DISTANCE));
+      List<SymSpellIndex.Candidate> candidates = index.lookup("hosue", 1);
+      assertThat(candidates.size(), is(1));
+      assertThat(candidates.get(0).getWord(), is("house"));
+      assertThat(candidates.get(0).getFrequency(), is(10));
+      assertThat(index.lookup("hauser", 0).get(0).getWord(), is("Häuser"));
+    } finally {
+      inputFile.toFile().deleteOnExit();
+      infoFile.toFile().deleteOnExit();
+      dictFile.toFile().deleteOnExit();
+      indexFile.toFile().deleteOnExit();
+    }
+  }
+
+}
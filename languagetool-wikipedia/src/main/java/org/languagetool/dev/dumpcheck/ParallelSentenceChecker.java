@@ -0,0 +1,205 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.dumpcheck;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.rules.RuleMatch;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.NumberFormat;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks sentences with several {@link JLanguageTool} instances in parallel, one per thread.
+ * Sentences are checked in batches, the results are passed to the {@link ResultHandler}
+ * in the order of the input, so the output is the same as when checking with one thread.
+ * Optionally, the number of sentences whose results have been handled is written to a
+ * checkpoint file, so an interrupted run can be continued with {@link #readCheckpoint(File)}.
+ * @since 5.3
+ */
+class ParallelSentenceChecker implements AutoCloseable {
+
+  private static final int BATCH_SIZE = 100;
+
+  private final BlockingQueue<JLanguageTool> languageTools;
+  private final ExecutorService executor;
+  private final Deque<Future<List<CheckResult>>> pendingBatches = new ArrayDeque<>();
+  private final int maxPendingBatches;
+  private final ResultHandler resultHandler;
+  private final Language lang;
+  private final File checkpointFile;
+  private final int sentencesBefore;
+
+  private List<Sentence> batch = new ArrayList<>(BATCH_SIZE);
+  private int sentenceCount;
+  private int ruleMatchCount;
+
+  /**
+   * @param languageTools the configured instances, one per thread
+   * @param checkpointFile file to write the number of handled sentences to, or {@code null}
+   * @param sentencesBefore number of sentences of the input that were skipped, added to the checkpoint
+   */
+  ParallelSentenceChecker(List<JLanguageTool> languageTools, ResultHandler resultHandler, Language lang,
+                          @Nullable File checkpointFile, int sentencesBefore) {
+    this.languageTools = new ArrayBlockingQueue<>(languageTools.size(), false, languageTools);
+    this.executor = Executors.newFixedThreadPool(languageTools.size(), new CheckerThreadFactory());
+    // enough batches so no thread waits while the results of a slow batch are pending:
+    this.maxPendingBatches = languageTools.size() * 2;
+    this.resultHandler = resultHandler;
+    this.lang = lang;
+    this.checkpointFile = checkpointFile;
+    this.sentencesBefore = sentencesBefore;
+  }
+
+  /**
+   * @return the number of sentences handled before, or 0 if the file doesn't exist
+   */
+  static int readCheckpoint(File checkpointFile) throws IOException {
+    if (!checkpointFile.exists()) {
+      return 0;
+    }
+    return Integer.parseInt(new String(Files.readAllBytes(checkpointFile.toPath()), StandardCharsets.UTF_8).trim());
+  }
+
+  void add(Sentence sentence) {
+    batch.add(sentence);
+    if (batch.size() == BATCH_SIZE) {
+      submitBatch();
+    }
+  }
+
+  /**
+   * Check the remaining sentences and wait until all results have been handled.
+   */
+  void finish() {
+    if (!batch.isEmpty()) {
+      submitBatch();
+    }
+    while (!pendingBatches.isEmpty()) {
+      handleResults(pendingBatches.poll());
+    }
+  }
+
+  int getSentenceCount() {
+    return sentenceCount;
+  }
+
+  int getRuleMatchCount() {
+    return ruleMatchCount;
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    writeCheckpoint();
+  }
+
+  private void submitBatch() {
+    List<Sentence> sentences = batch;
+    batch = new ArrayList<>(BATCH_SIZE);
+    pendingBatches.add(executor.submit(() -> check(sentences)));
+    // handle the results that are ready, wait for the oldest batch if too many are pending:
+    while (!pendingBatches.isEmpty() && (pendingBatches.peek().isDone() || pendingBatches.size() > maxPendingBatches)) {
+      handleResults(pendingBatches.poll());
+    }
+  }
+
+  private List<CheckResult> check(List<Sentence> sentences) throws InterruptedException {
+    JLanguageTool lt = languageTools.take();  // there's one per thread, so this never waits
+    try {
+      List<CheckResult> results = new ArrayList<>(sentences.size());
+      for (Sentence sentence : sentences) {
+        try {
+          results.add(new CheckResult(sentence, lt.check(sentence.getText())));
+        } catch (Exception e) {
+          throw new RuntimeException("Check failed on sentence: " + StringUtils.abbreviate(sentence.getText(), 250), e);
+        }
+      }
+      return results;
+    } finally {
+      languageTools.add(lt);
+    }
+  }
+
+  private void handleResults(Future<List<CheckResult>> future) {
+    List<CheckResult> results;
+    try {
+      results = future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    }
+    for (CheckResult result : results) {
+      resultHandler.handleResult(result.sentence, result.matches, lang);
+      sentenceCount++;
+      if (sentenceCount % 5000 == 0) {
+        System.err.printf("%s sentences checked...\n", NumberFormat.getNumberInstance(Locale.US).format(sentenceCount));
+        writeCheckpoint();
+      }
+      ruleMatchCount += result.matches.size();
+    }
+  }
+
+  private void writeCheckpoint() {
+    if (checkpointFile == null) {
+      return;
+    }
+    try {
+      File tmpFile = new File(checkpointFile.getPath() + ".tmp");
+      Files.write(tmpFile.toPath(), String.valueOf(sentencesBefore + sentenceCount).getBytes(StandardCharsets.UTF_8));
+      Files.move(tmpFile.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      System.err.println("Could not write checkpoint to " + checkpointFile + ": " + e);
+    }
+  }
+
+  private static class CheckResult {
+    private final Sentence sentence;
+    private final List<RuleMatch> matches;
+    CheckResult(Sentence sentence, List<RuleMatch> matches) {
+      this.sentence = sentence;
+      this.matches = matches;
+    }
+  }
+
+  private static class CheckerThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, "sentence-checker-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+}
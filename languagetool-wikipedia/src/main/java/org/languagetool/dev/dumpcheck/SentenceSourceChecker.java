@@ -23,10 +23,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.Languages;
-import org.languagetool.MultiThreadedJLanguageTool;
 import org.languagetool.rules.CategoryId;
 import org.languagetool.rules.Rule;
-import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.patterns.AbstractPatternRule;
 
 import java.io.File;
@@ -127,11 +125,20 @@ public class SentenceSourceChecker {
             .desc("Activate only rules from this XML file (e.g. 'grammar.xml')").build());
     options.addOption(Option.builder().longOpt("skip").hasArg()
             .desc("Skip this many sentences from input before actually checking sentences").build());
+    options.addOption(Option.builder().longOpt("threads").argName("number").hasArg()
+            .desc("number of threads that check sentences, each with its own copy of the rules (default: number of processors)").build());
+    options.addOption(Option.builder().longOpt("checkpoint").argName("file").hasArg()
+            .desc("File to store the number of sentences checked so far. If it exists, " +
+                  "checking continues after that many sentences, like with --skip").build());
     options.addOption(Option.builder().longOpt("print-duration")
             .desc("Print the duration of analysis in milliseconds").build());
     try {
       CommandLineParser parser = new DefaultParser();
-      return parser.parse(options, args);
+      CommandLine commandLine = parser.parse(options, args);
+      if (commandLine.hasOption("threads") && !isPositiveNumber(commandLine.getOptionValue("threads"))) {
+        throw new ParseException("--threads must be a number >= 1: " + commandLine.getOptionValue("threads"));
+      }
+      return commandLine;
     } catch (ParseException e) {
       System.err.println("Error: " + e.getMessage());
       HelpFormatter formatter = new HelpFormatter();
@@ -143,6 +150,14 @@ public class SentenceSourceChecker {
     throw new IllegalStateException();
   }
 
+  private static boolean isPositiveNumber(String s) {
+    try {
+      return Integer.parseInt(s) >= 1;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
   private void run(File propFile, Set<String> disabledRules, String langCode, String motherTongueCode,
                    int maxSentences, int maxErrors, int contextSize,
                    CommandLine options) throws IOException {
@@ -159,17 +174,16 @@ public class SentenceSourceChecker {
     int sentencesToSkip = options.hasOption("skip") ? Integer.parseInt(options.getOptionValue("skip")) : 0;
     Language lang = Languages.getLanguageForShortCode(langCode);
     Language motherTongue = motherTongueCode != null ? Languages.getLanguageForShortCode(motherTongueCode) : null;
-    MultiThreadedJLanguageTool lt = new MultiThreadedJLanguageTool(lang, motherTongue);
-    lt.setCleanOverlappingMatches(false);
-    if (languageModelDir != null) {
-      lt.activateLanguageModelRules(languageModelDir);
-    }
-    if (word2vecModelDir != null) {
-      lt.activateWord2VecModelRules(word2vecModelDir);
-    }
-    if (neuralNetworkModelDir != null) {
-      lt.activateNeuralNetworkRules(neuralNetworkModelDir);
+    int threads = options.hasOption("threads") ? Integer.parseInt(options.getOptionValue("threads")) : Runtime.getRuntime().availableProcessors();
+    File checkpointFile = options.hasOption("checkpoint") ? new File(options.getOptionValue("checkpoint")) : null;
+    if (checkpointFile != null) {
+      int checkpoint = ParallelSentenceChecker.readCheckpoint(checkpointFile);
+      if (checkpoint > sentencesToSkip) {
+        System.out.println("Continuing after sentence " + checkpoint + " from checkpoint " + checkpointFile);
+        sentencesToSkip = checkpoint;
+      }
     }
+    JLanguageTool lt = createLanguageTool(lang, motherTongue, languageModelDir, word2vecModelDir, neuralNetworkModelDir);
     int activatedBySource = 0;
     for (Rule rule : lt.getAllRules()) {
       if (rule.isDefaultTempOff()) {
@@ -217,11 +231,21 @@ public class SentenceSourceChecker {
     System.out.println("Context size: " + contextSize);
     System.out.println("Error limit: " + (maxErrors > 0 ? maxErrors : "no limit"));
     System.out.println("Skip: " + sentencesToSkip);
+    System.out.println("Threads: " + threads);
     //System.out.println("Version: " + JLanguageTool.VERSION + " (" + JLanguageTool.BUILD_DATE + ")");
 
+    // each thread gets its own instance with the same rules, so sentences can be checked independently:
+    List<JLanguageTool> languageTools = new ArrayList<>();
+    languageTools.add(lt);
+    for (int i = 1; i < threads; i++) {
+      JLanguageTool threadLt = createLanguageTool(lang, motherTongue, languageModelDir, word2vecModelDir, neuralNetworkModelDir);
+      threadLt.activateRemoteRules(remoteRules);
+      copyActiveRules(lt, threadLt);
+      languageTools.add(threadLt);
+    }
+
     ResultHandler resultHandler = null;
-    int ruleMatchCount = 0;
-    int sentenceCount = 0;
+    ParallelSentenceChecker checker = null;
     int skipCount = 0;
     boolean skipMessageShown = false;
     try {
@@ -230,6 +254,7 @@ public class SentenceSourceChecker {
       } else {
         resultHandler = new StdoutHandler(maxSentences, maxErrors, contextSize);
       }
+      checker = new ParallelSentenceChecker(languageTools, resultHandler, lang, checkpointFile, sentencesToSkip);
       MixingSentenceSource mixingSource = MixingSentenceSource.create(Arrays.asList(fileNames), lang, filter);
       while (mixingSource.hasNext()) {
         Sentence sentence = mixingSource.next();
@@ -243,25 +268,18 @@ public class SentenceSourceChecker {
           System.err.println("Done skipping " + sentencesToSkip + " sentences.");
           skipMessageShown = true;
         }
-        try {
-          List<RuleMatch> matches = lt.check(sentence.getText());
-          resultHandler.handleResult(sentence, matches, lang);
-          sentenceCount++;
-          if (sentenceCount % 5000 == 0) {
-            System.err.printf("%s sentences checked...\n", NumberFormat.getNumberInstance(Locale.US).format(sentenceCount));
-          }
-          ruleMatchCount += matches.size();
-        } catch (DocumentLimitReachedException | ErrorLimitReachedException e) {
-          throw e;
-        } catch (Exception e) {
-          throw new RuntimeException("Check failed on sentence: " + StringUtils.abbreviate(sentence.getText(), 250), e);
-        }
+        checker.add(sentence);
       }
+      checker.finish();
     } catch (DocumentLimitReachedException | ErrorLimitReachedException e) {
       System.out.println(getClass().getSimpleName() + ": " + e);
     } finally {
-      lt.shutdown();
+      if (checker != null) {
+        checker.close();
+      }
       if (resultHandler != null) {
+        int ruleMatchCount = checker != null ? checker.getRuleMatchCount() : 0;
+        int sentenceCount = checker != null ? checker.getSentenceCount() : 0;
         float matchesPerSentence = (float)ruleMatchCount / sentenceCount;
         System.out.printf(lang + ": %d total matches\n", ruleMatchCount);
         System.out.printf(Locale.ENGLISH, lang + ": ø%.2f rule matches per sentence\n", matchesPerSentence);
@@ -277,6 +295,36 @@ public class SentenceSourceChecker {
     }
   }
 
+  private static JLanguageTool createLanguageTool(Language lang, Language motherTongue, File languageModelDir,
+                                                 File word2vecModelDir, File neuralNetworkModelDir) throws IOException {
+    JLanguageTool lt = new JLanguageTool(lang, motherTongue);
+    lt.setCleanOverlappingMatches(false);
+    if (languageModelDir != null) {
+      lt.activateLanguageModelRules(languageModelDir);
+    }
+    if (word2vecModelDir != null) {
+      lt.activateWord2VecModelRules(word2vecModelDir);
+    }
+    if (neuralNetworkModelDir != null) {
+      lt.activateNeuralNetworkRules(neuralNetworkModelDir);
+    }
+    return lt;
+  }
+
+  private static void copyActiveRules(JLanguageTool from, JLanguageTool to) {
+    Set<String> activeRuleIds = new HashSet<>();
+    for (Rule rule : from.getAllActiveRules()) {
+      activeRuleIds.add(rule.getId());
+    }
+    for (Rule rule : to.getAllRules()) {
+      if (activeRuleIds.contains(rule.getId())) {
+        to.enableRule(rule.getId());
+      } else {
+        to.disableRule(rule.getId());
+      }
+    }
+  }
+
   private static void enableOnlySpecifiedRules(String[] ruleIds, JLanguageTool lt) {
     for (Rule rule : lt.getAllRules()) {
       lt.disableRule(rule.getId());
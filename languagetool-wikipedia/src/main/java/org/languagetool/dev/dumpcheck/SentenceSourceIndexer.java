@@ -24,16 +24,19 @@ import org.apache.lucene.analysis.util.CharArraySet;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.languagetool.Language;
 import org.languagetool.Languages;
 import org.languagetool.dev.index.Indexer;
+import org.languagetool.dev.index.ParallelIndexer;
 import org.xml.sax.helpers.DefaultHandler;
 //import sun.misc.Signal;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -61,11 +64,21 @@ public class SentenceSourceIndexer extends DefaultHandler implements AutoCloseab
   private int sentenceCount = 0;
   
   SentenceSourceIndexer(Directory dir, Language language, int maxSentences, Analyzer analyzer) {
-    if (analyzer == null) {
-      this.indexer = new Indexer(dir, language);
-    } else {
-      this.indexer = new Indexer(dir, language, analyzer);
-    }
+    this(createIndexer(dir, language, analyzer), maxSentences);
+  }
+
+  /**
+   * Index with {@code threads} threads, each writing to its own index below {@code tmpDir}.
+   * @since 5.3
+   */
+  SentenceSourceIndexer(Directory dir, Language language, int maxSentences, Analyzer analyzer, int threads, Path tmpDir) throws IOException {
+    this(threads > 1
+        ? new ParallelIndexer(dir, language, analyzer, tmpDir, threads, IndexWriterConfig.DEFAULT_RAM_BUFFER_SIZE_MB, 10)
+        : createIndexer(dir, language, analyzer), maxSentences);
+  }
+
+  private SentenceSourceIndexer(Indexer indexer, int maxSentences) {
+    this.indexer = indexer;
     this.indexer.setLowercaseOnly(LC_ONLY);
     this.maxSentences = maxSentences;
 /*    Signal.handle(new Signal("HUP"), signal -> {
@@ -81,6 +94,13 @@ public class SentenceSourceIndexer extends DefaultHandler implements AutoCloseab
     });*/
   }
 
+  private static Indexer createIndexer(Directory dir, Language language, Analyzer analyzer) {
+    if (analyzer == null) {
+      return new Indexer(dir, language);
+    }
+    return new Indexer(dir, language, analyzer);
+  }
+
   SentenceSourceIndexer(Directory dir, Language language, int maxSentences) {
     this(dir, language, maxSentences, null);
   }
@@ -118,19 +138,21 @@ public class SentenceSourceIndexer extends DefaultHandler implements AutoCloseab
   }
 
   public static void main(String... args) throws Exception {
-    if (args.length != 5) {
-      System.out.println("Usage: " + SentenceSourceIndexer.class.getSimpleName() + " <dataFile...> <indexDir> <languageCode> <maxSentences> <indexPosTags>");
+    if (args.length != 5 && args.length != 6) {
+      System.out.println("Usage: " + SentenceSourceIndexer.class.getSimpleName() + " <dataFile...> <indexDir> <languageCode> <maxSentences> <indexPosTags> [threads]");
       System.out.println("\t<dataFiles> comma-separated list of a Wikipedia XML dump (*.xml) and/or Tatoeba files (tatoeba-*)");
       System.out.println("\t<indexDir> directory where Lucene index will be written to, existing index content will be removed");
       System.out.println("\t<languageCode> short code like en for English, de for German etc");
       System.out.println("\t<maxSentences> maximum number of sentences to be indexed, use 0 for no limit");
       System.out.println("\t<indexPosTags> 1 to also index POS tags (i.e. analyze text by LT), 0 to index only the plain text");
+      System.out.println("\t[threads] number of indexing threads, default 1 (optional)");
       System.exit(1);
     }
     List<String> dumpFilesNames = Arrays.asList(args[0].split(","));
-    File indexDir = new File(args[1]);
+    File indexDir = new File(args[1]).getAbsoluteFile();
     String languageCode = args[2];
     int maxSentences = Integer.parseInt(args[3]);
+    int threads = args.length > 5 ? Integer.parseInt(args[5]) : 1;
 
     Language language = Languages.getLanguageForShortCode(languageCode);
     if (maxSentences == 0) {
@@ -150,7 +172,8 @@ public class SentenceSourceIndexer extends DefaultHandler implements AutoCloseab
       throw new IllegalArgumentException("Unknown value '" + indexPos + "' for indexPosTags parameter, use 0 or 1");
     }
     try (FSDirectory fsDirectory = FSDirectory.open(indexDir.toPath());
-         SentenceSourceIndexer indexer = new SentenceSourceIndexer(fsDirectory, language, maxSentences, analyzer)) {
+         SentenceSourceIndexer indexer = new SentenceSourceIndexer(fsDirectory, language, maxSentences, analyzer,
+                                                                   threads, new File(indexDir.getParentFile(), indexDir.getName() + "-parts").toPath())) {
       try {
         indexer.run(dumpFilesNames, language);
       } catch (DocumentLimitReachedException e) {
@@ -27,10 +27,12 @@ import java.util.Random;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
 import org.apache.lucene.document.*;
+import org.apache.lucene.index.CodecReader;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.TieredMergePolicy;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.languagetool.JLanguageTool;
@@ -61,8 +63,11 @@ public class Indexer implements AutoCloseable {
   }
 
   public Indexer(Directory dir, Language language, Analyzer analyzer) {
+    this(dir, language, getIndexWriterConfig(analyzer));
+  }
+
+  Indexer(Directory dir, Language language, IndexWriterConfig writerConfig) {
     try {
-      IndexWriterConfig writerConfig = getIndexWriterConfig(analyzer);
       writerConfig.setOpenMode(OpenMode.CREATE);
       writer = new IndexWriter(dir, writerConfig);
       sentenceTokenizer = language.getSentenceTokenizer();
@@ -80,7 +85,7 @@ public class Indexer implements AutoCloseable {
   
   public static void main(String[] args) throws IOException {
     ensureCorrectUsageOrExit(args);
-    run(args[0], args[1], args[2]);
+    run(args);
   }
 
   static Analyzer getAnalyzer(Language language) {
@@ -94,14 +99,59 @@ public class Indexer implements AutoCloseable {
     return new IndexWriterConfig(analyzer);
   }
 
+  /**
+   * @param ramBufferSizeMB RAM used for buffering documents before they are written as a segment
+   * @param segmentsPerTier number of segments of about the same size allowed before they get merged
+   * @since 5.3
+   */
+  static IndexWriterConfig getIndexWriterConfig(Analyzer analyzer, double ramBufferSizeMB, double segmentsPerTier) {
+    IndexWriterConfig config = new IndexWriterConfig(analyzer);
+    config.setRAMBufferSizeMB(ramBufferSizeMB);
+    TieredMergePolicy mergePolicy = new TieredMergePolicy();
+    mergePolicy.setSegmentsPerTier(segmentsPerTier);
+    config.setMergePolicy(mergePolicy);
+    return config;
+  }
+
   private static void ensureCorrectUsageOrExit(String[] args) {
-    if (args.length != 3) {
-      System.err.println("Usage: Indexer <textFile> <indexDir> <languageCode>");
+    if (args.length < 3 || args.length > 6) {
+      System.err.println("Usage: Indexer <textFile> <indexDir> <languageCode> [threads] [ramBufferMB] [segmentsPerTier]");
       System.err.println("\ttextFile path to a text file to be indexed (line end implies sentence end)");
       System.err.println("\tindexDir path to a directory storing the index");
       System.err.println("\tlanguageCode short language code, e.g. en for English");
+      System.err.println("\tthreads number of threads analyzing the text, default 1");
+      System.err.println("\tramBufferMB RAM per thread for buffering documents, default " + IndexWriterConfig.DEFAULT_RAM_BUFFER_SIZE_MB);
+      System.err.println("\tsegmentsPerTier number of segments of similar size before they get merged, default 10");
+      System.exit(1);
+    }
+  }
+
+  private static void run(String[] args) throws IOException {
+    if (args.length == 3) {
+      run(args[0], args[1], args[2]);
+      return;
+    }
+    int threads = Integer.parseInt(args[3]);
+    double ramBufferSizeMB = args.length > 4 ? Double.parseDouble(args[4]) : IndexWriterConfig.DEFAULT_RAM_BUFFER_SIZE_MB;
+    double segmentsPerTier = args.length > 5 ? Double.parseDouble(args[5]) : 10;
+    File file = new File(args[0]);
+    if (!file.exists() || !file.canRead()) {
+      System.out.println("Text file '" + file.getAbsolutePath()
+          + "' does not exist or is not readable, please check the path");
       System.exit(1);
     }
+    File indexDir = new File(args[1]).getAbsoluteFile();
+    try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+      System.out.println("Indexing to directory '" + indexDir + "' with " + threads + " threads...");
+      try (FSDirectory directory = FSDirectory.open(indexDir.toPath())) {
+        Language language = Languages.getLanguageForShortCode(args[2]);
+        File tmpDir = new File(indexDir.getParentFile(), indexDir.getName() + "-parts");
+        try (Indexer indexer = new ParallelIndexer(directory, language, tmpDir.toPath(), threads, ramBufferSizeMB, segmentsPerTier)) {
+          indexer.indexText(reader);
+        }
+      }
+    }
+    System.out.println("Index complete!");
   }
 
   private static void run(String textFile, String indexDir, String languageCode) throws IOException {
@@ -186,7 +236,7 @@ public class Indexer implements AutoCloseable {
     writer.addDocument(doc);
   }
 
-  private void add(String sentence, String source, String title, int docCount) throws IOException {
+  void add(String sentence, String source, String title, int docCount) throws IOException {
     Document doc = new Document();
     FieldType type = new FieldType();
     type.setStored(true);
@@ -221,6 +271,21 @@ public class Indexer implements AutoCloseable {
     writer.addDocument(doc);
   }
 
+  void addIndexes(Directory... dirs) throws IOException {
+    writer.addIndexes(dirs);
+  }
+
+  /**
+   * Like {@link #addIndexes(Directory...)}, but also works for indexes that are still open for writing.
+   */
+  void addIndexes(CodecReader... readers) throws IOException {
+    writer.addIndexes(readers);
+  }
+
+  void deleteAll() throws IOException {
+    writer.deleteAll();
+  }
+
   @Override
   public void close() throws IOException {
     writer.close();
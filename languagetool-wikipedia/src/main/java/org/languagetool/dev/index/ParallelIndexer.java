@@ -0,0 +1,244 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.index;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.CodecReader;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SlowCodecReaderWrapper;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.IOUtils;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.Language;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link Indexer} that analyzes sentences on several threads. Each thread has its own
+ * LanguageTool analyzer and writes to its own index in a sub directory of a temporary
+ * directory. On {@link #commit()} and {@link #close()}, these indexes are added to the target index.
+ * Documents added with {@link #add(Document)} are written to the target index directly,
+ * so their fields must not be tokenized.
+ * @since 5.3
+ */
+public class ParallelIndexer extends Indexer {
+
+  private static final int BATCH_SIZE = 100;
+
+  private final Path tmpDir;
+  private final List<Directory> partDirs = new ArrayList<>();
+  private final BlockingQueue<Indexer> partIndexers;
+  private final ExecutorService executor;
+  private final Semaphore pendingBatches;
+  private final int maxPendingBatches;
+
+  private List<PendingSentence> batch = new ArrayList<>(BATCH_SIZE);
+  private volatile Exception error;
+
+  /**
+   * @param tmpDir directory for the per-thread indexes, created if needed and deleted on close
+   * @param ramBufferSizeMB RAM per thread for buffering documents before they are written as a segment
+   * @param segmentsPerTier number of segments of about the same size allowed before they get merged
+   */
+  public ParallelIndexer(Directory dir, Language language, Path tmpDir, int threads,
+                         double ramBufferSizeMB, double segmentsPerTier) throws IOException {
+    this(dir, language, null, tmpDir, threads, ramBufferSizeMB, segmentsPerTier);
+  }
+
+  /**
+   * @param analyzer analyzer used by all threads, or {@code null} to use a LanguageTool analyzer per thread
+   */
+  public ParallelIndexer(Directory dir, Language language, @Nullable Analyzer analyzer, Path tmpDir, int threads,
+                         double ramBufferSizeMB, double segmentsPerTier) throws IOException {
+    super(dir, language, getIndexWriterConfig(new DoNotUseAnalyzer(), ramBufferSizeMB, segmentsPerTier));
+    this.tmpDir = tmpDir;
+    this.partIndexers = new ArrayBlockingQueue<>(threads);
+    for (int i = 0; i < threads; i++) {
+      Directory partDir = FSDirectory.open(Files.createDirectories(tmpDir.resolve("part" + i)));
+      partDirs.add(partDir);
+      Analyzer partAnalyzer = analyzer != null ? analyzer : getAnalyzer(language);
+      partIndexers.add(new Indexer(partDir, language, getIndexWriterConfig(partAnalyzer, ramBufferSizeMB, segmentsPerTier)));
+    }
+    this.executor = Executors.newFixedThreadPool(threads, new IndexerThreadFactory());
+    // enough batches so no thread waits for the next one, but don't read the whole input into memory:
+    this.maxPendingBatches = threads * 2;
+    this.pendingBatches = new Semaphore(maxPendingBatches);
+  }
+
+  @Override
+  public void setLowercaseOnly(boolean lowercaseOnly) {
+    super.setLowercaseOnly(lowercaseOnly);
+    for (Indexer partIndexer : partIndexers) {
+      partIndexer.setLowercaseOnly(lowercaseOnly);
+    }
+  }
+
+  @Override
+  void add(String sentence, String source, String title, int docCount) throws IOException {
+    batch.add(new PendingSentence(sentence, source, title, docCount));
+    if (batch.size() == BATCH_SIZE) {
+      submitBatch();
+    }
+  }
+
+  private void submitBatch() throws IOException {
+    throwOnError();
+    List<PendingSentence> sentences = batch;
+    batch = new ArrayList<>(BATCH_SIZE);
+    try {
+      pendingBatches.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for indexer threads", e);
+    }
+    executor.execute(() -> {
+      try {
+        Indexer indexer = partIndexers.take();  // there's one per thread, so this never waits
+        try {
+          for (PendingSentence sentence : sentences) {
+            indexer.add(sentence.sentence, sentence.source, sentence.title, sentence.docCount);
+          }
+        } finally {
+          partIndexers.add(indexer);
+        }
+      } catch (Exception e) {
+        error = e;
+      } finally {
+        pendingBatches.release();
+      }
+    });
+  }
+
+  private void throwOnError() throws IOException {
+    if (error != null) {
+      throw new IOException("Indexing failed", error);
+    }
+  }
+
+  /**
+   * Waits for the pending sentences to be analyzed, moves the per-thread indexes
+   * into the target index and commits it.
+   */
+  @Override
+  public void commit() throws IOException {
+    awaitPendingBatches();
+    for (Indexer partIndexer : partIndexers) {
+      partIndexer.commit();
+    }
+    // the part writers are still open, so we cannot use addIndexes(Directory...) here:
+    List<DirectoryReader> readers = new ArrayList<>();
+    try {
+      List<CodecReader> segments = new ArrayList<>();
+      for (Directory partDir : partDirs) {
+        DirectoryReader reader = DirectoryReader.open(partDir);
+        readers.add(reader);
+        for (LeafReaderContext leaf : reader.leaves()) {
+          segments.add(SlowCodecReaderWrapper.wrap(leaf.reader()));
+        }
+      }
+      addIndexes(segments.toArray(new CodecReader[0]));
+    } finally {
+      IOUtils.close(readers);
+    }
+    for (Indexer partIndexer : partIndexers) {
+      partIndexer.deleteAll();
+      partIndexer.commit();
+    }
+    super.commit();
+  }
+
+  private void awaitPendingBatches() throws IOException {
+    if (!batch.isEmpty() && error == null) {
+      submitBatch();
+    }
+    try {
+      pendingBatches.acquire(maxPendingBatches);
+      pendingBatches.release(maxPendingBatches);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for indexer threads", e);
+    }
+    throwOnError();
+  }
+
+  @Override
+  public void close() throws IOException {
+    boolean partsClosed = false;
+    try {
+      awaitPendingBatches();
+      executor.shutdown();
+      for (Indexer partIndexer : partIndexers) {
+        partIndexer.close();
+      }
+      partsClosed = true;
+      System.out.println("Merging " + partDirs.size() + " partial indexes...");
+      addIndexes(partDirs.toArray(new Directory[0]));
+    } finally {
+      executor.shutdownNow();
+      if (!partsClosed) {
+        for (Indexer partIndexer : partIndexers) {
+          try {
+            partIndexer.close();
+          } catch (Exception ignored) {
+            // we're failing anyway
+          }
+        }
+      }
+      super.close();
+      for (Directory partDir : partDirs) {
+        partDir.close();
+      }
+      FileUtils.deleteDirectory(tmpDir.toFile());
+    }
+  }
+
+  private static class PendingSentence {
+    private final String sentence;
+    private final String source;
+    private final String title;
+    private final int docCount;
+    PendingSentence(String sentence, String source, String title, int docCount) {
+      this.sentence = sentence;
+      this.source = source;
+      this.title = title;
+      this.docCount = docCount;
+    }
+  }
+
+  private static class IndexerThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, "indexer-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+}
@@ -26,17 +26,24 @@ import static org.languagetool.dev.index.Lucene.SOURCE_FIELD_NAME;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import org.apache.lucene.document.Document;
-import org.apache.lucene.index.DirectoryReader;
-import org.apache.lucene.index.Term;
+import org.apache.lucene.index.*;
 import org.apache.lucene.search.*;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.SimpleFSDirectory;
-import org.apache.lucene.util.Counter;
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
@@ -66,9 +73,12 @@ public class Searcher {
   private int skipHits = 0;
   private int maxHits = 1000;
   private int maxSearchTimeMillis = 5000;
-  private IndexSearcher indexSearcher;
-  private DirectoryReader reader;
+  private int threads = Runtime.getRuntime().availableProcessors();
   private boolean limitSearch = true;
+  // the deadlines of the searches that are currently running, so several threads can search at the same time:
+  private final Set<Deadline> runningDeadlines = ConcurrentHashMap.newKeySet();
+  // creating a JLanguageTool is expensive, so each thread's instance is kept for later searches:
+  private final Map<Language, BlockingQueue<JLanguageTool>> languageTools = new ConcurrentHashMap<>();
 
   public Searcher(Directory directory) {
     this(directory, FIELD_NAME_LOWERCASE);
@@ -79,18 +89,6 @@ public class Searcher {
     this.fieldName = fieldName;
   }
 
-  private void open() throws IOException {
-    reader = DirectoryReader.open(directory);
-    indexSearcher = new IndexSearcher(reader);
-    //System.out.println("Opened index " + directory + " with " + indexSearcher.getIndexReader().numDocs() + " docs");
-  }
-
-  private void close() throws IOException {
-    if (reader != null) {
-      reader.close();
-    }
-  }
-
   public int getDocCount() throws IOException {
     try (DirectoryReader reader = DirectoryReader.open(directory)) {
       IndexSearcher indexSearcher = new IndexSearcher(reader);
@@ -133,6 +131,34 @@ public class Searcher {
     this.maxSearchTimeMillis = maxSearchTimeMillis;
   }
 
+  /**
+   * @since 5.3
+   */
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * Number of threads used to search the index segments and to check the candidate
+   * sentences with LanguageTool. Defaults to the number of processors.
+   * @since 5.3
+   */
+  public void setThreads(int threads) {
+    this.threads = threads;
+  }
+
+  /**
+   * Stop the searches that are currently running, if any. They will return the
+   * matches found so far or throw a {@link SearchTimeoutException}, just like
+   * when the maximum search time has been reached.
+   * @since 5.3
+   */
+  public void cancel() {
+    for (Deadline deadline : runningDeadlines) {
+      deadline.cancel();
+    }
+  }
+
   public SearcherResult findRuleMatchesOnIndex(PatternRule rule, Language language) throws IOException, UnsupportedPatternRuleException {
     return findRuleMatchesOnIndex(rule, language, FIELD_NAME_LOWERCASE);
   }
@@ -141,10 +167,29 @@ public class Searcher {
    * @since 4.8
    */
   public SearcherResult findRuleMatchesOnIndex(PatternRule rule, Language language, String fieldName) throws IOException, UnsupportedPatternRuleException {
+    return findRuleMatchesOnIndex(rule, language, fieldName, null);
+  }
+
+  /**
+   * Like {@link #findRuleMatchesOnIndex(PatternRule, Language, String)}, but also passes each matching
+   * sentence to {@code matchConsumer} as soon as it has been found, in no particular order. The consumer
+   * is never called concurrently. If the search time is exceeded while checking the candidate sentences,
+   * the result contains the matches found so far and {@link SearcherResult#isResultIsTimeLimited()} is true.
+   * @since 5.3
+   */
+  public SearcherResult findRuleMatchesOnIndex(PatternRule rule, Language language, String fieldName,
+                                               @Nullable Consumer<MatchingSentence> matchConsumer) throws IOException, UnsupportedPatternRuleException {
+    // the same time limit covers the query (including the expansion of regular expressions,
+    // via ExitableDirectoryReader) and checking the candidate sentences with LanguageTool:
+    Deadline deadline = new Deadline(limitSearch ? maxSearchTimeMillis : -1);
+    runningDeadlines.add(deadline);
+    ExecutorService executor = Executors.newFixedThreadPool(threads, new SearcherThreadFactory());
     // it seems wasteful to re-open the index every time, but I had strange problems (OOM, Array out of bounds, ...)
     // when not doing so...
-    open();
-    try {
+    DirectoryReader plainReader = DirectoryReader.open(directory);
+    // closing this also closes plainReader:
+    try (DirectoryReader reader = ExitableDirectoryReader.wrap(plainReader, deadline)) {
+      IndexSearcher indexSearcher = new IndexSearcher(reader, executor);
       PatternRuleQueryBuilder patternRuleQueryBuilder = new PatternRuleQueryBuilder(language, indexSearcher, fieldName);
       Query query = patternRuleQueryBuilder.buildRelaxedQuery(rule);
       if (query == null) {
@@ -152,89 +197,49 @@ public class Searcher {
       }
 
       System.out.println("Running query: " + query);
-      SearchRunnable runnable = new SearchRunnable(indexSearcher, query, language, rule);
-      Thread searchThread = new Thread(runnable);
-      searchThread.start();
-      try {
-        // using a TimeLimitingCollector is not enough, as it doesn't cover all time required to
-        // search for a complicated regex, so interrupt the whole thread instead:
-        if (limitSearch) { // I don't know a simpler way to achieve this...
-          searchThread.join(maxSearchTimeMillis);
-        } else {
-          searchThread.join(Integer.MAX_VALUE);
-        }
-        //searchThread.interrupt();
-      } catch (InterruptedException e) {
-        throw new RuntimeException("Search thread got interrupted for query " + query, e);
-      }
-      if (searchThread.isInterrupted()) {
-        throw new SearchTimeoutException("Search timeout of " + maxSearchTimeMillis + "ms reached for query " + query);
-      }
-      Exception exception = runnable.getException();
-      if (exception != null) {
-        if (exception instanceof SearchTimeoutException) {
-          throw (SearchTimeoutException)exception;
-        }
-        throw new RuntimeException("Exception during search for query " + query + " on rule " + rule.getId(), exception);
-      }
-
-      List<MatchingSentence> matchingSentences = runnable.getMatchingSentences();
-      SearcherResult searcherResult = new SearcherResult(matchingSentences, runnable.docsChecked, query);
-      searcherResult.setMaxDocChecked(runnable.getMaxDocChecked());
-      searcherResult.setHasTooManyLuceneMatches(runnable.hasTooManyLuceneMatches());
-      searcherResult.setLuceneMatchCount(runnable.getLuceneMatchCount());
+      long t1 = System.currentTimeMillis();
+      TopDocs topDocs = getTopDocs(indexSearcher, query, deadline);
+      long luceneTime = System.currentTimeMillis() - t1;
+      long t2 = System.currentTimeMillis();
+      MatchingSentencesResult res = findMatchingSentences(indexSearcher, topDocs, language, rule, executor, deadline, matchConsumer);
+      System.out.println("Check done in " + luceneTime + "/" + (System.currentTimeMillis() - t2)
+          + "ms (Lucene/LT creation and matching) for " + topDocs.scoreDocs.length + " docs");
+
+      SearcherResult searcherResult = new SearcherResult(res.matchingSentences, res.docsChecked, query);
+      searcherResult.setMaxDocChecked(res.maxDocChecked);
+      // more potential matches than we can check in an acceptable time :-(
+      boolean tooManyLuceneMatches = topDocs.scoreDocs.length >= maxHits;
+      searcherResult.setHasTooManyLuceneMatches(tooManyLuceneMatches);
+      searcherResult.setLuceneMatchCount(topDocs.totalHits);
       searcherResult.setSkipHits(skipHits);
-      searcherResult.setNumDocs(runnable.numDocs);
-      if (runnable.hasTooManyLuceneMatches()) {
-        // more potential matches than we can check in an acceptable time :-(
+      searcherResult.setNumDocs(plainReader.numDocs());
+      searcherResult.setResultIsTimeLimited(res.timeLimited);
+      if (tooManyLuceneMatches) {
         searcherResult.setDocCount(maxHits);
       } else {
-        searcherResult.setDocCount(getDocCount(indexSearcher));
+        // not via 'reader', which throws an exception once the deadline has been reached:
+        searcherResult.setDocCount(getDocCount(new IndexSearcher(plainReader)));
       }
-      //TODO: the search itself could also timeout, don't just ignore that:
-      //searcherResult.setResultIsTimeLimited(limitedTopDocs.resultIsTimeLimited);
       return searcherResult;
     } finally {
-      close();
+      deadline.cancel();  // makes remaining tasks stop early
+      executor.shutdownNow();
+      runningDeadlines.remove(deadline);
     }
   }
 
-  private PossiblyLimitedTopDocs getTopDocs(Query query) throws IOException {
-    TopScoreDocCollector topCollector = TopScoreDocCollector.create(maxHits);
-    Counter clock = Counter.newCounter(true);
-    int waitMillis = 1000;
-    // TODO: if we interrupt the whole thread anyway, do we still need the TimeLimitingCollector?
-    TimeLimitingCollector collector = new TimeLimitingCollector(topCollector, clock, maxSearchTimeMillis / waitMillis);
-    collector.setBaseline(0);
-    Thread counterThread = new Thread() {
-      @Override
-      public void run() {
-        long startTime = System.currentTimeMillis();
-        while (true) {
-          long runTimeMillis = System.currentTimeMillis() - startTime;
-          if (runTimeMillis > maxSearchTimeMillis) {
-            // make sure there's no lingering thread for too long
-            return;
-          }
-          clock.addAndGet(1);
-          try {
-            Thread.sleep(waitMillis);
-          } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-          }
+  private TopDocs getTopDocs(IndexSearcher indexSearcher, Query query, Deadline deadline) throws IOException {
+    try {
+      return indexSearcher.search(query, new DeadlineCollectorManager(maxHits, deadline));
+    } catch (RuntimeException e) {
+      // thrown directly or wrapped by IndexSearcher if the search ran in another thread:
+      for (Throwable t = e; t != null; t = t.getCause()) {
+        if (t instanceof SearchTimeoutException || t instanceof ExitableDirectoryReader.ExitingReaderException) {
+          throw new SearchTimeoutException("Search timeout of " + maxSearchTimeMillis + "ms reached for query " + query);
         }
       }
-    };
-    counterThread.setName("LuceneSearchTimeoutThread");
-    counterThread.start();
-
-    boolean timeLimitActivated = false;
-    try {
-      indexSearcher.search(query, collector);
-    } catch (TimeLimitingCollector.TimeExceededException e) {
-      timeLimitActivated = true;
+      throw new RuntimeException("Exception during search for query " + query, e);
     }
-    return new PossiblyLimitedTopDocs(topCollector.topDocs(), timeLimitActivated);
   }
 
   List<PatternRule> getRuleById(String ruleId, Language language) throws IOException {
@@ -252,146 +257,202 @@ public class Searcher {
     }
   }
 
-  private MatchingSentencesResult findMatchingSentences(IndexSearcher indexSearcher, TopDocs topDocs, JLanguageTool languageTool) throws IOException {
-    List<MatchingSentence> matchingSentences = new ArrayList<>();
-    int i = 0;
-    int docsChecked = 0;
-    for (ScoreDoc match : topDocs.scoreDocs) {
-      i++;
-      if (i < skipHits) {
-        // needed for paging
-        continue;
-      }
-      Document doc = indexSearcher.doc(match.doc);
-      String sentence = doc.get(fieldName);
-      if (sentence == null) {
-        throw new RuntimeException("No field '" + fieldName + "' found in doc " + match.doc);
+  private MatchingSentencesResult findMatchingSentences(IndexSearcher indexSearcher, TopDocs topDocs, Language language, PatternRule rule,
+                                                        ExecutorService executor, Deadline deadline,
+                                                        @Nullable Consumer<MatchingSentence> matchConsumer) throws IOException {
+    ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+    int firstDoc = Math.max(0, skipHits - 1);  // needed for paging
+    MatchingSentence[] matches = new MatchingSentence[scoreDocs.length];
+    boolean[] checked = new boolean[scoreDocs.length];
+    AtomicInteger nextDoc = new AtomicInteger(firstDoc);
+    AtomicInteger docsChecked = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>();
+    int workers = Math.min(threads, Math.max(0, scoreDocs.length - firstDoc));
+    for (int w = 0; w < workers; w++) {
+      futures.add(executor.submit(() -> {
+        JLanguageTool languageTool = takeLanguageTool(language);
+        try {
+          int i;
+          while (!deadline.shouldExit() && (i = nextDoc.getAndIncrement()) < scoreDocs.length) {
+            Document doc = indexSearcher.doc(scoreDocs[i].doc);
+            String sentence = doc.get(fieldName);
+            if (sentence == null) {
+              throw new RuntimeException("No field '" + fieldName + "' found in doc " + scoreDocs[i].doc);
+            }
+            // the index contains single sentences, so there's no need to split the text:
+            AnalyzedSentence analyzedSentence = languageTool.getAnalyzedSentence(sentence);
+            List<RuleMatch> ruleMatches = languageTool.checkAnalyzedSentence(JLanguageTool.ParagraphHandling.NORMAL,
+              Collections.singletonList(rule), analyzedSentence, false);
+            if (ruleMatches.size() > 0) {
+              String source = doc.get(SOURCE_FIELD_NAME);
+              String title = doc.get(Indexer.TITLE_FIELD_NAME);
+              matches[i] = new MatchingSentence(sentence, source, title, analyzedSentence, ruleMatches);
+              if (matchConsumer != null) {
+                synchronized (matchConsumer) {
+                  matchConsumer.accept(matches[i]);
+                }
+              }
+            }
+            checked[i] = true;
+            docsChecked.incrementAndGet();
+          }
+        } finally {
+          languageTools.get(language).add(languageTool);
+        }
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Search got interrupted for rule " + rule.getId(), e);
+      } catch (ExecutionException e) {
+        deadline.cancel();
+        throw new RuntimeException("Exception during search on rule " + rule.getId(), e.getCause());
       }
-      List<RuleMatch> ruleMatches = languageTool.check(sentence);
-      docsChecked++;
-      if (ruleMatches.size() > 0) {
-        String source = doc.get(SOURCE_FIELD_NAME);
-        String title = doc.get(Indexer.TITLE_FIELD_NAME);
-        AnalyzedSentence analyzedSentence = languageTool.getAnalyzedSentence(sentence);
-        MatchingSentence matchingSentence = new MatchingSentence(sentence, source, title, analyzedSentence, ruleMatches);
-        matchingSentences.add(matchingSentence);
+    }
+    // all futures are done, so their writes to the arrays are visible here
+    List<MatchingSentence> matchingSentences = new ArrayList<>();
+    int maxDocChecked = Math.min(firstDoc, checked.length);
+    while (maxDocChecked < checked.length && checked[maxDocChecked]) {
+      maxDocChecked++;
+    }
+    for (MatchingSentence match : matches) {
+      if (match != null) {
+        matchingSentences.add(match);
       }
     }
-    return new MatchingSentencesResult(matchingSentences, i, docsChecked);
+    return new MatchingSentencesResult(matchingSentences, maxDocChecked, docsChecked.get(), maxDocChecked < checked.length);
   }
   
   class MatchingSentencesResult {
     List<MatchingSentence> matchingSentences;
     int maxDocChecked;
     int docsChecked;
-    MatchingSentencesResult(List<MatchingSentence> matchingSentences, int maxDocChecked, int docsChecked) {
+    boolean timeLimited;
+    MatchingSentencesResult(List<MatchingSentence> matchingSentences, int maxDocChecked, int docsChecked, boolean timeLimited) {
       this.matchingSentences = matchingSentences;
       this.maxDocChecked = maxDocChecked;
       this.docsChecked = docsChecked;
+      this.timeLimited = timeLimited;
     }
   }
 
-  private JLanguageTool getLanguageToolWithOneRule(Language lang, PatternRule patternRule) {
-    JLanguageTool langTool = new JLanguageTool(lang);
-    for (Rule rule : langTool.getAllActiveRules()) {
-      if (!rule.getId().equals(patternRule.getId())) {
-        langTool.disableRule(rule.getId());
-      }
+  /**
+   * Get a JLanguageTool for analyzing sentences, which are then checked with the searched rule only,
+   * to be returned to {@link #languageTools} after use. Its own rules are never used.
+   */
+  private JLanguageTool takeLanguageTool(Language lang) {
+    JLanguageTool langTool = languageTools.computeIfAbsent(lang, k -> new LinkedBlockingQueue<>()).poll();
+    if (langTool == null) {
+      langTool = new JLanguageTool(lang);
     }
-    langTool.addRule(patternRule);
-    langTool.enableRule(patternRule.getId()); // rule might be off by default
     return langTool;
   }
 
-  static class PossiblyLimitedTopDocs {
-    TopDocs topDocs;
-    boolean resultIsTimeLimited;
+  /**
+   * The time limit of one search, checked by Lucene while enumerating terms and by the
+   * collectors and threads of the search, so they all stop soon after it has been reached.
+   */
+  static class Deadline implements QueryTimeout {
 
-    PossiblyLimitedTopDocs(TopDocs topDocs, boolean resultIsTimeLimited) {
-      this.topDocs = topDocs;
-      this.resultIsTimeLimited = resultIsTimeLimited;
+    private final long endNanos;
+    private volatile boolean cancelled;
+
+    /**
+     * @param maxMillis time limit, or a negative value for no limit
+     */
+    Deadline(long maxMillis) {
+      endNanos = maxMillis >= 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxMillis) : Long.MAX_VALUE;
     }
-  }
 
-  private static void ensureCorrectUsageOrExit(String[] args) {
-    if (args.length < 3 || (args.length == 4 && !"--no_limit".equals(args[3]))) {
-      System.err.println("Usage: Searcher <ruleId> <languageCode> <indexDir> [--no_limit]");
-      System.err.println("\truleId       Id of the rule to search for (or comma-separated list of ids)");
-      System.err.println("\tlanguageCode short language code, e.g. 'en' for English");
-      System.err.println("\tindexDir     path to a directory containing the index");
-      System.err.println("\t--no_limit   do not limit search time");
-      System.exit(1);
+    void cancel() {
+      cancelled = true;
+    }
+
+    @Override
+    public boolean shouldExit() {
+      return cancelled || (endNanos != Long.MAX_VALUE && System.nanoTime() - endNanos > 0);
     }
   }
 
-  class SearchRunnable implements Runnable {
-
-    private final IndexSearcher indexSearcher;
-    private final Query query;
-    private final Language language;
-    private final PatternRule rule;
-
-    private List<MatchingSentence> matchingSentences;
-    private Exception exception;
-    private boolean tooManyLuceneMatches;
-    private int luceneMatchCount;
-    private int maxDocChecked;
-    private int docsChecked;
-    private int numDocs;
-
-    SearchRunnable(IndexSearcher indexSearcher, Query query, Language language, PatternRule rule) {
-      this.indexSearcher = indexSearcher;
-      this.query = query;
-      this.language = language;
-      this.rule = rule;
+  /**
+   * Collects the top documents of each index slice, stopping when the deadline is reached.
+   */
+  private static class DeadlineCollectorManager implements CollectorManager<DeadlineCollector, TopDocs> {
+
+    private final int maxHits;
+    private final Deadline deadline;
+
+    DeadlineCollectorManager(int maxHits, Deadline deadline) {
+      this.maxHits = maxHits;
+      this.deadline = deadline;
     }
 
     @Override
-    public void run() {
-      try {
-        long t1 = System.currentTimeMillis();
-        JLanguageTool languageTool = getLanguageToolWithOneRule(language, rule);
-        long langToolCreationTime = System.currentTimeMillis() - t1;
-        long t2 = System.currentTimeMillis();
-        PossiblyLimitedTopDocs limitedTopDocs = getTopDocs(query);
-        long luceneTime = System.currentTimeMillis() - t2;
-        long t3 = System.currentTimeMillis();
-        luceneMatchCount = limitedTopDocs.topDocs.totalHits;
-        tooManyLuceneMatches = limitedTopDocs.topDocs.scoreDocs.length >= maxHits;
-        MatchingSentencesResult res = findMatchingSentences(indexSearcher, limitedTopDocs.topDocs, languageTool);
-        matchingSentences = res.matchingSentences;
-        maxDocChecked = res.maxDocChecked;
-        docsChecked = res.docsChecked;
-        numDocs = indexSearcher.getIndexReader().numDocs();
-        System.out.println("Check done in " + langToolCreationTime + "/" + luceneTime + "/" + (System.currentTimeMillis() - t3)
-            + "ms (LT creation/Lucene/matching) for " + limitedTopDocs.topDocs.scoreDocs.length + " docs");
-      } catch (Exception e) {
-        exception = e;
-      }
+    public DeadlineCollector newCollector() {
+      return new DeadlineCollector(TopScoreDocCollector.create(maxHits), deadline);
     }
 
-    Exception getException() {
-      return exception;
+    @Override
+    public TopDocs reduce(Collection<DeadlineCollector> collectors) throws IOException {
+      TopDocs[] topDocs = new TopDocs[collectors.size()];
+      int i = 0;
+      for (DeadlineCollector collector : collectors) {
+        topDocs[i++] = collector.topCollector.topDocs();
+      }
+      return TopDocs.merge(maxHits, topDocs);
     }
+  }
 
-    /**
-     * There were more Lucene matches than we can actually check with LanguageTool in
-     * an acceptable time, so real matches might be lost.
-     */
-    boolean hasTooManyLuceneMatches() {
-      return tooManyLuceneMatches;
+  private static class DeadlineCollector extends FilterCollector {
+
+    private static final int CHECK_INTERVAL = 256;
+
+    private final TopScoreDocCollector topCollector;
+    private final Deadline deadline;
+    private int count;
+
+    DeadlineCollector(TopScoreDocCollector topCollector, Deadline deadline) {
+      super(topCollector);
+      this.topCollector = topCollector;
+      this.deadline = deadline;
     }
 
-    int getLuceneMatchCount() {
-      return luceneMatchCount;
+    @Override
+    public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+      return new FilterLeafCollector(super.getLeafCollector(context)) {
+        @Override
+        public void collect(int doc) throws IOException {
+          if (++count % CHECK_INTERVAL == 0 && deadline.shouldExit()) {
+            throw new SearchTimeoutException("Search time exceeded");
+          }
+          super.collect(doc);
+        }
+      };
     }
+  }
 
-    List<MatchingSentence> getMatchingSentences() {
-      return matchingSentences;
+  private static class SearcherThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, "searcher-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
     }
+  }
 
-    int getMaxDocChecked() {
-      return maxDocChecked;
+  private static void ensureCorrectUsageOrExit(String[] args) {
+    if (args.length < 3 || (args.length == 4 && !"--no_limit".equals(args[3]))) {
+      System.err.println("Usage: Searcher <ruleId> <languageCode> <indexDir> [--no_limit]");
+      System.err.println("\truleId       Id of the rule to search for (or comma-separated list of ids)");
+      System.err.println("\tlanguageCode short language code, e.g. 'en' for English");
+      System.err.println("\tindexDir     path to a directory containing the index");
+      System.err.println("\t--no_limit   do not limit search time");
+      System.exit(1);
     }
   }
 
@@ -403,6 +464,32 @@ public class Searcher {
     return contextTools;
   }
 
+  private static void printMatch(MatchingSentence ruleMatch, int i, ContextTools contextTools) {
+    for (RuleMatch match : ruleMatch.getRuleMatches()) {
+      String context = contextTools.getContext(match.getFromPos(), match.getToPos(), ruleMatch.getSentence());
+      if (WIKITEXT_OUTPUT) {
+        ContextTools contextTools2 = getContextTools(0);
+        String coveredText = contextTools2.getContext(match.getFromPos(), match.getToPos(), ruleMatch.getSentence());
+        coveredText = coveredText.replaceFirst("^\\.\\.\\.", "").replaceFirst("\\.\\.\\.$", "");
+        coveredText = coveredText.replaceFirst("^\\*\\*", "").replaceFirst("\\*\\*$", "");
+        try {
+          String encodedTextWithQuotes = URLEncoder.encode("\"" + coveredText + "\"", "UTF-8");
+          String searchLink = "https://de.wikipedia.org/w/index.php?search=" + encodedTextWithQuotes + "&title=Spezial%3ASuche&go=Artikel";
+          context = context.replaceAll("\\*\\*.*?\\*\\*", "[" + searchLink + " " + coveredText + "]");
+          String encTitle = URLEncoder.encode(ruleMatch.getTitle(), "UTF-8");
+          String encodedText = URLEncoder.encode(coveredText, "UTF-8");
+          System.out.println("# [[" + ruleMatch.getTitle() + "]]: " + context +
+            " ([http://wikipedia.ramselehof.de/wikiblame.php?user_lang=de&lang=de&project=wikipedia&article=" + encTitle +
+                  "&needle=" + encodedText + "&skipversions=0&ignorefirst=0&limit=500&searchmethod=int&order=desc&start=Start WikiBlame])");
+        } catch (UnsupportedEncodingException e) {
+          throw new RuntimeException(e);
+        }
+      } else {
+        System.out.println(i + ": " + context + " [" + ruleMatch.getSource() + "]");
+      }
+    }
+  }
+
   public static void main(String[] args) throws Exception {
     ensureCorrectUsageOrExit(args);
     long startTime = System.currentTimeMillis();
@@ -422,33 +509,18 @@ public class Searcher {
       long ruleStartTime = System.currentTimeMillis();
       for (PatternRule rule : searcher.getRuleById(ruleId, language)) {
         System.out.println("===== " + rule.getFullId() + " =========================================================");
-        SearcherResult searcherResult = searcher.findRuleMatchesOnIndex(rule, language);
-        int i = 1;
+        AtomicInteger matchCount = new AtomicInteger();
+        // print the matches as soon as they are found:
+        SearcherResult searcherResult = searcher.findRuleMatchesOnIndex(rule, language, FIELD_NAME_LOWERCASE,
+          ruleMatch -> printMatch(ruleMatch, matchCount.incrementAndGet(), contextTools));
         if (searcherResult.getMatchingSentences().isEmpty()) {
           System.out.println("[no matches]");
         }
+        if (searcherResult.isResultIsTimeLimited()) {
+          System.out.println("[search time limit reached, not all candidate sentences have been checked]");
+        }
         for (MatchingSentence ruleMatch : searcherResult.getMatchingSentences()) {
-          for (RuleMatch match : ruleMatch.getRuleMatches()) {
-            String context = contextTools.getContext(match.getFromPos(), match.getToPos(), ruleMatch.getSentence());
-            if (WIKITEXT_OUTPUT) {
-              ContextTools contextTools2 = getContextTools(0);
-              String coveredText = contextTools2.getContext(match.getFromPos(), match.getToPos(), ruleMatch.getSentence());
-              coveredText = coveredText.replaceFirst("^\\.\\.\\.", "").replaceFirst("\\.\\.\\.$", "");
-              coveredText = coveredText.replaceFirst("^\\*\\*", "").replaceFirst("\\*\\*$", "");
-              String encodedTextWithQuotes = URLEncoder.encode("\"" + coveredText + "\"", "UTF-8");
-              String searchLink = "https://de.wikipedia.org/w/index.php?search=" + encodedTextWithQuotes + "&title=Spezial%3ASuche&go=Artikel";
-              context = context.replaceAll("\\*\\*.*?\\*\\*", "[" + searchLink + " " + coveredText + "]");
-              String encTitle = URLEncoder.encode(ruleMatch.getTitle(), "UTF-8");
-              String encodedText = URLEncoder.encode(coveredText, "UTF-8");
-              System.out.println("# [[" + ruleMatch.getTitle() + "]]: " + context +
-                " ([http://wikipedia.ramselehof.de/wikiblame.php?user_lang=de&lang=de&project=wikipedia&article=" + encTitle +
-                      "&needle=" + encodedText + "&skipversions=0&ignorefirst=0&limit=500&searchmethod=int&order=desc&start=Start WikiBlame])");
-            } else {
-              System.out.println(i + ": " + context + " [" + ruleMatch.getSource() + "]");
-            }
-          }
           totalMatches += ruleMatch.getRuleMatches().size();
-          i++;
         }
         System.out.println("Time: " + (System.currentTimeMillis() - ruleStartTime) + "ms");
       }
@@ -0,0 +1,114 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.dumpcheck;
+
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.rules.RuleMatch;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ParallelSentenceCheckerTest {
+
+  @Test
+  public void testResultsInInputOrder() throws Exception {
+    Language lang = Languages.getLanguageForShortCode("fr");
+    List<String> handled = new ArrayList<>();
+    ResultHandler handler = new ResultHandler(0, 0) {
+      @Override
+      protected void handleResult(Sentence sentence, List<RuleMatch> ruleMatches, Language language) {
+        handled.add(sentence.getText());
+      }
+      @Override
+      public void close() {}
+    };
+    File checkpointFile = File.createTempFile("sentence-checker", ".checkpoint");
+    checkpointFile.deleteOnExit();
+    List<String> expected = new ArrayList<>();
+    try (ParallelSentenceChecker checker = new ParallelSentenceChecker(
+           Arrays.asList(new JLanguageTool(lang), new JLanguageTool(lang), new JLanguageTool(lang)), handler, lang, checkpointFile, 10)) {
+      for (int i = 0; i < 1234; i++) {
+        String text = "C'est la phrase " + i + ".";
+        expected.add(text);
+        checker.add(new Sentence(text, "source", "title", "url", i));
+      }
+      checker.finish();
+      assertEquals(1234, checker.getSentenceCount());
+    } finally {
+      assertEquals(1244, ParallelSentenceChecker.readCheckpoint(checkpointFile));
+      checkpointFile.delete();
+    }
+    assertEquals(expected, handled);
+  }
+
+  @Test
+  public void testCheckFailure() throws Exception {
+    Language lang = Languages.getLanguageForShortCode("fr");
+    List<String> handled = new ArrayList<>();
+    ResultHandler handler = new ResultHandler(0, 0) {
+      @Override
+      protected void handleResult(Sentence sentence, List<RuleMatch> ruleMatches, Language language) {
+        handled.add(sentence.getText());
+      }
+      @Override
+      public void close() {}
+    };
+    List<JLanguageTool> languageTools = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      languageTools.add(new JLanguageTool(lang) {
+        @Override
+        public List<RuleMatch> check(String text) throws IOException {
+          if (text.equals("C'est la phrase 250.")) {
+            throw new IOException("test failure");
+          }
+          return super.check(text);
+        }
+      });
+    }
+    File checkpointFile = File.createTempFile("sentence-checker", ".checkpoint");
+    checkpointFile.deleteOnExit();
+    try {
+      try (ParallelSentenceChecker checker = new ParallelSentenceChecker(languageTools, handler, lang, checkpointFile, 10)) {
+        for (int i = 0; i < 1234; i++) {
+          checker.add(new Sentence("C'est la phrase " + i + ".", "source", "title", "url", i));
+        }
+        checker.finish();
+        fail();
+      } catch (RuntimeException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("C'est la phrase 250."));
+        assertEquals("test failure", e.getCause().getMessage());
+      }
+      // the batch with the failing sentence starts at sentence 200:
+      assertEquals(200, handled.size());
+      assertEquals("C'est la phrase 199.", handled.get(199));
+      assertEquals(210, ParallelSentenceChecker.readCheckpoint(checkpointFile));
+    } finally {
+      checkpointFile.delete();
+    }
+  }
+
+}
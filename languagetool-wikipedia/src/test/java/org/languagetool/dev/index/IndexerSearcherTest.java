@@ -38,6 +38,7 @@ import org.apache.lucene.util.LuceneTestCase;
 import org.junit.Ignore;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
+import org.languagetool.Languages;
 import org.languagetool.language.English;
 import org.languagetool.language.German;
 import org.languagetool.language.GermanyGerman;
@@ -254,6 +255,59 @@ public class IndexerSearcherTest extends LuceneTestCase {
     assertEquals("RULE1", rule.getId());
   }
 
+  public void testParallelSearchWithMatchConsumer() throws Exception {
+    Language french = Languages.getLanguageForShortCode("fr");
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      content.append(i % 2 == 0 ? "Il mange une pomme numéro " : "Il lit un livre numéro ").append(i).append(".\n\n");
+    }
+    directory = new RAMDirectory();
+    Indexer.run(content.toString(), directory, french);
+    List<PatternToken> patternTokens = Arrays.asList(
+        new PatternToken("une", false, false, false),
+        new PatternToken("pomme|poire", false, true, false)
+        );
+    PatternRule rule = new PatternRule("RULE1", french, patternTokens, "desc", "msg", "shortMsg");
+    Searcher searcher = new Searcher(directory);
+    searcher.setThreads(3);
+    List<MatchingSentence> streamed = new ArrayList<>();
+    SearcherResult searcherResult = searcher.findRuleMatchesOnIndex(rule, french, FIELD_NAME_LOWERCASE, streamed::add);
+    assertEquals(50, searcherResult.getCheckedSentences());
+    assertEquals(50, searcherResult.getMaxDocChecked());
+    assertEquals(50, searcherResult.getMatchingSentences().size());
+    assertFalse(searcherResult.isResultIsTimeLimited());
+    assertEquals(50, streamed.size());
+    assertTrue(streamed.containsAll(searcherResult.getMatchingSentences()));
+  }
+
+  public void testSearchStoppedDuringVerification() throws Exception {
+    Language french = Languages.getLanguageForShortCode("fr");
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      content.append("Il mange une pomme numéro ").append(i).append(".\n\n");
+    }
+    directory = new RAMDirectory();
+    Indexer.run(content.toString(), directory, french);
+    List<PatternToken> patternTokens = Arrays.asList(
+        new PatternToken("une", false, false, false),
+        new PatternToken("pomme", false, false, false)
+        );
+    PatternRule rule = new PatternRule("RULE1", french, patternTokens, "desc", "msg", "shortMsg");
+    Searcher searcher = new Searcher(directory);
+    searcher.setThreads(1);
+    // stopping the search has the same effect as reaching the deadline:
+    SearcherResult result = searcher.findRuleMatchesOnIndex(rule, french, FIELD_NAME_LOWERCASE, match -> searcher.cancel());
+    assertTrue(result.isResultIsTimeLimited());
+    assertEquals(1, result.getMatchingSentences().size());
+    assertEquals(1, result.getCheckedSentences());
+    assertEquals(1, result.getMaxDocChecked());
+    assertEquals(100, result.getLuceneMatchCount());
+    // the JLanguageTool instance is re-used:
+    SearcherResult fullResult = searcher.findRuleMatchesOnIndex(rule, french);
+    assertFalse(fullResult.isResultIsTimeLimited());
+    assertEquals(100, fullResult.getMatchingSentences().size());
+  }
+
   public void testApostropheElement() throws Exception {
     createIndex("Daily Bleed's Anarchist Encyclopedia");
     List<PatternToken> elements1 = Arrays.asList(
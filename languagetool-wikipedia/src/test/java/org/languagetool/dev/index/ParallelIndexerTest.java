@@ -0,0 +1,107 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.index;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.languagetool.dev.index.Lucene.FIELD_NAME_LOWERCASE;
+
+public class ParallelIndexerTest extends LuceneTestCase {
+
+  public void testIndexText() throws Exception {
+    Language lang = Languages.getLanguageForShortCode("fr");
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 450; i++) {
+      text.append("C'est la phrase numéro ").append(i).append(".\n\n");
+    }
+    Path tmpDir = createTempDir().resolve("parts");
+    try (Directory directory = new RAMDirectory()) {
+      try (ParallelIndexer indexer = new ParallelIndexer(directory, lang, tmpDir, 3, 16, 10)) {
+        indexer.indexText(new BufferedReader(new StringReader(text.toString())));
+        Document doc = new Document();
+        doc.add(new StringField("meta", "1", Field.Store.YES));
+        indexer.add(doc);
+      }
+      assertFalse(Files.exists(tmpDir));
+      try (DirectoryReader reader = DirectoryReader.open(directory)) {
+        assertEquals(451, reader.numDocs());
+        IndexSearcher searcher = new IndexSearcher(reader);
+        assertEquals(1, searcher.count(new TermQuery(new Term(FIELD_NAME_LOWERCASE, "123"))));
+        assertEquals(450, searcher.count(new TermQuery(new Term(FIELD_NAME_LOWERCASE, "phrase"))));
+        assertEquals(1, searcher.count(new TermQuery(new Term("meta", "1"))));
+      }
+    }
+  }
+
+  public void testCommit() throws Exception {
+    Language lang = Languages.getLanguageForShortCode("fr");
+    Path tmpDir = createTempDir().resolve("parts");
+    try (Directory directory = new RAMDirectory()) {
+      try (ParallelIndexer indexer = new ParallelIndexer(directory, lang, tmpDir, 2, 16, 10)) {
+        indexer.indexText(new BufferedReader(new StringReader(sentences("première", 100))));
+        indexer.commit();
+        assertDocCount(directory, 100, "première");
+        indexer.indexText(new BufferedReader(new StringReader(sentences("deuxième", 50))));
+        indexer.commit();
+        assertDocCount(directory, 150, "deuxième");
+        indexer.indexText(new BufferedReader(new StringReader(sentences("troisième", 10))));
+      }
+      assertFalse(Files.exists(tmpDir));
+      try (DirectoryReader reader = DirectoryReader.open(directory)) {
+        assertEquals(160, reader.numDocs());
+        IndexSearcher searcher = new IndexSearcher(reader);
+        assertEquals(100, searcher.count(new TermQuery(new Term(FIELD_NAME_LOWERCASE, "première"))));
+        assertEquals(50, searcher.count(new TermQuery(new Term(FIELD_NAME_LOWERCASE, "deuxième"))));
+        assertEquals(10, searcher.count(new TermQuery(new Term(FIELD_NAME_LOWERCASE, "troisième"))));
+      }
+    }
+  }
+
+  private String sentences(String word, int count) {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      text.append("C'est la ").append(word).append(" phrase numéro ").append(i).append(".\n\n");
+    }
+    return text.toString();
+  }
+
+  private void assertDocCount(Directory directory, int expectedDocs, String word) throws Exception {
+    try (DirectoryReader reader = DirectoryReader.open(directory)) {
+      assertEquals(expectedDocs, reader.numDocs());
+      assertTrue(new IndexSearcher(reader).count(new TermQuery(new Term(FIELD_NAME_LOWERCASE, word))) > 0);
+    }
+  }
+
+}